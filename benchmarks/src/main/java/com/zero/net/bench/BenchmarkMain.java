@@ -0,0 +1,38 @@
+package com.zero.net.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * benchmarks.jar 的入口，参数与 {@link org.openjdk.jmh.Main} 相同，区别是默认开启GC分析(-prof gc)，
+ * 所有基准测试都会输出每次操作的内存分配(gc.alloc.rate.norm)。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 19:30 </p>
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp()) {
+            cmd.showHelp();
+            return;
+        }
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(cmd);
+        // 命令行中已经指定了-prof gc时不再重复添加
+        boolean gc = cmd.getProfilers().stream()
+                .anyMatch(profiler -> profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName()));
+        if (!gc) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        Runner runner = new Runner(builder.build());
+        if (cmd.shouldList() || cmd.shouldListWithParams()) {
+            runner.list();
+            return;
+        }
+        runner.run();
+    }
+}
@@ -0,0 +1,231 @@
+package com.zero.net.bench.bio;
+
+import com.zero.net.netty.common.Transport;
+import com.zero.net.system.bio.Server;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.*;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BIO服务端({@link Server})不同执行方式的对比: thread(每个连接一个平台线程)、virtual(虚拟线程)、pool(固定大小的平台线程池);
+ * 服务端运行在独立的子进程中，便于通过 /proc/[pid]/status 统计服务端进程的RSS与线程数，客户端为Netty实现:
+ *  - idle:   所有客户端建立连接后不发送数据，统计建立成功的连接数、RSS与线程数;
+ *  - active: 每个客户端每隔一段时间发送一条带时间戳的心跳，服务端回显，统计往返延迟的p50/p99，以及收到应答的比例;
+ * 连接数超过2w时客户端会使用多个本地回环地址(127.0.0.x)，避免耗尽临时端口，运行前需要调大文件描述符限制(ulimit -n)。
+ * <p>
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.bio.BioServerBenchmark [连接数列表] [模式列表] [秒数] [心跳间隔ms]
+ * 例如: ... BioServerBenchmark 1000,10000,50000 thread,virtual,pool 10 1000
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 19:00 </p>
+ */
+public class BioServerBenchmark {
+    private static final int PORT = 19105;
+    // 每个本地回环地址最多使用的连接数
+    private static final int CONNECTIONS_PER_ADDRESS = 20000;
+    // 延迟直方图的精度为1us，最大记录1s，超过1s的记录在最后一个桶中
+    private static final int MAX_LATENCY_MICROS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        String[] counts = (args.length > 0 ? args[0] : "1000,10000,50000").split(",");
+        String[] modes = (args.length > 1 ? args[1] : "thread,virtual,pool").split(",");
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long intervalMillis = args.length > 3 ? Long.parseLong(args[3]) : 1000;
+
+        System.out.printf("%-8s %8s %10s %12s %9s %12s %9s %10s %10s %10s%n",
+                "mode", "clients", "connected", "idle-rss(MB)", "threads",
+                "act-rss(MB)", "threads", "answered", "p50(us)", "p99(us)");
+        for (String count : counts) {
+            for (String mode : modes) {
+                run(Server.Mode.valueOf(mode.trim().toUpperCase()), Integer.parseInt(count.trim()), seconds, intervalMillis);
+            }
+        }
+    }
+
+    private static void run(Server.Mode mode, int clients, int seconds, long intervalMillis) throws Exception {
+        Process server = startServer(mode);
+        EventLoopGroup group = Transport.NIO.newEventLoopGroup(0);
+        try {
+            AtomicLongArray histogram = new AtomicLongArray(MAX_LATENCY_MICROS + 1);
+            LongAdder sent = new LongAdder();
+            LongAdder answered = new LongAdder();
+            Bootstrap bootstrap = new Bootstrap()
+                    .group(group)
+                    .channel(Transport.NIO.channelClass())
+                    .option(ChannelOption.TCP_NODELAY, true)
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10_000)
+                    .handler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel ch) {
+                            ch.pipeline()
+                                    .addLast(new LineBasedFrameDecoder(256))
+                                    .addLast(new HeartbeatClient(intervalMillis, histogram, sent, answered));
+                        }
+                    });
+
+            // 分批建立连接，避免超过服务端的backlog
+            List<Channel> channels = new ArrayList<>(clients);
+            List<ChannelFuture> batch = new ArrayList<>(1000);
+            for (int i = 0; i < clients; i++) {
+                InetSocketAddress local = new InetSocketAddress("127.0.0." + (1 + i / CONNECTIONS_PER_ADDRESS), 0);
+                batch.add(bootstrap.connect(new InetSocketAddress("127.0.0.1", PORT), local));
+                if (batch.size() == 1000 || i == clients - 1) {
+                    for (ChannelFuture future : batch) {
+                        if (future.awaitUninterruptibly().isSuccess()) {
+                            channels.add(future.channel());
+                        }
+                    }
+                    batch.clear();
+                }
+            }
+            // idle
+            TimeUnit.SECONDS.sleep(3);
+            long[] idle = status(server.pid());
+
+            // active
+            for (Channel channel : channels) {
+                channel.pipeline().get(HeartbeatClient.class).start(channel);
+            }
+            TimeUnit.SECONDS.sleep(seconds);
+            long[] active = status(server.pid());
+            for (Channel channel : channels) {
+                channel.pipeline().get(HeartbeatClient.class).stop();
+            }
+
+            long total = 0;
+            for (int i = 0; i < histogram.length(); i++) {
+                total += histogram.get(i);
+            }
+            System.out.printf("%-8s %8d %10d %12.1f %9d %12.1f %9d %9.1f%% %10d %10d%n",
+                    mode, clients, channels.size(), idle[0] / 1024.0, idle[1],
+                    active[0] / 1024.0, active[1],
+                    sent.sum() == 0 ? 0 : answered.sum() * 100.0 / sent.sum(),
+                    percentile(histogram, total, 0.50), percentile(histogram, total, 0.99));
+            for (Channel channel : channels) {
+                channel.close();
+            }
+        } finally {
+            group.shutdownGracefully().sync();
+            server.destroy();
+            server.waitFor();
+        }
+    }
+
+    /**
+     * 以子进程的方式启动服务端，并等待端口可以连接
+     */
+    private static Process startServer(Server.Mode mode) throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process process = new ProcessBuilder(java, "-Dbio.mode=" + mode.name().toLowerCase(),
+                "-cp", System.getProperty("java.class.path"), Server.class.getName(), String.valueOf(PORT))
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        for (int i = 0; i < 100; i++) {
+            try (Socket ignored = new Socket("127.0.0.1", PORT)) {
+                return process;
+            } catch (IOException e) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+        }
+        process.destroy();
+        throw new IllegalStateException("server did not start");
+    }
+
+    /**
+     * 读取进程的RSS(KB)与线程数，非Linux平台返回-1
+     */
+    private static long[] status(long pid) {
+        long[] result = {-1, -1};
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/" + pid + "/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    result[0] = Long.parseLong(line.replaceAll("\\D", ""));
+                } else if (line.startsWith("Threads:")) {
+                    result[1] = Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException ignored) {
+        }
+        return result;
+    }
+
+    private static long percentile(AtomicLongArray histogram, long total, double p) {
+        long target = (long) Math.ceil(total * p);
+        long count = 0;
+        for (int i = 0; i < histogram.length(); i++) {
+            count += histogram.get(i);
+            if (count >= target && count > 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 心跳客户端，定时发送 "ping 发送时间(ns)"，根据回显计算往返延迟
+     */
+    static class HeartbeatClient extends SimpleChannelInboundHandler<ByteBuf> {
+        private final long intervalMillis;
+        private final AtomicLongArray histogram;
+        private final LongAdder sent;
+        private final LongAdder answered;
+        private volatile ScheduledFuture<?> task;
+
+        HeartbeatClient(long intervalMillis, AtomicLongArray histogram, LongAdder sent, LongAdder answered) {
+            this.intervalMillis = intervalMillis;
+            this.histogram = histogram;
+            this.sent = sent;
+            this.answered = answered;
+        }
+
+        void start(Channel channel) {
+            // 随机的初始延迟，避免所有客户端同时发送
+            long delay = ThreadLocalRandom.current().nextLong(intervalMillis);
+            channel.eventLoop().execute(() -> task = channel.eventLoop().scheduleAtFixedRate(() -> {
+                ByteBuf ping = channel.alloc().buffer(32);
+                ping.writeCharSequence("ping " + System.nanoTime() + "\n", StandardCharsets.US_ASCII);
+                sent.increment();
+                channel.writeAndFlush(ping, channel.voidPromise());
+            }, delay, intervalMillis, TimeUnit.MILLISECONDS));
+        }
+
+        void stop() {
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg) {
+            String line = msg.toString(StandardCharsets.US_ASCII);
+            if (!line.startsWith("ping ")) {
+                return;
+            }
+            long micros = (System.nanoTime() - Long.parseLong(line.substring(5).trim())) / 1000;
+            histogram.incrementAndGet((int) Math.min(micros, MAX_LATENCY_MICROS));
+            answered.increment();
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            ctx.close();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.zero.net.bench.echo;
+
+import com.zero.net.netty.common.EchoMode;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * echo类服务(tcp.Server、packets demo1/demo2、websocket)两种回写方式的基准测试，见{@link EchoMode}:
+ * 每次操作写入一条入站消息，读取并释放回写的出站消息，通过 -prof gc 对比每条消息的分配字节数;
+ * 服务端的pipeline与实际服务完全相同，见{@link EchoServer}。COPY模式下服务端打印的内容会被丢弃。
+ * <p>
+ * 运行方式: java -jar benchmarks/target/benchmarks.jar EchoBenchmark
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 20:30 </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dio.netty.leakDetection.level=disabled"})
+public class EchoBenchmark {
+
+    @Param({"TCP", "LINE", "DELIMITER", "WEBSOCKET"})
+    private EchoServer server;
+
+    @Param({"COPY", "ZERO_COPY"})
+    private EchoMode mode;
+
+    private EmbeddedChannel channel;
+    private ByteBuf request;
+
+    @Setup
+    public void setup() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        channel = server.newChannel(mode);
+        channel.config().setOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        request = PooledByteBufAllocator.DEFAULT.directBuffer();
+        server.writeRequest(request);
+    }
+
+    @TearDown
+    public void tearDown() {
+        request.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int echo() {
+        // 入站消息的所有权转移给服务端，服务端可能原地修改，所以每次都使用新的拷贝
+        channel.writeInbound(server.inbound(request.retainedDuplicate()));
+        int bytes = 0;
+        Object out;
+        while ((out = channel.readOutbound()) != null) {
+            bytes += ((ByteBuf) out).readableBytes();
+            ReferenceCountUtil.release(out);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,119 @@
+package com.zero.net.bench.echo;
+
+import com.zero.net.netty.common.EchoMode;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.ResourceLeakDetector;
+import io.netty.util.ResourceLeakDetectorFactory;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * echo类服务的内存泄漏检测，在PARANOID级别下(跟踪每一个ByteBuf)运行所有服务与回写方式:
+ *  - 每条入站消息在服务端处理、出站消息被读取并释放后，引用计数必须为0;
+ *  - 结束后触发GC，ResourceLeakDetector报告的泄漏数必须为0;
+ * 存在泄漏时进程以非0状态码退出。
+ * <p>
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.echo.EchoLeakCheck [每种组合的消息数]
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 20:30 </p>
+ */
+public class EchoLeakCheck {
+    // ResourceLeakDetector报告的泄漏数
+    private static final LongAdder LEAKS = new LongAdder();
+
+    public static void main(String[] args) throws Exception {
+        // 必须在任何ByteBuf类加载之前设置
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+        ResourceLeakDetectorFactory.setResourceLeakDetectorFactory(new CountingLeakDetectorFactory());
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+
+        PrintStream console = System.out;
+        long unreleased = 0;
+        for (EchoServer server : EchoServer.values()) {
+            for (EchoMode mode : EchoMode.values()) {
+                // COPY模式下服务端会打印每条消息
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                long count;
+                try {
+                    count = run(server, mode, messages);
+                } finally {
+                    System.setOut(console);
+                }
+                unreleased += count;
+                System.out.printf("%-10s %-10s unreleased=%d%n", server, mode, count);
+            }
+        }
+
+        // 触发GC，未释放且已经不可达的ByteBuf会在之后的分配中被报告
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(100);
+            for (int j = 0; j < 100; j++) {
+                PooledByteBufAllocator.DEFAULT.directBuffer(16).release();
+            }
+        }
+        System.out.printf("unreleased=%d leaks=%d%n", unreleased, LEAKS.sum());
+        if (unreleased > 0 || LEAKS.sum() > 0) {
+            System.out.println("FAILED");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+
+    /**
+     * 返回处理完成后引用计数不为0的入站消息数
+     */
+    private static long run(EchoServer server, EchoMode mode, int messages) {
+        EmbeddedChannel channel = server.newChannel(mode);
+        channel.config().setOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        long unreleased = 0;
+        for (int i = 0; i < messages; i++) {
+            // 使用非池化的缓冲区，释放后不会被回收复用，引用计数可以安全地检查
+            ByteBuf request = Unpooled.directBuffer();
+            server.writeRequest(request);
+            channel.writeInbound(server.inbound(request));
+            Object out;
+            while ((out = channel.readOutbound()) != null) {
+                ReferenceCountUtil.release(out);
+            }
+            if (request.refCnt() != 0) {
+                unreleased++;
+                request.release(request.refCnt());
+            }
+        }
+        channel.finishAndReleaseAll();
+        return unreleased;
+    }
+
+    /**
+     * 统计泄漏报告次数的ResourceLeakDetector
+     */
+    static class CountingLeakDetectorFactory extends ResourceLeakDetectorFactory {
+        @Override
+        @SuppressWarnings("deprecation")
+        public <T> ResourceLeakDetector<T> newResourceLeakDetector(Class<T> resource, int samplingInterval, long maxActive) {
+            return new ResourceLeakDetector<>(resource, samplingInterval) {
+                @Override
+                protected void reportTracedLeak(String resourceType, String records) {
+                    LEAKS.increment();
+                    super.reportTracedLeak(resourceType, records);
+                }
+
+                @Override
+                protected void reportUntracedLeak(String resourceType) {
+                    LEAKS.increment();
+                    super.reportUntracedLeak(resourceType);
+                }
+            };
+        }
+    }
+}
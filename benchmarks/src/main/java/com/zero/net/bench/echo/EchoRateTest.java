@@ -0,0 +1,162 @@
+package com.zero.net.bench.echo;
+
+import com.zero.net.netty.common.EchoMode;
+import com.zero.net.netty.common.Transport;
+import com.zero.net.netty.examples.tcp.Server;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.util.concurrent.EventExecutor;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * tcp.Server两种回写方式在固定速率下的GC对比，见{@link EchoMode}:
+ * 在进程内启动与tcp.Server相同pipeline的服务端，客户端以固定的总速率(默认10w msg/s)发送64字节的消息，
+ * 统计测量期间的GC次数、GC耗时，以及服务端EventLoop线程平均每条消息分配的字节数;
+ * 可以同时开启GC日志查看每次GC的详情，如 {@code -Xlog:gc*:file=gc.log}。
+ * COPY模式下服务端打印的内容会被丢弃。
+ * <p>
+ * 运行方式: java -Xlog:gc*:file=gc.log -cp benchmarks/target/benchmarks.jar com.zero.net.bench.echo.EchoRateTest [每秒消息数] [连接数] [秒数]
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 20:30 </p>
+ */
+public class EchoRateTest {
+    private static final int PORT = 19106;
+    private static final int MESSAGE_SIZE = 64;
+
+    public static void main(String[] args) throws Exception {
+        int rate = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        console.printf("%-10s %12s %8s %10s %14s%n", "mode", "msgs/s", "gc", "gc(ms)", "alloc/msg(B)");
+        try {
+            for (EchoMode mode : EchoMode.values()) {
+                run(console, mode, rate, connections, seconds);
+            }
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private static void run(PrintStream console, EchoMode mode, int rate, int connections, int seconds)
+            throws Exception {
+        Transport transport = Transport.current();
+        EventLoopGroup boss = transport.newEventLoopGroup(1);
+        EventLoopGroup worker = transport.newEventLoopGroup(0);
+        EventLoopGroup clientGroup = transport.newEventLoopGroup(0);
+        LongAdder receivedBytes = new LongAdder();
+        ByteBuf message = Unpooled.unreleasableBuffer(Unpooled.directBuffer(MESSAGE_SIZE).writeZero(MESSAGE_SIZE));
+        try {
+            Channel server = transport.newServerBootstrap(boss, worker)
+                    .childOption(ChannelOption.TCP_NODELAY, true)
+                    .childHandler(Server.childInitializer(mode))
+                    .bind(PORT).sync().channel();
+            long[] serverThreads = threadIds(worker);
+
+            // 每个连接每毫秒发送的消息数，按总速率平均分配
+            int perTick = Math.max(1, rate / connections / 1000);
+            Bootstrap bootstrap = new Bootstrap()
+                    .group(clientGroup)
+                    .channel(transport.channelClass())
+                    .option(ChannelOption.TCP_NODELAY, true)
+                    .handler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel ch) {
+                            ch.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                                @Override
+                                public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                                    ByteBuf buf = (ByteBuf) msg;
+                                    receivedBytes.add(buf.readableBytes());
+                                    buf.release();
+                                }
+                            });
+                        }
+                    });
+            List<Channel> clients = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                Channel client = bootstrap.connect("127.0.0.1", PORT).sync().channel();
+                client.eventLoop().scheduleAtFixedRate(() -> {
+                    if (!client.isActive()) {
+                        return;
+                    }
+                    for (int j = 0; j < perTick; j++) {
+                        client.write(message.duplicate(), client.voidPromise());
+                    }
+                    client.flush();
+                }, 1, 1, TimeUnit.MILLISECONDS);
+                clients.add(client);
+            }
+
+            // 预热
+            TimeUnit.SECONDS.sleep(3);
+            long bytesBefore = receivedBytes.sum();
+            long[] gcBefore = gc();
+            long allocatedBefore = allocatedBytes(serverThreads);
+            TimeUnit.SECONDS.sleep(seconds);
+            long messages = (receivedBytes.sum() - bytesBefore) / MESSAGE_SIZE;
+            long[] gcAfter = gc();
+            long allocated = allocatedBytes(serverThreads) - allocatedBefore;
+
+            console.printf("%-10s %12.0f %8d %10d %14.1f%n", mode, messages / (double) seconds,
+                    gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1], allocated / (double) Math.max(messages, 1));
+            for (Channel client : clients) {
+                client.close().sync();
+            }
+            server.close().sync();
+        } finally {
+            clientGroup.shutdownGracefully().sync();
+            worker.shutdownGracefully().sync();
+            boss.shutdownGracefully().sync();
+        }
+    }
+
+    /**
+     * 获取线程组中每个EventLoop线程的id
+     */
+    private static long[] threadIds(EventLoopGroup group) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (EventExecutor executor : group) {
+            ids.add(executor.submit(() -> Thread.currentThread().threadId()).get());
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * 线程累计分配的字节数之和
+     */
+    private static long allocatedBytes(long[] threadIds) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long bytes : bean.getThreadAllocatedBytes(threadIds)) {
+            total += Math.max(bytes, 0);
+        }
+        return total;
+    }
+
+    /**
+     * 所有收集器累计的GC次数与耗时(ms)
+     */
+    private static long[] gc() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(bean.getCollectionCount(), 0);
+            time += Math.max(bean.getCollectionTime(), 0);
+        }
+        return new long[]{count, time};
+    }
+}
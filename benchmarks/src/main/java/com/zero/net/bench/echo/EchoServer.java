@@ -0,0 +1,82 @@
+package com.zero.net.bench.echo;
+
+import com.zero.net.netty.common.EchoMode;
+import com.zero.net.netty.examples.websocket.ServerHandler;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocket13FrameEncoder;
+import io.netty.util.CharsetUtil;
+
+/**
+ * 基准测试与泄漏检测使用的echo类服务，通过EmbeddedChannel运行与实际服务相同的pipeline;
+ * 消息内容本身就是大写的，服务端原地转换大写后内容不变，同一个请求缓冲区可以重复使用。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 20:30 </p>
+ */
+public enum EchoServer {
+    /**
+     * examples.tcp.Server，无拆包处理
+     */
+    TCP("HELLO, NETTY ECHO\n") {
+        @Override
+        EmbeddedChannel newChannel(EchoMode mode) {
+            return new EmbeddedChannel(com.zero.net.netty.examples.tcp.Server.childInitializer(mode));
+        }
+    },
+    /**
+     * packets.demo1.Server，以换行符拆包
+     */
+    LINE("HELLO, NETTY ECHO\n") {
+        @Override
+        EmbeddedChannel newChannel(EchoMode mode) {
+            return new EmbeddedChannel(com.zero.net.netty.packets.demo1.Server.childInitializer(mode));
+        }
+    },
+    /**
+     * packets.demo2.Server，以%拆包
+     */
+    DELIMITER("HELLO, NETTY ECHO%") {
+        @Override
+        EmbeddedChannel newChannel(EchoMode mode) {
+            return new EmbeddedChannel(com.zero.net.netty.packets.demo2.Server.childInitializer(mode));
+        }
+    },
+    /**
+     * examples.websocket.ServerHandler，入站消息为已经解码的文本帧，出站经过帧编码器
+     */
+    WEBSOCKET("HELLO, NETTY ECHO") {
+        @Override
+        EmbeddedChannel newChannel(EchoMode mode) {
+            return new EmbeddedChannel(new WebSocket13FrameEncoder(false), new ServerHandler(mode));
+        }
+
+        @Override
+        Object inbound(ByteBuf buf) {
+            return new TextWebSocketFrame(buf);
+        }
+    };
+
+    private final String request;
+
+    EchoServer(String request) {
+        this.request = request;
+    }
+
+    abstract EmbeddedChannel newChannel(EchoMode mode);
+
+    /**
+     * 写入一条请求消息
+     */
+    void writeRequest(ByteBuf buf) {
+        buf.writeCharSequence(request, CharsetUtil.UTF_8);
+    }
+
+    /**
+     * 将请求内容包装为入站消息，所有权随之转移
+     */
+    Object inbound(ByteBuf buf) {
+        return buf;
+    }
+}
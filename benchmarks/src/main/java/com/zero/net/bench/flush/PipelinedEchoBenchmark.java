@@ -0,0 +1,163 @@
+package com.zero.net.bench.flush;
+
+import com.zero.net.netty.common.FlushCoalescingHandler;
+import com.zero.net.netty.common.Transport;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import io.netty.util.CharsetUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * flush合并基准测试，使用管道化(pipelined)的客户端压测行协议的echo服务:
+ * 每个客户端连接一次性发送depth行数据，收到全部回复后再发送下一批;
+ * 服务端每解码出一行就调用一次writeAndFlush，对比开启与关闭{@link FlushCoalescingHandler}时的吞吐量与flush次数;
+ * 每次flush对应至少一次write/writev系统调用，可以配合 {@code strace -c -f -e trace=write,writev} 验证;
+ * 传输层实现通过 {@code -Dnetty.transport} 指定，见{@link Transport}。
+ * <p>
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.flush.PipelinedEchoBenchmark [连接数] [depth] [秒数]
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 15:48 </p>
+ */
+public class PipelinedEchoBenchmark {
+    private static final int PORT = 19101;
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        Transport transport = Transport.current();
+        System.out.printf("%-10s %-10s %8s %6s %14s %14s %12s%n",
+                "transport", "coalesce", "conns", "depth", "msgs/s", "flushes/s", "flushes/msg");
+        for (boolean coalesce : new boolean[]{false, true}) {
+            run(transport, coalesce, connections, depth, seconds);
+        }
+    }
+
+    /**
+     * 运行一轮压测并输出结果
+     *
+     * @return 吞吐量(msgs/s)
+     */
+    public static double run(Transport transport, boolean coalesce, int connections, int depth, int seconds)
+            throws Exception {
+        EventLoopGroup boss = transport.newEventLoopGroup(1);
+        EventLoopGroup worker = transport.newEventLoopGroup(0);
+        EventLoopGroup clientGroup = transport.newEventLoopGroup(0);
+        LongAdder echoed = new LongAdder();
+        LongAdder received = new LongAdder();
+        try {
+            Channel server = transport.newServerBootstrap(boss, worker)
+                    .childOption(ChannelOption.TCP_NODELAY, true)
+                    .childHandler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel ch) {
+                            if (coalesce) {
+                                ch.pipeline().addLast(new FlushCoalescingHandler());
+                            }
+                            ch.pipeline()
+                                    // 保留行尾的换行符，直接将解码出的数据写回
+                                    .addLast(new LineBasedFrameDecoder(1024, false, false))
+                                    .addLast(new ChannelInboundHandlerAdapter() {
+                                        @Override
+                                        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                                            echoed.increment();
+                                            ctx.writeAndFlush(msg);
+                                        }
+                                    });
+                        }
+                    }).bind(PORT).sync().channel();
+
+            ByteBuf batch = Unpooled.unreleasableBuffer(Unpooled.directBuffer());
+            for (int i = 0; i < depth; i++) {
+                batch.writeCharSequence("hello, pipelined world\n", CharsetUtil.US_ASCII);
+            }
+            Bootstrap bootstrap = new Bootstrap()
+                    .group(clientGroup)
+                    .channel(transport.channelClass())
+                    .option(ChannelOption.TCP_NODELAY, true)
+                    .handler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel ch) {
+                            ch.pipeline().addLast(new PipelinedClient(batch, depth, received));
+                        }
+                    });
+            List<Channel> clients = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                clients.add(bootstrap.connect("127.0.0.1", PORT).sync().channel());
+            }
+
+            // 预热
+            TimeUnit.SECONDS.sleep(2);
+            long flushesBefore = coalesce ? FlushCoalescingHandler.forwardedFlushes() : echoed.sum();
+            long receivedBefore = received.sum();
+            TimeUnit.SECONDS.sleep(seconds);
+            long flushes = (coalesce ? FlushCoalescingHandler.forwardedFlushes() : echoed.sum()) - flushesBefore;
+            long messages = received.sum() - receivedBefore;
+
+            System.out.printf("%-10s %-10s %8d %6d %14.0f %14.0f %12.3f%n", transport, coalesce, connections, depth,
+                    messages / (double) seconds, flushes / (double) seconds, flushes / (double) messages);
+            for (Channel client : clients) {
+                client.close().sync();
+            }
+            server.close().sync();
+            return messages / (double) seconds;
+        } finally {
+            clientGroup.shutdownGracefully().sync();
+            worker.shutdownGracefully().sync();
+            boss.shutdownGracefully().sync();
+        }
+    }
+
+    /**
+     * 管道化客户端，一次发送depth行，收到depth行回复后再发送下一批
+     */
+    static class PipelinedClient extends ChannelInboundHandlerAdapter {
+        private final ByteBuf batch;
+        private final int depth;
+        private final LongAdder received;
+        private int outstanding;
+
+        PipelinedClient(ByteBuf batch, int depth, LongAdder received) {
+            this.batch = batch;
+            this.depth = depth;
+            this.received = received;
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) {
+            sendBatch(ctx);
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ByteBuf buf = (ByteBuf) msg;
+            int lines = 0;
+            for (int i = buf.readerIndex(); i < buf.writerIndex(); i++) {
+                if (buf.getByte(i) == '\n') {
+                    lines++;
+                }
+            }
+            buf.release();
+            received.add(lines);
+            outstanding -= lines;
+            if (outstanding == 0) {
+                sendBatch(ctx);
+            }
+        }
+
+        private void sendBatch(ChannelHandlerContext ctx) {
+            outstanding = depth;
+            ctx.writeAndFlush(batch.duplicate());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.zero.net.bench.heartbeat;
+
+import com.zero.net.netty.common.Heartbeat;
+import com.zero.net.netty.common.Transport;
+import com.zero.net.netty.examples.tcp.HeartbeatCodec;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.*;
+import io.netty.util.ReferenceCountUtil;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 应用层心跳{@link Heartbeat}的验证与RTT观测，服务端与客户端运行在同一个进程中，服务端使用tcp示例的{@link HeartbeatCodec}:
+ *  - 大部分客户端应答Ping，另有一部分客户端从不应答(模拟已经失效的对端)，应该在maxMissed个心跳周期后被服务端关闭;
+ *  - 第一阶段服务端EventLoop正常运行，输出每个EventLoop的RTT分位数;
+ *  - 第二阶段在其中一个EventLoop上周期性地执行阻塞任务(模拟过载的EventLoop)，该EventLoop的RTT分位数应该明显高于其他EventLoop;
+ * 最后校验被关闭的连接数与从不应答的客户端数是否一致。
+ * <p>
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.heartbeat.HeartbeatBenchmark [连接数] [不应答的连接数] [每阶段秒数] [阻塞毫秒数]
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 10:00 </p>
+ */
+public class HeartbeatBenchmark {
+    private static final int PORT = 19110;
+    // 心跳周期(毫秒)与允许连续丢失的Pong数
+    private static final int INTERVAL_MILLIS = 200;
+    private static final int MAX_MISSED = 3;
+    // 服务端EventLoop数
+    private static final int SERVER_THREADS = 4;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int dead = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int blockMillis = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        Transport transport = Transport.current();
+        EventLoopGroup boss = transport.newEventLoopGroup(1);
+        EventLoopGroup worker = transport.newEventLoopGroup(SERVER_THREADS);
+        EventLoopGroup clientGroup = Transport.NIO.newEventLoopGroup(0);
+        Heartbeat heartbeat = new Heartbeat(INTERVAL_MILLIS, TimeUnit.MILLISECONDS, MAX_MISSED);
+        HeartbeatCodec codec = new HeartbeatCodec();
+        Discard discard = new Discard();
+        try {
+            ServerBootstrap server = transport.newServerBootstrap(boss, worker)
+                    .childHandler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            ch.pipeline().addLast(codec, heartbeat.newHandler(), discard);
+                        }
+                    });
+            server.bind(PORT).sync();
+
+            Bootstrap live = new Bootstrap()
+                    .group(clientGroup)
+                    .channel(Transport.NIO.channelClass())
+                    .handler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            ch.pipeline().addLast(codec, Heartbeat.responder(), discard);
+                        }
+                    });
+            // 从不应答的客户端，读取到的数据直接丢弃
+            Bootstrap silent = live.clone().handler(discard);
+            List<Channel> channels = new ArrayList<>(clients + dead);
+            List<ChannelFuture> batch = new ArrayList<>(1000);
+            for (int i = 0; i < clients + dead; i++) {
+                Bootstrap bootstrap = i < dead ? silent : live;
+                batch.add(bootstrap.connect(new InetSocketAddress("127.0.0.1", PORT)));
+                // 分批建立连接，避免超过服务端的backlog
+                if (batch.size() == 1000 || i == clients + dead - 1) {
+                    for (ChannelFuture future : batch) {
+                        channels.add(future.sync().channel());
+                    }
+                    batch.clear();
+                }
+            }
+            System.out.printf("connected: %d (live: %d, dead: %d), interval: %dms, maxMissed: %d%n",
+                    channels.size(), clients, dead, INTERVAL_MILLIS, MAX_MISSED);
+
+            // 丢弃建立连接期间的统计
+            heartbeat.report();
+            TimeUnit.SECONDS.sleep(seconds);
+            System.out.println("== normal ==");
+            System.out.print(heartbeat.report());
+
+            // 在一个EventLoop上每100ms阻塞blockMillis，模拟过载
+            EventLoop overloaded = worker.next();
+            var task = overloaded.scheduleAtFixedRate(
+                    () -> LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(blockMillis)),
+                    0, 100, TimeUnit.MILLISECONDS);
+            TimeUnit.SECONDS.sleep(seconds);
+            task.cancel(false);
+            System.out.printf("== overloaded: blocking %dms every 100ms on one event loop ==%n", blockMillis);
+            System.out.print(heartbeat.report());
+
+            long evictions = Heartbeat.evictions();
+            System.out.printf("evictions: %d, expected: %d -> %s%n", evictions, dead, evictions == dead ? "OK" : "MISMATCH");
+            for (Channel channel : channels) {
+                channel.close();
+            }
+            if (evictions != dead) {
+                System.exit(1);
+            }
+        } finally {
+            clientGroup.shutdownGracefully().sync();
+            boss.shutdownGracefully().sync();
+            worker.shutdownGracefully().sync();
+        }
+    }
+
+    /**
+     * 丢弃读取到的数据
+     */
+    @ChannelHandler.Sharable
+    static class Discard extends ChannelInboundHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ReferenceCountUtil.release(msg);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            ctx.close();
+        }
+    }
+}
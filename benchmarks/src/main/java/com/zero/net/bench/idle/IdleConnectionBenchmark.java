@@ -0,0 +1,254 @@
+package com.zero.net.bench.idle;
+
+import com.zero.net.netty.common.IdleDetector;
+import com.zero.net.netty.common.Transport;
+import com.zero.net.netty.examples.tcp.Server;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * tcp.Server两种空闲检测方式的对比: handler(每个连接一个IdleStateHandler)与wheel(共享的时间轮，见{@link IdleDetector});
+ * 服务端运行在独立的子进程中，客户端为Netty实现，默认建立20w个连接:
+ *  - 大部分连接每隔一段时间(默认10秒，小于空闲超时)发送一次保活消息，不应该被关闭;
+ *  - 每100个连接中有1个从不发送数据，应该在空闲超时(默认30秒)后被服务端关闭;
+ *  - 每100个连接中有1个只发送保活消息、从不读取服务端的回写(关闭autoRead，接收缓冲区很小)，不应该被关闭，
+ *    用于校验空闲检测处理器位于业务处理器之前，能够感知到读取;
+ * 统计测量期间服务端进程的CPU时间(/proc/[pid]/stat)、RSS，以及服务端堆中存活的定时任务数(jcmd GC.class_histogram中
+ * ScheduledFutureTask的实例数)，同时校验被关闭的连接数(wrongly与read-only两列都应该为0)。
+ * 连接数超过2w时客户端会使用多个本地回环地址(127.0.0.x)，避免耗尽临时端口，运行前需要调大文件描述符限制(ulimit -n)。
+ * <p>
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.idle.IdleConnectionBenchmark [连接数] [模式列表] [秒数] [保活间隔秒数]
+ * 例如: ... IdleConnectionBenchmark 200000 handler,wheel 60 10
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 22:30 </p>
+ */
+public class IdleConnectionBenchmark {
+    private static final int PORT = 19109;
+    // 每个本地回环地址最多使用的连接数
+    private static final int CONNECTIONS_PER_ADDRESS = 20000;
+    // 每SILENT_EVERY个连接中有一个从不发送数据
+    private static final int SILENT_EVERY = 100;
+    // 每SILENT_EVERY个连接中有一个只发送不读取，与从不发送数据的连接错开
+    private static final int READ_ONLY_OFFSET = SILENT_EVERY / 2;
+    // 空闲超时时间(秒)
+    private static final int IDLE_TIMEOUT = 30;
+    // /proc/[pid]/stat中CPU时间的单位，绝大部分Linux系统为100Hz
+    private static final long CLOCK_TICKS_PER_SECOND = 100;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        String[] modes = (args.length > 1 ? args[1] : "handler,wheel").split(",");
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        int intervalSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        System.out.printf("%-8s %8s %10s %12s %10s %10s %8s %10s %10s %10s%n",
+                "mode", "clients", "connected", "sched-tasks", "cpu(s)", "cpu(%)", "rss(MB)",
+                "reaped", "wrongly", "read-only");
+        for (String mode : modes) {
+            run(mode.trim().toLowerCase(), clients, seconds, intervalSeconds);
+        }
+    }
+
+    private static void run(String mode, int clients, int seconds, int intervalSeconds) throws Exception {
+        Process server = startServer(mode);
+        EventLoopGroup group = Transport.NIO.newEventLoopGroup(0);
+        LongAdder silentClosed = new LongAdder();
+        LongAdder activeClosed = new LongAdder();
+        LongAdder readOnlyClosed = new LongAdder();
+        try {
+            ByteBuf keepalive = Unpooled.unreleasableBuffer(
+                    Unpooled.directBuffer().writeBytes("k\n".getBytes(StandardCharsets.US_ASCII)));
+            Bootstrap active = new Bootstrap()
+                    .group(group)
+                    .channel(Transport.NIO.channelClass())
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10_000)
+                    .handler(new KeepaliveClient(intervalSeconds, keepalive, activeClosed));
+            Bootstrap silent = active.clone()
+                    .handler(new KeepaliveClient(0, keepalive, silentClosed));
+            Bootstrap readOnly = active.clone()
+                    .option(ChannelOption.AUTO_READ, false)
+                    .option(ChannelOption.SO_RCVBUF, 4096)
+                    .handler(new KeepaliveClient(intervalSeconds, keepalive, readOnlyClosed));
+            List<Channel> channels = new ArrayList<>(clients);
+            List<ChannelFuture> batch = new ArrayList<>(1000);
+            for (int i = 0; i < clients; i++) {
+                Bootstrap bootstrap = i % SILENT_EVERY == 0 ? silent
+                        : i % SILENT_EVERY == READ_ONLY_OFFSET ? readOnly : active;
+                InetSocketAddress local = new InetSocketAddress("127.0.0." + (1 + i / CONNECTIONS_PER_ADDRESS), 0);
+                batch.add(bootstrap.connect(new InetSocketAddress("127.0.0.1", PORT), local));
+                // 分批建立连接，避免超过服务端的backlog
+                if (batch.size() == 1000 || i == clients - 1) {
+                    for (ChannelFuture future : batch) {
+                        if (future.awaitUninterruptibly().isSuccess()) {
+                            channels.add(future.channel());
+                        }
+                    }
+                    batch.clear();
+                }
+            }
+
+            long[] before = cpuTicks(server.pid());
+            long start = System.nanoTime();
+            TimeUnit.SECONDS.sleep(seconds);
+            long[] after = cpuTicks(server.pid());
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            long scheduledTasks = scheduledTasks(server.pid());
+            long rss = rss(server.pid());
+
+            double cpuSeconds = (after[0] + after[1] - before[0] - before[1]) / (double) CLOCK_TICKS_PER_SECOND;
+            System.out.printf("%-8s %8d %10d %12d %10.2f %9.1f%% %8.1f %10s %10d %10d%n",
+                    mode, clients, channels.size(), scheduledTasks, cpuSeconds, cpuSeconds * 100 / elapsed,
+                    rss / 1024.0, silentClosed.sum() + "/" + (clients + SILENT_EVERY - 1) / SILENT_EVERY,
+                    activeClosed.sum(), readOnlyClosed.sum());
+            for (Channel channel : channels) {
+                channel.close();
+            }
+        } finally {
+            group.shutdownGracefully().sync();
+            server.destroy();
+            server.waitFor();
+        }
+    }
+
+    /**
+     * 以子进程的方式启动服务端，并等待端口可以连接
+     */
+    private static Process startServer(String mode) throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process process = new ProcessBuilder(java, "-Didle.mode=" + mode, "-Didle.timeout=" + IDLE_TIMEOUT,
+                "-cp", System.getProperty("java.class.path"), Server.class.getName(), String.valueOf(PORT))
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        for (int i = 0; i < 100; i++) {
+            try (Socket ignored = new Socket("127.0.0.1", PORT)) {
+                return process;
+            } catch (IOException e) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+        }
+        process.destroy();
+        throw new IllegalStateException("server did not start");
+    }
+
+    /**
+     * 读取进程的用户态与内核态CPU时间(clock ticks)，非Linux平台返回0
+     */
+    private static long[] cpuTicks(long pid) {
+        try {
+            String stat = Files.readString(Path.of("/proc/" + pid + "/stat"));
+            // 进程名中可能包含空格，从右括号之后开始解析，utime与stime为第14、15个字段
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            return new long[]{Long.parseLong(fields[11]), Long.parseLong(fields[12])};
+        } catch (IOException e) {
+            return new long[]{0, 0};
+        }
+    }
+
+    /**
+     * 读取进程的RSS(KB)，非Linux平台返回-1
+     */
+    private static long rss(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/" + pid + "/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException ignored) {
+        }
+        return -1;
+    }
+
+    /**
+     * 通过jcmd统计进程堆中存活的ScheduledFutureTask实例数，即EventLoop中等待执行的定时任务数，失败时返回-1
+     */
+    private static long scheduledTasks(long pid) {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Path jcmd = Path.of(java).resolveSibling("jcmd");
+        try {
+            Process process = new ProcessBuilder(jcmd.toString(), String.valueOf(pid), "GC.class_histogram")
+                    .redirectErrorStream(true)
+                    .start();
+            long count = -1;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    // 格式: 序号: 实例数 字节数 类名
+                    if (line.endsWith("io.netty.util.concurrent.ScheduledFutureTask")) {
+                        count = Long.parseLong(line.trim().split("\\s+")[1]);
+                    }
+                }
+            }
+            process.waitFor();
+            return count;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 保活客户端，每隔一段时间发送一次保活消息，间隔为0时从不发送
+     */
+    @ChannelHandler.Sharable
+    static class KeepaliveClient extends ChannelInboundHandlerAdapter {
+        private final int intervalSeconds;
+        private final ByteBuf keepalive;
+        private final LongAdder closed;
+
+        KeepaliveClient(int intervalSeconds, ByteBuf keepalive, LongAdder closed) {
+            this.intervalSeconds = intervalSeconds;
+            this.keepalive = keepalive;
+            this.closed = closed;
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            if (intervalSeconds > 0) {
+                Channel channel = ctx.channel();
+                // 随机的初始延迟，避免所有客户端同时发送
+                long period = TimeUnit.SECONDS.toMillis(intervalSeconds);
+                ScheduledFuture<?> task = channel.eventLoop().scheduleAtFixedRate(
+                        () -> channel.writeAndFlush(keepalive.duplicate(), channel.voidPromise()),
+                        ThreadLocalRandom.current().nextLong(period), period, TimeUnit.MILLISECONDS);
+                channel.closeFuture().addListener(f -> task.cancel(false));
+            }
+            super.channelActive(ctx);
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ReferenceCountUtil.release(msg);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            closed.increment();
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            ctx.close();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.zero.net.bench.im;
+
+import com.google.protobuf.ByteString;
+import com.zero.net.netty.common.Transport;
+import com.zero.net.netty.examples.im.packet.Codec;
+import com.zero.net.netty.examples.im.pb.Protocol;
+import com.zero.net.netty.examples.im.server.IMServer;
+import com.zero.net.netty.examples.im.server.SessionRegistry;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.ReferenceCountUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * IM服务端批量报文的高扇出测试，对比关闭与启用批量报文({@code -Dim.batch})时服务端每秒投递的消息数:
+ * N个接收者连接与P个发布者连接到同一个服务端，每个发布者保持W条在途的消息(收到自己的广播后再发送下一条)，
+ * 服务端把每条消息广播给所有连接; 同一个EventLoop执行周期内发往同一个连接的多条广播在启用后合并为一个批量报文。
+ * 所有连接都先以v2格式发送一条消息完成协商(服务端只向v2客户端发送批量报文)，之后开始计时;
+ * 输出发布速率、接收者收到的消息速率与平均每条消息的字节数(含消息头)，并校验接收者收到的消息数与广播数一致。
+ * <p>
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.im.BatchFanoutBenchmark [接收者数] [秒数] [发布者数] [在途消息数]
+ * 校验失败时以非0状态码退出
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 19:00 </p>
+ */
+public class BatchFanoutBenchmark {
+    private static final int PORT = 19117;
+    private static final ByteString PAYLOAD;
+
+    static {
+        byte[] payload = new byte[64];
+        Arrays.fill(payload, (byte) 'a');
+        PAYLOAD = ByteString.copyFrom(payload);
+    }
+
+    public static void main(String[] args) throws Exception {
+        // 关闭服务端的消息日志，避免输出影响测试
+        if (System.getProperty("eventlog.mode") == null) {
+            System.setProperty("eventlog.mode", "off");
+        }
+        int receivers = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int publishers = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int window = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+
+        System.out.printf("%-6s %10s %10s %14s %16s %12s %8s%n",
+                "batch", "receivers", "publishers", "published/s", "delivered/s", "bytes/msg", "result");
+        boolean ok = true;
+        for (boolean batch : new boolean[]{false, true}) {
+            ok &= run(batch, receivers, seconds, publishers, window);
+        }
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean run(boolean batch, int receivers, int seconds, int publishers, int window) throws Exception {
+        // 编码器在连接初始化时读取该参数
+        System.setProperty("im.batch", String.valueOf(batch));
+        Transport transport = Transport.current();
+        EventLoopGroup boss = transport.newEventLoopGroup(1);
+        EventLoopGroup worker = transport.newEventLoopGroup(0);
+        EventLoopGroup clientGroup = transport.newEventLoopGroup(0);
+        Stats stats = new Stats();
+        try {
+            transport.newServerBootstrap(boss, worker)
+                    .childHandler(IMServer.childInitializer(Codec.Mode.ZERO_COPY, new SessionRegistry(batch)))
+                    .bind(PORT).sync();
+
+            Bootstrap bootstrap = new Bootstrap()
+                    .group(clientGroup)
+                    .channel(transport.channelClass())
+                    .option(ChannelOption.TCP_NODELAY, true);
+            List<Channel> channels = new ArrayList<>();
+            for (int i = 0; i < receivers; i++) {
+                channels.add(connect(bootstrap, new Client(stats, null, 0)));
+            }
+            List<Client> publisherClients = new ArrayList<>();
+            for (int i = 0; i < publishers; i++) {
+                Client client = new Client(stats, "publisher-" + i, window);
+                publisherClients.add(client);
+                channels.add(connect(bootstrap, client));
+            }
+            // 协商v2格式，等待协商消息的广播全部到达
+            long expected = (long) channels.size() * channels.size();
+            for (Channel channel : channels) {
+                channel.writeAndFlush(message("hello"));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (stats.messages.sum() < expected && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+
+            // 开始发布
+            stats.reset();
+            long start = System.nanoTime();
+            for (Client client : publisherClients) {
+                client.start();
+            }
+            TimeUnit.SECONDS.sleep(seconds);
+            for (Client client : publisherClients) {
+                client.stop();
+            }
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            // 等待在途的消息投递完成
+            TimeUnit.SECONDS.sleep(1);
+
+            long published = stats.published.sum();
+            long delivered = stats.messages.sum();
+            boolean ok = published > 0 && delivered == published * channels.size();
+            System.out.printf("%-6s %10d %10d %14.0f %16.0f %12.1f %8s%n", batch, receivers, publishers,
+                    published / elapsed, delivered / elapsed, (double) stats.bytes.sum() / Math.max(1, delivered),
+                    ok ? "OK" : "MISMATCH");
+            return ok;
+        } finally {
+            clientGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS).sync();
+            boss.shutdownGracefully(0, 5, TimeUnit.SECONDS).sync();
+            worker.shutdownGracefully(0, 5, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    private static Channel connect(Bootstrap bootstrap, Client client) throws InterruptedException {
+        return bootstrap.clone()
+                .handler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ch.pipeline()
+                                // 统计收到的字节数，位于解码器之前
+                                .addLast(new ChannelInboundHandlerAdapter() {
+                                    @Override
+                                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                                        client.stats.bytes.add(((ByteBuf) msg).readableBytes());
+                                        ctx.fireChannelRead(msg);
+                                    }
+                                })
+                                .addLast(Codec.Mode.ZERO_COPY.newReplyMessageDecoder())
+                                .addLast(client)
+                                .addLast(Codec.Mode.ZERO_COPY.newEncoders(Codec.Wire.V2));
+                    }
+                })
+                .connect("127.0.0.1", PORT).sync().channel();
+    }
+
+    private static Protocol.SendMessage message(String name) {
+        return Protocol.SendMessage.newBuilder()
+                .setName(name).setGender(Protocol.Gender.BOY)
+                .setSendTime(System.currentTimeMillis())
+                .setPayload(PAYLOAD)
+                .build();
+    }
+
+    /**
+     * 测试期间的统计
+     */
+    private static final class Stats {
+        // 所有连接收到的消息数与字节数
+        final LongAdder messages = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        // 发布者发出的消息数
+        final LongAdder published = new LongAdder();
+
+        void reset() {
+            messages.reset();
+            bytes.reset();
+            published.reset();
+        }
+    }
+
+    /**
+     * 客户端处理器，发布者收到自己的广播后再发送下一条，保持window条在途的消息
+     */
+    private static final class Client extends ChannelInboundHandlerAdapter {
+        final Stats stats;
+        // 发布者名称，接收者为null
+        private final String name;
+        private final int window;
+        private volatile Channel channel;
+        private volatile boolean running;
+
+        Client(Stats stats, String name, int window) {
+            this.stats = stats;
+            this.name = name;
+            this.window = window;
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            channel = ctx.channel();
+            super.channelActive(ctx);
+        }
+
+        void start() {
+            running = true;
+            channel.eventLoop().execute(() -> {
+                for (int i = 0; i < window; i++) {
+                    publish();
+                }
+                channel.flush();
+            });
+        }
+
+        void stop() {
+            running = false;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            stats.messages.increment();
+            if (running && msg instanceof Protocol.ReplyMessage reply && reply.getSender().getName().equals(name)) {
+                publish();
+            }
+            ReferenceCountUtil.release(msg);
+        }
+
+        @Override
+        public void channelReadComplete(ChannelHandlerContext ctx) {
+            ctx.flush();
+        }
+
+        private void publish() {
+            stats.published.increment();
+            channel.write(message(name), channel.voidPromise());
+        }
+    }
+}
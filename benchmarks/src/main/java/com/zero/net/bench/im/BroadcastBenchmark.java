@@ -0,0 +1,193 @@
+package com.zero.net.bench.im;
+
+import com.google.protobuf.ByteString;
+import com.zero.net.netty.examples.im.packet.Codec;
+import com.zero.net.netty.examples.im.pb.Protocol;
+import com.zero.net.netty.examples.im.server.SessionRegistry;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.*;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * IM服务端广播基准测试，对比两种广播方式在1w/5w连接下的广播延迟与内存分配:
+ *  - LEGACY:   原有实现，对每个Channel调用writeAndFlush(ReplyMessage)，每个Channel各自序列化一次;
+ *  - REGISTRY: {@link SessionRegistry#broadcast}，只序列化一次，按EventLoop分组写入后统一flush;
+ * 使用进程内的{@link LocalChannel}建立连接，避免受到端口数量与网络协议栈的影响;
+ * 广播延迟为从发起广播到所有客户端都收到完整报文的耗时。
+ * <p>
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.im.BroadcastBenchmark [连接数,...] [广播次数]
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 14:02 </p>
+ */
+public class BroadcastBenchmark {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    enum Strategy {LEGACY, REGISTRY}
+
+    public static void main(String[] args) throws Exception {
+        int[] clientCounts = Arrays.stream((args.length > 0 ? args[0] : "10000,50000").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int loops = Runtime.getRuntime().availableProcessors();
+
+        byte[] payload = new byte[128];
+        Arrays.fill(payload, (byte) 'a');
+        Protocol.ReplyMessage reply = Protocol.ReplyMessage.newBuilder()
+                .setSuccess(true)
+                .setReplyTime(System.currentTimeMillis())
+                .setSender(Protocol.SendMessage.newBuilder()
+                        .setId(1001).setName("zero").setGender(Protocol.Gender.BOY)
+                        .setSendTime(System.currentTimeMillis())
+                        .setPayload(ByteString.copyFrom(payload)))
+                .build();
+
+        System.out.printf("%-9s %8s %12s %12s %12s %16s %14s%n",
+                "strategy", "clients", "p50(us)", "p99(us)", "max(us)", "alloc/bcast(KB)", "alloc(MB/s)");
+        for (int clients : clientCounts) {
+            for (Strategy strategy : Strategy.values()) {
+                run(strategy, clients, rounds, loops, reply);
+            }
+        }
+    }
+
+    private static void run(Strategy strategy, int clients, int rounds, int loops, Protocol.ReplyMessage reply)
+            throws Exception {
+        DefaultEventLoopGroup boss = new DefaultEventLoopGroup(1);
+        DefaultEventLoopGroup serverLoops = new DefaultEventLoopGroup(loops);
+        DefaultEventLoopGroup clientLoops = new DefaultEventLoopGroup(loops);
+        SessionRegistry registry = new SessionRegistry();
+        Queue<Channel> channels = new ConcurrentLinkedQueue<>();
+        ReceiveCounter counter = new ReceiveCounter();
+        try {
+            LocalAddress address = new LocalAddress("im-broadcast-" + strategy + "-" + clients);
+            Channel server = new ServerBootstrap()
+                    .group(boss, serverLoops)
+                    .channel(LocalServerChannel.class)
+                    .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                    .childHandler(new ChannelInitializer<LocalChannel>() {
+                        @Override
+                        protected void initChannel(LocalChannel ch) {
+                            ch.pipeline()
+                                    .addLast(Codec.Mode.ZERO_COPY.newEncoders(Codec.Wire.V1))
+                                    .addLast(new ChannelInboundHandlerAdapter() {
+                                        @Override
+                                        public void channelActive(ChannelHandlerContext ctx) {
+                                            registry.register(ctx.channel());
+                                            channels.add(ctx.channel());
+                                        }
+                                    });
+                        }
+                    }).bind(address).sync().channel();
+
+            Bootstrap bootstrap = new Bootstrap()
+                    .group(clientLoops)
+                    .channel(LocalChannel.class)
+                    .handler(counter);
+            List<ChannelFuture> pending = new ArrayList<>(1000);
+            for (int i = 0; i < clients; i++) {
+                pending.add(bootstrap.connect(address));
+                if (pending.size() == 1000) {
+                    for (ChannelFuture future : pending) {
+                        future.sync();
+                    }
+                    pending.clear();
+                }
+            }
+            for (ChannelFuture future : pending) {
+                future.sync();
+            }
+            while (registry.size() < clients) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+
+            int bodyLength = reply.getSerializedSize();
+            long frameLength = Codec.Wire.V1.headerLength(bodyLength) + bodyLength;
+            // 预热
+            for (int i = 0; i < rounds / 4; i++) {
+                broadcast(strategy, registry, channels, reply, counter, frameLength * clients);
+            }
+            long[] latencies = new long[rounds];
+            long allocBefore = THREADS.getTotalThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                latencies[i] = broadcast(strategy, registry, channels, reply, counter, frameLength * clients);
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocated = THREADS.getTotalThreadAllocatedBytes() - allocBefore;
+
+            Arrays.sort(latencies);
+            System.out.printf("%-9s %8d %12.1f %12.1f %12.1f %16.1f %14.1f%n", strategy, clients,
+                    latencies[rounds / 2] / 1e3, latencies[(int) (rounds * 0.99)] / 1e3, latencies[rounds - 1] / 1e3,
+                    allocated / 1024.0 / rounds, allocated / 1024.0 / 1024.0 / (elapsed / 1e9));
+            server.close().sync();
+        } finally {
+            clientLoops.shutdownGracefully(0, 5, TimeUnit.SECONDS).sync();
+            serverLoops.shutdownGracefully(0, 5, TimeUnit.SECONDS).sync();
+            boss.shutdownGracefully(0, 5, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    /**
+     * 发起一次广播，阻塞等待所有客户端都收到完整报文
+     *
+     * @return 广播耗时(ns)
+     */
+    private static long broadcast(Strategy strategy, SessionRegistry registry, Queue<Channel> channels,
+                                  Protocol.ReplyMessage reply, ReceiveCounter counter, long expectedBytes)
+            throws Exception {
+        CountDownLatch done = counter.expect(expectedBytes);
+        long start = System.nanoTime();
+        if (strategy == Strategy.REGISTRY) {
+            registry.broadcast(PooledByteBufAllocator.DEFAULT, reply);
+        } else {
+            for (Channel channel : channels) {
+                channel.writeAndFlush(reply);
+            }
+        }
+        done.await();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * 客户端接收计数，收到预期的字节数后唤醒等待线程
+     */
+    @ChannelHandler.Sharable
+    static class ReceiveCounter extends ChannelInboundHandlerAdapter {
+        private final AtomicLong remaining = new AtomicLong();
+        private volatile CountDownLatch done;
+
+        CountDownLatch expect(long bytes) {
+            CountDownLatch latch = new CountDownLatch(1);
+            done = latch;
+            remaining.set(bytes);
+            return latch;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ByteBuf buf = (ByteBuf) msg;
+            int bytes = buf.readableBytes();
+            buf.release();
+            if (remaining.addAndGet(-bytes) == 0) {
+                done.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.zero.net.bench.im;
+
+import com.google.protobuf.ByteString;
+import com.zero.net.netty.examples.im.packet.Codec;
+import com.zero.net.netty.examples.im.pb.Protocol;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IM {@link Codec} 编解码基准测试，对比 {@link Codec.Mode#COPY} 与 {@link Codec.Mode#ZERO_COPY} 两种模式;
+ * 运行方式: java -jar benchmarks/target/benchmarks.jar CodecBenchmark -prof gc
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 10:12 </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dio.netty.leakDetection.level=disabled"})
+public class CodecBenchmark {
+
+    @Param({"COPY", "ZERO_COPY"})
+    private Codec.Mode mode;
+
+    /**
+     * 消息体大小(byte)
+     */
+    @Param({"64", "512", "4096"})
+    private int payloadSize;
+
+    // 服务端: 解码SendMessage
+    private EmbeddedChannel decodeChannel;
+    // 客户端: 编码SendMessage
+    private EmbeddedChannel encodeChannel;
+    // 已编码的完整报文，位于池化的直接内存中
+    private ByteBuf frame;
+    private Protocol.SendMessage message;
+
+    @Setup
+    public void setup() throws Exception {
+        byte[] payload = new byte[payloadSize];
+        Arrays.fill(payload, (byte) 'a');
+        message = Protocol.SendMessage.newBuilder()
+                .setId(1001).setName("zero").setGender(Protocol.Gender.BOY)
+                .setSendTime(System.currentTimeMillis())
+                .setPayload(ByteString.copyFrom(payload)).build();
+
+        decodeChannel = new EmbeddedChannel(mode.newSendMessageDecoder());
+        encodeChannel = new EmbeddedChannel(mode.newEncoders(Codec.Wire.V1));
+        decodeChannel.config().setOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        encodeChannel.config().setOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+
+        int length = message.getSerializedSize();
+        frame = PooledByteBufAllocator.DEFAULT.directBuffer(Codec.HEADER_LENGTH + length);
+        frame.writeLong(length);
+        Codec.writeMessage(message, length, frame);
+    }
+
+    @TearDown
+    public void tearDown() {
+        frame.release();
+        decodeChannel.finishAndReleaseAll();
+        encodeChannel.finishAndReleaseAll();
+    }
+
+    /**
+     * 解码: 池化ByteBuf -> SendMessage(零拷贝模式下为持有消息体切片的RawSendMessage，需要释放)
+     */
+    @Benchmark
+    public Object decode() {
+        decodeChannel.writeInbound(frame.retainedDuplicate());
+        Object msg = decodeChannel.readInbound();
+        ReferenceCountUtil.release(msg);
+        return msg;
+    }
+
+    /**
+     * 编码: SendMessage -> 出站ByteBuf
+     */
+    @Benchmark
+    public int encode() {
+        encodeChannel.writeOutbound(message);
+        ByteBuf out = encodeChannel.readOutbound();
+        int bytes = out.readableBytes();
+        out.release();
+        return bytes;
+    }
+}
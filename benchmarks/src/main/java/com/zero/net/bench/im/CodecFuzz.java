@@ -0,0 +1,360 @@
+package com.zero.net.bench.im;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.WireFormat;
+import com.zero.net.netty.common.Heartbeat;
+import com.zero.net.netty.examples.im.packet.Codec;
+import com.zero.net.netty.examples.im.pb.Protocol;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.TooLongFrameException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * IM协议{@link Codec.ZeroCopyDecoder}的模糊测试，每轮随机生成一段报文，切分为随机大小的片段(堆内与直接内存随机)逐个写入解码器:
+ *  - 结构化报文: 由合法的v1/v2报文、心跳报文、批量报文、中间夹有无法反序列化的回复的批量报文、超过最大长度的报文(含批量报文)
+ *    与无法反序列化的消息体组成，最后可能带有一个未知类型标识的消息头;
+ *    校验解码出的消息与顺序完全一致(损坏的批量报文不会解码出其中任何一条回复，也不会重复解码)，超长与损坏的报文数量与预期一致，
+ *    消息头损坏时连接被关闭;
+ *  - 随机字节: 校验解码器不会抛出未处理的异常;
+ *  - 编码器批量报文: 大部分回复接近最大长度，经由启用批量报文的{@link Codec.ZeroCopyEncoder}编码后再解码，
+ *    校验编码器按最大长度拆分批量报文，所有回复都被解码出来，不会出现{@link TooLongFrameException};
+ * 每次写入后校验累积缓冲区中缓存的字节数不超过 消息头 + 最大长度，每轮结束后校验所有写入的缓冲区都已经释放。
+ * <p>
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.im.CodecFuzz [轮数] [随机种子]
+ * 校验失败时以非0状态码退出，并输出失败的轮数与随机种子
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 15:00 </p>
+ */
+public class CodecFuzz {
+    private static final int MAX_FRAME_LENGTH = 4096;
+    // ReplyBatch.replies字段的tag
+    private static final int REPLIES_TAG = Protocol.ReplyBatch.REPLIES_FIELD_NUMBER << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        Random random = new Random(seed);
+        long frames = 0;
+        long bytes = 0;
+        for (int round = 0; round < rounds; round++) {
+            try {
+                long[] result = switch (round % 3) {
+                    case 0 -> structured(random);
+                    case 1 -> garbage(random);
+                    default -> encoded(random);
+                };
+                frames += result[0];
+                bytes += result[1];
+            } catch (AssertionError | RuntimeException e) {
+                System.out.printf("FAILED at round %d, seed %d: %s%n", round, seed, e);
+                e.printStackTrace(System.out);
+                System.exit(1);
+            }
+        }
+        System.out.printf("rounds: %d, seed: %d, decoded frames: %d, bytes: %d -> OK%n", rounds, seed, frames, bytes);
+    }
+
+    /**
+     * 结构化报文
+     *
+     * @return [解码出的消息数, 报文字节数]
+     */
+    private static long[] structured(Random random) {
+        ByteBuf wire = Unpooled.buffer();
+        List<Object> expected = new ArrayList<>();
+        int tooLong = 0;
+        int corrupted = 0;
+        int segments = 1 + random.nextInt(32);
+        for (int i = 0; i < segments; i++) {
+            switch (random.nextInt(10)) {
+                case 0 -> {
+                    // 超过最大长度的报文，消息体会被跳过
+                    int length = MAX_FRAME_LENGTH + 1 + random.nextInt(MAX_FRAME_LENGTH * 3);
+                    switch (random.nextInt(3)) {
+                        case 0 -> wire.writeLong(length);
+                        case 1 -> {
+                            wire.writeByte(Codec.V2_MAGIC);
+                            Codec.writeVarint32(wire, length);
+                        }
+                        default -> {
+                            wire.writeByte(Codec.BATCH_MAGIC);
+                            Codec.writeVarint32(wire, length);
+                        }
+                    }
+                    wire.writeBytes(randomBytes(random, length));
+                    tooLong++;
+                }
+                case 1 -> {
+                    // 字段编号为0的tag是非法的，消息体一定无法反序列化
+                    writeFrame(random, wire, corruptBody(random));
+                    corrupted++;
+                }
+                case 2 -> {
+                    // 中间夹有一条无法反序列化的回复的批量报文，整个批量报文被丢弃
+                    List<byte[]> replies = new ArrayList<>();
+                    int count = 2 + random.nextInt(8);
+                    int bad = 1 + random.nextInt(count - 1);
+                    for (int j = 0; j < count; j++) {
+                        replies.add(j == bad ? corruptBody(random) : randomReply(random).toByteArray());
+                    }
+                    writeBatch(wire, replies);
+                    corrupted++;
+                }
+                case 3 -> {
+                    List<byte[]> replies = new ArrayList<>();
+                    int count = 1 + random.nextInt(8);
+                    for (int j = 0; j < count; j++) {
+                        Protocol.ReplyMessage reply = randomReply(random);
+                        replies.add(reply.toByteArray());
+                        expected.add(reply);
+                    }
+                    writeBatch(wire, replies);
+                }
+                case 4 -> {
+                    long seq = random.nextLong();
+                    long timestamp = random.nextLong();
+                    boolean ping = random.nextBoolean();
+                    wire.writeByte(ping ? Codec.PING_MAGIC : Codec.PONG_MAGIC);
+                    wire.writeLong(seq);
+                    wire.writeLong(timestamp);
+                    expected.add(ping ? new Heartbeat.Ping(seq, timestamp) : new Heartbeat.Pong(seq, timestamp));
+                }
+                default -> {
+                    Protocol.ReplyMessage reply = randomReply(random);
+                    writeFrame(random, wire, reply.toByteArray());
+                    expected.add(reply);
+                }
+            }
+        }
+        boolean close = random.nextInt(4) == 0;
+        if (close) {
+            // 未知的类型标识，之后的所有数据都会被丢弃，并关闭连接
+            wire.writeByte(0x7F);
+            wire.writeBytes(randomBytes(random, random.nextInt(1024)));
+            corrupted++;
+        }
+
+        Harness harness = new Harness();
+        long size = wire.readableBytes();
+        harness.feed(random, wire);
+        check(harness.decoded.equals(expected), "decoded " + harness.decoded.size() + " frames, expected " + expected.size());
+        check(harness.tooLong == tooLong, "too long: " + harness.tooLong + ", expected " + tooLong);
+        check(harness.corrupted == corrupted, "corrupted: " + harness.corrupted + ", expected " + corrupted);
+        check(harness.other == 0, "unexpected exceptions: " + harness.other);
+        check(harness.closed == close, "channel closed: " + harness.closed + ", expected " + close);
+        return new long[]{harness.decoded.size(), size};
+    }
+
+    /**
+     * 随机字节，随机位置写入合法的类型标识与较小的长度，使部分消息头落在合法范围内
+     *
+     * @return [解码出的消息数, 报文字节数]
+     */
+    private static long[] garbage(Random random) {
+        ByteBuf wire = Unpooled.wrappedBuffer(randomBytes(random, random.nextInt(16 * 1024)));
+        for (int i = 0; i + 8 <= wire.capacity(); i += 8 + random.nextInt(256)) {
+            switch (random.nextInt(4)) {
+                case 0 -> wire.setLong(i, random.nextInt(MAX_FRAME_LENGTH * 2));
+                case 1 -> wire.setByte(i, Codec.V2_MAGIC);
+                case 2 -> wire.setByte(i, Codec.BATCH_MAGIC);
+                default -> {
+                }
+            }
+        }
+        Harness harness = new Harness();
+        long size = wire.readableBytes();
+        harness.feed(random, wire);
+        check(harness.other == 0, "unexpected exceptions: " + harness.other);
+        return new long[]{harness.decoded.size(), size};
+    }
+
+    /**
+     * 编码器批量报文，回复经由启用批量报文的编码器写出，随机flush
+     *
+     * @return [解码出的消息数, 报文字节数]
+     */
+    private static long[] encoded(Random random) {
+        EmbeddedChannel encoder = new EmbeddedChannel(new Codec.ZeroCopyEncoder(Codec.Wire.V2, true, MAX_FRAME_LENGTH));
+        List<Object> expected = new ArrayList<>();
+        int count = 1 + random.nextInt(Codec.BATCH_MAX_REPLIES * 2);
+        for (int i = 0; i < count; i++) {
+            // 大部分回复在最大长度的1/4到接近最大长度之间，几条即可超过批量报文的最大长度
+            int payload = random.nextInt(4) == 0
+                    ? random.nextInt(256)
+                    : MAX_FRAME_LENGTH / 4 + random.nextInt(MAX_FRAME_LENGTH * 3 / 4 - 256);
+            Protocol.ReplyMessage reply = randomReply(random, payload);
+            expected.add(reply);
+            encoder.write(new Codec.EncodedMessage(Unpooled.wrappedBuffer(reply.toByteArray())));
+            if (random.nextInt(16) == 0) {
+                encoder.flush();
+            }
+        }
+        encoder.flush();
+        ByteBuf wire = Unpooled.buffer();
+        for (ByteBuf out = encoder.readOutbound(); out != null; out = encoder.readOutbound()) {
+            wire.writeBytes(out);
+            out.release();
+        }
+        encoder.finishAndReleaseAll();
+
+        Harness harness = new Harness();
+        long size = wire.readableBytes();
+        harness.feed(random, wire);
+        check(harness.decoded.equals(expected), "decoded " + harness.decoded.size() + " frames, expected " + expected.size());
+        check(harness.tooLong == 0, "too long: " + harness.tooLong);
+        check(harness.corrupted == 0, "corrupted: " + harness.corrupted);
+        check(harness.other == 0, "unexpected exceptions: " + harness.other);
+        return new long[]{harness.decoded.size(), size};
+    }
+
+    /**
+     * 随机使用v1或v2格式写出一个报文
+     */
+    private static void writeFrame(Random random, ByteBuf wire, byte[] body) {
+        if (random.nextBoolean()) {
+            wire.writeLong(body.length);
+        } else {
+            wire.writeByte(Codec.V2_MAGIC);
+            Codec.writeVarint32(wire, body.length);
+        }
+        wire.writeBytes(body);
+    }
+
+    /**
+     * 写出一个批量报文: 0x12 + varint32长度 + ReplyBatch
+     */
+    private static void writeBatch(ByteBuf wire, List<byte[]> replies) {
+        ByteBuf body = Unpooled.buffer();
+        for (byte[] reply : replies) {
+            body.writeByte(REPLIES_TAG);
+            Codec.writeVarint32(body, reply.length);
+            body.writeBytes(reply);
+        }
+        wire.writeByte(Codec.BATCH_MAGIC);
+        Codec.writeVarint32(wire, body.readableBytes());
+        wire.writeBytes(body);
+        body.release();
+    }
+
+    private static byte[] corruptBody(Random random) {
+        byte[] body = randomBytes(random, 1 + random.nextInt(64));
+        body[0] = 0;
+        return body;
+    }
+
+    private static Protocol.ReplyMessage randomReply(Random random) {
+        return randomReply(random, random.nextInt(256));
+    }
+
+    private static Protocol.ReplyMessage randomReply(Random random, int payload) {
+        Protocol.SendMessage sender = Protocol.SendMessage.newBuilder()
+                .setId(random.nextLong())
+                .setName(randomName(random))
+                .setGender(random.nextBoolean() ? Protocol.Gender.BOY : Protocol.Gender.Girl)
+                .setSendTime(random.nextLong() & Long.MAX_VALUE)
+                .setPayload(ByteString.copyFrom(randomBytes(random, payload)))
+                .build();
+        return Protocol.ReplyMessage.newBuilder()
+                .setSuccess(random.nextBoolean())
+                .setReplyTime(random.nextLong() & Long.MAX_VALUE)
+                .setSender(sender)
+                .build();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int length = random.nextInt(32);
+        for (int i = 0; i < length; i++) {
+            name.append((char) (random.nextBoolean() ? 'a' + random.nextInt(26) : 0x4e00 + random.nextInt(0x5000)));
+        }
+        return name.toString();
+    }
+
+    /**
+     * 解码器与异常统计，每轮一个
+     */
+    private static final class Harness extends ChannelInboundHandlerAdapter {
+        private final Probe decoder = new Probe();
+        private final EmbeddedChannel channel = new EmbeddedChannel(decoder, this);
+        private final List<Object> decoded = new ArrayList<>();
+        private int tooLong;
+        private int corrupted;
+        private int other;
+        private boolean closed;
+
+        /**
+         * 将报文切分为随机大小的片段逐个写入，连接被关闭后不再写入，最后释放报文
+         */
+        void feed(Random random, ByteBuf wire) {
+            List<ByteBuf> chunks = new ArrayList<>();
+            while (wire.isReadable() && channel.isOpen()) {
+                int length = Math.min(wire.readableBytes(),
+                        random.nextInt(8) == 0 ? 1 + random.nextInt(8 * 1024) : 1 + random.nextInt(64));
+                ByteBuf chunk = random.nextBoolean() ? Unpooled.buffer(length) : Unpooled.directBuffer(length);
+                chunk.writeBytes(wire, length);
+                chunks.add(chunk);
+                channel.writeInbound(chunk);
+                check(decoder.buffered() <= Codec.HEADER_LENGTH + MAX_FRAME_LENGTH,
+                        "decoder buffered " + decoder.buffered() + " bytes");
+            }
+            closed = !channel.isOpen();
+            wire.release();
+            channel.finishAndReleaseAll();
+            for (ByteBuf chunk : chunks) {
+                check(chunk.refCnt() == 0, "chunk not released");
+            }
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            decoded.add(Objects.requireNonNull(msg));
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            // 消息体无法反序列化时由ByteToMessageDecoder包装为DecoderException，消息头损坏时为其子类CorruptedFrameException
+            if (cause instanceof TooLongFrameException) {
+                tooLong++;
+            } else if (cause instanceof DecoderException) {
+                corrupted++;
+            } else {
+                other++;
+            }
+        }
+    }
+
+    /**
+     * 暴露累积缓冲区中缓存的字节数
+     */
+    private static final class Probe extends Codec.ZeroCopyDecoder<Protocol.ReplyMessage> {
+        Probe() {
+            super(Protocol.ReplyMessage.parser(), false, MAX_FRAME_LENGTH);
+        }
+
+        int buffered() {
+            return internalBuffer().readableBytes();
+        }
+    }
+}
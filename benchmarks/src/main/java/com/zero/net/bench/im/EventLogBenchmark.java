@@ -0,0 +1,144 @@
+package com.zero.net.bench.im;
+
+import com.zero.net.netty.common.EventLog;
+import com.zero.net.netty.common.Transport;
+import com.zero.net.netty.examples.im.client.IMLoadClientHandler;
+import com.zero.net.netty.examples.im.packet.Codec;
+import com.zero.net.netty.examples.im.server.IMServer;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * IM服务端日志输出方式的吞吐量对比，见{@link EventLog}:
+ *  - sync:   原有的同步输出，每条消息在EventLoop中格式化并写入System.out，所有EventLoop竞争同一把锁;
+ *  - async:  异步输出，EventLoop只把事件放入线程独立的环形缓冲区，由后台线程格式化与写出;
+ *  - sample: 异步输出，并且每100条消息只记录1条;
+ *  - off:    不输出，作为上限;
+ * 服务端运行在独立的子进程中，标准输出重定向到临时文件(与实际部署时输出到文件相同)，客户端以闭环方式发送，
+ * 统计每种方式下服务端每秒处理的消息数与 发送 -> 收到自己的广播 的延迟。
+ * <p>
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.im.EventLogBenchmark [连接数] [模式列表] [秒数]
+ * 例如: ... EventLogBenchmark 16 sync,async,sample,off 20
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 12:00 </p>
+ */
+public class EventLogBenchmark {
+    private static final int PORT = 19111;
+    private static final int PAYLOAD = 64;
+    private static final int WARMUP_SECONDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        String[] modes = (args.length > 1 ? args[1] : "sync,async,sample,off").split(",");
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        System.out.printf("%-8s %8s %14s %12s %12s %14s%n",
+                "mode", "clients", "messages/s", "p50(us)", "p99(us)", "log(MB)");
+        for (String mode : modes) {
+            run(mode.trim().toLowerCase(), connections, seconds);
+        }
+    }
+
+    private static void run(String mode, int connections, int seconds) throws Exception {
+        File log = File.createTempFile("im-eventlog-" + mode, ".log");
+        log.deleteOnExit();
+        Process server = startServer(mode, log);
+        EventLoopGroup group = Transport.NIO.newEventLoopGroup(0);
+        Recorder echo = new Recorder(3);
+        Recorder fanout = new Recorder(3);
+        LongAdder sent = new LongAdder();
+        LongAdder received = new LongAdder();
+        try {
+            Bootstrap bootstrap = new Bootstrap()
+                    .group(group)
+                    .channel(Transport.NIO.channelClass())
+                    .option(ChannelOption.TCP_NODELAY, true);
+            List<Channel> channels = new ArrayList<>(connections);
+            List<IMLoadClientHandler> handlers = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                IMLoadClientHandler handler = new IMLoadClientHandler(i, PAYLOAD, 0, echo, fanout, sent, received);
+                bootstrap.handler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ch.pipeline()
+                                .addLast(Codec.Mode.ZERO_COPY.newReplyMessageDecoder())
+                                .addLast(handler)
+                                .addLast(Codec.Mode.ZERO_COPY.newEncoders(Codec.Wire.V2));
+                    }
+                });
+                channels.add(bootstrap.connect("127.0.0.1", PORT).sync().channel());
+                handlers.add(handler);
+            }
+            for (int i = 0; i < connections; i++) {
+                handlers.get(i).start(channels.get(i));
+            }
+
+            TimeUnit.SECONDS.sleep(WARMUP_SECONDS);
+            sent.reset();
+            echo.reset();
+            long start = System.nanoTime();
+            TimeUnit.SECONDS.sleep(seconds);
+            long messages = sent.sum();
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            Histogram latency = echo.getIntervalHistogram();
+
+            for (IMLoadClientHandler handler : handlers) {
+                handler.stop();
+            }
+            for (Channel channel : channels) {
+                channel.close();
+            }
+            System.out.printf("%-8s %8d %14.0f %12.1f %12.1f %14.1f%n", mode, connections, messages / elapsed,
+                    latency.getValueAtPercentile(50) / 1e3, latency.getValueAtPercentile(99) / 1e3,
+                    log.length() / 1024.0 / 1024.0);
+        } finally {
+            group.shutdownGracefully().sync();
+            server.destroy();
+            server.waitFor();
+            log.delete();
+        }
+    }
+
+    /**
+     * 以子进程的方式启动服务端，标准输出重定向到文件，并等待端口可以连接
+     */
+    private static Process startServer(String mode, File log) throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path")));
+        if ("sample".equals(mode)) {
+            command.add("-Deventlog.mode=async");
+            command.add("-Deventlog.sample=100");
+        } else {
+            command.add("-Deventlog.mode=" + mode);
+        }
+        command.add(IMServer.class.getName());
+        command.add(String.valueOf(PORT));
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(log)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        for (int i = 0; i < 100; i++) {
+            try (Socket ignored = new Socket("127.0.0.1", PORT)) {
+                return process;
+            } catch (IOException e) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+        }
+        process.destroy();
+        throw new IllegalStateException("server did not start");
+    }
+}
@@ -0,0 +1,180 @@
+package com.zero.net.bench.im;
+
+import com.google.protobuf.ByteString;
+import com.zero.net.netty.examples.im.packet.Codec;
+import com.zero.net.netty.examples.im.pb.Protocol;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IM服务端 解码SendMessage -> 编码回复 的基准测试，对比大消息体下完整解码与延迟解码payload:
+ *  - eager:     完整解码SendMessage(payload拷贝到ByteString)，通过Builder构造ReplyMessage后序列化;
+ *  - eagerUtf8: 同上，并将payload按UTF-8解码(原有实现中每条消息都会打印payload);
+ *  - lazy:      {@link Codec.RawSendMessageDecoder}只解析消息头字段，payload保留为入站缓冲区的切片，
+ *               通过{@link Codec.EncodedMessage#encodeReply}原样转发，回复只分配sender之前的几个字节，sender直接引用入站缓冲区;
+ *  - lazyCopy:  同上，但回复的消息体拷贝到一个连续的缓冲区中(sender随之拷贝)，即引用入站缓冲区之前的做法;
+ * 通过 -prof gc 查看每条消息的堆内存分配(gc.alloc.rate.norm)，sender拷贝发生在池化的直接内存中，
+ * 不会体现在堆内存分配上，64KB消息体下lazy与lazyCopy的耗时差即为拷贝的开销。
+ * 运行方式: java -jar benchmarks/target/benchmarks.jar LazyDecodeBenchmark -prof gc
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 18:00 </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dio.netty.leakDetection.level=disabled"})
+public class LazyDecodeBenchmark {
+
+    /**
+     * payload大小(byte)
+     */
+    @Param({"4096", "65536"})
+    private int payloadSize;
+
+    // 完整解码SendMessage
+    private EmbeddedChannel eagerChannel;
+    // 只解析消息头字段
+    private EmbeddedChannel lazyChannel;
+    // 已编码的完整报文，位于池化的直接内存中
+    private ByteBuf frame;
+
+    @Setup
+    public void setup() throws Exception {
+        byte[] payload = new byte[payloadSize];
+        Arrays.fill(payload, (byte) 'a');
+        Protocol.SendMessage message = Protocol.SendMessage.newBuilder()
+                .setId(1001).setName("zero").setGender(Protocol.Gender.BOY)
+                .setSendTime(System.currentTimeMillis())
+                .setPayload(ByteString.copyFrom(payload)).build();
+
+        eagerChannel = new EmbeddedChannel(new Codec.ZeroCopyDecoder<>(Protocol.SendMessage.parser(), true));
+        lazyChannel = new EmbeddedChannel(new Codec.RawSendMessageDecoder());
+        eagerChannel.config().setOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        lazyChannel.config().setOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+
+        int length = message.getSerializedSize();
+        frame = PooledByteBufAllocator.DEFAULT.directBuffer(Codec.HEADER_LENGTH + length);
+        frame.writeLong(length);
+        Codec.writeMessage(message, length, frame);
+
+        // 校验两种方式回复的字节相同
+        long replyTime = System.currentTimeMillis();
+        eagerChannel.writeInbound(frame.retainedDuplicate());
+        lazyChannel.writeInbound(frame.retainedDuplicate());
+        Protocol.SendMessage eager = eagerChannel.readInbound();
+        Codec.RawSendMessage lazy = lazyChannel.readInbound();
+        Codec.EncodedMessage expected = Codec.EncodedMessage.encode(PooledByteBufAllocator.DEFAULT,
+                Protocol.ReplyMessage.newBuilder().setSuccess(true).setReplyTime(replyTime).setSender(eager).build());
+        Codec.EncodedMessage actual = Codec.EncodedMessage.encodeReply(PooledByteBufAllocator.DEFAULT, true, replyTime,
+                lazy.content());
+        try {
+            if (!expected.content().equals(actual.content()) || lazy.id() != eager.getId()
+                    || !lazy.name().equals(eager.getName()) || lazy.sendTime() != eager.getSendTime()
+                    || !lazy.payloadString().equals(eager.getPayload().toStringUtf8())) {
+                throw new IllegalStateException("lazy decoding differs from full decoding");
+            }
+            // 校验sender没有被拷贝: 修改入站缓冲区中的最后一个字节，回复中的最后一个字节随之变化
+            ByteBuf inbound = lazy.content();
+            ByteBuf reply = actual.content();
+            byte last = inbound.getByte(inbound.writerIndex() - 1);
+            inbound.setByte(inbound.writerIndex() - 1, last + 1);
+            boolean shared = reply.getByte(reply.writerIndex() - 1) == (byte) (last + 1);
+            inbound.setByte(inbound.writerIndex() - 1, last);
+            if (!shared) {
+                throw new IllegalStateException("encodeReply copied the sender");
+            }
+        } finally {
+            expected.release();
+            actual.release();
+            lazy.release();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        frame.release();
+        eagerChannel.finishAndReleaseAll();
+        lazyChannel.finishAndReleaseAll();
+    }
+
+    /**
+     * 完整解码，重新序列化回复
+     */
+    @Benchmark
+    public int eager() throws Exception {
+        return release(encodeEager(decodeEager()));
+    }
+
+    /**
+     * 完整解码，UTF-8解码payload，重新序列化回复
+     */
+    @Benchmark
+    public int eagerUtf8() throws Exception {
+        Protocol.SendMessage message = decodeEager();
+        int chars = message.getPayload().toStringUtf8().length();
+        return release(encodeEager(message)) + chars;
+    }
+
+    /**
+     * 只解析消息头字段，原样转发payload
+     */
+    @Benchmark
+    public int lazy() throws Exception {
+        lazyChannel.writeInbound(frame.retainedDuplicate());
+        Codec.RawSendMessage raw = lazyChannel.readInbound();
+        try {
+            return release(Codec.EncodedMessage.encodeReply(PooledByteBufAllocator.DEFAULT, true,
+                    raw.sendTime(), raw.content()));
+        } finally {
+            raw.release();
+        }
+    }
+
+    /**
+     * 只解析消息头字段，回复的消息体拷贝到连续的缓冲区中
+     */
+    @Benchmark
+    public int lazyCopy() throws Exception {
+        lazyChannel.writeInbound(frame.retainedDuplicate());
+        Codec.RawSendMessage raw = lazyChannel.readInbound();
+        try {
+            Codec.EncodedMessage reply = Codec.EncodedMessage.encodeReply(PooledByteBufAllocator.DEFAULT, true,
+                    raw.sendTime(), raw.content());
+            ByteBuf body = reply.content();
+            ByteBuf copy = PooledByteBufAllocator.DEFAULT.directBuffer(body.readableBytes());
+            copy.writeBytes(body, body.readerIndex(), body.readableBytes());
+            reply.release();
+            return release(new Codec.EncodedMessage(copy));
+        } finally {
+            raw.release();
+        }
+    }
+
+    private Protocol.SendMessage decodeEager() {
+        eagerChannel.writeInbound(frame.retainedDuplicate());
+        return eagerChannel.readInbound();
+    }
+
+    private static Codec.EncodedMessage encodeEager(Protocol.SendMessage message) throws Exception {
+        Protocol.ReplyMessage reply = Protocol.ReplyMessage.newBuilder()
+                .setSuccess(true)
+                .setReplyTime(message.getSendTime())
+                .setSender(message).build();
+        return Codec.EncodedMessage.encode(PooledByteBufAllocator.DEFAULT, reply);
+    }
+
+    private static int release(Codec.EncodedMessage encoded) {
+        int bytes = encoded.content().readableBytes();
+        encoded.release();
+        return bytes;
+    }
+}
@@ -0,0 +1,108 @@
+package com.zero.net.bench.im;
+
+import com.google.protobuf.ByteString;
+import com.zero.net.netty.examples.im.packet.Codec;
+import com.zero.net.netty.examples.im.pb.Protocol;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IM服务端回复(广播)消息的编码基准测试，对比每次广播时构造ReplyMessage的两种方式:
+ *  - BUILDER: 原有实现，通过Builder构造ReplyMessage(包装解码出的SendMessage)，再序列化到池化缓冲区中;
+ *  - DIRECT:  {@link Codec.EncodedMessage#encodeReply}，直接写出ReplyMessage的字段，sender引用入站报文中的原始字节，不拷贝;
+ * 通过 -prof gc 查看每次广播的堆内存分配(gc.alloc.rate.norm)，DIRECT只剩下EncodedMessage对象本身;
+ * 初始化时会校验两种方式编码出的字节完全相同。
+ * 运行方式: java -jar benchmarks/target/benchmarks.jar ReplyEncodeBenchmark -prof gc
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 17:00 </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dio.netty.leakDetection.level=disabled"})
+public class ReplyEncodeBenchmark {
+
+    /**
+     * 消息体大小(byte)
+     */
+    @Param({"64", "512", "4096"})
+    private int payloadSize;
+
+    // 解码出的SendMessage
+    private Protocol.SendMessage message;
+    // 入站报文中SendMessage的原始字节，位于池化的直接内存中
+    private ByteBuf sender;
+    private long replyTime;
+
+    @Setup
+    public void setup() throws Exception {
+        byte[] payload = new byte[payloadSize];
+        Arrays.fill(payload, (byte) 'a');
+        message = Protocol.SendMessage.newBuilder()
+                .setId(1001).setName("zero").setGender(Protocol.Gender.BOY)
+                .setSendTime(System.currentTimeMillis())
+                .setPayload(ByteString.copyFrom(payload)).build();
+        int length = message.getSerializedSize();
+        sender = PooledByteBufAllocator.DEFAULT.directBuffer(length);
+        Codec.writeMessage(message, length, sender);
+        replyTime = System.currentTimeMillis();
+
+        Codec.EncodedMessage expected = builder();
+        Codec.EncodedMessage actual = direct();
+        try {
+            if (!ByteBufUtil.equals(expected.content(), actual.content())) {
+                throw new IllegalStateException("encodeReply differs from ReplyMessage serialization");
+            }
+        } finally {
+            expected.release();
+            actual.release();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        sender.release();
+    }
+
+    /**
+     * Builder构造ReplyMessage后序列化
+     */
+    @Benchmark
+    public int builderEncode() throws Exception {
+        return release(builder());
+    }
+
+    /**
+     * 直接写出ReplyMessage的字段，引用sender的原始字节
+     */
+    @Benchmark
+    public int directEncode() throws Exception {
+        return release(direct());
+    }
+
+    private Codec.EncodedMessage builder() throws Exception {
+        Protocol.ReplyMessage reply = Protocol.ReplyMessage.newBuilder()
+                .setSuccess(true)
+                .setReplyTime(replyTime)
+                .setSender(message).build();
+        return Codec.EncodedMessage.encode(PooledByteBufAllocator.DEFAULT, reply);
+    }
+
+    private Codec.EncodedMessage direct() throws Exception {
+        return Codec.EncodedMessage.encodeReply(PooledByteBufAllocator.DEFAULT, true, replyTime, sender);
+    }
+
+    private static int release(Codec.EncodedMessage encoded) {
+        int bytes = encoded.content().readableBytes();
+        encoded.release();
+        return bytes;
+    }
+}
@@ -0,0 +1,114 @@
+package com.zero.net.bench.im;
+
+import com.zero.net.netty.examples.im.client.IMLoadClient;
+import com.zero.net.netty.examples.im.server.IMServer;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Netty IMServer与vertx模块中VertxIMServer的对比，两者报文兼容，使用同一个压测客户端{@link IMLoadClient}:
+ * 依次以子进程的方式启动每个服务端，再以子进程的方式运行IMLoadClient(输出每秒的统计)，最后汇总两者的吞吐量与延迟分位数;
+ * 服务端都不输出每条消息的日志(Netty服务端使用 -Deventlog.mode=off)。
+ * vertx模块依赖Netty 4.1，与当前classpath中的Netty 4.2冲突，需要通过 {@code -Dvertx.classpath} 单独指定其classpath，例如:
+ * <pre>
+ * mvn -B -q -pl vertx package dependency:build-classpath -Dmdep.outputFile=vertx.cp
+ * java -Dvertx.classpath=vertx/target/classes:$(cat vertx/vertx.cp) -cp benchmarks/target/benchmarks.jar \
+ *      com.zero.net.bench.im.ServerComparison [连接数] [秒数] [发送速率]
+ * </pre>
+ * 未指定vertx.classpath时只运行Netty服务端。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 15:00 </p>
+ */
+public class ServerComparison {
+    private static final int PORT = 19113;
+    private static final String VERTX_SERVER = "com.zero.net.vertx.im.VertxIMServer";
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        long rate = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        String vertxClasspath = System.getProperty("vertx.classpath");
+
+        List<String[]> summaries = new ArrayList<>();
+        summaries.add(run("netty", System.getProperty("java.class.path"), IMServer.class.getName(),
+                connections, seconds, rate));
+        if (vertxClasspath != null) {
+            summaries.add(run("vertx", vertxClasspath, VERTX_SERVER, connections, seconds, rate));
+        } else {
+            System.out.println("-Dvertx.classpath not set, skipping vertx");
+        }
+
+        System.out.printf("%n%-6s %8s %12s %12s %10s %10s %10s %10s%n",
+                "server", "clients", "sent/s", "received/s", "p50(us)", "p99(us)", "p999(us)", "max(us)");
+        for (String[] summary : summaries) {
+            // CSV汇总行: second,phase,sent,received,echo_p50,echo_p99,echo_p999,echo_max,...
+            System.out.printf("%-6s %8d %12s %12s %10s %10s %10s %10s%n", summary[0], connections,
+                    summary[3], summary[4], summary[5], summary[6], summary[7], summary[8]);
+        }
+    }
+
+    /**
+     * 启动服务端并运行压测客户端
+     *
+     * @return [服务端名称, CSV汇总行的各列]
+     */
+    private static String[] run(String name, String classpath, String mainClass, int connections, int seconds,
+                                long rate) throws Exception {
+        System.out.printf("== %s ==%n", name);
+        Path csv = Files.createTempFile("im-load-" + name, ".csv");
+        Process server = start(classpath, mainClass);
+        try {
+            String java = ProcessHandle.current().info().command().orElse("java");
+            Process client = new ProcessBuilder(java,
+                    "-Dim.port=" + PORT,
+                    "-Dload.connections=" + connections,
+                    "-Dload.duration=" + seconds,
+                    "-Dload.rate=" + rate,
+                    "-Dload.csv=" + csv,
+                    "-cp", System.getProperty("java.class.path"),
+                    IMLoadClient.class.getName())
+                    .inheritIO()
+                    .start();
+            if (client.waitFor() != 0) {
+                throw new IllegalStateException(name + ": load client exited with " + client.exitValue());
+            }
+            List<String> lines = Files.readAllLines(csv);
+            String[] summary = lines.get(lines.size() - 1).split(",");
+            String[] result = new String[summary.length + 1];
+            result[0] = name;
+            System.arraycopy(summary, 0, result, 1, summary.length);
+            return result;
+        } finally {
+            server.destroy();
+            server.waitFor();
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    /**
+     * 以子进程的方式启动服务端，并等待端口可以连接
+     */
+    private static Process start(String classpath, String mainClass) throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process process = new ProcessBuilder(java, "-Deventlog.mode=off", "-cp", classpath, mainClass, String.valueOf(PORT))
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        for (int i = 0; i < 100; i++) {
+            try (Socket ignored = new Socket("127.0.0.1", PORT)) {
+                return process;
+            } catch (IOException e) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+        }
+        process.destroy();
+        throw new IllegalStateException(mainClass + " did not start");
+    }
+}
@@ -0,0 +1,160 @@
+package com.zero.net.bench.im;
+
+import com.google.protobuf.ByteString;
+import com.zero.net.netty.common.ServerMetrics;
+import com.zero.net.netty.common.Transport;
+import com.zero.net.netty.examples.im.packet.Codec;
+import com.zero.net.netty.examples.im.pb.Protocol;
+import com.zero.net.netty.examples.im.server.IMServer;
+import com.zero.net.netty.examples.im.server.SessionRegistry;
+import com.zero.net.netty.examples.im.server.SlowConsumerHandler;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.ReferenceCountUtil;
+
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * IM服务端慢消费者的洪泛测试，见{@link SlowConsumerHandler}:
+ * 一个从不读取的客户端(关闭autoRead，接收缓冲区很小)与一个正常的发布者连接到同一个服务端，发布者持续发送消息，
+ * 服务端把每条消息广播给两个连接，发往停止读取的客户端的数据会在服务端的出站缓冲区中积压;
+ * 依次在每种策略下运行，定时采样服务端所有连接出站缓冲区中等待写出的字节数，输出峰值与丢弃、延迟写出的消息数，并校验:
+ *  - 除none外，出站缓冲区的峰值不超过 连接数 × (高水位 + 一个报文)，none作为对照，峰值随发送量增长;
+ *  - 正常的发布者不受影响，收到自己发送的全部广播;
+ *  - disconnect策略下停止读取的客户端被关闭;
+ * <p>
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.im.SlowConsumerFloodTest [消息数] [策略列表]
+ * 例如: ... SlowConsumerFloodTest 20000 none,disconnect,drop-oldest,drop-newest,coalesce
+ * 校验失败时以非0状态码退出
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 13:00 </p>
+ */
+public class SlowConsumerFloodTest {
+    private static final int PORT = 19112;
+    private static final int PAYLOAD = 1024;
+    // 发布者同时在途的消息数，保证正常连接的出站缓冲区不会超过高水位
+    private static final int WINDOW = 16;
+
+    public static void main(String[] args) throws Exception {
+        // 关闭服务端的消息日志，避免输出影响测试
+        if (System.getProperty("eventlog.mode") == null) {
+            System.setProperty("eventlog.mode", "off");
+        }
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        String[] policies = (args.length > 1 ? args[1] : "none,disconnect,drop-oldest,drop-newest,coalesce").split(",");
+
+        System.out.printf("%-12s %10s %10s %16s %10s %10s %13s %8s%n",
+                "policy", "sent", "received", "max-pending(KB)", "dropped", "delayed", "disconnected", "result");
+        boolean ok = true;
+        for (String policy : policies) {
+            ok &= run(SlowConsumerHandler.Policy.valueOf(policy.trim().toUpperCase().replace('-', '_')), messages);
+        }
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean run(SlowConsumerHandler.Policy policy, int messages) throws Exception {
+        Transport transport = Transport.NIO;
+        EventLoopGroup boss = transport.newEventLoopGroup(1);
+        EventLoopGroup worker = transport.newEventLoopGroup(2);
+        EventLoopGroup clientGroup = transport.newEventLoopGroup(2);
+        ServerMetrics metrics = new ServerMetrics("slow-consumer-" + policy.name().toLowerCase());
+        long disconnectedBefore = SlowConsumerHandler.disconnected();
+        try {
+            transport.newServerBootstrap(boss, worker)
+                    .childHandler(IMServer.childInitializer(Codec.Mode.ZERO_COPY, new SessionRegistry(), null, metrics, policy))
+                    .bind(PORT).sync();
+
+            // 停止读取的客户端: 连接建立后从不读取，接收缓冲区很小，服务端很快就会写满内核的发送缓冲区
+            new Bootstrap()
+                    .group(clientGroup)
+                    .channel(transport.channelClass())
+                    .option(ChannelOption.AUTO_READ, false)
+                    .option(ChannelOption.SO_RCVBUF, 4096)
+                    .handler(new ChannelInboundHandlerAdapter())
+                    .connect("127.0.0.1", PORT).sync();
+
+            // 正常的发布者: 收到自己的广播后才发送下一条，在途的消息数不超过WINDOW
+            Semaphore window = new Semaphore(WINDOW);
+            AtomicLong received = new AtomicLong();
+            Channel publisher = new Bootstrap()
+                    .group(clientGroup)
+                    .channel(transport.channelClass())
+                    .option(ChannelOption.TCP_NODELAY, true)
+                    .handler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            ch.pipeline()
+                                    .addLast(Codec.Mode.ZERO_COPY.newReplyMessageDecoder())
+                                    .addLast(new ChannelInboundHandlerAdapter() {
+                                        @Override
+                                        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                                            ReferenceCountUtil.release(msg);
+                                            received.incrementAndGet();
+                                            window.release();
+                                        }
+                                    })
+                                    .addLast(Codec.Mode.ZERO_COPY.newEncoders(Codec.Wire.V2));
+                        }
+                    })
+                    .connect("127.0.0.1", PORT).sync().channel();
+
+            // 采样服务端所有连接出站缓冲区中等待写出的字节数
+            AtomicLong maxPending = new AtomicLong();
+            Thread sampler = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    maxPending.accumulateAndGet(metrics.getPendingOutboundBytes(), Math::max);
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(1);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "pending-sampler");
+            sampler.start();
+
+            byte[] payload = new byte[PAYLOAD];
+            Arrays.fill(payload, (byte) 'a');
+            ByteString body = ByteString.copyFrom(payload);
+            for (int i = 0; i < messages; i++) {
+                if (!window.tryAcquire(10, TimeUnit.SECONDS)) {
+                    break;
+                }
+                publisher.writeAndFlush(Protocol.SendMessage.newBuilder()
+                        .setId(i).setName("flood").setGender(Protocol.Gender.BOY)
+                        .setSendTime(System.currentTimeMillis())
+                        .setPayload(body)
+                        .build());
+            }
+            // 等待最后一个窗口内的广播
+            window.tryAcquire(WINDOW, 10, TimeUnit.SECONDS);
+            sampler.interrupt();
+            sampler.join();
+
+            long disconnected = SlowConsumerHandler.disconnected() - disconnectedBefore;
+            // 每个连接的出站缓冲区最多超过高水位一个报文(写入后才变为不可写)
+            long bound = 2L * (SlowConsumerHandler.waterMark().high() + Codec.V2_MAX_HEADER_LENGTH + PAYLOAD + 64);
+            boolean ok = received.get() == messages
+                    && (policy == SlowConsumerHandler.Policy.NONE || maxPending.get() <= bound)
+                    && (policy != SlowConsumerHandler.Policy.DISCONNECT || disconnected == 1);
+            System.out.printf("%-12s %10d %10d %16.1f %10d %10d %13d %8s%n", policy.name().toLowerCase(), messages,
+                    received.get(), maxPending.get() / 1024.0, metrics.getMessagesDropped(), metrics.getMessagesDelayed(),
+                    disconnected, ok ? "OK" : "FAILED");
+            return ok;
+        } finally {
+            clientGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS).sync();
+            boss.shutdownGracefully(0, 5, TimeUnit.SECONDS).sync();
+            worker.shutdownGracefully(0, 5, TimeUnit.SECONDS).sync();
+        }
+    }
+}
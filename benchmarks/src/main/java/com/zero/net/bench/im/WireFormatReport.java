@@ -0,0 +1,63 @@
+package com.zero.net.bench.im;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.MessageLite;
+import com.zero.net.netty.examples.im.packet.Codec;
+import com.zero.net.netty.examples.im.pb.Protocol;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import java.util.Arrays;
+
+/**
+ * IM报文格式v1与v2的单条消息字节数对比，分别统计客户端发送的SendMessage与服务端回复的ReplyMessage;
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.im.WireFormatReport
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 11:05 </p>
+ */
+public class WireFormatReport {
+    // 聊天消息体大小(byte)，大部分聊天消息小于200byte
+    private static final int[] PAYLOAD_SIZES = {8, 32, 64, 128, 200, 512, 4096};
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-14s %10s %10s %10s%n", "payload", "message", "v1(byte)", "v2(byte)", "saving");
+        for (int size : PAYLOAD_SIZES) {
+            byte[] payload = new byte[size];
+            Arrays.fill(payload, (byte) 'a');
+            Protocol.SendMessage send = Protocol.SendMessage.newBuilder()
+                    .setId(1001).setName("zero").setGender(Protocol.Gender.BOY)
+                    .setSendTime(System.currentTimeMillis())
+                    .setPayload(ByteString.copyFrom(payload)).build();
+            Protocol.ReplyMessage reply = Protocol.ReplyMessage.newBuilder()
+                    .setSuccess(true)
+                    .setReplyTime(System.currentTimeMillis())
+                    .setSender(send).build();
+            print(size, send);
+            print(size, reply);
+        }
+    }
+
+    private static void print(int payloadSize, MessageLite message) {
+        int v1 = encodedSize(message, Codec.Wire.V1);
+        int v2 = encodedSize(message, Codec.Wire.V2);
+        System.out.printf("%-8d %-14s %10d %10d %9.1f%%%n", payloadSize, message.getClass().getSimpleName(),
+                v1, v2, (v1 - v2) * 100.0 / v1);
+    }
+
+    /**
+     * 经过编码器后实际写出的字节数
+     */
+    private static int encodedSize(MessageLite message, Codec.Wire wire) {
+        EmbeddedChannel channel = new EmbeddedChannel(Codec.Mode.ZERO_COPY.newEncoders(wire));
+        channel.writeOutbound(message);
+        int bytes = 0;
+        ByteBuf buf;
+        while ((buf = channel.readOutbound()) != null) {
+            bytes += buf.readableBytes();
+            buf.release();
+        }
+        channel.finishAndReleaseAll();
+        return bytes;
+    }
+}
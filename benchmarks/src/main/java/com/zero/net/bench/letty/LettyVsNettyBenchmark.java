@@ -0,0 +1,209 @@
+package com.zero.net.bench.letty;
+
+import com.zero.letty.Connection;
+import com.zero.letty.Handler;
+import com.zero.letty.LettyServer;
+import com.zero.net.netty.common.Transport;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.socket.SocketChannel;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Letty与Netty的echo基准测试，两边服务端都使用NIO传输层与相同的从Reactor线程数:
+ *  - letty: {@link LettyServer}，收到的数据拷贝到新的缓冲区后原样写回;
+ *  - netty: {@link ServerBootstrap} + NIO，收到的ByteBuf原样写回;
+ * 客户端为Netty实现，每个连接以闭环(ping-pong)方式发送固定大小的消息，收齐回显后再发送下一条，
+ * 统计吞吐量与往返延迟的p50/p99/p999/max。
+ * <p>
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.letty.LettyVsNettyBenchmark [连接数] [秒数] [消息大小]
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 18:00 </p>
+ */
+public class LettyVsNettyBenchmark {
+    private static final int PORT = 19103;
+    // 每个连接最多记录的延迟样本数
+    private static final int MAX_SAMPLES = 1 << 16;
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int size = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int workers = Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%-8s %8s %6s %14s %10s %10s %10s %10s%n",
+                "server", "conns", "size", "msgs/s", "p50(us)", "p99(us)", "p999(us)", "max(us)");
+        // letty
+        LettyServer letty = new LettyServer(PORT, workers, new EchoHandler()).start();
+        try {
+            runClient("letty", connections, seconds, size);
+        } finally {
+            letty.close();
+            letty.awaitTermination();
+        }
+        // netty
+        EventLoopGroup boss = Transport.NIO.newEventLoopGroup(1);
+        EventLoopGroup worker = Transport.NIO.newEventLoopGroup(workers);
+        try {
+            Channel server = new ServerBootstrap()
+                    .group(boss, worker)
+                    .channel(Transport.NIO.serverChannelClass())
+                    .childOption(ChannelOption.TCP_NODELAY, true)
+                    .childHandler(new NettyEchoHandler())
+                    .bind(PORT).sync().channel();
+            runClient("netty", connections, seconds, size);
+            server.close().sync();
+        } finally {
+            worker.shutdownGracefully().sync();
+            boss.shutdownGracefully().sync();
+        }
+    }
+
+    private static void runClient(String name, int connections, int seconds, int size) throws Exception {
+        EventLoopGroup group = Transport.NIO.newEventLoopGroup(0);
+        try {
+            ByteBuf message = Unpooled.unreleasableBuffer(Unpooled.directBuffer(size).writeZero(size));
+            List<PingPongClient> clients = new ArrayList<>(connections);
+            List<Channel> channels = new ArrayList<>(connections);
+            Bootstrap bootstrap = new Bootstrap()
+                    .group(group)
+                    .channel(Transport.NIO.channelClass())
+                    .option(ChannelOption.TCP_NODELAY, true);
+            for (int i = 0; i < connections; i++) {
+                PingPongClient client = new PingPongClient(message);
+                clients.add(client);
+                bootstrap.handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(client);
+                    }
+                });
+                channels.add(bootstrap.connect("127.0.0.1", PORT).sync().channel());
+            }
+            for (int i = 0; i < connections; i++) {
+                Channel channel = channels.get(i);
+                PingPongClient client = clients.get(i);
+                channel.eventLoop().execute(() -> client.send(channel));
+            }
+
+            // 预热
+            TimeUnit.SECONDS.sleep(2);
+            for (PingPongClient client : clients) {
+                client.recording = true;
+            }
+            TimeUnit.SECONDS.sleep(seconds);
+            for (PingPongClient client : clients) {
+                client.recording = false;
+            }
+            for (Channel channel : channels) {
+                channel.close().sync();
+            }
+
+            long total = 0;
+            int n = 0;
+            for (PingPongClient client : clients) {
+                total += client.count;
+                n += Math.min(client.count, client.samples.length);
+            }
+            long[] samples = new long[n];
+            n = 0;
+            for (PingPongClient client : clients) {
+                int len = Math.min(client.count, client.samples.length);
+                System.arraycopy(client.samples, 0, samples, n, len);
+                n += len;
+            }
+            Arrays.sort(samples, 0, n);
+            System.out.printf("%-8s %8d %6d %14.0f %10.1f %10.1f %10.1f %10.1f%n", name, connections, size,
+                    total / (double) seconds,
+                    percentile(samples, n, 0.50), percentile(samples, n, 0.99),
+                    percentile(samples, n, 0.999), n == 0 ? 0 : samples[n - 1] / 1000.0);
+        } finally {
+            group.shutdownGracefully().sync();
+        }
+    }
+
+    private static double percentile(long[] sorted, int n, double p) {
+        if (n == 0) {
+            return 0;
+        }
+        return sorted[Math.min(n - 1, (int) Math.ceil(p * n) - 1)] / 1000.0;
+    }
+
+    /**
+     * Letty echo
+     */
+    static class EchoHandler implements Handler {
+        @Override
+        public void onRead(Connection connection, ByteBuffer buffer) {
+            // 读缓冲区在回调结束后会被清除，需要拷贝
+            ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+            copy.put(buffer).flip();
+            connection.write(copy);
+        }
+    }
+
+    /**
+     * Netty echo
+     */
+    @ChannelHandler.Sharable
+    static class NettyEchoHandler extends ChannelInboundHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ctx.write(msg, ctx.voidPromise());
+        }
+
+        @Override
+        public void channelReadComplete(ChannelHandlerContext ctx) {
+            ctx.flush();
+        }
+    }
+
+    /**
+     * 闭环客户端，收齐一条消息的回显后再发送下一条
+     */
+    static class PingPongClient extends ChannelInboundHandlerAdapter {
+        private final ByteBuf message;
+        private final long[] samples;
+        private volatile boolean recording;
+        private int count;
+        private int pending;
+        private long sendTime;
+
+        PingPongClient(ByteBuf message) {
+            this.message = message;
+            this.samples = new long[MAX_SAMPLES];
+        }
+
+        void send(Channel channel) {
+            pending = message.readableBytes();
+            sendTime = System.nanoTime();
+            channel.writeAndFlush(message.duplicate(), channel.voidPromise());
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ByteBuf buf = (ByteBuf) msg;
+            pending -= buf.readableBytes();
+            buf.release();
+            if (pending > 0) {
+                return;
+            }
+            if (recording) {
+                if (count < samples.length) {
+                    samples[count] = System.nanoTime() - sendTime;
+                }
+                count++;
+            }
+            send(ctx.channel());
+        }
+    }
+}
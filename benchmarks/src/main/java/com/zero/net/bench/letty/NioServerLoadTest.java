@@ -0,0 +1,192 @@
+package com.zero.net.bench.letty;
+
+import com.zero.letty.LettyServer;
+import com.zero.net.netty.common.Transport;
+import com.zero.net.system.nio.Server;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 原生NIO服务端({@link Server})的负载测试:
+ * N个客户端并发连接，每个客户端发送M条长度随机(1KB ~ 16KB)的消息，同时最多有W条未收到回显，
+ * 逐条校验回显内容与发送内容完全一致(顺序与字节)，以此证明大消息在被拆分读取、写不完、暂停读取等情况下都不会错乱;
+ * 每100个客户端中有一个会在发送过程中暂停读取一段时间，触发服务端的OP_WRITE与高水位暂停读取。
+ * <p>
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.letty.NioServerLoadTest [客户端数] [每个客户端消息数] [窗口大小]
+ * 存在错误的回显或者超时时进程以非0状态码退出。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 18:30 </p>
+ */
+public class NioServerLoadTest {
+    private static final int PORT = 19104;
+    private static final int MIN_SIZE = 1024;
+    private static final int MAX_SIZE = 16 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int messages = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int window = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        // 服务端会打印每一条消息，测试期间丢弃控制台输出
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        LettyServer server = new Server(PORT).start();
+        EventLoopGroup group = Transport.NIO.newEventLoopGroup(0);
+        LongAdder received = new LongAdder();
+        LongAdder bytes = new LongAdder();
+        AtomicLong corrupted = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(clients);
+        boolean ok;
+        long elapsed;
+        try {
+            Bootstrap bootstrap = new Bootstrap()
+                    .group(group)
+                    .channel(Transport.NIO.channelClass())
+                    .option(ChannelOption.TCP_NODELAY, true);
+            List<ChannelFuture> futures = new ArrayList<>(clients);
+            long start = System.nanoTime();
+            for (int i = 0; i < clients; i++) {
+                VerifyingClient client = new VerifyingClient(i, messages, window, i % 100 == 99,
+                        received, bytes, corrupted, done);
+                bootstrap.handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline()
+                                .addLast(new LineBasedFrameDecoder(Server.MAX_MESSAGE_LENGTH))
+                                .addLast(client);
+                    }
+                });
+                futures.add(bootstrap.connect("127.0.0.1", PORT));
+            }
+            for (ChannelFuture future : futures) {
+                future.sync();
+            }
+            ok = done.await(5, TimeUnit.MINUTES);
+            elapsed = System.nanoTime() - start;
+            for (ChannelFuture future : futures) {
+                future.channel().close().sync();
+            }
+        } finally {
+            group.shutdownGracefully().sync();
+            server.close();
+            server.awaitTermination();
+            System.setOut(console);
+        }
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("clients=%d messages=%d window=%d%n", clients, messages, window);
+        System.out.printf("received=%d/%d corrupted=%d elapsed=%.2fs%n",
+                received.sum(), (long) clients * messages, corrupted.get(), seconds);
+        System.out.printf("throughput: %.0f msgs/s, %.1f MB/s%n",
+                received.sum() / seconds, bytes.sum() / seconds / 1024 / 1024);
+        if (!ok || corrupted.get() > 0) {
+            System.out.println("FAILED" + (ok ? "" : ": timeout"));
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+
+    /**
+     * 生成第seq条消息的内容，长度与内容都由客户端id与序号决定，便于校验
+     */
+    static byte[] message(int id, int seq) {
+        int size = MIN_SIZE + Math.floorMod(id * 7919 + seq * 104729, MAX_SIZE - MIN_SIZE + 1);
+        byte[] data = new byte[size];
+        byte[] header = ("c" + id + "-s" + seq + ":").getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(header, 0, data, 0, header.length);
+        for (int i = header.length; i < size; i++) {
+            data[i] = (byte) ('a' + (id * 31 + seq * 17 + i) % 26);
+        }
+        return data;
+    }
+
+    /**
+     * 校验回显的客户端，窗口内的消息全部发出后等待回显，每收到一条回显再补发一条
+     */
+    static class VerifyingClient extends SimpleChannelInboundHandler<ByteBuf> {
+        private final int id;
+        private final int messages;
+        private final int window;
+        private final boolean stall;
+        private final LongAdder received;
+        private final LongAdder bytes;
+        private final AtomicLong corrupted;
+        private final CountDownLatch done;
+        // 是否已经收到服务端的欢迎消息
+        private boolean welcomed;
+        private int sent;
+        private int acked;
+
+        VerifyingClient(int id, int messages, int window, boolean stall,
+                        LongAdder received, LongAdder bytes, AtomicLong corrupted, CountDownLatch done) {
+            this.id = id;
+            this.messages = messages;
+            this.window = window;
+            this.stall = stall;
+            this.received = received;
+            this.bytes = bytes;
+            this.corrupted = corrupted;
+            this.done = done;
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg) {
+            if (!welcomed) {
+                welcomed = true;
+                fill(ctx);
+                return;
+            }
+            byte[] expected = message(id, acked);
+            if (msg.readableBytes() != expected.length || !ByteBufUtil.equals(msg, Unpooled.wrappedBuffer(expected))) {
+                corrupted.incrementAndGet();
+            }
+            acked++;
+            received.increment();
+            bytes.add(expected.length);
+            if (acked == messages) {
+                done.countDown();
+                return;
+            }
+            // 发送到一半时暂停读取，服务端的回显写不完，待发送数据超过高水位后暂停读取该客户端
+            if (stall && acked == messages / 2) {
+                ctx.channel().config().setAutoRead(false);
+                ctx.executor().schedule(() -> ctx.channel().config().setAutoRead(true),
+                        ThreadLocalRandom.current().nextInt(200, 1000), TimeUnit.MILLISECONDS);
+            }
+            fill(ctx);
+        }
+
+        private void fill(ChannelHandlerContext ctx) {
+            // 暂停读取期间仍然继续发送，窗口放大为4倍，制造积压
+            int limit = stall && !ctx.channel().config().isAutoRead() ? window * 4 : window;
+            while (sent < messages && sent - acked < limit) {
+                byte[] data = message(id, sent++);
+                ctx.write(ctx.alloc().buffer(data.length + 1).writeBytes(data).writeByte('\n'), ctx.voidPromise());
+            }
+            ctx.flush();
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            corrupted.incrementAndGet();
+            ctx.close();
+        }
+    }
+}
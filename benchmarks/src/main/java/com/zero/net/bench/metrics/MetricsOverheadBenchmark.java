@@ -0,0 +1,80 @@
+package com.zero.net.bench.metrics;
+
+import com.zero.net.netty.common.ServerMetrics;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 指标统计{@link ServerMetrics}的开销: 每次操作向echo pipeline写入一条64字节的入站消息，读取并释放回写的出站消息，
+ * 对比不统计与统计(流量统计处理器 + 消息统计处理器)两种pipeline的耗时;
+ * 多线程运行时每个线程的Channel属于不同的EventLoop，计数器之间不会产生竞争，可以通过 -t 参数验证耗时不随线程数增加。
+ * <p>
+ * 运行方式: java -jar benchmarks/target/benchmarks.jar MetricsOverheadBenchmark [-t 4]
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 11:00 </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dio.netty.leakDetection.level=disabled"})
+public class MetricsOverheadBenchmark {
+    private static final ServerMetrics METRICS = new ServerMetrics("bench");
+
+    @Param({"false", "true"})
+    private boolean metrics;
+
+    private EmbeddedChannel channel;
+    private ByteBuf request;
+
+    @Setup
+    public void setup() {
+        channel = new EmbeddedChannel();
+        channel.config().setOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        if (metrics) {
+            channel.pipeline().addLast(METRICS.newTrafficHandler(), METRICS.newMessageHandler());
+        }
+        channel.pipeline().addLast(new Echo());
+        request = PooledByteBufAllocator.DEFAULT.directBuffer(64).writeZero(64);
+    }
+
+    @TearDown
+    public void tearDown() {
+        request.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int echo() {
+        channel.writeInbound(request.retainedDuplicate());
+        int bytes = 0;
+        Object out;
+        while ((out = channel.readOutbound()) != null) {
+            bytes += ((ByteBuf) out).readableBytes();
+            ReferenceCountUtil.release(out);
+        }
+        return bytes;
+    }
+
+    /**
+     * 将入站消息原样写回
+     */
+    @ChannelHandler.Sharable
+    static class Echo extends ChannelInboundHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ctx.writeAndFlush(msg, ctx.voidPromise());
+        }
+    }
+}
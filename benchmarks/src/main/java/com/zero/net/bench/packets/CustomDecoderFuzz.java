@@ -0,0 +1,239 @@
+package com.zero.net.bench.packets;
+
+import com.zero.net.netty.packets.demo5.CustomDecoder;
+import com.zero.net.netty.packets.demo5.pb.Protocol;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.TooLongFrameException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * demo5 {@link CustomDecoder}的模糊测试，每轮随机生成一段报文，切分为随机大小的片段(堆内与直接内存随机)逐个写入解码器:
+ *  - 结构化报文: 由合法的数据包、超过最大长度的数据包(带数据体)、无法反序列化的数据体组成，最后可能带有一个长度极大的消息头
+ *    或者一个负数长度的消息头(之后的数据都不会被解码，连接被关闭)，校验解码出的消息与顺序完全一致，超长与损坏的数据包数量与预期一致，
+ *    数据体的异常不会影响后续数据包的解码;
+ *  - 随机字节: 校验解码器不会抛出未处理的异常，也不会按报文中的长度分配内存;
+ * 每次写入后校验累积缓冲区中缓存的字节数不超过 消息头 + 最大长度，每轮结束后校验所有写入的缓冲区都已经释放。
+ * <p>
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.packets.CustomDecoderFuzz [轮数] [随机种子]
+ * 校验失败时以非0状态码退出，并输出失败的轮数与随机种子
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 14:00 </p>
+ */
+public class CustomDecoderFuzz {
+    private static final int MAX_FRAME_LENGTH = 4096;
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        Random random = new Random(seed);
+        long frames = 0;
+        long bytes = 0;
+        for (int round = 0; round < rounds; round++) {
+            try {
+                long[] result = round % 2 == 0 ? structured(random) : garbage(random);
+                frames += result[0];
+                bytes += result[1];
+            } catch (AssertionError | RuntimeException e) {
+                System.out.printf("FAILED at round %d, seed %d: %s%n", round, seed, e);
+                e.printStackTrace(System.out);
+                System.exit(1);
+            }
+        }
+        System.out.printf("rounds: %d, seed: %d, decoded frames: %d, bytes: %d -> OK%n", rounds, seed, frames, bytes);
+    }
+
+    /**
+     * 结构化报文
+     *
+     * @return [解码出的消息数, 报文字节数]
+     */
+    private static long[] structured(Random random) {
+        ByteBuf wire = Unpooled.buffer();
+        List<Protocol.PayloadRequest> expected = new ArrayList<>();
+        int tooLong = 0;
+        int corrupted = 0;
+        int segments = 1 + random.nextInt(32);
+        for (int i = 0; i < segments; i++) {
+            switch (random.nextInt(7)) {
+                case 0 -> {
+                    // 超过最大长度的数据包，数据体会被跳过
+                    int length = MAX_FRAME_LENGTH + 1 + random.nextInt(MAX_FRAME_LENGTH * 3);
+                    wire.writeLong(length);
+                    wire.writeBytes(randomBytes(random, length));
+                    tooLong++;
+                }
+                case 1 -> {
+                    // 字段编号为0的tag是非法的，数据体一定无法反序列化
+                    byte[] body = randomBytes(random, 1 + random.nextInt(64));
+                    body[0] = 0;
+                    wire.writeLong(body.length);
+                    wire.writeBytes(body);
+                    corrupted++;
+                }
+                default -> {
+                    Protocol.PayloadRequest payload = randomPayload(random);
+                    byte[] body = payload.toByteArray();
+                    wire.writeLong(body.length);
+                    wire.writeBytes(body);
+                    expected.add(payload);
+                }
+            }
+        }
+        boolean close = false;
+        switch (random.nextInt(4)) {
+            case 0 -> {
+                // 长度极大的消息头，之后的所有数据都会被跳过
+                wire.writeLong(Long.MAX_VALUE - random.nextInt(1024));
+                wire.writeBytes(randomBytes(random, random.nextInt(1024)));
+                tooLong++;
+            }
+            case 1 -> {
+                // 负数长度，之后的数据(包括合法的数据包)都不会被解码，连接被关闭
+                wire.writeLong(-1 - random.nextInt(Integer.MAX_VALUE));
+                Protocol.PayloadRequest payload = randomPayload(random);
+                byte[] body = payload.toByteArray();
+                wire.writeLong(body.length);
+                wire.writeBytes(body);
+                corrupted++;
+                close = true;
+            }
+            default -> {
+            }
+        }
+
+        Harness harness = new Harness();
+        long size = wire.readableBytes();
+        harness.feed(random, wire);
+        check(harness.decoded.equals(expected), "decoded " + harness.decoded.size() + " frames, expected " + expected.size());
+        check(harness.tooLong == tooLong, "too long: " + harness.tooLong + ", expected " + tooLong);
+        check(harness.corrupted == corrupted, "corrupted: " + harness.corrupted + ", expected " + corrupted);
+        check(harness.other == 0, "unexpected exceptions: " + harness.other);
+        check(harness.closed == close, "channel closed: " + harness.closed + ", expected " + close);
+        return new long[]{harness.decoded.size(), size};
+    }
+
+    /**
+     * 随机字节
+     *
+     * @return [解码出的消息数, 报文字节数]
+     */
+    private static long[] garbage(Random random) {
+        ByteBuf wire = Unpooled.wrappedBuffer(randomBytes(random, random.nextInt(16 * 1024)));
+        // 随机位置写入较小的长度，使部分消息头落在合法范围内
+        for (int i = 0; i + 8 <= wire.capacity(); i += 8 + random.nextInt(256)) {
+            if (random.nextBoolean()) {
+                wire.setLong(i, random.nextInt(MAX_FRAME_LENGTH * 2));
+            }
+        }
+        Harness harness = new Harness();
+        long size = wire.readableBytes();
+        harness.feed(random, wire);
+        check(harness.other == 0, "unexpected exceptions: " + harness.other);
+        return new long[]{harness.decoded.size(), size};
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static Protocol.PayloadRequest randomPayload(Random random) {
+        return Protocol.PayloadRequest.newBuilder()
+                .setId(random.nextLong())
+                .setName(randomName(random))
+                .setIsActive(random.nextBoolean())
+                .setSendTime(random.nextLong() & Long.MAX_VALUE)
+                .build();
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int length = random.nextInt(64);
+        for (int i = 0; i < length; i++) {
+            name.append((char) (random.nextBoolean() ? 'a' + random.nextInt(26) : 0x4e00 + random.nextInt(0x5000)));
+        }
+        return name.toString();
+    }
+
+    /**
+     * 解码器与异常统计，每轮一个
+     */
+    private static final class Harness extends ChannelInboundHandlerAdapter {
+        private final Probe decoder = new Probe();
+        private final EmbeddedChannel channel = new EmbeddedChannel(decoder, this);
+        private final List<Protocol.PayloadRequest> decoded = new ArrayList<>();
+        private int tooLong;
+        private int corrupted;
+        private int other;
+        private boolean closed;
+
+        /**
+         * 将报文切分为随机大小的片段逐个写入，连接被关闭后不再写入，最后释放报文
+         */
+        void feed(Random random, ByteBuf wire) {
+            List<ByteBuf> chunks = new ArrayList<>();
+            while (wire.isReadable() && channel.isOpen()) {
+                int length = Math.min(wire.readableBytes(),
+                        random.nextInt(8) == 0 ? 1 + random.nextInt(8 * 1024) : 1 + random.nextInt(64));
+                ByteBuf chunk = random.nextBoolean() ? Unpooled.buffer(length) : Unpooled.directBuffer(length);
+                chunk.writeBytes(wire, length);
+                chunks.add(chunk);
+                channel.writeInbound(chunk);
+                check(decoder.buffered() <= CustomDecoder.HEADER_LENGTH + MAX_FRAME_LENGTH,
+                        "decoder buffered " + decoder.buffered() + " bytes");
+            }
+            closed = !channel.isOpen();
+            wire.release();
+            channel.finishAndReleaseAll();
+            for (ByteBuf chunk : chunks) {
+                check(chunk.refCnt() == 0, "chunk not released");
+            }
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            decoded.add((Protocol.PayloadRequest) Objects.requireNonNull(msg));
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            if (cause instanceof TooLongFrameException) {
+                tooLong++;
+            } else if (cause instanceof CorruptedFrameException) {
+                corrupted++;
+            } else {
+                other++;
+            }
+        }
+    }
+
+    /**
+     * 暴露累积缓冲区中缓存的字节数
+     */
+    private static final class Probe extends CustomDecoder {
+        Probe() {
+            super(MAX_FRAME_LENGTH);
+        }
+
+        int buffered() {
+            return internalBuffer().readableBytes();
+        }
+    }
+}
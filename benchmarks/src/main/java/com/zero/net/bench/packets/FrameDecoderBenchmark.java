@@ -0,0 +1,154 @@
+package com.zero.net.bench.packets;
+
+import com.zero.net.netty.packets.demo5.CustomDecoder;
+import com.zero.net.netty.packets.demo5.CustomEncoder;
+import com.zero.net.netty.packets.demo5.pb.Protocol;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.protobuf.ProtobufDecoder;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * demo5 8字节长度头协议的解码基准测试，对比三种解码方式:
+ *  - LEGACY:       原有的CustomDecoder，数据不足时通过mark/reset重复读取消息头，数据体先拷贝到byte[]再反序列化;
+ *  - CUSTOM:       加固后的{@link CustomDecoder}，限制最大长度，记录已读取的消息头，直接基于缓冲区反序列化;
+ *  - LENGTH_FIELD: Netty的LengthFieldBasedFrameDecoder(8字节长度) + ProtobufDecoder;
+ * payloadSize 为数据体大小(通过name字段填充)，framesPerRead 为一次完整报文中的数据包数量，
+ * chunkSize 大于0时将报文切分为该大小的多次读取(模拟MTU大小的TCP分段，数据包会跨越多次读取)。
+ * <p>
+ * 运行方式: java -jar benchmarks/target/benchmarks.jar FrameDecoderBenchmark -prof gc
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 14:00 </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dio.netty.leakDetection.level=disabled"})
+public class FrameDecoderBenchmark {
+    private static final int MAX_FRAME_LENGTH = 1024 * 1024;
+
+    @Param({"LEGACY", "CUSTOM", "LENGTH_FIELD"})
+    private Strategy strategy;
+
+    @Param({"32", "16384"})
+    private int payloadSize;
+
+    @Param({"1", "32"})
+    private int framesPerRead;
+
+    @Param({"0", "1460"})
+    private int chunkSize;
+
+    private EmbeddedChannel channel;
+    // 切分后的报文，位于池化的直接内存中
+    private final List<ByteBuf> chunks = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        channel = new EmbeddedChannel(strategy.decoders());
+        channel.config().setOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+
+        Protocol.PayloadRequest payload = Protocol.PayloadRequest.newBuilder()
+                .setId(1001).setName("z".repeat(Math.max(0, payloadSize - 16))).setIsActive(true)
+                .setSendTime(System.currentTimeMillis()).build();
+        EmbeddedChannel encoder = new EmbeddedChannel(new CustomEncoder());
+        for (int i = 0; i < framesPerRead; i++) {
+            encoder.writeOutbound(payload);
+        }
+        ByteBuf wire = PooledByteBufAllocator.DEFAULT.directBuffer();
+        ByteBuf out;
+        while ((out = encoder.readOutbound()) != null) {
+            wire.writeBytes(out);
+            out.release();
+        }
+        encoder.finishAndReleaseAll();
+        int size = chunkSize > 0 ? chunkSize : wire.readableBytes();
+        while (wire.isReadable()) {
+            chunks.add(wire.readRetainedSlice(Math.min(size, wire.readableBytes())));
+        }
+        wire.release();
+    }
+
+    @TearDown
+    public void tearDown() {
+        chunks.forEach(ByteBuf::release);
+        channel.finishAndReleaseAll();
+    }
+
+    /**
+     * 解码: 一次完整的报文(可能分为多次读取) -> framesPerRead个消息
+     */
+    @Benchmark
+    public int decode() {
+        int count = 0;
+        for (ByteBuf chunk : chunks) {
+            channel.writeInbound(chunk.retainedDuplicate());
+            Object msg;
+            while ((msg = channel.readInbound()) != null) {
+                ReferenceCountUtil.release(msg);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public enum Strategy {
+        LEGACY {
+            @Override
+            ChannelHandler[] decoders() {
+                return new ChannelHandler[]{new LegacyDecoder()};
+            }
+        },
+        CUSTOM {
+            @Override
+            ChannelHandler[] decoders() {
+                return new ChannelHandler[]{new CustomDecoder(MAX_FRAME_LENGTH)};
+            }
+        },
+        LENGTH_FIELD {
+            @Override
+            ChannelHandler[] decoders() {
+                return new ChannelHandler[]{
+                        new LengthFieldBasedFrameDecoder(MAX_FRAME_LENGTH, 0, 8, 0, 8),
+                        new ProtobufDecoder(Protocol.PayloadRequest.getDefaultInstance())};
+            }
+        };
+
+        abstract ChannelHandler[] decoders();
+    }
+
+    /**
+     * 原有的CustomDecoder实现，用于对比
+     */
+    static class LegacyDecoder extends ByteToMessageDecoder {
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+            if (in.readableBytes() < 9) {
+                return;
+            }
+            long length = in.readLong();
+            if (in.readableBytes() < length) {
+                in.resetReaderIndex();
+                return;
+            }
+            byte[] buf = new byte[(int) length];
+            in.readBytes(buf);
+            in.markReaderIndex();
+            out.add(Protocol.PayloadRequest.parseFrom(buf));
+        }
+    }
+}
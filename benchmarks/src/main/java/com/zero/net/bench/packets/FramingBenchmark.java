@@ -0,0 +1,219 @@
+package com.zero.net.bench.packets;
+
+import com.zero.net.netty.packets.demo5.CustomDecoder;
+import com.zero.net.netty.packets.demo5.CustomEncoder;
+import com.zero.net.netty.packets.demo5.pb.Protocol;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DelimiterBasedFrameDecoder;
+import io.netty.handler.codec.FixedLengthFrameDecoder;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import io.netty.handler.codec.protobuf.ProtobufDecoder;
+import io.netty.handler.codec.protobuf.ProtobufEncoder;
+import io.netty.handler.codec.protobuf.ProtobufVarint32FrameDecoder;
+import io.netty.handler.codec.protobuf.ProtobufVarint32LengthFieldPrepender;
+import io.netty.handler.codec.string.StringDecoder;
+import io.netty.handler.codec.string.StringEncoder;
+import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 粘包与拆包方案(packets demo1 ~ demo5)的编解码基准测试，每种方案都使用与demo相同的编解码器组合:
+ *  - LINE:            LineBasedFrameDecoder + StringDecoder (demo1)
+ *  - DELIMITER:       DelimiterBasedFrameDecoder(%) + StringDecoder (demo2)
+ *  - FIXED:           FixedLengthFrameDecoder(20) + StringDecoder (demo3)
+ *  - VARINT_PROTOBUF: ProtobufVarint32FrameDecoder + ProtobufDecoder (demo4)
+ *  - CUSTOM:          8字节长度头 CustomDecoder / CustomEncoder (demo5)
+ * 文本方案的消息为20字节的字符串，Protobuf方案的消息为PayloadRequest;
+ * framesPerRead 表示一次读取(一个ByteBuf)中包含的完整数据包数量，用于模拟粘包。
+ * <p>
+ * 运行方式: java -jar benchmarks/target/benchmarks.jar FramingBenchmark -prof gc
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 19:30 </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dio.netty.leakDetection.level=disabled"})
+public class FramingBenchmark {
+    // 20字节的文本消息
+    private static final String TEXT = "hello, netty packets";
+
+    @Param({"LINE", "DELIMITER", "FIXED", "VARINT_PROTOBUF", "CUSTOM"})
+    private Strategy strategy;
+
+    @Param({"1", "32"})
+    private int framesPerRead;
+
+    private EmbeddedChannel decodeChannel;
+    private EmbeddedChannel encodeChannel;
+    // 包含framesPerRead个完整数据包的报文，位于池化的直接内存中
+    private ByteBuf wire;
+    private Object[] messages;
+
+    @Setup
+    public void setup() {
+        decodeChannel = new EmbeddedChannel(strategy.decoders());
+        encodeChannel = new EmbeddedChannel(strategy.encoders());
+        decodeChannel.config().setOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        encodeChannel.config().setOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+
+        messages = new Object[framesPerRead];
+        Arrays.fill(messages, strategy.message());
+        // 通过编码器生成报文，保证与解码器的格式一致
+        EmbeddedChannel channel = new EmbeddedChannel(strategy.encoders());
+        channel.writeOutbound(messages);
+        wire = PooledByteBufAllocator.DEFAULT.directBuffer();
+        ByteBuf out;
+        while ((out = channel.readOutbound()) != null) {
+            wire.writeBytes(out);
+            out.release();
+        }
+        channel.finishAndReleaseAll();
+    }
+
+    @TearDown
+    public void tearDown() {
+        wire.release();
+        decodeChannel.finishAndReleaseAll();
+        encodeChannel.finishAndReleaseAll();
+    }
+
+    /**
+     * 解码: 一次读取 -> framesPerRead个消息
+     */
+    @Benchmark
+    public int decode() {
+        decodeChannel.writeInbound(wire.retainedDuplicate());
+        return drain(decodeChannel, true);
+    }
+
+    /**
+     * 编码: framesPerRead个消息 -> 出站ByteBuf，一次flush
+     */
+    @Benchmark
+    public int encode() {
+        encodeChannel.writeOutbound(messages);
+        return drain(encodeChannel, false);
+    }
+
+    private static int drain(EmbeddedChannel channel, boolean inbound) {
+        int count = 0;
+        Object msg;
+        while ((msg = inbound ? channel.readInbound() : channel.readOutbound()) != null) {
+            ReferenceCountUtil.release(msg);
+            count++;
+        }
+        return count;
+    }
+
+    public enum Strategy {
+        LINE {
+            @Override
+            ChannelHandler[] decoders() {
+                return new ChannelHandler[]{new LineBasedFrameDecoder(1024), new StringDecoder(CharsetUtil.UTF_8)};
+            }
+
+            @Override
+            ChannelHandler[] encoders() {
+                return new ChannelHandler[]{new StringEncoder(CharsetUtil.UTF_8)};
+            }
+
+            @Override
+            Object message() {
+                return TEXT + "\n";
+            }
+        },
+        DELIMITER {
+            @Override
+            ChannelHandler[] decoders() {
+                return new ChannelHandler[]{
+                        new DelimiterBasedFrameDecoder(1024, Unpooled.wrappedBuffer(new byte[]{'%'})),
+                        new StringDecoder(CharsetUtil.UTF_8)};
+            }
+
+            @Override
+            ChannelHandler[] encoders() {
+                return new ChannelHandler[]{new StringEncoder(CharsetUtil.UTF_8)};
+            }
+
+            @Override
+            Object message() {
+                return TEXT + "%";
+            }
+        },
+        FIXED {
+            @Override
+            ChannelHandler[] decoders() {
+                return new ChannelHandler[]{new FixedLengthFrameDecoder(20), new StringDecoder(CharsetUtil.UTF_8)};
+            }
+
+            @Override
+            ChannelHandler[] encoders() {
+                return new ChannelHandler[]{new StringEncoder(CharsetUtil.UTF_8)};
+            }
+
+            @Override
+            Object message() {
+                return TEXT;
+            }
+        },
+        VARINT_PROTOBUF {
+            @Override
+            ChannelHandler[] decoders() {
+                return new ChannelHandler[]{
+                        new ProtobufVarint32FrameDecoder(),
+                        new ProtobufDecoder(Protocol.PayloadRequest.getDefaultInstance())};
+            }
+
+            @Override
+            ChannelHandler[] encoders() {
+                return new ChannelHandler[]{new ProtobufVarint32LengthFieldPrepender(), new ProtobufEncoder()};
+            }
+
+            @Override
+            Object message() {
+                return payload();
+            }
+        },
+        CUSTOM {
+            @Override
+            ChannelHandler[] decoders() {
+                return new ChannelHandler[]{new CustomDecoder()};
+            }
+
+            @Override
+            ChannelHandler[] encoders() {
+                return new ChannelHandler[]{new CustomEncoder()};
+            }
+
+            @Override
+            Object message() {
+                return payload();
+            }
+        };
+
+        abstract ChannelHandler[] decoders();
+
+        abstract ChannelHandler[] encoders();
+
+        abstract Object message();
+
+        static Protocol.PayloadRequest payload() {
+            return Protocol.PayloadRequest.newBuilder()
+                    .setId(1001).setName("zlx").setIsActive(true)
+                    .setSendTime(System.currentTimeMillis()).build();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.zero.net.bench.packets;
+
+import com.zero.net.netty.packets.demo5.pb.Protocol;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.protobuf.ProtobufDecoder;
+import io.netty.handler.codec.protobuf.ProtobufEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * demo5 {@link Protocol.PayloadRequest} 的Protobuf序列化基准测试(不含拆包处理):
+ *  - serialize / deserialize: 直接调用toByteArray()/parseFrom(byte[])，作为基线;
+ *  - encode / decode:         通过EmbeddedChannel经过ProtobufEncoder/ProtobufDecoder，包含ByteBuf的分配与拷贝;
+ * <p>
+ * 运行方式: java -jar benchmarks/target/benchmarks.jar PayloadRequestBenchmark -prof gc
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 19:30 </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dio.netty.leakDetection.level=disabled"})
+public class PayloadRequestBenchmark {
+    private Protocol.PayloadRequest request;
+    private byte[] bytes;
+    private ByteBuf body;
+    private EmbeddedChannel encodeChannel;
+    private EmbeddedChannel decodeChannel;
+
+    @Setup
+    public void setup() {
+        request = Protocol.PayloadRequest.newBuilder()
+                .setId(1001).setName("zlx").setIsActive(true)
+                .setSendTime(System.currentTimeMillis()).build();
+        bytes = request.toByteArray();
+        body = PooledByteBufAllocator.DEFAULT.directBuffer(bytes.length).writeBytes(bytes);
+
+        encodeChannel = new EmbeddedChannel(new ProtobufEncoder());
+        decodeChannel = new EmbeddedChannel(new ProtobufDecoder(Protocol.PayloadRequest.getDefaultInstance()));
+        encodeChannel.config().setOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        decodeChannel.config().setOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+    }
+
+    @TearDown
+    public void tearDown() {
+        body.release();
+        encodeChannel.finishAndReleaseAll();
+        decodeChannel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return request.toByteArray();
+    }
+
+    @Benchmark
+    public Protocol.PayloadRequest deserialize() throws Exception {
+        return Protocol.PayloadRequest.parseFrom(bytes);
+    }
+
+    @Benchmark
+    public int encode() {
+        encodeChannel.writeOutbound(request);
+        ByteBuf out = encodeChannel.readOutbound();
+        int length = out.readableBytes();
+        out.release();
+        return length;
+    }
+
+    @Benchmark
+    public Object decode() {
+        decodeChannel.writeInbound(body.retainedDuplicate());
+        return decodeChannel.readInbound();
+    }
+}
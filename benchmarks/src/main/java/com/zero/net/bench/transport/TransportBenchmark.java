@@ -0,0 +1,154 @@
+package com.zero.net.bench.transport;
+
+import com.google.protobuf.ByteString;
+import com.zero.net.bench.flush.PipelinedEchoBenchmark;
+import com.zero.net.netty.common.Transport;
+import com.zero.net.netty.examples.im.packet.Codec;
+import com.zero.net.netty.examples.im.pb.Protocol;
+import com.zero.net.netty.examples.im.server.IMServer;
+import com.zero.net.netty.examples.im.server.SessionRegistry;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.*;
+import io.netty.channel.socket.SocketChannel;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 传输层基准测试，在当前平台所有可用的传输层实现(NIO/EPOLL/IO_URING)上分别运行:
+ *  - echo: 管道化客户端压测行协议的echo服务，见{@link PipelinedEchoBenchmark};
+ *  - im:   多个IM客户端以闭环方式发送SendMessage，每收到自己消息的广播后再发送下一条，统计服务端广播出的消息数;
+ * 可以通过 {@code -Dnetty.acceptors=N} 开启SO_REUSEPORT多acceptor。
+ * <p>
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.transport.TransportBenchmark [连接数] [秒数]
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 17:05 </p>
+ */
+public class TransportBenchmark {
+    private static final int IM_PORT = 19102;
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        List<Transport> transports = new ArrayList<>();
+        for (Transport transport : Transport.values()) {
+            if (transport.isAvailable()) {
+                transports.add(transport);
+            }
+        }
+        System.out.println("available transports: " + transports);
+
+        System.out.println("== echo ==");
+        System.out.printf("%-10s %-10s %8s %6s %14s %14s %12s%n",
+                "transport", "coalesce", "conns", "depth", "msgs/s", "flushes/s", "flushes/msg");
+        for (Transport transport : transports) {
+            PipelinedEchoBenchmark.run(transport, true, connections, 32, seconds);
+        }
+
+        System.out.println("== im ==");
+        System.out.printf("%-10s %8s %16s %16s%n", "transport", "clients", "sends/s", "deliveries/s");
+        for (Transport transport : transports) {
+            runIm(transport, connections, seconds);
+        }
+    }
+
+    private static void runIm(Transport transport, int clients, int seconds) throws Exception {
+        EventLoopGroup boss = transport.newEventLoopGroup(Transport.acceptors());
+        EventLoopGroup worker = transport.newEventLoopGroup(0);
+        EventLoopGroup clientGroup = transport.newEventLoopGroup(0);
+        LongAdder sends = new LongAdder();
+        LongAdder deliveries = new LongAdder();
+        // IMServerHandler默认通过EventLog记录每一条消息(写出到System.out)，压测期间丢弃控制台输出，避免终端成为瓶颈
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            List<Channel> servers = transport.bind(transport.newServerBootstrap(boss, worker)
+                    .childOption(ChannelOption.TCP_NODELAY, true)
+                    .childHandler(IMServer.childInitializer(Codec.Mode.ZERO_COPY, new SessionRegistry())), IM_PORT);
+
+            Bootstrap bootstrap = new Bootstrap()
+                    .group(clientGroup)
+                    .channel(transport.channelClass())
+                    .option(ChannelOption.TCP_NODELAY, true);
+            List<Channel> channels = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                long id = i;
+                bootstrap.handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline()
+                                .addLast(Codec.Mode.ZERO_COPY.newReplyMessageDecoder())
+                                .addLast(new ClosedLoopClient(id, sends, deliveries))
+                                .addLast(Codec.Mode.ZERO_COPY.newEncoders(Codec.Wire.V2));
+                    }
+                });
+                channels.add(bootstrap.connect("127.0.0.1", IM_PORT).sync().channel());
+            }
+            // 所有连接建立完成后再开始发送
+            for (Channel channel : channels) {
+                channel.pipeline().get(ClosedLoopClient.class).send(channel);
+            }
+
+            // 预热
+            TimeUnit.SECONDS.sleep(2);
+            long sendsBefore = sends.sum();
+            long deliveriesBefore = deliveries.sum();
+            TimeUnit.SECONDS.sleep(seconds);
+            long sent = sends.sum() - sendsBefore;
+            long delivered = deliveries.sum() - deliveriesBefore;
+
+            console.printf("%-10s %8d %16.0f %16.0f%n", transport, clients,
+                    sent / (double) seconds, delivered / (double) seconds);
+            for (Channel channel : channels) {
+                channel.close().sync();
+            }
+            for (Channel server : servers) {
+                server.close().sync();
+            }
+        } finally {
+            System.setOut(console);
+            clientGroup.shutdownGracefully().sync();
+            worker.shutdownGracefully().sync();
+            boss.shutdownGracefully().sync();
+        }
+    }
+
+    /**
+     * 闭环客户端，收到自己消息的广播后再发送下一条
+     */
+    static class ClosedLoopClient extends ChannelInboundHandlerAdapter {
+        private final Protocol.SendMessage.Builder builder;
+        private final long id;
+        private final LongAdder sends;
+        private final LongAdder deliveries;
+
+        ClosedLoopClient(long id, LongAdder sends, LongAdder deliveries) {
+            this.id = id;
+            this.sends = sends;
+            this.deliveries = deliveries;
+            this.builder = Protocol.SendMessage.newBuilder()
+                    .setId(id).setName("bench-" + id).setGender(Protocol.Gender.BOY)
+                    .setPayload(ByteString.copyFromUtf8("hello, transport benchmark"));
+        }
+
+        void send(Channel channel) {
+            sends.increment();
+            channel.writeAndFlush(builder.setSendTime(System.currentTimeMillis()).build());
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            deliveries.increment();
+            Protocol.ReplyMessage reply = (Protocol.ReplyMessage) msg;
+            if (reply.getSender().getId() == id) {
+                send(ctx.channel());
+            }
+        }
+    }
+}
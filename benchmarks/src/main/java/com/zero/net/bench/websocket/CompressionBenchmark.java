@@ -0,0 +1,63 @@
+package com.zero.net.bench.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebSocket服务端permessage-deflate不同压缩配置的耗时对比，见{@link com.zero.net.netty.examples.websocket.WebSocketCompression}:
+ * 每次操作经过 压缩编码器 -> 帧编码器 写出一条消息，单线程下每条消息的耗时即为每条消息的CPU开销;
+ * 消息依次循环发送，内容各不相同，压缩上下文会在消息之间保留(开启context takeover时);
+ * 每条消息实际写出的字节数见{@link CompressionReport}。
+ * <p>
+ * 运行方式: java -jar benchmarks/target/benchmarks.jar CompressionBenchmark
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 22:00 </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"CHAT", "JSON", "GZIP_JSON"})
+    private CompressionCase.Payload payload;
+
+    @Param({"OFF", "DEFAULT", "FAST", "BEST", "NO_CONTEXT", "THRESHOLD_SKIP"})
+    private CompressionCase.Setting setting;
+
+    private EmbeddedChannel channel;
+    private ByteBuf[] contents;
+    private int next;
+
+    @Setup
+    public void setup() {
+        channel = setting.newEncoderChannel();
+        contents = payload.contents();
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int encode() {
+        ByteBuf content = contents[next];
+        next = (next + 1) % contents.length;
+        channel.writeOutbound(payload.frame(content.retainedDuplicate()));
+        int bytes = 0;
+        Object out;
+        while ((out = channel.readOutbound()) != null) {
+            bytes += ((ByteBuf) out).readableBytes();
+            ReferenceCountUtil.release(out);
+        }
+        return bytes;
+    }
+}
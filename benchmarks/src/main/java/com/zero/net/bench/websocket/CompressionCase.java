@@ -0,0 +1,149 @@
+package com.zero.net.bench.websocket;
+
+import com.zero.net.netty.examples.websocket.WebSocketCompression;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocket13FrameEncoder;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionData;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 压缩基准测试使用的消息与压缩配置
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 22:00 </p>
+ */
+final class CompressionCase {
+    // 每种消息生成的条数，依次循环发送，内容各不相同，可以体现压缩上下文的作用
+    static final int MESSAGES = 256;
+
+    private static final String[] NAMES = {"张三", "李四", "王五", "zero", "alice", "bob", "小明", "小红"};
+    private static final String[] WORDS = {"今晚", "一起", "吃饭", "开会", "好的", "收到", "明天", "上线",
+            "没问题", "稍等", "哈哈", "ok", "deploy", "review", "周末", "加班", "晚点", "到了"};
+
+    private CompressionCase() {
+    }
+
+    /**
+     * 消息类型
+     */
+    enum Payload {
+        /**
+         * 聊天消息，文本帧，20 ~ 80字节
+         */
+        CHAT,
+        /**
+         * JSON消息，文本帧，约500字节，字段名重复
+         */
+        JSON,
+        /**
+         * gzip压缩后的JSON消息，二进制帧
+         */
+        GZIP_JSON;
+
+        /**
+         * 生成消息内容，返回的缓冲区不会被释放，每次发送时使用retainedDuplicate()
+         */
+        ByteBuf[] contents() {
+            Random random = new Random(42);
+            ByteBuf[] contents = new ByteBuf[MESSAGES];
+            for (int i = 0; i < MESSAGES; i++) {
+                byte[] bytes = switch (this) {
+                    case CHAT -> chat(random).getBytes(StandardCharsets.UTF_8);
+                    case JSON -> json(random, i).getBytes(StandardCharsets.UTF_8);
+                    case GZIP_JSON -> gzip(json(random, i).getBytes(StandardCharsets.UTF_8));
+                };
+                contents[i] = Unpooled.unreleasableBuffer(Unpooled.directBuffer(bytes.length).writeBytes(bytes));
+            }
+            return contents;
+        }
+
+        WebSocketFrame frame(ByteBuf content) {
+            return this == GZIP_JSON ? new BinaryWebSocketFrame(content) : new TextWebSocketFrame(content);
+        }
+    }
+
+    /**
+     * 压缩配置
+     */
+    enum Setting {
+        OFF(new WebSocketCompression(false, 0, 6, true, false)),
+        /**
+         * 原有实现的默认参数
+         */
+        DEFAULT(new WebSocketCompression(true, 0, 6, true, false)),
+        FAST(new WebSocketCompression(true, 0, 1, true, false)),
+        BEST(new WebSocketCompression(true, 0, 9, true, false)),
+        NO_CONTEXT(new WebSocketCompression(true, 0, 6, false, false)),
+        /**
+         * 小于128字节的帧与已经压缩的二进制帧不压缩
+         */
+        THRESHOLD_SKIP(new WebSocketCompression(true, 128, 6, true, true));
+
+        final WebSocketCompression compression;
+
+        Setting(WebSocketCompression compression) {
+            this.compression = compression;
+        }
+
+        /**
+         * 创建服务端出站方向的编码链路: 压缩编码器 -> 帧编码器，与协商完成后的服务端pipeline相同
+         */
+        EmbeddedChannel newEncoderChannel() {
+            WebSocket13FrameEncoder frameEncoder = new WebSocket13FrameEncoder(false);
+            if (!compression.enabled()) {
+                return new EmbeddedChannel(frameEncoder);
+            }
+            WebSocketServerExtension extension = compression.newHandshaker(0)
+                    .handshakeExtension(new WebSocketExtensionData("permessage-deflate", Map.of()));
+            return new EmbeddedChannel(frameEncoder, extension.newExtensionEncoder());
+        }
+    }
+
+    private static String chat(Random random) {
+        StringBuilder text = new StringBuilder(NAMES[random.nextInt(NAMES.length)]).append(": ");
+        for (int i = 0, n = 2 + random.nextInt(8); i < n; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(i % 3 == 2 ? "，" : "");
+        }
+        return text.toString();
+    }
+
+    private static String json(Random random, int seq) {
+        return "{\"type\":\"order.updated\",\"seq\":" + seq
+                + ",\"timestamp\":" + (1_760_000_000_000L + seq * 137L)
+                + ",\"user\":{\"id\":" + random.nextInt(100_000) + ",\"name\":\"" + NAMES[random.nextInt(NAMES.length)]
+                + "\",\"level\":" + random.nextInt(10) + "}"
+                + ",\"order\":{\"id\":\"ORD-" + Long.toHexString(random.nextLong()) + "\",\"status\":\"PAID\""
+                + ",\"amount\":" + random.nextInt(100_000) / 100.0 + ",\"currency\":\"CNY\",\"items\":["
+                + item(random) + "," + item(random) + "," + item(random) + "]}"
+                + ",\"tags\":[\"vip\",\"app\",\"" + WORDS[random.nextInt(WORDS.length)] + "\"]}";
+    }
+
+    private static String item(Random random) {
+        return "{\"sku\":\"SKU-" + random.nextInt(10_000) + "\",\"name\":\"" + WORDS[random.nextInt(WORDS.length)]
+                + WORDS[random.nextInt(WORDS.length)] + "\",\"quantity\":" + (1 + random.nextInt(5))
+                + ",\"price\":" + random.nextInt(10_000) / 100.0 + "}";
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
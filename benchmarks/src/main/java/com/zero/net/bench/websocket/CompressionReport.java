@@ -0,0 +1,70 @@
+package com.zero.net.bench.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * WebSocket服务端permessage-deflate不同压缩配置的对比报告，对每种消息与配置输出:
+ *  - 每条消息实际写出的平均字节数(帧头 + 压缩后的内容)，以及相对于不压缩时节省的比例;
+ *  - 每条消息的平均CPU时间(当前线程的CPU时间 / 消息数)，更精确的耗时见{@link CompressionBenchmark};
+ * 可以根据消息的特点与带宽/CPU的成本为不同的部署选择压缩参数。
+ * <p>
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.websocket.CompressionReport [每种组合的消息数]
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 22:00 </p>
+ */
+public class CompressionReport {
+    public static void main(String[] args) {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        System.out.printf("%-10s %-15s %14s %14s %10s %14s%n",
+                "payload", "setting", "content(byte)", "wire(byte)", "saving", "cpu(ns/msg)");
+        for (CompressionCase.Payload payload : CompressionCase.Payload.values()) {
+            ByteBuf[] contents = payload.contents();
+            long contentBytes = 0;
+            for (ByteBuf content : contents) {
+                contentBytes += content.readableBytes();
+            }
+            double baseline = 0;
+            for (CompressionCase.Setting setting : CompressionCase.Setting.values()) {
+                EmbeddedChannel channel = setting.newEncoderChannel();
+                // 预热
+                encode(channel, payload, contents, messages / 10);
+                long cpu = threads.getCurrentThreadCpuTime();
+                long wire = encode(channel, payload, contents, messages);
+                cpu = threads.getCurrentThreadCpuTime() - cpu;
+                channel.finishAndReleaseAll();
+
+                double wirePerMessage = wire / (double) messages;
+                if (setting == CompressionCase.Setting.OFF) {
+                    baseline = wirePerMessage;
+                }
+                System.out.printf("%-10s %-15s %14.1f %14.1f %9.1f%% %14.1f%n", payload, setting,
+                        contentBytes / (double) contents.length, wirePerMessage,
+                        (baseline - wirePerMessage) * 100 / baseline, cpu / (double) messages);
+            }
+        }
+    }
+
+    /**
+     * 依次写出messages条消息，返回实际写出的字节数
+     */
+    private static long encode(EmbeddedChannel channel, CompressionCase.Payload payload, ByteBuf[] contents,
+                               int messages) {
+        long bytes = 0;
+        for (int i = 0; i < messages; i++) {
+            channel.writeOutbound(payload.frame(contents[i % contents.length].retainedDuplicate()));
+            ByteBuf out;
+            while ((out = channel.readOutbound()) != null) {
+                bytes += out.readableBytes();
+                out.release();
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,340 @@
+package com.zero.net.bench.websocket;
+
+import com.zero.net.netty.common.Transport;
+import com.zero.net.netty.examples.websocket.Server;
+import com.zero.net.netty.examples.websocket.TopicHub;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.*;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.websocketx.*;
+import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WebSocket发布订阅中心({@link TopicHub})的吞吐量测试，服务端与客户端运行在同一进程中:
+ *  - 订阅者: 默认5w个连接，每个连接订阅1个主题，共1k个主题，即每个主题50个订阅者;
+ *  - 发布者: 默认100个连接，合计以固定速率(默认每秒1w条)向随机的主题发布消息，消息内容为计划发送时间(System.nanoTime());
+ * 统计发布速率、投递速率(订阅者收到的消息数)、投递比例，以及 发布 -> 订阅者收到 的延迟分布;
+ * 连接数超过2w时客户端会使用多个本地回环地址(127.0.0.x)，避免耗尽临时端口，运行前需要调大文件描述符限制(ulimit -n)。
+ * 传输层实现通过 {@code -Dnetty.transport} 指定，见{@link Transport}。
+ * <p>
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.websocket.TopicHubBenchmark [订阅者数] [主题数] [每个订阅者的主题数] [发布者数] [每秒发布数] [秒数]
+ * 例如: ... TopicHubBenchmark 50000 1000 1 100 10000 30
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 21:30 </p>
+ */
+public class TopicHubBenchmark {
+    private static final int PORT = 19108;
+    // 每个本地回环地址最多使用的连接数
+    private static final int CONNECTIONS_PER_ADDRESS = 20000;
+    // 预热时长(秒)
+    private static final int WARMUP_SECONDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int subscribers = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int topics = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int topicsPerSubscriber = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int publishers = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        long rate = args.length > 4 ? Long.parseLong(args[4]) : 10_000;
+        int seconds = args.length > 5 ? Integer.parseInt(args[5]) : 30;
+
+        // 服务端会打印每个连接的建立与断开
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Transport transport = Transport.current();
+        EventLoopGroup boss = transport.newEventLoopGroup(1);
+        EventLoopGroup worker = transport.newEventLoopGroup(0);
+        EventLoopGroup clientGroup = transport.newEventLoopGroup(0);
+        TopicHub hub = new TopicHub();
+        try {
+            Channel server = transport.newServerBootstrap(boss, worker)
+                    .option(ChannelOption.SO_BACKLOG, 1024)
+                    .childOption(ChannelOption.TCP_NODELAY, true)
+                    .childHandler(Server.childInitializer(Server.Mode.AGGREGATE, hub))
+                    .bind(PORT).sync().channel();
+
+            Recorder latency = new Recorder(3);
+            LongAdder published = new LongAdder();
+            LongAdder delivered = new LongAdder();
+            LongAdder subscribed = new LongAdder();
+
+            List<Channel> channels = new ArrayList<>(subscribers + publishers);
+            for (int i = 0; i < subscribers; i++) {
+                List<String> names = new ArrayList<>(topicsPerSubscriber);
+                for (int j = 0; j < topicsPerSubscriber; j++) {
+                    names.add("topic-" + (i * topicsPerSubscriber + j) % topics);
+                }
+                channels.add(null);
+                connect(transport, clientGroup, channels, i,
+                        new Subscriber(names, subscribed, delivered, latency));
+            }
+            // 等待所有订阅完成，超时后以实际完成的订阅数计算期望的投递数
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (subscribed.sum() < (long) subscribers * topicsPerSubscriber && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+            long expected = subscribed.sum();
+            console.printf("subscribed %d connections to %d topics (%d subscriptions), transport=%s%n",
+                    subscribers, hub.topics(), expected, transport);
+
+            // 每个发布者的发布间隔
+            long periodNanos = Math.max(1, TimeUnit.SECONDS.toNanos(1) * publishers / rate);
+            List<Publisher> publisherHandlers = new ArrayList<>(publishers);
+            for (int i = 0; i < publishers; i++) {
+                Publisher publisher = new Publisher(topics, periodNanos, published);
+                publisherHandlers.add(publisher);
+                channels.add(null);
+                connect(transport, clientGroup, channels, subscribers + i, publisher);
+            }
+            for (Publisher publisher : publisherHandlers) {
+                publisher.handshake.await(30, TimeUnit.SECONDS);
+                publisher.start();
+            }
+
+            // 预热
+            TimeUnit.SECONDS.sleep(WARMUP_SECONDS);
+            latency.getIntervalHistogram();
+            long publishedBefore = published.sum();
+            long deliveredBefore = delivered.sum();
+            TimeUnit.SECONDS.sleep(seconds);
+            Histogram histogram = latency.getIntervalHistogram();
+            long publishes = published.sum() - publishedBefore;
+            long deliveries = delivered.sum() - deliveredBefore;
+            for (Publisher publisher : publisherHandlers) {
+                publisher.stop();
+            }
+
+            double fanout = expected / (double) topics;
+            console.printf("%12s %14s %14s %10s %10s %10s %10s %10s%n",
+                    "publish/s", "deliveries/s", "expected/s", "ratio", "p50(us)", "p99(us)", "p999(us)", "max(us)");
+            console.printf("%12.0f %14.0f %14.0f %9.1f%% %10.1f %10.1f %10.1f %10.1f%n",
+                    publishes / (double) seconds, deliveries / (double) seconds, publishes * fanout / seconds,
+                    publishes == 0 ? 0 : deliveries * 100.0 / (publishes * fanout),
+                    histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+            for (Channel channel : channels) {
+                if (channel != null) {
+                    channel.close();
+                }
+            }
+            server.close().sync();
+        } finally {
+            System.setOut(console);
+            clientGroup.shutdownGracefully().sync();
+            worker.shutdownGracefully().sync();
+            boss.shutdownGracefully().sync();
+        }
+    }
+
+    /**
+     * 建立WebSocket连接，每1000个连接等待一次握手完成，避免超过服务端的backlog
+     */
+    private static void connect(Transport transport, EventLoopGroup group, List<Channel> channels, int index,
+                                Client client) {
+        URI uri = URI.create("ws://127.0.0.1:" + PORT + "/ws");
+        InetSocketAddress local = new InetSocketAddress("127.0.0." + (1 + index / CONNECTIONS_PER_ADDRESS), 0);
+        ChannelFuture future = new Bootstrap()
+                .group(group)
+                .channel(transport.channelClass())
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10_000)
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline()
+                                .addLast(new HttpClientCodec())
+                                .addLast(new HttpObjectAggregator(8192))
+                                .addLast(new WebSocketClientProtocolHandler(WebSocketClientProtocolConfig.newBuilder()
+                                        .webSocketUri(uri)
+                                        .handshakeTimeoutMillis(30_000)
+                                        .build()))
+                                .addLast(client);
+                    }
+                })
+                .connect(new InetSocketAddress("127.0.0.1", PORT), local);
+        channels.set(index, future.channel());
+        if (index % 1000 == 999) {
+            try {
+                client.handshake.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 客户端基类，握手完成后回调{@link #handshakeComplete}
+     */
+    abstract static class Client extends ChannelInboundHandlerAdapter {
+        // 握手完成(或者连接关闭)时完成
+        final CountDownLatch handshake = new CountDownLatch(1);
+        Channel channel;
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) {
+            channel = ctx.channel();
+        }
+
+        abstract void handshakeComplete(ChannelHandlerContext ctx);
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+            if (evt == WebSocketClientProtocolHandler.ClientHandshakeStateEvent.HANDSHAKE_COMPLETE) {
+                handshakeComplete(ctx);
+                handshake.countDown();
+            }
+            super.userEventTriggered(ctx, evt);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            handshake.countDown();
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            ctx.close();
+        }
+    }
+
+    /**
+     * 订阅者，握手完成后订阅所有主题，收到 "[主题] 发送时间" 时记录延迟
+     */
+    static class Subscriber extends Client {
+        private final List<String> topics;
+        private final LongAdder subscribed;
+        private final LongAdder delivered;
+        private final Recorder latency;
+
+        Subscriber(List<String> topics, LongAdder subscribed, LongAdder delivered, Recorder latency) {
+            this.topics = topics;
+            this.subscribed = subscribed;
+            this.delivered = delivered;
+            this.latency = latency;
+        }
+
+        @Override
+        void handshakeComplete(ChannelHandlerContext ctx) {
+            for (String topic : topics) {
+                ctx.write(new TextWebSocketFrame("/sub " + topic), ctx.voidPromise());
+            }
+            ctx.flush();
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            try {
+                if (!(msg instanceof TextWebSocketFrame frame)) {
+                    return;
+                }
+                ByteBuf content = frame.content();
+                if (content.isReadable() && content.getByte(content.readerIndex()) == '[') {
+                    long now = System.nanoTime();
+                    delivered.increment();
+                    latency.recordValue(Math.max(now - parseNanos(content), 0));
+                } else if (content.toString(CharsetUtil.UTF_8).startsWith("已订阅")) {
+                    subscribed.increment();
+                }
+            } finally {
+                ReferenceCountUtil.release(msg);
+            }
+        }
+
+        /**
+         * 解析 "] " 之后的十进制数字，不产生任何分配
+         */
+        private static long parseNanos(ByteBuf content) {
+            int i = content.indexOf(content.readerIndex(), content.writerIndex(), (byte) ']') + 2;
+            long value = 0;
+            for (; i < content.writerIndex(); i++) {
+                byte b = content.getByte(i);
+                if (b < '0' || b > '9') {
+                    break;
+                }
+                value = value * 10 + (b - '0');
+            }
+            return value;
+        }
+    }
+
+    /**
+     * 发布者，以固定速率向随机的主题发布消息;
+     * 消息内容为计划发送时间而不是实际发送时间，避免客户端自身的停顿掩盖服务端的延迟(coordinated omission)
+     */
+    static class Publisher extends Client {
+        // 定时任务的间隔，间隔内到期的消息会一次发出
+        private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+        private final int topics;
+        private final long periodNanos;
+        private final LongAdder published;
+        private volatile ScheduledFuture<?> task;
+        // 下一条消息的计划发送时间
+        private long nextSendNanos;
+
+        Publisher(int topics, long periodNanos, LongAdder published) {
+            this.topics = topics;
+            this.periodNanos = periodNanos;
+            this.published = published;
+        }
+
+        @Override
+        void handshakeComplete(ChannelHandlerContext ctx) {
+        }
+
+        void start() {
+            channel.eventLoop().execute(() -> {
+                // 随机的初始偏移，避免所有发布者同时发送
+                nextSendNanos = System.nanoTime() + ThreadLocalRandom.current().nextLong(periodNanos);
+                task = channel.eventLoop().scheduleAtFixedRate(this::tick,
+                        TICK_NANOS, TICK_NANOS, TimeUnit.NANOSECONDS);
+            });
+        }
+
+        void stop() {
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+
+        private void tick() {
+            long now = System.nanoTime();
+            boolean wrote = false;
+            while (nextSendNanos <= now && channel.isActive()) {
+                int topic = ThreadLocalRandom.current().nextInt(topics);
+                channel.write(new TextWebSocketFrame("/pub topic-" + topic + " " + nextSendNanos),
+                        channel.voidPromise());
+                published.increment();
+                nextSendNanos += periodNanos;
+                wrote = true;
+            }
+            if (wrote) {
+                channel.flush();
+            }
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ReferenceCountUtil.release(msg);
+        }
+    }
+}
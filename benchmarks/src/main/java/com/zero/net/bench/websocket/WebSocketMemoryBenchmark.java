@@ -0,0 +1,282 @@
+package com.zero.net.bench.websocket;
+
+import com.zero.net.netty.common.Transport;
+import com.zero.net.netty.examples.websocket.Server;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.websocketx.*;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WebSocket服务端聚合模式与流式模式的内存占用对比，见{@link Server.Mode}:
+ * 服务端运行在独立的子进程中，通过 /proc/[pid]/status 统计服务端进程的RSS与峰值RSS(VmHWM)，客户端为Netty实现:
+ *  - idle:   所有客户端(默认1w)完成握手后不发送数据，统计RSS;
+ *  - active: 所有客户端同时以固定间隔发送分片的大消息(默认256KB，每个分片8KB)，收到服务端的响应后再发送下一条，
+ *            统计峰值RSS、平均每个连接的内存增量、完成的消息数与吞吐量，以及被服务端关闭的连接数;
+ * 聚合模式下每个连接会持有正在接收的整条消息，流式模式下只持有当前的分片。
+ * 聚合模式的内存占用约为 连接数 * 消息长度，运行前需要调大文件描述符限制(ulimit -n)与内存。
+ * <p>
+ * 运行方式: java -cp benchmarks/target/benchmarks.jar com.zero.net.bench.websocket.WebSocketMemoryBenchmark [连接数] [模式列表] [消息KB] [分片KB] [分片间隔ms] [秒数]
+ * 例如: ... WebSocketMemoryBenchmark 10000 aggregate,streaming 256 8 100 30
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 21:00 </p>
+ */
+public class WebSocketMemoryBenchmark {
+    private static final int PORT = 19107;
+    // 每个本地回环地址最多使用的连接数
+    private static final int CONNECTIONS_PER_ADDRESS = 20000;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        String[] modes = (args.length > 1 ? args[1] : "aggregate,streaming").split(",");
+        int messageSize = (args.length > 2 ? Integer.parseInt(args[2]) : 256) * 1024;
+        int fragmentSize = (args.length > 3 ? Integer.parseInt(args[3]) : 8) * 1024;
+        long intervalMillis = args.length > 4 ? Long.parseLong(args[4]) : 100;
+        int seconds = args.length > 5 ? Integer.parseInt(args[5]) : 30;
+
+        System.out.printf("%-10s %8s %10s %12s %12s %13s %12s %10s %8s%n",
+                "mode", "clients", "connected", "idle-rss(MB)", "peak-rss(MB)", "per-conn(KB)",
+                "messages/s", "MB/s", "closed");
+        for (String mode : modes) {
+            run(Server.Mode.valueOf(mode.trim().toUpperCase()), clients, messageSize, fragmentSize,
+                    intervalMillis, seconds);
+        }
+    }
+
+    private static void run(Server.Mode mode, int clients, int messageSize, int fragmentSize,
+                            long intervalMillis, int seconds) throws Exception {
+        Process server = startServer(mode, messageSize);
+        EventLoopGroup group = Transport.NIO.newEventLoopGroup(0);
+        // 分片内容，所有客户端共享，编码时会被掩码拷贝
+        ByteBuf fragment = Unpooled.unreleasableBuffer(Unpooled.directBuffer(fragmentSize));
+        for (int i = 0; i < fragmentSize; i++) {
+            fragment.writeByte('a' + i % 26);
+        }
+        try {
+            long baseRss = status(server.pid())[0];
+            URI uri = URI.create("ws://127.0.0.1:" + PORT + "/ws");
+            LongAdder completed = new LongAdder();
+            LongAdder closed = new LongAdder();
+            Bootstrap bootstrap = new Bootstrap()
+                    .group(group)
+                    .channel(Transport.NIO.channelClass())
+                    .option(ChannelOption.TCP_NODELAY, true)
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10_000)
+                    .handler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel ch) {
+                            ch.pipeline()
+                                    .addLast(new HttpClientCodec())
+                                    .addLast(new HttpObjectAggregator(8192))
+                                    .addLast(new WebSocketClientProtocolHandler(WebSocketClientProtocolConfig.newBuilder()
+                                            .webSocketUri(uri)
+                                            .handshakeTimeoutMillis(30_000)
+                                            .build()))
+                                    .addLast(new FragmentingClient(fragment, messageSize, intervalMillis,
+                                            completed, closed));
+                        }
+                    });
+
+            // 分批建立连接，等待握手完成，避免超过服务端的backlog
+            List<FragmentingClient> handlers = new ArrayList<>(clients);
+            List<ChannelFuture> batch = new ArrayList<>(1000);
+            for (int i = 0; i < clients; i++) {
+                InetSocketAddress local = new InetSocketAddress("127.0.0." + (1 + i / CONNECTIONS_PER_ADDRESS), 0);
+                batch.add(bootstrap.connect(new InetSocketAddress("127.0.0.1", PORT), local));
+                if (batch.size() == 1000 || i == clients - 1) {
+                    for (ChannelFuture future : batch) {
+                        if (future.awaitUninterruptibly().isSuccess()) {
+                            FragmentingClient handler = future.channel().pipeline().get(FragmentingClient.class);
+                            if (handler.handshake.awaitUninterruptibly(30, TimeUnit.SECONDS)
+                                    && handler.handshake.isSuccess()) {
+                                handlers.add(handler);
+                            }
+                        }
+                    }
+                    batch.clear();
+                }
+            }
+            // idle
+            TimeUnit.SECONDS.sleep(3);
+            long[] idle = status(server.pid());
+
+            // active
+            for (FragmentingClient handler : handlers) {
+                handler.start();
+            }
+            // 第一批消息发送完成之前不统计
+            long fillMillis = (long) Math.ceil(messageSize / (double) fragmentSize) * intervalMillis;
+            TimeUnit.MILLISECONDS.sleep(fillMillis);
+            long completedBefore = completed.sum();
+            TimeUnit.SECONDS.sleep(seconds);
+            long messages = completed.sum() - completedBefore;
+            long[] active = status(server.pid());
+            for (FragmentingClient handler : handlers) {
+                handler.stop();
+            }
+
+            System.out.printf("%-10s %8d %10d %12.1f %12.1f %13.1f %12.1f %10.1f %8d%n",
+                    mode, clients, handlers.size(), idle[0] / 1024.0, active[1] / 1024.0,
+                    handlers.isEmpty() ? 0 : (active[1] - baseRss) / (double) handlers.size(),
+                    messages / (double) seconds, messages * (double) messageSize / seconds / 1024 / 1024,
+                    closed.sum());
+            for (FragmentingClient handler : handlers) {
+                handler.channel.close();
+            }
+        } finally {
+            group.shutdownGracefully().sync();
+            server.destroy();
+            server.waitFor();
+        }
+    }
+
+    /**
+     * 以子进程的方式启动服务端，并等待端口可以连接
+     */
+    private static Process startServer(Server.Mode mode, int messageSize) throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process process = new ProcessBuilder(java, "-Dws.mode=" + mode.name().toLowerCase(),
+                "-Dws.maxMessageSize=" + messageSize,
+                "-cp", System.getProperty("java.class.path"), Server.class.getName(), String.valueOf(PORT))
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        for (int i = 0; i < 100; i++) {
+            try (Socket ignored = new Socket("127.0.0.1", PORT)) {
+                return process;
+            } catch (IOException e) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+        }
+        process.destroy();
+        throw new IllegalStateException("server did not start");
+    }
+
+    /**
+     * 读取进程的RSS与峰值RSS(KB)，非Linux平台返回-1
+     */
+    private static long[] status(long pid) {
+        long[] result = {-1, -1};
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/" + pid + "/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    result[0] = Long.parseLong(line.replaceAll("\\D", ""));
+                } else if (line.startsWith("VmHWM:")) {
+                    result[1] = Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException ignored) {
+        }
+        return result;
+    }
+
+    /**
+     * 分片发送客户端，每隔一段时间发送一个分片，一条消息的最后一个分片发送后，收到服务端的响应再开始下一条
+     */
+    static class FragmentingClient extends ChannelInboundHandlerAdapter {
+        private final ByteBuf fragment;
+        private final int messageSize;
+        private final long intervalMillis;
+        private final LongAdder completed;
+        private final LongAdder closed;
+        private Channel channel;
+        private ChannelPromise handshake;
+        private volatile ScheduledFuture<?> task;
+        // 当前消息已经发送的长度，-1表示等待服务端响应
+        private int sentBytes;
+
+        FragmentingClient(ByteBuf fragment, int messageSize, long intervalMillis,
+                          LongAdder completed, LongAdder closed) {
+            this.fragment = fragment;
+            this.messageSize = messageSize;
+            this.intervalMillis = intervalMillis;
+            this.completed = completed;
+            this.closed = closed;
+        }
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) {
+            channel = ctx.channel();
+            handshake = ctx.newPromise();
+        }
+
+        void start() {
+            // 随机的初始延迟，避免所有客户端同时发送
+            long delay = ThreadLocalRandom.current().nextLong(intervalMillis);
+            channel.eventLoop().execute(() -> task = channel.eventLoop().scheduleAtFixedRate(
+                    this::sendFragment, delay, intervalMillis, TimeUnit.MILLISECONDS));
+        }
+
+        void stop() {
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+
+        private void sendFragment() {
+            if (sentBytes < 0 || !channel.isActive() || !channel.isWritable()) {
+                return;
+            }
+            int length = Math.min(fragment.readableBytes(), messageSize - sentBytes);
+            boolean last = sentBytes + length == messageSize;
+            ByteBuf content = fragment.duplicate().writerIndex(length);
+            WebSocketFrame frame = sentBytes == 0
+                    ? new TextWebSocketFrame(last, 0, content)
+                    : new ContinuationWebSocketFrame(last, 0, content);
+            sentBytes = last ? -1 : sentBytes + length;
+            channel.writeAndFlush(frame, channel.voidPromise());
+        }
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+            if (evt == WebSocketClientProtocolHandler.ClientHandshakeStateEvent.HANDSHAKE_COMPLETE) {
+                handshake.trySuccess();
+            } else if (evt == WebSocketClientProtocolHandler.ClientHandshakeStateEvent.HANDSHAKE_TIMEOUT) {
+                handshake.tryFailure(new IllegalStateException("handshake timeout"));
+            }
+            super.userEventTriggered(ctx, evt);
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            if (msg instanceof TextWebSocketFrame && sentBytes < 0) {
+                completed.increment();
+                sentBytes = 0;
+            }
+            ReferenceCountUtil.release(msg);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            if (handshake.isSuccess()) {
+                closed.increment();
+            }
+            handshake.tryFailure(new IllegalStateException("closed"));
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            ctx.close();
+        }
+    }
+}
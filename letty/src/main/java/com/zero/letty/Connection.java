@@ -0,0 +1,293 @@
+package com.zero.letty;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+
+/**
+ * 客户端连接，即对{@link SocketChannel}的封装，作为{@link SelectionKey}的attachment;
+ * 每个连接拥有独立的读缓冲区与待发送队列，所有的读写都在所属的{@link EventLoop}线程中执行。
+ * <p>
+ * 读缓冲区是一个累积缓冲区: {@link Handler#onRead}中未读取的数据会保留到下一次读取，缓冲区写满时按需扩容，直到最大值;
+ * 待发送队列写不完时监听OP_WRITE，待发送字节数超过高水位时暂停读取(不再监听OP_READ)，降到低水位以下时恢复，
+ * 避免只发不收的客户端把服务端内存撑爆。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 18:00 </p>
+ */
+public final class Connection implements SelectionHandler {
+    /**
+     * 默认读缓冲区大小
+     */
+    public static final int DEFAULT_READ_BUFFER_SIZE = 4096;
+    /**
+     * 默认读缓冲区最大值
+     */
+    public static final int DEFAULT_MAX_READ_BUFFER_SIZE = 1024 * 1024;
+    /**
+     * 默认待发送字节数的高水位与低水位
+     */
+    public static final int DEFAULT_WRITE_BUFFER_HIGH_WATER_MARK = 64 * 1024;
+    public static final int DEFAULT_WRITE_BUFFER_LOW_WATER_MARK = 32 * 1024;
+
+    private final EventLoop eventLoop;
+    private final SocketChannel channel;
+    private final Handler handler;
+    private final Options options;
+    // 读缓冲区(累积缓冲区，写模式)
+    private ByteBuffer readBuffer;
+    // 待发送队列
+    private final ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<>();
+    // 待发送队列中的字节数
+    private long pendingBytes;
+    // 是否因为待发送数据过多而暂停了读取
+    private boolean readSuspended;
+    private SelectionKey key;
+    private SocketAddress remoteAddress;
+    // 用户自定义的连接状态
+    private volatile Object attachment;
+    private boolean closed;
+
+    Connection(EventLoop eventLoop, SocketChannel channel, Handler handler, Options options) {
+        this.eventLoop = eventLoop;
+        this.channel = channel;
+        this.handler = handler;
+        this.options = options;
+        this.readBuffer = ByteBuffer.allocateDirect(options.readBufferSize());
+    }
+
+    /**
+     * 将连接注册到EventLoop中，必须在EventLoop线程中调用
+     */
+    void open() {
+        try {
+            remoteAddress = channel.getRemoteAddress();
+            key = eventLoop.register(channel, SelectionKey.OP_READ, this);
+            handler.onOpen(this);
+        } catch (Throwable e) {
+            close(e);
+        }
+    }
+
+    /**
+     * 所属的EventLoop
+     */
+    public EventLoop eventLoop() {
+        return eventLoop;
+    }
+
+    /**
+     * 客户端地址
+     */
+    public SocketAddress remoteAddress() {
+        return remoteAddress;
+    }
+
+    /**
+     * 用户自定义的连接状态
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T attachment() {
+        return (T) attachment;
+    }
+
+    public void attachment(Object attachment) {
+        this.attachment = attachment;
+    }
+
+    /**
+     * 连接是否已经关闭
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 待发送字节数，只能在EventLoop线程中调用
+     */
+    public long pendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * 待发送字节数是否低于高水位，只能在EventLoop线程中调用;
+     * 返回false时继续写入只会让数据堆积在内存中
+     */
+    public boolean isWritable() {
+        return pendingBytes < options.highWaterMark();
+    }
+
+    /**
+     * 发送数据，可以在任意线程中调用;
+     * 调用后缓冲区的所有权转移给连接，调用方不能再修改
+     *
+     * @param buffer 要发送的数据(读模式)
+     */
+    public void write(ByteBuffer buffer) {
+        if (eventLoop.inEventLoop()) {
+            doWrite(buffer);
+        } else {
+            eventLoop.execute(() -> doWrite(buffer));
+        }
+    }
+
+    /**
+     * 关闭连接，可以在任意线程中调用
+     */
+    public void close() {
+        if (eventLoop.inEventLoop()) {
+            close(null);
+        } else {
+            eventLoop.execute(() -> close(null));
+        }
+    }
+
+    @Override
+    public void handle(SelectionKey key) throws IOException {
+        if (key.isReadable()) {
+            read();
+        }
+        if (key.isValid() && key.isWritable()) {
+            flush();
+        }
+    }
+
+    @Override
+    public void close(Throwable cause) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (cause != null) {
+            try {
+                handler.onError(this, cause);
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+        }
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        writeQueue.clear();
+        pendingBytes = 0;
+        handler.onClose(this);
+    }
+
+    private void read() throws IOException {
+        if (!readBuffer.hasRemaining()) {
+            grow();
+        }
+        // 将channel数据追加到该连接独立的累积缓冲区
+        int len = channel.read(readBuffer);
+        // -1 表示客户端主动关闭
+        if (len == -1) {
+            close(null);
+            return;
+        }
+        if (len == 0) {
+            return;
+        }
+        // 转换为读模式
+        readBuffer.flip();
+        try {
+            handler.onRead(this, readBuffer);
+        } finally {
+            // 丢弃已读取的数据，未读取的数据(半包)移动到缓冲区头部，等待下一次读取
+            readBuffer.compact();
+        }
+    }
+
+    /**
+     * 读缓冲区已满(存在未读取完的半包)时扩容为两倍，超过最大值时抛出异常关闭连接
+     */
+    private void grow() throws IOException {
+        int capacity = readBuffer.capacity();
+        if (capacity >= options.maxReadBufferSize()) {
+            throw new IOException("read buffer exceeds " + options.maxReadBufferSize() + " bytes");
+        }
+        ByteBuffer bigger = ByteBuffer.allocateDirect(Math.min(capacity << 1, options.maxReadBufferSize()));
+        readBuffer.flip();
+        bigger.put(readBuffer);
+        readBuffer = bigger;
+    }
+
+    private void doWrite(ByteBuffer buffer) {
+        if (closed) {
+            return;
+        }
+        writeQueue.offer(buffer);
+        pendingBytes += buffer.remaining();
+        // 队列中已有数据说明正在等待OP_WRITE，按顺序发送
+        if (writeQueue.size() == 1) {
+            try {
+                flush();
+            } catch (IOException e) {
+                close(e);
+            }
+        } else if (pendingBytes >= options.highWaterMark()) {
+            suspendRead();
+        }
+    }
+
+    /**
+     * 发送待发送队列中的数据，写不完时监听OP_WRITE，等可写时继续发送
+     */
+    private void flush() throws IOException {
+        ByteBuffer head;
+        while ((head = writeQueue.peek()) != null) {
+            pendingBytes -= channel.write(head);
+            if (head.hasRemaining()) {
+                // socket发送缓冲区已满，等待可写;待发送数据超过高水位时暂停读取，不再接收新的请求
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                if (pendingBytes >= options.highWaterMark()) {
+                    suspendRead();
+                }
+                return;
+            }
+            writeQueue.poll();
+            if (readSuspended && pendingBytes < options.lowWaterMark()) {
+                resumeRead();
+            }
+        }
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+    }
+
+    private void suspendRead() {
+        if (!readSuspended) {
+            readSuspended = true;
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        }
+    }
+
+    private void resumeRead() {
+        readSuspended = false;
+        key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+    }
+
+    /**
+     * 连接配置，同一个服务端的所有连接共享
+     *
+     * @param readBufferSize    读缓冲区初始大小
+     * @param maxReadBufferSize 读缓冲区最大值，即单个半包的最大长度
+     * @param highWaterMark     待发送字节数高水位，超过时暂停读取
+     * @param lowWaterMark      待发送字节数低水位，低于时恢复读取
+     */
+    record Options(int readBufferSize, int maxReadBufferSize, int highWaterMark, int lowWaterMark) {
+        Options {
+            if (readBufferSize <= 0 || maxReadBufferSize < readBufferSize) {
+                throw new IllegalArgumentException("invalid read buffer size: " + readBufferSize + "/" + maxReadBufferSize);
+            }
+            if (lowWaterMark < 0 || highWaterMark < lowWaterMark) {
+                throw new IllegalArgumentException("invalid water mark: " + lowWaterMark + "/" + highWaterMark);
+            }
+        }
+    }
+}
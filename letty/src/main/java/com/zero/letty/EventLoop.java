@@ -0,0 +1,158 @@
+package com.zero.letty;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 事件循环(Reactor)，一个EventLoop对应一个线程与一个{@link Selector};
+ * 注册到该EventLoop中的所有Channel的IO事件与提交的任务都只会在该线程中执行，所以Channel的状态无需加锁;
+ * 其他线程通过{@link #execute(Runnable)}提交任务，并唤醒阻塞在select()上的线程。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 18:00 </p>
+ */
+public final class EventLoop implements Executor {
+    // 多路复用器(事件监听器)
+    private final Selector selector;
+    // 绑定的线程
+    private final Thread thread;
+    // 其他线程提交的任务
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    // 是否已经唤醒过selector，避免每次提交任务都调用wakeup()
+    private final AtomicBoolean wakenUp = new AtomicBoolean();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private volatile boolean running = true;
+
+    public EventLoop(String name) throws IOException {
+        this.selector = Selector.open();
+        this.thread = new Thread(this::run, name);
+    }
+
+    /**
+     * 启动事件循环线程
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * 当前线程是否为该EventLoop的线程
+     */
+    public boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * 提交任务，任务会在EventLoop线程中执行
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (!running) {
+            throw new RejectedExecutionException("event loop shut down");
+        }
+        tasks.offer(task);
+        if (!inEventLoop() && wakenUp.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * 将Channel注册到该EventLoop的selector中，必须在EventLoop线程中调用
+     *
+     * @param channel 要注册的Channel，必须为非阻塞模式
+     * @param ops     监听的事件
+     * @param handler 事件处理
+     */
+    SelectionKey register(SelectableChannel channel, int ops, SelectionHandler handler) throws ClosedChannelException {
+        assert inEventLoop();
+        return channel.register(selector, ops, handler);
+    }
+
+    /**
+     * 关闭事件循环，所有注册的Channel都会被关闭
+     */
+    public void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * 阻塞等待事件循环线程退出
+     */
+    public void awaitTermination() throws InterruptedException {
+        terminated.await();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                try {
+                    // 先重置唤醒标识再检查任务队列，保证在select()前提交的任务一定会唤醒selector
+                    wakenUp.set(false);
+                    if (tasks.isEmpty()) {
+                        // 这里会阻塞住，直到有channel的事件就绪或者被其他线程唤醒
+                        selector.select();
+                    } else {
+                        selector.selectNow();
+                    }
+                    processSelectedKeys();
+                    runAllTasks();
+                } catch (Throwable e) {
+                    e.printStackTrace();
+                }
+            }
+            runAllTasks();
+            closeAll();
+        } finally {
+            terminated.countDown();
+        }
+    }
+
+    private void processSelectedKeys() {
+        Iterator<SelectionKey> iter = selector.selectedKeys().iterator();
+        while (iter.hasNext()) {
+            SelectionKey key = iter.next();
+            iter.remove();
+            SelectionHandler handler = (SelectionHandler) key.attachment();
+            try {
+                if (key.isValid()) {
+                    handler.handle(key);
+                }
+            } catch (Throwable e) {
+                handler.close(e);
+            }
+        }
+    }
+
+    private void runAllTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            ((SelectionHandler) key.attachment()).close(null);
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.zero.letty;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 事件循环组，管理多个{@link EventLoop}，通过轮询的方式为新连接分配EventLoop
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 18:00 </p>
+ */
+public final class EventLoopGroup {
+    private final EventLoop[] loops;
+    private final AtomicInteger index = new AtomicInteger();
+
+    /**
+     * @param threads 线程数，即EventLoop数量
+     * @param name    线程名前缀
+     */
+    public EventLoopGroup(int threads, String name) throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        this.loops = new EventLoop[threads];
+        for (int i = 0; i < threads; i++) {
+            loops[i] = new EventLoop(name + "-" + i);
+        }
+    }
+
+    /**
+     * 启动所有EventLoop
+     */
+    public void start() {
+        for (EventLoop loop : loops) {
+            loop.start();
+        }
+    }
+
+    /**
+     * 轮询获取下一个EventLoop
+     */
+    public EventLoop next() {
+        return loops[Math.floorMod(index.getAndIncrement(), loops.length)];
+    }
+
+    /**
+     * 关闭所有EventLoop
+     */
+    public void shutdown() {
+        for (EventLoop loop : loops) {
+            loop.shutdown();
+        }
+    }
+
+    /**
+     * 阻塞等待所有EventLoop退出
+     */
+    public void awaitTermination() throws InterruptedException {
+        for (EventLoop loop : loops) {
+            loop.awaitTermination();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.zero.letty;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 连接事件处理器，所有回调都在连接所属的{@link EventLoop}线程中执行;
+ * 同一个处理器实例会被所有连接共享，需要保证线程安全，连接相关的状态可以保存在{@link Connection#attachment()}中。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 18:00 </p>
+ */
+public interface Handler {
+
+    /**
+     * 连接建立完成事件
+     *
+     * @param connection 连接
+     */
+    default void onOpen(Connection connection) throws IOException {
+    }
+
+    /**
+     * 连接读取事件
+     *
+     * @param connection 连接
+     * @param buffer     累积的数据(读模式)，未读取的数据(buffer.position()之后)会保留到下一次回调，
+     *                   已读取的数据在回调结束后会被丢弃，需要保留的数据必须拷贝
+     */
+    void onRead(Connection connection, ByteBuffer buffer) throws IOException;
+
+    /**
+     * 连接关闭事件
+     *
+     * @param connection 连接
+     */
+    default void onClose(Connection connection) {
+    }
+
+    /**
+     * 处理过程中捕获到异常时被调用，默认关闭连接
+     *
+     * @param connection 连接
+     * @param cause      捕获到的异常
+     */
+    default void onError(Connection connection, Throwable cause) {
+        cause.printStackTrace();
+        connection.close();
+    }
+}
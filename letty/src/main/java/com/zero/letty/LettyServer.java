@@ -0,0 +1,149 @@
+package com.zero.letty;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Letty服务端，主从Reactor模型:
+ *  - 主Reactor(boss): 一个{@link EventLoop}，只负责监听ACCEPT事件，接收新连接;
+ *  - 从Reactor(worker): 多个{@link EventLoop}，新连接以轮询的方式注册到其中一个，之后该连接的所有读写都由这个EventLoop负责;
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 18:00 </p>
+ */
+public final class LettyServer implements Closeable {
+    private final int port;
+    private final int workerThreads;
+    private final Handler handler;
+    private int readBufferSize = Connection.DEFAULT_READ_BUFFER_SIZE;
+    private int maxReadBufferSize = Connection.DEFAULT_MAX_READ_BUFFER_SIZE;
+    private int highWaterMark = Connection.DEFAULT_WRITE_BUFFER_HIGH_WATER_MARK;
+    private int lowWaterMark = Connection.DEFAULT_WRITE_BUFFER_LOW_WATER_MARK;
+
+    private EventLoop boss;
+    private EventLoopGroup workers;
+    private ServerSocketChannel serverChannel;
+
+    /**
+     * @param port          服务端口
+     * @param workerThreads 从Reactor线程数
+     * @param handler       连接事件处理器，所有连接共享
+     */
+    public LettyServer(int port, int workerThreads, Handler handler) {
+        this.port = port;
+        this.workerThreads = workerThreads;
+        this.handler = handler;
+    }
+
+    /**
+     * 设置每个连接的读缓冲区初始大小，默认为4KB
+     */
+    public LettyServer readBufferSize(int readBufferSize) {
+        this.readBufferSize = readBufferSize;
+        return this;
+    }
+
+    /**
+     * 设置每个连接的读缓冲区最大值，即单个未读取完的半包的最大长度，默认为1MB
+     */
+    public LettyServer maxReadBufferSize(int maxReadBufferSize) {
+        this.maxReadBufferSize = maxReadBufferSize;
+        return this;
+    }
+
+    /**
+     * 设置每个连接待发送字节数的低水位与高水位，默认为32KB/64KB;
+     * 超过高水位时暂停读取该连接，降到低水位以下时恢复
+     */
+    public LettyServer writeBufferWaterMark(int low, int high) {
+        this.lowWaterMark = low;
+        this.highWaterMark = high;
+        return this;
+    }
+
+    /**
+     * 启动服务
+     */
+    public LettyServer start() throws IOException {
+        Connection.Options options = new Connection.Options(readBufferSize, maxReadBufferSize, highWaterMark, lowWaterMark);
+        boss = new EventLoop("letty-boss");
+        workers = new EventLoopGroup(workerThreads, "letty-worker");
+        // 创建一个ServerSocketChannel通道，设置为非阻塞模式，并绑定端口
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+
+        workers.start();
+        boss.start();
+        // 将服务端通道注册到主Reactor，只监听ACCEPT事件
+        Acceptor acceptor = new Acceptor(options);
+        boss.execute(() -> {
+            try {
+                boss.register(serverChannel, SelectionKey.OP_ACCEPT, acceptor);
+            } catch (IOException e) {
+                acceptor.close(e);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * 阻塞等待服务关闭
+     */
+    public void awaitTermination() throws InterruptedException {
+        boss.awaitTermination();
+        workers.awaitTermination();
+    }
+
+    /**
+     * 关闭服务，所有连接都会被关闭
+     */
+    @Override
+    public void close() throws IOException {
+        boss.shutdown();
+        workers.shutdown();
+    }
+
+    /**
+     * ACCEPT事件处理 -> 客户端连接事件
+     */
+    private final class Acceptor implements SelectionHandler {
+        private final Connection.Options options;
+
+        Acceptor(Connection.Options options) {
+            this.options = options;
+        }
+
+        @Override
+        public void handle(SelectionKey key) throws IOException {
+            SocketChannel channel;
+            // 一次处理所有等待中的连接
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                // 轮询选择一个从Reactor，在其线程中完成注册
+                EventLoop worker = workers.next();
+                Connection connection = new Connection(worker, channel, handler, options);
+                worker.execute(connection::open);
+            }
+        }
+
+        @Override
+        public void close(Throwable cause) {
+            if (cause != null) {
+                cause.printStackTrace();
+            }
+            try {
+                serverChannel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
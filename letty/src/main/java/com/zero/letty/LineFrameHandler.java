@@ -0,0 +1,58 @@
+package com.zero.letty;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 基于换行符({@code \n})的拆包处理器，解决TCP的粘包与半包问题:
+ * 每读取到一个完整的行就回调一次{@link #onFrame}，不完整的行保留在连接的累积缓冲区中，等待后续数据到达;
+ * 行尾的{@code \r\n}或{@code \n}不会包含在帧中。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 18:30 </p>
+ */
+public abstract class LineFrameHandler implements Handler {
+    private final int maxFrameLength;
+
+    /**
+     * @param maxFrameLength 单行的最大长度(不包含换行符)，超过时抛出异常关闭连接
+     */
+    protected LineFrameHandler(int maxFrameLength) {
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    /**
+     * 读取到一个完整的帧
+     *
+     * @param connection 连接
+     * @param frame      帧数据(读模式)，只在回调期间有效，需要保留的数据必须拷贝
+     */
+    protected abstract void onFrame(Connection connection, ByteBuffer frame) throws IOException;
+
+    @Override
+    public final void onRead(Connection connection, ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        int limit = buffer.limit();
+        for (int i = start; i < limit; i++) {
+            if (buffer.get(i) != '\n') {
+                continue;
+            }
+            int end = i > start && buffer.get(i - 1) == '\r' ? i - 1 : i;
+            checkLength(end - start);
+            onFrame(connection, buffer.slice(start, end - start));
+            if (connection.isClosed()) {
+                return;
+            }
+            start = i + 1;
+            buffer.position(start);
+        }
+        // 剩余的半包超过最大长度时，不必等到换行符出现
+        checkLength(limit - start);
+    }
+
+    private void checkLength(int length) throws IOException {
+        if (length > maxFrameLength) {
+            throw new IOException("frame length " + length + " exceeds " + maxFrameLength);
+        }
+    }
+}
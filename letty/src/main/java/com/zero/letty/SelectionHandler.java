@@ -0,0 +1,27 @@
+package com.zero.letty;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+
+/**
+ * 注册到{@link EventLoop}中的Channel的事件处理，作为{@link SelectionKey}的attachment
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 18:00 </p>
+ */
+interface SelectionHandler {
+
+    /**
+     * 处理就绪的事件
+     *
+     * @param key 就绪的SelectionKey
+     */
+    void handle(SelectionKey key) throws IOException;
+
+    /**
+     * 处理过程中抛出异常，或者EventLoop关闭时被调用
+     *
+     * @param cause 异常，EventLoop关闭时为null
+     */
+    void close(Throwable cause);
+}
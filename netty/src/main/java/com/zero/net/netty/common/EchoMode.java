@@ -0,0 +1,68 @@
+package com.zero.net.netty.common;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * echo类服务(tcp.Server、packets demo1/demo2、websocket)回写消息的方式，
+ * 通过启动参数 {@code -Decho.mode=copy|zero-copy} 指定，默认为copy:
+ *  - COPY: 原有实现，将入站的ByteBuf读取到byte[]，转换为String打印后，再通过Unpooled.copiedBuffer拷贝到新的堆缓冲区写回;
+ *  - ZERO_COPY: 不经过String/byte[]，直接将入站的(池化)ByteBuf原样写回，或者在其上原地修改后写回，
+ *    ByteBuf的所有权随write转移给出站链路，由出站链路负责释放;为了避免分配，不再打印每条消息的内容;
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 20:30 </p>
+ */
+public enum EchoMode {
+    COPY,
+    ZERO_COPY;
+
+    /**
+     * 根据 {@code -Decho.mode} 选择回写方式
+     */
+    public static EchoMode current() {
+        return valueOf(System.getProperty("echo.mode", "copy").replace('-', '_').toUpperCase());
+    }
+
+    /**
+     * 原地将缓冲区中可读部分的ASCII小写字母转换为大写，不产生任何分配;
+     * 与String.toUpperCase()不同，非ASCII字符保持不变
+     *
+     * @param buf 要转换的缓冲区
+     * @return 传入的缓冲区
+     */
+    public static ByteBuf toUpperCaseAscii(ByteBuf buf) {
+        for (int i = buf.readerIndex(), end = buf.writerIndex(); i < end; i++) {
+            byte b = buf.getByte(i);
+            if (b >= 'a' && b <= 'z') {
+                buf.setByte(i, b - ('a' - 'A'));
+            }
+        }
+        return buf;
+    }
+
+    /**
+     * 判断缓冲区中可读部分去除首尾空白后是否与指定的ASCII字符串相等，不产生任何分配
+     *
+     * @param buf  缓冲区
+     * @param text ASCII字符串
+     */
+    public static boolean contentEqualsTrimmed(ByteBuf buf, String text) {
+        int start = buf.readerIndex();
+        int end = buf.writerIndex();
+        while (start < end && buf.getByte(start) <= ' ') {
+            start++;
+        }
+        while (end > start && buf.getByte(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (buf.getByte(start + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
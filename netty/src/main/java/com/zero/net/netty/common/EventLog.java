@@ -0,0 +1,264 @@
+package com.zero.net.netty.common;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步事件日志，替代EventLoop中直接调用{@link System#out}:
+ * System.out是带锁的同步输出，每条日志都会在EventLoop线程中格式化、编码并执行一次write系统调用，
+ * 所有EventLoop都会竞争同一把锁，输出的速度决定了服务端的吞吐量;
+ * <p>
+ * 该实现中每个线程有一个独立的环形缓冲区(单生产者单消费者，无锁)，调用{@link #log}时只把格式与参数放入缓冲区，
+ * 由后台的写出线程统一格式化并批量写出，缓冲区满时直接丢弃并计数，不会阻塞EventLoop;
+ * 同时支持采样与限流，均按线程统计，不在线程之间共享状态:
+ *  - {@code -Deventlog.sample=N}: 每N条事件记录1条，默认为1即全部记录;
+ *  - {@code -Deventlog.rate=N}:   每个线程每秒最多记录N条，默认为0即不限制;
+ *  - {@code -Deventlog.mode=async|sync|off}: 默认为async; sync为原有的同步输出方式(用于对比)，off不输出;
+ * 时间戳使用缓存的{@link DateTimeFormatter}格式化，同一秒内只格式化一次。参数会在写出线程中转换为字符串，
+ * 调用方只能传入不可变的对象(字符串、数字等)，不能传入ByteBuf等会被修改或释放的对象。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 12:00 </p>
+ */
+public final class EventLog {
+    /**
+     * 输出方式
+     */
+    public enum Mode {ASYNC, SYNC, OFF}
+
+    /**
+     * 当前的输出方式
+     */
+    public static final Mode MODE = Mode.valueOf(System.getProperty("eventlog.mode", "async").toUpperCase());
+
+    // 每个线程的环形缓冲区大小，必须为2的幂
+    private static final int CAPACITY = Integer.highestOneBit(Math.max(2, Integer.getInteger("eventlog.capacity", 4096)));
+    private static final int SAMPLE = Math.max(1, Integer.getInteger("eventlog.sample", 1));
+    private static final int RATE = Integer.getInteger("eventlog.rate", 0);
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
+    // 全局统计: 写出、因缓冲区已满丢弃、以及因采样或限流跳过的事件数
+    private static final LongAdder WRITTEN = new LongAdder();
+    private static final LongAdder DROPPED = new LongAdder();
+    private static final LongAdder SKIPPED = new LongAdder();
+
+    // 所有线程的环形缓冲区
+    private static final List<Ring> RINGS = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<Ring> RING = ThreadLocal.withInitial(() -> {
+        Ring ring = new Ring(Thread.currentThread().getName());
+        RINGS.add(ring);
+        return ring;
+    });
+    // 最近一次格式化的秒与结果，不可变对象，多线程读写无需加锁
+    private static volatile CachedSecond cachedSecond = new CachedSecond(-1, "");
+
+    static {
+        if (MODE == Mode.ASYNC) {
+            Thread writer = new Thread(EventLog::drainLoop, "event-log-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    private EventLog() {
+    }
+
+    /**
+     * 当前线程的下一条事件是否需要记录，用于在构造参数之前判断，避免为被跳过的事件构造字符串;
+     * 每次调用都会推进当前线程的采样与限流计数，返回true时必须紧接着调用{@link #log}
+     */
+    public static boolean sample() {
+        if (MODE == Mode.OFF) {
+            return false;
+        }
+        if (SAMPLE == 1 && RATE == 0) {
+            return true;
+        }
+        if (!RING.get().admit()) {
+            SKIPPED.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 记录一条事件，格式与{@link String#format}相同，输出时会在最前面加上事件发生的时间
+     *
+     * @param format 格式
+     * @param args   参数，只能是不可变的对象
+     */
+    public static void log(String format, Object... args) {
+        switch (MODE) {
+            case ASYNC -> {
+                if (!RING.get().offer(System.currentTimeMillis(), format, args)) {
+                    DROPPED.increment();
+                }
+            }
+            case SYNC -> System.out.printf(format + "%n", args);
+            case OFF -> {
+            }
+        }
+    }
+
+    /**
+     * 包装一个时间戳参数(毫秒)，在写出线程中使用缓存的格式化器格式化为 yyyy-MM-dd HH:mm:ss
+     */
+    public static Object time(long millis) {
+        return new Time(millis);
+    }
+
+    /**
+     * 累计写出的事件数
+     */
+    public static long written() {
+        return WRITTEN.sum();
+    }
+
+    /**
+     * 累计因缓冲区已满而丢弃的事件数
+     */
+    public static long dropped() {
+        return DROPPED.sum();
+    }
+
+    /**
+     * 累计因采样或限流跳过的事件数
+     */
+    public static long skipped() {
+        return SKIPPED.sum();
+    }
+
+    /**
+     * 使用缓存格式化时间戳，同一秒内的时间戳只格式化一次
+     */
+    static String format(long millis) {
+        long second = Math.floorDiv(millis, 1000);
+        CachedSecond cached = cachedSecond;
+        if (cached.second != second) {
+            cached = new CachedSecond(second, FORMATTER.format(Instant.ofEpochSecond(second)));
+            cachedSecond = cached;
+        }
+        return cached.text;
+    }
+
+    /**
+     * 写出线程: 依次取出所有线程缓冲区中的事件，格式化后批量写出，没有事件时短暂休眠
+     */
+    private static void drainLoop() {
+        StringBuilder batch = new StringBuilder(64 * 1024);
+        while (true) {
+            int drained = 0;
+            for (Ring ring : RINGS) {
+                drained += ring.drainTo(batch);
+            }
+            if (drained == 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                continue;
+            }
+            // 每次写出时获取System.out，允许在运行过程中重定向
+            PrintStream out = System.out;
+            out.print(batch);
+            out.flush();
+            batch.setLength(0);
+            WRITTEN.add(drained);
+        }
+    }
+
+    private record CachedSecond(long second, String text) {
+    }
+
+    /**
+     * 延迟格式化的时间戳参数
+     */
+    private record Time(long millis) {
+        @Override
+        public String toString() {
+            return format(millis);
+        }
+    }
+
+    /**
+     * 单生产者(所属线程)单消费者(写出线程)的环形缓冲区，通过有序写入(lazySet)发布索引
+     */
+    private static final class Ring {
+        private final String thread;
+        private final long[] times = new long[CAPACITY];
+        private final String[] formats = new String[CAPACITY];
+        private final Object[][] args = new Object[CAPACITY][];
+        private final int mask = CAPACITY - 1;
+        // 下一个写入位置，只有所属线程写入
+        private final AtomicLong tail = new AtomicLong();
+        // 下一个读取位置，只有写出线程写入
+        private final AtomicLong head = new AtomicLong();
+        // 生产者缓存的读取位置，减少对head的volatile读
+        private long headCache;
+        // 采样与限流计数，只有所属线程读写
+        private long sampleCount;
+        private long rateWindow;
+        private int rateCount;
+
+        Ring(String thread) {
+            this.thread = thread;
+        }
+
+        boolean admit() {
+            if (SAMPLE > 1 && sampleCount++ % SAMPLE != 0) {
+                return false;
+            }
+            if (RATE > 0) {
+                long window = System.nanoTime() / 1_000_000_000L;
+                if (window != rateWindow) {
+                    rateWindow = window;
+                    rateCount = 0;
+                }
+                return ++rateCount <= RATE;
+            }
+            return true;
+        }
+
+        boolean offer(long time, String format, Object[] values) {
+            long t = tail.get();
+            if (t - headCache >= CAPACITY) {
+                headCache = head.get();
+                if (t - headCache >= CAPACITY) {
+                    return false;
+                }
+            }
+            int index = (int) (t & mask);
+            times[index] = time;
+            formats[index] = format;
+            args[index] = values;
+            // 有序写入，保证写出线程看到新的tail时，槽位中的内容已经可见
+            tail.lazySet(t + 1);
+            return true;
+        }
+
+        int drainTo(StringBuilder out) {
+            long h = head.get();
+            long t = tail.get();
+            for (long i = h; i < t; i++) {
+                int index = (int) (i & mask);
+                out.append(format(times[index])).append(" [").append(thread).append("] ");
+                try {
+                    out.append(String.format(formats[index], args[index]));
+                } catch (RuntimeException e) {
+                    out.append(formats[index]).append(" (format error: ").append(e).append(')');
+                }
+                out.append(System.lineSeparator());
+                formats[index] = null;
+                args[index] = null;
+            }
+            head.lazySet(t);
+            return (int) (t - h);
+        }
+    }
+}
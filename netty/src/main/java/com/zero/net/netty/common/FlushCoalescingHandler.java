@@ -0,0 +1,191 @@
+package com.zero.net.netty.common;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * flush合并处理器，每次flush都会产生一次write系统调用，该处理器将多次flush合并为一次:
+ *  - 在一次读取过程中(channelRead ~ channelReadComplete)产生的flush，合并到channelReadComplete时统一执行;
+ *  - 在读取过程之外产生的flush，如果设置了最大延迟，则延迟到指定时间后统一执行;
+ *  - 待发送的数据量超过阈值时立即执行flush，避免积压过多数据;
+ * <p>
+ * 该处理器需要位于pipeline的头部(使用addFirst添加)，才能在其他处理器之前感知到读取事件，并统计到编码后的数据量;
+ * 阈值可以通过构造方法指定，或者通过启动参数 {@code -Dflush.maxPendingBytes} 与 {@code -Dflush.maxDelayMicros} 指定。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 15:10 </p>
+ */
+public class FlushCoalescingHandler extends ChannelDuplexHandler {
+    /**
+     * 默认待发送数据量阈值: 64KB
+     */
+    public static final int DEFAULT_MAX_PENDING_BYTES = 64 * 1024;
+
+    // 全局统计: 请求的flush次数与实际执行的flush次数
+    private static final LongAdder REQUESTED = new LongAdder();
+    private static final LongAdder FORWARDED = new LongAdder();
+
+    // 待发送数据量阈值，超过后立即flush
+    private final long maxPendingBytes;
+    // 读取过程之外的flush最大延迟，为0表示立即flush
+    private final long maxDelayNanos;
+
+    private ChannelHandlerContext ctx;
+    // 是否处于读取过程中
+    private boolean readInProgress;
+    // 尚未执行的flush次数
+    private int pendingFlushes;
+    // 自上次flush以来写入的数据量
+    private long pendingBytes;
+    // 延迟flush任务
+    private ScheduledFuture<?> scheduledFlush;
+    private final Runnable flushTask = () -> {
+        scheduledFlush = null;
+        if (pendingFlushes > 0) {
+            flushNow(ctx);
+        }
+    };
+
+    /**
+     * 使用启动参数指定的阈值，默认只合并读取过程中的flush
+     */
+    public FlushCoalescingHandler() {
+        this(Long.getLong("flush.maxPendingBytes", DEFAULT_MAX_PENDING_BYTES),
+                Long.getLong("flush.maxDelayMicros", 0), TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * @param maxPendingBytes 待发送数据量阈值，超过后立即flush
+     * @param maxDelay        读取过程之外的flush最大延迟，为0表示立即flush
+     * @param unit            延迟时间单位
+     */
+    public FlushCoalescingHandler(long maxPendingBytes, long maxDelay, TimeUnit unit) {
+        if (maxPendingBytes <= 0) {
+            throw new IllegalArgumentException("maxPendingBytes must be positive: " + maxPendingBytes);
+        }
+        if (maxDelay < 0) {
+            throw new IllegalArgumentException("maxDelay must not be negative: " + maxDelay);
+        }
+        this.maxPendingBytes = maxPendingBytes;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+    }
+
+    /**
+     * 所有连接累计请求的flush次数
+     */
+    public static long requestedFlushes() {
+        return REQUESTED.sum();
+    }
+
+    /**
+     * 所有连接累计实际执行的flush次数，即产生write系统调用的次数
+     */
+    public static long forwardedFlushes() {
+        return FORWARDED.sum();
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        flushIfPending(ctx);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        readInProgress = true;
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        // 读取结束，统一执行读取过程中产生的flush
+        readInProgress = false;
+        flushIfPending(ctx);
+        ctx.fireChannelReadComplete();
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof ByteBuf buf) {
+            pendingBytes += buf.readableBytes();
+        } else if (msg instanceof ByteBufHolder holder) {
+            pendingBytes += holder.content().readableBytes();
+        }
+        ctx.write(msg, promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        REQUESTED.increment();
+        if (pendingBytes >= maxPendingBytes) {
+            // 数据积压过多，立即发送
+            flushNow(ctx);
+        } else if (readInProgress) {
+            // 读取过程中，等待channelReadComplete
+            pendingFlushes++;
+        } else if (maxDelayNanos > 0) {
+            // 读取过程之外，延迟一段时间后发送
+            pendingFlushes++;
+            if (scheduledFlush == null) {
+                scheduledFlush = ctx.executor().schedule(flushTask, maxDelayNanos, TimeUnit.NANOSECONDS);
+            }
+        } else {
+            flushNow(ctx);
+        }
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        // 不可写时尽快发送积压的数据
+        if (!ctx.channel().isWritable()) {
+            flushIfPending(ctx);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        flushIfPending(ctx);
+        ctx.fireExceptionCaught(cause);
+    }
+
+    @Override
+    public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfPending(ctx);
+        ctx.disconnect(promise);
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfPending(ctx);
+        ctx.close(promise);
+    }
+
+    private void flushIfPending(ChannelHandlerContext ctx) {
+        if (pendingFlushes > 0) {
+            flushNow(ctx);
+        }
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        pendingFlushes = 0;
+        pendingBytes = 0;
+        FORWARDED.increment();
+        ctx.flush();
+    }
+}
@@ -0,0 +1,351 @@
+package com.zero.net.netty.common;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.EventExecutor;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 应用层心跳服务(ping/pong)，由服务端主动探测对端是否存活，并测量往返延迟(RTT):
+ *  - 每隔一个心跳周期向每个连接发送一个带序号与发送时间的{@link Ping}，对端原样回复{@link Pong}(见{@link #responder()});
+ *  - 收到Pong时根据回显的发送时间计算RTT，更新连接的平滑RTT(EWMA，与TCP的SRTT相同，权重为1/8)，并记录到所属EventLoop的直方图中;
+ *  - 连续maxMissed个Ping没有收到Pong的连接视为对端已经失效(断电、断网等不会发送FIN的情况)，直接关闭;
+ * 与{@link IdleDetector}相同，每个EventLoop只调度一个定时任务，连接按加入顺序分散到{@link #SLOTS}个槽位中，
+ * 每次tick只处理一个槽位，避免所有连接在同一时刻发送Ping。
+ * <p>
+ * Pong在服务端的EventLoop中处理，RTT包含了对端的处理时间以及本端EventLoop的排队时间，
+ * 某个EventLoop的RTT分位数明显高于其他EventLoop时，说明该EventLoop已经过载，见{@link #report()}。
+ * Ping/Pong对象与报文之间的转换由各个协议的编解码器负责，心跳处理器需要位于编解码器之后、业务处理器之前。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 10:00 </p>
+ */
+public class Heartbeat {
+    /**
+     * 每个心跳周期划分的槽位数
+     */
+    public static final int SLOTS = 8;
+    // 直方图可以记录的最大RTT，超出的按最大值记录
+    private static final long MAX_RTT_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final AttributeKey<Handler> HANDLER = AttributeKey.valueOf("heartbeat.handler");
+    private static final ChannelHandler RESPONDER = new Responder();
+
+    // 全局统计: 发送的Ping数、收到的有效Pong数，以及因心跳超时被关闭的连接数
+    private static final LongAdder PINGS = new LongAdder();
+    private static final LongAdder PONGS = new LongAdder();
+    private static final LongAdder EVICTIONS = new LongAdder();
+
+    // 心跳周期
+    private final long intervalNanos;
+    // 允许连续丢失的Pong数
+    private final int maxMissed;
+    // 每个EventLoop一个定时器
+    private final ConcurrentHashMap<EventExecutor, Ticker> tickers = new ConcurrentHashMap<>();
+
+    /**
+     * @param interval  心跳周期
+     * @param unit      时间单位
+     * @param maxMissed 允许连续丢失的Pong数，超过后关闭连接
+     */
+    public Heartbeat(long interval, TimeUnit unit, int maxMissed) {
+        if (interval <= 0 || maxMissed <= 0) {
+            throw new IllegalArgumentException("interval and maxMissed must be positive");
+        }
+        this.intervalNanos = unit.toNanos(interval);
+        this.maxMissed = maxMissed;
+    }
+
+    /**
+     * 根据启动参数创建心跳服务: {@code -Dheartbeat.interval=秒} 为心跳周期，默认为0即不启用;
+     * {@code -Dheartbeat.maxMissed=N} 为允许连续丢失的Pong数，默认为3
+     *
+     * @return 未启用时返回null
+     */
+    public static Heartbeat current() {
+        int interval = Integer.getInteger("heartbeat.interval", 0);
+        if (interval <= 0) {
+            return null;
+        }
+        return new Heartbeat(interval, TimeUnit.SECONDS, Integer.getInteger("heartbeat.maxMissed", 3));
+    }
+
+    /**
+     * 创建连接的心跳处理器，每个连接一个实例
+     */
+    public ChannelHandler newHandler() {
+        return new Handler();
+    }
+
+    /**
+     * 对端使用的心跳应答处理器，收到Ping后原样回复Pong，所有连接共享
+     */
+    public static ChannelHandler responder() {
+        return RESPONDER;
+    }
+
+    /**
+     * 获取连接的平滑RTT(纳秒)，连接没有心跳处理器或者还没有收到Pong时返回-1
+     */
+    public static long smoothedRtt(Channel channel) {
+        Handler handler = channel.attr(HANDLER).get();
+        return handler != null ? handler.smoothedRtt : -1;
+    }
+
+    /**
+     * 累计发送的Ping数
+     */
+    public static long pings() {
+        return PINGS.sum();
+    }
+
+    /**
+     * 累计收到的有效Pong数
+     */
+    public static long pongs() {
+        return PONGS.sum();
+    }
+
+    /**
+     * 累计因心跳超时被关闭的连接数
+     */
+    public static long evictions() {
+        return EVICTIONS.sum();
+    }
+
+    /**
+     * 获取每个EventLoop自上一次调用以来的RTT分布(纳秒)，key为EventLoop的线程名;
+     * 直方图会在调用时重置，不要与{@link #report()}同时使用
+     */
+    public Map<String, Histogram> rttHistograms() {
+        Map<String, Histogram> histograms = new TreeMap<>();
+        for (Ticker ticker : sortedTickers()) {
+            histograms.put(ticker.name, ticker.recorder.getIntervalHistogram());
+        }
+        return histograms;
+    }
+
+    /**
+     * 输出每个EventLoop自上一次调用以来的连接数与RTT分位数(毫秒)，以及所有EventLoop的汇总
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder(String.format("%-32s %8s %8s %10s %10s %10s %10s%n",
+                "event-loop", "conns", "pongs", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)"));
+        Histogram total = new Histogram(MAX_RTT_NANOS, 3);
+        int connections = 0;
+        for (Ticker ticker : sortedTickers()) {
+            Histogram histogram = ticker.recorder.getIntervalHistogram();
+            total.add(histogram);
+            connections += ticker.size;
+            appendLine(report, ticker.name, ticker.size, histogram);
+        }
+        appendLine(report, "total", connections, total);
+        report.append(String.format("pings: %d, pongs: %d, evictions: %d%n", pings(), pongs(), evictions()));
+        return report.toString();
+    }
+
+    /**
+     * 按照 {@code -Dheartbeat.report=秒} 指定的间隔定期输出{@link #report()}，默认为0即不输出
+     *
+     * @param executor 执行输出的线程，通常为worker线程组
+     */
+    public void scheduleReport(ScheduledExecutorService executor) {
+        int period = Integer.getInteger("heartbeat.report", 0);
+        if (period > 0) {
+            executor.scheduleAtFixedRate(() -> System.out.print(report()), period, period, TimeUnit.SECONDS);
+        }
+    }
+
+    private List<Ticker> sortedTickers() {
+        List<Ticker> sorted = new ArrayList<>(tickers.values());
+        sorted.sort(Comparator.comparing(ticker -> ticker.name));
+        return sorted;
+    }
+
+    private static void appendLine(StringBuilder report, String name, int connections, Histogram histogram) {
+        report.append(String.format("%-32s %8d %8d %10.2f %10.2f %10.2f %10.2f%n", name, connections,
+                histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+                histogram.getValueAtPercentile(99.9) / 1e6, histogram.getMaxValue() / 1e6));
+    }
+
+    /**
+     * 心跳请求，由服务端发送
+     *
+     * @param seq       连接内递增的序号，从1开始
+     * @param timestamp 发送时间(System.nanoTime())，只对发送方有意义
+     */
+    public record Ping(long seq, long timestamp) {
+    }
+
+    /**
+     * 心跳应答，原样回显Ping中的序号与发送时间
+     */
+    public record Pong(long seq, long timestamp) {
+    }
+
+    /**
+     * EventLoop上的心跳定时器，只在所属的EventLoop线程中读写(直方图除外)
+     */
+    private final class Ticker implements Runnable {
+        private final List<Handler>[] slots;
+        // RTT直方图，只有所属的EventLoop线程写入
+        private final SingleWriterRecorder recorder = new SingleWriterRecorder(MAX_RTT_NANOS, 3);
+        private volatile String name;
+        // 连接数，仅用于统计
+        private volatile int size;
+        private int next;
+        private long ticks;
+
+        @SuppressWarnings("unchecked")
+        Ticker(EventExecutor executor) {
+            this.slots = new List[SLOTS];
+            for (int i = 0; i < SLOTS; i++) {
+                slots[i] = new ArrayList<>();
+            }
+            this.name = executor.toString();
+            long tickNanos = Math.max(1, intervalNanos / SLOTS);
+            executor.execute(() -> name = Thread.currentThread().getName());
+            executor.scheduleAtFixedRate(this, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+        }
+
+        void add(Handler handler) {
+            slots[next].add(handler);
+            next = (next + 1) % SLOTS;
+            size++;
+        }
+
+        @Override
+        public void run() {
+            List<Handler> slot = slots[(int) (ticks++ % SLOTS)];
+            for (int i = 0; i < slot.size(); ) {
+                Handler handler = slot.get(i);
+                if (!handler.removed && handler.sentSeq - handler.ackedSeq >= maxMissed) {
+                    // 连续maxMissed个Ping都没有收到Pong，对端已经失效
+                    EVICTIONS.increment();
+                    handler.removed = true;
+                    handler.ctx.close();
+                }
+                if (handler.removed) {
+                    // 与最后一个交换后删除，O(1)
+                    Handler last = slot.remove(slot.size() - 1);
+                    if (i < slot.size()) {
+                        slot.set(i, last);
+                    }
+                    size--;
+                    continue;
+                }
+                handler.ping();
+                i++;
+            }
+        }
+    }
+
+    /**
+     * 连接的心跳处理器，发送Ping并处理Pong，Ping/Pong不会继续向后传递
+     */
+    private final class Handler extends ChannelInboundHandlerAdapter {
+        private ChannelHandlerContext ctx;
+        private Ticker ticker;
+        // 最后发送的Ping序号与最后收到的Pong序号
+        private long sentSeq;
+        private long ackedSeq;
+        // 平滑RTT(纳秒)，-1表示还没有收到Pong
+        private volatile long smoothedRtt = -1;
+        private boolean removed;
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+            this.ctx = ctx;
+            ctx.channel().attr(HANDLER).set(this);
+            if (ctx.channel().isActive()) {
+                register();
+            }
+        }
+
+        @Override
+        public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+            removed = true;
+            ctx.channel().attr(HANDLER).set(null);
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            register();
+            ctx.fireChannelActive();
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            removed = true;
+            ctx.fireChannelInactive();
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (msg instanceof Pong pong) {
+                onPong(pong);
+            } else if (msg instanceof Ping ping) {
+                // 对端主动发送的Ping，直接应答
+                ctx.writeAndFlush(new Pong(ping.seq(), ping.timestamp()), ctx.voidPromise());
+            } else {
+                ctx.fireChannelRead(msg);
+            }
+        }
+
+        private void register() {
+            if (ticker != null || removed) {
+                return;
+            }
+            ticker = tickers.computeIfAbsent(ctx.executor(), Ticker::new);
+            ticker.add(this);
+        }
+
+        private void ping() {
+            PINGS.increment();
+            ctx.writeAndFlush(new Ping(++sentSeq, System.nanoTime()), ctx.voidPromise());
+        }
+
+        private void onPong(Pong pong) {
+            // 只接受未确认过的、已经发送的序号，忽略重复与伪造的Pong
+            if (pong.seq() <= ackedSeq || pong.seq() > sentSeq) {
+                return;
+            }
+            ackedSeq = pong.seq();
+            long rtt = Math.max(0, System.nanoTime() - pong.timestamp());
+            long srtt = smoothedRtt;
+            smoothedRtt = srtt < 0 ? rtt : srtt + ((rtt - srtt) >> 3);
+            ticker.recorder.recordValue(Math.min(rtt, MAX_RTT_NANOS));
+            PONGS.increment();
+        }
+    }
+
+    /**
+     * 对端的心跳应答处理器，从Channel的尾部写出Pong，对编码器在pipeline中的位置没有要求
+     */
+    @ChannelHandler.Sharable
+    private static final class Responder extends ChannelInboundHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (msg instanceof Ping ping) {
+                Channel channel = ctx.channel();
+                channel.writeAndFlush(new Pong(ping.seq(), ping.timestamp()), channel.voidPromise());
+            } else {
+                ctx.fireChannelRead(msg);
+            }
+        }
+    }
+}
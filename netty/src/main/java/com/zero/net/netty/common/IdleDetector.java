@@ -0,0 +1,218 @@
+package com.zero.net.netty.common;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.EventExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 共享的粗粒度空闲检测服务，替代每个连接一个{@link IdleStateHandler}:
+ * IdleStateHandler会为每个连接在EventLoop上调度一个定时任务，超时后再重新调度，
+ * 大量空闲连接时EventLoop的定时任务队列(优先级队列)中会积压与连接数相同的任务，插入与取出都是O(log n);
+ * <p>
+ * 该服务在每个EventLoop上只调度一个固定周期(默认1秒)的定时任务，驱动一个时间轮(hashed wheel):
+ *  - 每个连接按照 最后活跃时间 + 超时时间 放入对应的槽位，读写时只更新最后活跃时间(一次字段写入)，不移动槽位;
+ *  - 每次tick只处理当前槽位中的连接: 已经超时的连接触发{@link IdleStateEvent}，并重新放入槽位，未超时的连接移动到新的槽位;
+ *  - 连接关闭时只做标记，在下一次处理其槽位时移除;
+ * 时间轮与槽位只会被所属的EventLoop线程读写，无需加锁。检测精度为一个tick，超时事件与IdleStateHandler(0, 0, timeout)的
+ * ALL_IDLE事件相同，原有的空闲处理器无需修改即可使用。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 22:30 </p>
+ */
+public class IdleDetector {
+    // 全局统计: 所有时间轮累计的tick次数(即执行的定时任务数)，以及触发的空闲事件数
+    private static final LongAdder TICKS = new LongAdder();
+    private static final LongAdder IDLE_EVENTS = new LongAdder();
+
+    // 超时时间(tick数)
+    private final long timeoutTicks;
+    // tick间隔
+    private final long tickNanos;
+    // 每个EventLoop一个时间轮
+    private final ConcurrentHashMap<EventExecutor, Wheel> wheels = new ConcurrentHashMap<>();
+
+    /**
+     * 使用1秒的检测精度
+     *
+     * @param timeout 读写都空闲的超时时间
+     * @param unit    时间单位
+     */
+    public IdleDetector(long timeout, TimeUnit unit) {
+        this(timeout, unit, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param timeout  读写都空闲的超时时间
+     * @param unit     时间单位
+     * @param tick     检测精度，即时间轮的tick间隔
+     * @param tickUnit 检测精度的时间单位
+     */
+    public IdleDetector(long timeout, TimeUnit unit, long tick, TimeUnit tickUnit) {
+        if (timeout <= 0 || tick <= 0) {
+            throw new IllegalArgumentException("timeout and tick must be positive");
+        }
+        this.tickNanos = tickUnit.toNanos(tick);
+        this.timeoutTicks = Math.max(1, (unit.toNanos(timeout) + tickNanos - 1) / tickNanos);
+        if (timeoutTicks >= 1 << 20) {
+            throw new IllegalArgumentException("timeout is too long for the tick: " + timeoutTicks + " ticks");
+        }
+    }
+
+    /**
+     * 创建连接的空闲检测处理器，每个连接一个实例，添加在空闲事件处理器之前;
+     * 读取只有经过该处理器才会刷新活跃时间，需要位于不再向后传递读取数据的业务处理器之前
+     */
+    public ChannelHandler newHandler() {
+        return new Handler();
+    }
+
+    /**
+     * 所有时间轮累计的tick次数，即为空闲检测执行的定时任务数
+     */
+    public static long ticks() {
+        return TICKS.sum();
+    }
+
+    /**
+     * 累计触发的空闲事件数
+     */
+    public static long idleEvents() {
+        return IDLE_EVENTS.sum();
+    }
+
+    /**
+     * 时间轮，只在所属的EventLoop线程中读写
+     */
+    private final class Wheel implements Runnable {
+        private final List<Handler>[] buckets;
+        private final int mask;
+        // 当前tick
+        private long now;
+        // 处理槽位时交换使用的空列表，避免每次tick分配
+        private List<Handler> spare = new ArrayList<>();
+
+        @SuppressWarnings("unchecked")
+        Wheel(EventExecutor executor) {
+            // 槽位数大于超时的tick数，保证每个连接的截止时间都落在一圈之内，处理槽位时无需判断圈数
+            int size = Integer.highestOneBit((int) timeoutTicks) << 1;
+            this.buckets = new List[size];
+            for (int i = 0; i < size; i++) {
+                buckets[i] = new ArrayList<>();
+            }
+            this.mask = size - 1;
+            executor.scheduleAtFixedRate(this, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+        }
+
+        void add(Handler handler, long deadline) {
+            buckets[(int) (deadline & mask)].add(handler);
+        }
+
+        @Override
+        public void run() {
+            now++;
+            TICKS.increment();
+            int index = (int) (now & mask);
+            List<Handler> expired = buckets[index];
+            if (expired.isEmpty()) {
+                return;
+            }
+            buckets[index] = spare;
+            for (Handler handler : expired) {
+                if (handler.removed) {
+                    continue;
+                }
+                long deadline = handler.lastActivity + timeoutTicks;
+                if (deadline <= now) {
+                    handler.lastActivity = now;
+                    deadline = now + timeoutTicks;
+                    handler.fireIdle();
+                }
+                if (!handler.removed) {
+                    add(handler, deadline);
+                }
+            }
+            expired.clear();
+            spare = expired;
+        }
+    }
+
+    /**
+     * 连接的空闲检测处理器，读写时记录最后活跃的tick
+     */
+    private final class Handler extends ChannelDuplexHandler {
+        private ChannelHandlerContext ctx;
+        private Wheel wheel;
+        // 最后活跃的tick
+        private long lastActivity;
+        private boolean removed;
+        private boolean first = true;
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+            this.ctx = ctx;
+            if (ctx.channel().isActive()) {
+                register();
+            }
+        }
+
+        @Override
+        public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+            removed = true;
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            register();
+            ctx.fireChannelActive();
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            removed = true;
+            ctx.fireChannelInactive();
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            touch();
+            ctx.fireChannelRead(msg);
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            touch();
+            ctx.write(msg, promise);
+        }
+
+        private void register() {
+            if (wheel != null || removed) {
+                return;
+            }
+            wheel = wheels.computeIfAbsent(ctx.executor(), Wheel::new);
+            lastActivity = wheel.now;
+            wheel.add(this, lastActivity + timeoutTicks);
+        }
+
+        private void touch() {
+            if (wheel != null) {
+                lastActivity = wheel.now;
+            }
+        }
+
+        private void fireIdle() {
+            IDLE_EVENTS.increment();
+            ctx.fireUserEventTriggered(first ? IdleStateEvent.FIRST_ALL_IDLE_STATE_EVENT : IdleStateEvent.ALL_IDLE_STATE_EVENT);
+            first = false;
+        }
+    }
+}
@@ -0,0 +1,556 @@
+package com.zero.net.netty.common;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.FileRegion;
+import io.netty.handler.codec.DecoderException;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * 服务端的指标统计，按EventLoop与连接两个维度统计:
+ *  - 计数器: 读取/写出的字节数、解码出的消息数、解码错误数、实际执行的flush次数、建立与关闭的连接数，
+ *    以及出站缓冲区超过高水位时被丢弃与被延迟写出的消息数(由业务处理器通过{@link #messageDropped}等方法上报);
+ *  - 瞬时值: 当前连接数、EventLoop任务队列中等待执行的任务数、连接出站缓冲区中等待写出的字节数(读取时计算);
+ * 每个EventLoop的计数器使用{@link LongAdder}，连接的计数器只由所属的EventLoop线程写入，统计过程无锁，不会在EventLoop之间产生竞争。
+ * <p>
+ * 使用方式: 在pipeline的最前面添加{@link #newTrafficHandler()}(位于{@link FlushCoalescingHandler}之前，统计的是实际的flush与编码后的字节)，
+ * 在解码器之后添加{@link #newMessageHandler()}(统计解码出的消息与解码错误);
+ * 指标通过JMX(com.zero.net:type=Server/EventLoop)与本地HTTP端口(纯文本，{@code /metrics}与{@code /connections})暴露，
+ * 见{@link #current(String)}。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 11:00 </p>
+ */
+public class ServerMetrics implements ServerMetricsMXBean {
+    private static final AttributeKey<Connection> CONNECTION = AttributeKey.valueOf("metrics.connection");
+    // 同一个进程中的所有服务端，共享一个HTTP端口
+    private static final List<ServerMetrics> INSTANCES = new CopyOnWriteArrayList<>();
+    private static HttpServer httpServer;
+
+    private final String name;
+    // 每个EventLoop的指标
+    private final ConcurrentHashMap<EventExecutor, Loop> loops = new ConcurrentHashMap<>();
+
+    /**
+     * @param name 服务端名称，用于区分同一个进程中的多个服务端
+     */
+    public ServerMetrics(String name) {
+        this.name = name;
+        register(this, "type=Server,name=" + ObjectName.quote(name));
+        INSTANCES.add(this);
+    }
+
+    /**
+     * 根据启动参数创建指标统计: {@code -Dmetrics.port=N} 指定本地HTTP端口，默认为0即不启用指标统计;
+     * 启用后同时注册JMX MBean，HTTP端口只监听127.0.0.1
+     *
+     * @param name 服务端名称
+     * @return 未启用时返回null
+     */
+    public static ServerMetrics current(String name) {
+        int port = Integer.getInteger("metrics.port", 0);
+        if (port <= 0) {
+            return null;
+        }
+        ServerMetrics metrics = new ServerMetrics(name);
+        try {
+            startHttp(port);
+        } catch (IOException e) {
+            throw new IllegalStateException("failed to start metrics endpoint on port " + port, e);
+        }
+        return metrics;
+    }
+
+    /**
+     * 启动纯文本的HTTP端点，同一个进程中只会启动一次:
+     *  - {@code /metrics}:     所有服务端每个EventLoop的指标，每行一个指标，格式与Prometheus的文本格式相同;
+     *  - {@code /connections}: 每个连接的指标，按读写字节数倒序，{@code ?limit=N}限制输出的连接数，默认为1000，N不是非负整数时返回400;
+     *
+     * @param port 本地端口
+     */
+    public static synchronized void startHttp(int port) throws IOException {
+        if (httpServer != null) {
+            return;
+        }
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> respond(exchange, renderAll()));
+        server.createContext("/connections", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            int limit = 1000;
+            if (query != null && query.startsWith("limit=")) {
+                try {
+                    limit = Integer.parseInt(query.substring("limit=".length()));
+                } catch (NumberFormatException e) {
+                    limit = -1;
+                }
+                if (limit < 0) {
+                    respond(exchange, 400, "invalid limit: " + query + "\n");
+                    return;
+                }
+            }
+            StringBuilder out = new StringBuilder();
+            for (ServerMetrics metrics : INSTANCES) {
+                metrics.renderConnections(out, limit);
+            }
+            respond(exchange, out.toString());
+        });
+        server.start();
+        httpServer = server;
+    }
+
+    /**
+     * 创建流量统计处理器，每个连接一个实例，需要使用addFirst添加在pipeline的最前面
+     */
+    public ChannelHandler newTrafficHandler() {
+        return new TrafficHandler();
+    }
+
+    /**
+     * 创建消息统计处理器，每个连接一个实例，添加在解码器之后
+     */
+    public ChannelHandler newMessageHandler() {
+        return new MessageHandler();
+    }
+
+    /**
+     * 记录一条因出站缓冲区超过高水位而被丢弃的消息，需要在连接所属的EventLoop中调用，未添加流量统计处理器的连接不统计
+     */
+    public void messageDropped(Channel channel) {
+        Connection connection = channel.attr(CONNECTION).get();
+        if (connection != null) {
+            connection.loop.dropped.increment();
+        }
+    }
+
+    /**
+     * 记录一条因出站缓冲区超过高水位而被延迟写出的消息，需要在连接所属的EventLoop中调用
+     */
+    public void messageDelayed(Channel channel) {
+        Connection connection = channel.attr(CONNECTION).get();
+        if (connection != null) {
+            connection.loop.delayed.increment();
+        }
+    }
+
+    /**
+     * 输出当前服务端的所有指标
+     */
+    public String render() {
+        StringBuilder out = new StringBuilder();
+        render(out);
+        return out.toString();
+    }
+
+    /**
+     * 输出同一个进程中所有服务端的指标
+     */
+    public static String renderAll() {
+        StringBuilder out = new StringBuilder();
+        for (ServerMetrics metrics : INSTANCES) {
+            metrics.render(out);
+        }
+        return out.toString();
+    }
+
+    private void render(StringBuilder out) {
+        for (Loop loop : sortedLoops()) {
+            String labels = "{server=\"" + name + "\",loop=\"" + loop.name + "\"}";
+            line(out, "netty_connections", labels, loop.getConnections());
+            line(out, "netty_connections_opened_total", labels, loop.getConnectionsOpened());
+            line(out, "netty_connections_closed_total", labels, loop.getConnectionsClosed());
+            line(out, "netty_bytes_in_total", labels, loop.getBytesIn());
+            line(out, "netty_bytes_out_total", labels, loop.getBytesOut());
+            line(out, "netty_messages_decoded_total", labels, loop.getMessagesDecoded());
+            line(out, "netty_decode_errors_total", labels, loop.getDecodeErrors());
+            line(out, "netty_flushes_total", labels, loop.getFlushes());
+            line(out, "netty_messages_dropped_total", labels, loop.getMessagesDropped());
+            line(out, "netty_messages_delayed_total", labels, loop.getMessagesDelayed());
+            line(out, "netty_pending_tasks", labels, loop.getPendingTasks());
+            line(out, "netty_pending_outbound_bytes", labels, loop.getPendingOutboundBytes());
+        }
+    }
+
+    private void renderConnections(StringBuilder out, int limit) {
+        // 连接的计数器可能正在被EventLoop线程修改，先复制一份再排序
+        List<long[]> rows = new ArrayList<>();
+        List<Connection> connections = new ArrayList<>();
+        for (Loop loop : loops.values()) {
+            for (Connection c : loop.connections) {
+                rows.add(new long[]{connections.size(), c.bytesIn, c.bytesOut, c.messages, c.decodeErrors, c.flushes});
+                connections.add(c);
+            }
+        }
+        rows.sort(Comparator.comparingLong((long[] row) -> row[1] + row[2]).reversed());
+        out.append(String.format("# server=%s, connections=%d%n", name, rows.size()));
+        out.append(String.format("%-48s %-24s %14s %14s %10s %8s %8s %12s%n", "remote", "loop",
+                "bytes-in", "bytes-out", "messages", "errors", "flushes", "pending-out"));
+        for (int i = 0; i < Math.min(limit, rows.size()); i++) {
+            long[] row = rows.get(i);
+            Connection c = connections.get((int) row[0]);
+            out.append(String.format("%-48s %-24s %14d %14d %10d %8d %8d %12d%n", c.channel.remoteAddress(), c.loop.name,
+                    row[1], row[2], row[3], row[4], row[5], pendingOutboundBytes(c.channel)));
+        }
+    }
+
+    private List<Loop> sortedLoops() {
+        List<Loop> sorted = new ArrayList<>(loops.values());
+        sorted.sort(Comparator.comparing(loop -> loop.name));
+        return sorted;
+    }
+
+    private static void line(StringBuilder out, String metric, String labels, long value) {
+        out.append(metric).append(labels).append(' ').append(value).append('\n');
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        respond(exchange, 200, body);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void register(Object mbean, String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("com.zero.net:" + name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(mbean, objectName);
+        } catch (JMException e) {
+            // JMX只是可选的暴露方式，注册失败不影响统计
+            System.err.println("failed to register mbean " + name + ": " + e);
+        }
+    }
+
+    /**
+     * 连接出站缓冲区中等待写出的字节数，跨线程读取的是volatile字段，不需要切换到EventLoop线程
+     */
+    private static long pendingOutboundBytes(Channel channel) {
+        ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+        return buffer != null ? buffer.totalPendingWriteBytes() : 0;
+    }
+
+    private static long sizeOf(Object msg) {
+        if (msg instanceof ByteBuf buf) {
+            return buf.readableBytes();
+        }
+        if (msg instanceof ByteBufHolder holder) {
+            return holder.content().readableBytes();
+        }
+        if (msg instanceof FileRegion region) {
+            return region.count();
+        }
+        return 0;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getConnections() {
+        return sum(Loop::getConnections);
+    }
+
+    @Override
+    public long getConnectionsOpened() {
+        return sum(Loop::getConnectionsOpened);
+    }
+
+    @Override
+    public long getConnectionsClosed() {
+        return sum(Loop::getConnectionsClosed);
+    }
+
+    @Override
+    public long getBytesIn() {
+        return sum(Loop::getBytesIn);
+    }
+
+    @Override
+    public long getBytesOut() {
+        return sum(Loop::getBytesOut);
+    }
+
+    @Override
+    public long getMessagesDecoded() {
+        return sum(Loop::getMessagesDecoded);
+    }
+
+    @Override
+    public long getDecodeErrors() {
+        return sum(Loop::getDecodeErrors);
+    }
+
+    @Override
+    public long getFlushes() {
+        return sum(Loop::getFlushes);
+    }
+
+    @Override
+    public long getMessagesDropped() {
+        return sum(Loop::getMessagesDropped);
+    }
+
+    @Override
+    public long getMessagesDelayed() {
+        return sum(Loop::getMessagesDelayed);
+    }
+
+    @Override
+    public long getPendingTasks() {
+        return sum(Loop::getPendingTasks);
+    }
+
+    @Override
+    public long getPendingOutboundBytes() {
+        return sum(Loop::getPendingOutboundBytes);
+    }
+
+    private long sum(ToLongFunction<Loop> metric) {
+        long sum = 0;
+        for (Loop loop : loops.values()) {
+            sum += metric.applyAsLong(loop);
+        }
+        return sum;
+    }
+
+    /**
+     * 单个EventLoop的指标，计数器由所属的EventLoop线程写入
+     */
+    private final class Loop implements ServerMetricsMXBean {
+        private final EventExecutor executor;
+        private final String name;
+        private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+        private final LongAdder opened = new LongAdder();
+        private final LongAdder closed = new LongAdder();
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+        private final LongAdder messages = new LongAdder();
+        private final LongAdder decodeErrors = new LongAdder();
+        private final LongAdder flushes = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder delayed = new LongAdder();
+
+        Loop(EventExecutor executor) {
+            this.executor = executor;
+            // 处理器添加时位于EventLoop线程中，直接使用当前线程名
+            this.name = executor.inEventLoop() ? Thread.currentThread().getName() : executor.toString();
+            register(this, "type=EventLoop,server=" + ObjectName.quote(ServerMetrics.this.name)
+                    + ",name=" + ObjectName.quote(name));
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getConnections() {
+            return connections.size();
+        }
+
+        @Override
+        public long getConnectionsOpened() {
+            return opened.sum();
+        }
+
+        @Override
+        public long getConnectionsClosed() {
+            return closed.sum();
+        }
+
+        @Override
+        public long getBytesIn() {
+            return bytesIn.sum();
+        }
+
+        @Override
+        public long getBytesOut() {
+            return bytesOut.sum();
+        }
+
+        @Override
+        public long getMessagesDecoded() {
+            return messages.sum();
+        }
+
+        @Override
+        public long getDecodeErrors() {
+            return decodeErrors.sum();
+        }
+
+        @Override
+        public long getFlushes() {
+            return flushes.sum();
+        }
+
+        @Override
+        public long getMessagesDropped() {
+            return dropped.sum();
+        }
+
+        @Override
+        public long getMessagesDelayed() {
+            return delayed.sum();
+        }
+
+        @Override
+        public long getPendingTasks() {
+            return executor instanceof SingleThreadEventExecutor single ? single.pendingTasks() : 0;
+        }
+
+        @Override
+        public long getPendingOutboundBytes() {
+            long pending = 0;
+            for (Connection connection : connections) {
+                pending += pendingOutboundBytes(connection.channel);
+            }
+            return pending;
+        }
+    }
+
+    /**
+     * 单个连接的指标，只由所属的EventLoop线程写入，其他线程读取到的是近似值
+     */
+    private static final class Connection {
+        private final Channel channel;
+        private final Loop loop;
+        private long bytesIn;
+        private long bytesOut;
+        private long messages;
+        private long decodeErrors;
+        private long flushes;
+
+        Connection(Channel channel, Loop loop) {
+            this.channel = channel;
+            this.loop = loop;
+        }
+    }
+
+    /**
+     * 流量统计处理器，统计读取与写出的字节数以及实际执行的flush次数
+     */
+    private final class TrafficHandler extends ChannelDuplexHandler {
+        private Connection connection;
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+            Loop loop = loops.computeIfAbsent(ctx.executor(), Loop::new);
+            connection = new Connection(ctx.channel(), loop);
+            ctx.channel().attr(CONNECTION).set(connection);
+            loop.connections.add(connection);
+            loop.opened.increment();
+        }
+
+        @Override
+        public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+            if (connection.loop.connections.remove(connection)) {
+                connection.loop.closed.increment();
+            }
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            if (connection.loop.connections.remove(connection)) {
+                connection.loop.closed.increment();
+            }
+            ctx.fireChannelInactive();
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            long size = sizeOf(msg);
+            connection.bytesIn += size;
+            connection.loop.bytesIn.add(size);
+            ctx.fireChannelRead(msg);
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            long size = sizeOf(msg);
+            connection.bytesOut += size;
+            connection.loop.bytesOut.add(size);
+            ctx.write(msg, promise);
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) throws Exception {
+            connection.flushes++;
+            connection.loop.flushes.increment();
+            ctx.flush();
+        }
+    }
+
+    /**
+     * 消息统计处理器，统计解码出的消息数与解码错误数
+     */
+    private static final class MessageHandler extends ChannelInboundHandlerAdapter {
+        private Connection connection;
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            Connection connection = connection(ctx);
+            if (connection != null) {
+                connection.messages++;
+                connection.loop.messages.increment();
+            }
+            ctx.fireChannelRead(msg);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+            Connection connection = connection(ctx);
+            if (cause instanceof DecoderException && connection != null) {
+                connection.decodeErrors++;
+                connection.loop.decodeErrors.increment();
+            }
+            ctx.fireExceptionCaught(cause);
+        }
+
+        private Connection connection(ChannelHandlerContext ctx) {
+            if (connection == null) {
+                // 流量统计处理器添加在最后，第一次读取时再获取
+                connection = ctx.channel().attr(CONNECTION).get();
+            }
+            return connection;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.zero.net.netty.common;
+
+/**
+ * 通过JMX暴露的服务端指标，见{@link ServerMetrics}:
+ * 服务端(type=Server)为所有EventLoop的汇总，EventLoop(type=EventLoop)为单个EventLoop的指标
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 11:00 </p>
+ */
+public interface ServerMetricsMXBean {
+    /**
+     * 服务端名称或EventLoop的线程名
+     */
+    String getName();
+
+    /**
+     * 当前连接数
+     */
+    long getConnections();
+
+    /**
+     * 累计建立的连接数
+     */
+    long getConnectionsOpened();
+
+    /**
+     * 累计关闭的连接数
+     */
+    long getConnectionsClosed();
+
+    /**
+     * 累计读取的字节数
+     */
+    long getBytesIn();
+
+    /**
+     * 累计写出的字节数(编码后，写入出站缓冲区时统计)
+     */
+    long getBytesOut();
+
+    /**
+     * 累计解码出的消息数
+     */
+    long getMessagesDecoded();
+
+    /**
+     * 累计解码错误数
+     */
+    long getDecodeErrors();
+
+    /**
+     * 累计实际执行的flush次数
+     */
+    long getFlushes();
+
+    /**
+     * 累计因出站缓冲区超过高水位(慢消费者)而被丢弃的消息数
+     */
+    long getMessagesDropped();
+
+    /**
+     * 累计因出站缓冲区超过高水位(慢消费者)而被延迟写出的消息数
+     */
+    long getMessagesDelayed();
+
+    /**
+     * EventLoop任务队列中等待执行的任务数
+     */
+    long getPendingTasks();
+
+    /**
+     * 出站缓冲区中等待写出的字节数
+     */
+    long getPendingOutboundBytes();
+}
@@ -0,0 +1,208 @@
+package com.zero.net.netty.common;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.IoHandlerFactory;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollIoHandler;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.unix.UnixChannelOption;
+import io.netty.channel.uring.IoUring;
+import io.netty.channel.uring.IoUringIoHandler;
+import io.netty.channel.uring.IoUringServerSocketChannel;
+import io.netty.channel.uring.IoUringSocketChannel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 传输层实现的选择，统一创建EventLoopGroup与Channel类型:
+ *  - NIO:      基于JDK的Selector，所有平台可用;
+ *  - EPOLL:    基于Linux的epoll(边缘触发)，减少JNI与对象分配的开销，支持SO_REUSEPORT;
+ *  - IO_URING: 基于Linux 5.x的io_uring，批量提交IO请求，减少系统调用次数，支持SO_REUSEPORT;
+ * <p>
+ * 通过启动参数 {@code -Dnetty.transport=auto|nio|epoll|io_uring} 指定，默认为auto:
+ * 在Linux上依次尝试epoll、io_uring，都不可用时回退到NIO;
+ * 通过启动参数 {@code -Dnetty.acceptors} 指定服务端的acceptor数量，大于1且支持SO_REUSEPORT时，
+ * 会在同一端口上绑定多个ServerChannel，由内核将新连接分散到多个acceptor线程上。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 16:30 </p>
+ */
+public enum Transport {
+    NIO {
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public IoHandlerFactory ioHandlerFactory() {
+            return NioIoHandler.newFactory();
+        }
+
+        @Override
+        public Class<? extends ServerSocketChannel> serverChannelClass() {
+            return NioServerSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends SocketChannel> channelClass() {
+            return NioSocketChannel.class;
+        }
+    },
+    EPOLL {
+        @Override
+        public boolean isAvailable() {
+            try {
+                return Epoll.isAvailable();
+            } catch (Throwable e) {
+                // 非Linux平台或者缺少native库
+                return false;
+            }
+        }
+
+        @Override
+        public IoHandlerFactory ioHandlerFactory() {
+            return EpollIoHandler.newFactory();
+        }
+
+        @Override
+        public Class<? extends ServerSocketChannel> serverChannelClass() {
+            return EpollServerSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends SocketChannel> channelClass() {
+            return EpollSocketChannel.class;
+        }
+    },
+    IO_URING {
+        @Override
+        public boolean isAvailable() {
+            try {
+                return IoUring.isAvailable();
+            } catch (Throwable e) {
+                // 非Linux平台、内核版本过低或者缺少native库
+                return false;
+            }
+        }
+
+        @Override
+        public IoHandlerFactory ioHandlerFactory() {
+            return IoUringIoHandler.newFactory();
+        }
+
+        @Override
+        public Class<? extends ServerSocketChannel> serverChannelClass() {
+            return IoUringServerSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends SocketChannel> channelClass() {
+            return IoUringSocketChannel.class;
+        }
+    };
+
+    /**
+     * 当前平台是否可用
+     */
+    public abstract boolean isAvailable();
+
+    /**
+     * IO处理器工厂，用于创建EventLoopGroup
+     */
+    public abstract IoHandlerFactory ioHandlerFactory();
+
+    /**
+     * 服务端Channel类型
+     */
+    public abstract Class<? extends ServerSocketChannel> serverChannelClass();
+
+    /**
+     * 客户端(连接)Channel类型
+     */
+    public abstract Class<? extends SocketChannel> channelClass();
+
+    /**
+     * 是否支持SO_REUSEPORT，即多个ServerChannel绑定同一端口
+     */
+    public boolean supportsReusePort() {
+        return this != NIO;
+    }
+
+    /**
+     * 创建事件循环组
+     *
+     * @param threads 线程数，为0时使用默认值(CPU核数 * 2)
+     */
+    public EventLoopGroup newEventLoopGroup(int threads) {
+        return new MultiThreadIoEventLoopGroup(threads, ioHandlerFactory());
+    }
+
+    /**
+     * 创建服务端引导类，设置好线程组与Channel类型
+     *
+     * @param boss   boss线程组，线程数应不小于acceptor数量
+     * @param worker worker线程组
+     */
+    public ServerBootstrap newServerBootstrap(EventLoopGroup boss, EventLoopGroup worker) {
+        ServerBootstrap bootstrap = new ServerBootstrap()
+                .group(boss, worker)
+                .channel(serverChannelClass());
+        if (supportsReusePort() && acceptors() > 1) {
+            bootstrap.option(UnixChannelOption.SO_REUSEPORT, true);
+        }
+        return bootstrap;
+    }
+
+    /**
+     * 绑定端口，支持SO_REUSEPORT时会绑定{@link #acceptors()}个ServerChannel，
+     * 每个ServerChannel会注册到boss线程组中不同的EventLoop上
+     *
+     * @param bootstrap 通过{@link #newServerBootstrap}创建的引导类
+     * @param port      端口
+     * @return 绑定成功的所有ServerChannel
+     */
+    public List<Channel> bind(ServerBootstrap bootstrap, int port) throws InterruptedException {
+        int count = supportsReusePort() ? acceptors() : 1;
+        List<Channel> channels = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            channels.add(bootstrap.bind(port).sync().channel());
+        }
+        return channels;
+    }
+
+    /**
+     * 获取启动参数指定的传输层实现，指定的实现不可用时回退到NIO
+     */
+    public static Transport current() {
+        String name = System.getProperty("netty.transport", "auto");
+        if (!"auto".equalsIgnoreCase(name)) {
+            Transport transport = valueOf(name.toUpperCase().replace('-', '_'));
+            return transport.isAvailable() ? transport : NIO;
+        }
+        if (EPOLL.isAvailable()) {
+            return EPOLL;
+        }
+        if (IO_URING.isAvailable()) {
+            return IO_URING;
+        }
+        return NIO;
+    }
+
+    /**
+     * 服务端acceptor数量，默认为1
+     */
+    public static int acceptors() {
+        return Math.max(1, Integer.getInteger("netty.acceptors", 1));
+    }
+}
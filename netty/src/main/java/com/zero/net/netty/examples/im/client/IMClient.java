@@ -1,6 +1,7 @@
 package com.zero.net.netty.examples.im.client;
 
 import com.google.protobuf.ByteString;
+import com.zero.net.netty.common.Heartbeat;
 import com.zero.net.netty.examples.im.packet.Codec;
 import com.zero.net.netty.examples.im.pb.Protocol;
 import io.netty.bootstrap.Bootstrap;
@@ -21,6 +22,10 @@ import java.util.Scanner;
 public class IMClient {
     public static void main(String[] args) {
         NioEventLoopGroup worker = new NioEventLoopGroup();
+        // 编解码模式，默认为零拷贝模式
+        Codec.Mode mode = Codec.Mode.current();
+        // 报文格式，默认为v2
+        Codec.Wire wire = Codec.Wire.current();
         try {
             Bootstrap bootstrap = new Bootstrap()
                     .group(worker)
@@ -30,18 +35,16 @@ public class IMClient {
                         protected void initChannel(NioSocketChannel ch) throws Exception {
                             ch.pipeline()
                                     // 设置解码处理器(入站)，用于解码将读取到的数据解码为ReplyMessage对象
-                                    .addLast(new Codec.ReplyMessageDecoder())
+                                    .addLast(mode.newReplyMessageDecoder())
+                                    // 设置心跳应答处理器(入站)，收到服务端的Ping后回复Pong
+                                    .addLast(Heartbeat.responder())
                                     // 设置事件处理器(入站)
                                     .addLast(new IMClientHandler())
                                     // 入站事件会按照处理器添加顺序执行
                                     // 先执行ReplyMessageDecoder解码，再执行ClientHandler处理器;
 
-                                    // 设置编码处理器(出站)，用于将字节数组打包为自定义协议
-                                    .addLast(new Codec.ProtobufPacker())
-                                    // 设置编码处理器(出站)，用于将对象序列化为字节数组
-                                    .addLast(new Codec.ProtobufEncoder());
-                            // 出站逻辑会以相反的顺序进行执行
-                            // 所以会先执行ProtobufEncoder再执行ProtobufPacker
+                                    // 设置编码处理器(出站)，用于将对象序列化并打包为自定义协议
+                                    .addLast(mode.newEncoders(wire));
                         }
                     });
             ChannelFuture future = bootstrap.connect("127.0.0.1", 19002).sync();
@@ -0,0 +1,181 @@
+package com.zero.net.netty.examples.im.client;
+
+import com.zero.net.netty.common.Heartbeat;
+import com.zero.net.netty.common.Transport;
+import com.zero.net.netty.examples.im.packet.Codec;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Netty IM 压测客户端，无需控制台输入:
+ * 在共享的EventLoopGroup上建立N个连接，以固定的总速率或者闭环方式发送SendMessage，
+ * 使用HdrHistogram统计 发送 -> 收到广播 的延迟(见{@link IMLoadClientHandler})，每秒输出一次吞吐量与p50/p99/p999，
+ * 结束时输出整个测试期间的汇总，同时写入CSV文件。
+ * <p>
+ * 启动参数:
+ *  - {@code -Dim.host}/{@code -Dim.port}: 服务端地址，默认为 127.0.0.1:19002;
+ *  - {@code -Dload.connections}: 连接数，默认为100;
+ *  - {@code -Dload.rate}: 所有连接合计每秒发送的消息数，0表示闭环模式(每个连接收到自己消息的广播后再发送下一条)，默认为0;
+ *  - {@code -Dload.duration}/{@code -Dload.warmup}: 测试时长与预热时长(秒)，预热期间的数据不计入统计，默认为30/5;
+ *  - {@code -Dload.payload}: 消息体大小(byte)，至少8字节，默认为64;
+ *  - {@code -Dload.threads}: 客户端EventLoop线程数，默认为CPU核数 * 2;
+ *  - {@code -Dload.csv}: CSV文件路径，默认为 im-load.csv;
+ * 编解码模式与报文格式与{@link IMClient}相同，通过 {@code -Dim.codec} 与 {@code -Dim.wire} 指定。
+ * 服务端的消息日志通过{@link com.zero.net.netty.common.EventLog}异步输出，默认记录每一条消息，不会阻塞EventLoop;
+ * 压测时可以通过 {@code -Deventlog.sample=N}(每N条记录1条)、{@code -Deventlog.rate=N}(每个线程每秒最多N条)
+ * 或者 {@code -Deventlog.mode=off} 减少服务端的日志输出。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 20:00 </p>
+ */
+public class IMLoadClient {
+    public static void main(String[] args) throws Exception {
+        String host = System.getProperty("im.host", "127.0.0.1");
+        int port = Integer.getInteger("im.port", 19002);
+        int connections = Integer.getInteger("load.connections", 100);
+        long rate = Long.getLong("load.rate", 0L);
+        int duration = Integer.getInteger("load.duration", 30);
+        int warmup = Integer.getInteger("load.warmup", 5);
+        int payload = Integer.getInteger("load.payload", 64);
+        int threads = Integer.getInteger("load.threads", 0);
+        Path csv = Path.of(System.getProperty("load.csv", "im-load.csv"));
+        Codec.Mode mode = Codec.Mode.current();
+        Codec.Wire wire = Codec.Wire.current();
+        // 每个连接的发送间隔
+        long periodNanos = rate <= 0 ? 0 : Math.max(1, TimeUnit.SECONDS.toNanos(1) * connections / rate);
+
+        Recorder echo = new Recorder(3);
+        Recorder fanout = new Recorder(3);
+        LongAdder sent = new LongAdder();
+        LongAdder received = new LongAdder();
+
+        Transport transport = Transport.current();
+        EventLoopGroup group = transport.newEventLoopGroup(threads);
+        try {
+            Bootstrap bootstrap = new Bootstrap()
+                    .group(group)
+                    .channel(transport.channelClass())
+                    .option(ChannelOption.TCP_NODELAY, true);
+            List<Channel> channels = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                IMLoadClientHandler handler = new IMLoadClientHandler(i, payload, periodNanos, echo, fanout, sent, received);
+                bootstrap.handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline()
+                                .addLast(mode.newReplyMessageDecoder())
+                                // 应答服务端的心跳，避免服务端开启心跳时压测连接被当作失效连接关闭
+                                .addLast(Heartbeat.responder())
+                                .addLast(handler)
+                                .addLast(mode.newEncoders(wire));
+                    }
+                });
+                ChannelFuture future = bootstrap.connect(host, port).sync();
+                channels.add(future.channel());
+            }
+            System.out.printf("connected %d clients to %s:%d, transport=%s, codec=%s, wire=%s, %s%n",
+                    connections, host, port, transport, mode, wire,
+                    rate <= 0 ? "closed-loop" : "rate=" + rate + "/s");
+
+            for (Channel channel : channels) {
+                channel.pipeline().get(IMLoadClientHandler.class).start(channel);
+            }
+            report(echo, fanout, sent, received, warmup, duration, csv);
+            for (Channel channel : channels) {
+                channel.pipeline().get(IMLoadClientHandler.class).stop();
+            }
+            for (Channel channel : channels) {
+                channel.close().sync();
+            }
+        } finally {
+            group.shutdownGracefully().sync();
+        }
+    }
+
+    /**
+     * 每秒输出一次统计，预热期间的数据丢弃，结束后输出汇总
+     */
+    private static void report(Recorder echo, Recorder fanout, LongAdder sent, LongAdder received,
+                               int warmup, int duration, Path csv) throws IOException, InterruptedException {
+        Histogram echoTotal = new Histogram(3);
+        Histogram fanoutTotal = new Histogram(3);
+        Histogram echoInterval = null;
+        Histogram fanoutInterval = null;
+        long sentTotal = 0;
+        long receivedTotal = 0;
+
+        Files.createDirectories(csv.toAbsolutePath().getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(csv, StandardCharsets.UTF_8))) {
+            writer.println("second,phase,sent_per_sec,received_per_sec,"
+                    + "echo_p50_us,echo_p99_us,echo_p999_us,echo_max_us,"
+                    + "fanout_p50_us,fanout_p99_us,fanout_p999_us,fanout_max_us");
+            System.out.printf("%6s %-7s %10s %12s | %28s | %28s%n", "second", "phase", "sent/s", "received/s",
+                    "echo p50/p99/p999(us)", "fanout p50/p99/p999(us)");
+            long start = System.nanoTime();
+            for (int second = 1; second <= warmup + duration; second++) {
+                // 对齐到整秒，避免输出本身的耗时造成累积误差
+                long wait = start + TimeUnit.SECONDS.toNanos(second) - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                echoInterval = echo.getIntervalHistogram(echoInterval);
+                fanoutInterval = fanout.getIntervalHistogram(fanoutInterval);
+                long sentInterval = sent.sumThenReset();
+                long receivedInterval = received.sumThenReset();
+                String phase = second <= warmup ? "warmup" : "measure";
+                if (second > warmup) {
+                    echoTotal.add(echoInterval);
+                    fanoutTotal.add(fanoutInterval);
+                    sentTotal += sentInterval;
+                    receivedTotal += receivedInterval;
+                }
+                print(writer, String.valueOf(second), phase, sentInterval, receivedInterval, echoInterval, fanoutInterval);
+            }
+            System.out.println("== summary (" + duration + "s) ==");
+            print(writer, "total", "summary", sentTotal / Math.max(duration, 1), receivedTotal / Math.max(duration, 1),
+                    echoTotal, fanoutTotal);
+        }
+        System.out.printf("echo   latency(us): p50=%.1f p99=%.1f p999=%.1f max=%.1f count=%d%n",
+                micros(echoTotal, 50), micros(echoTotal, 99), micros(echoTotal, 99.9),
+                echoTotal.getMaxValue() / 1000.0, echoTotal.getTotalCount());
+        System.out.printf("fanout latency(us): p50=%.1f p99=%.1f p999=%.1f max=%.1f count=%d%n",
+                micros(fanoutTotal, 50), micros(fanoutTotal, 99), micros(fanoutTotal, 99.9),
+                fanoutTotal.getMaxValue() / 1000.0, fanoutTotal.getTotalCount());
+        System.out.println("csv: " + csv.toAbsolutePath());
+    }
+
+    private static void print(PrintWriter writer, String second, String phase, long sent, long received,
+                              Histogram echo, Histogram fanout) {
+        System.out.printf(Locale.ROOT, "%6s %-7s %10d %12d | %8.1f %9.1f %9.1f | %8.1f %9.1f %9.1f%n",
+                second, phase, sent, received,
+                micros(echo, 50), micros(echo, 99), micros(echo, 99.9),
+                micros(fanout, 50), micros(fanout, 99), micros(fanout, 99.9));
+        writer.printf(Locale.ROOT, "%s,%s,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f%n",
+                second, phase, sent, received,
+                micros(echo, 50), micros(echo, 99), micros(echo, 99.9), echo.getMaxValue() / 1000.0,
+                micros(fanout, 50), micros(fanout, 99), micros(fanout, 99.9), fanout.getMaxValue() / 1000.0);
+        writer.flush();
+    }
+
+    private static double micros(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,145 @@
+package com.zero.net.netty.examples.im.client;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import com.zero.net.netty.examples.im.pb.Protocol;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 压测客户端的连接处理器，每个连接一个实例;
+ * 消息体的前8个字节为发送时间(System.nanoTime())，所有连接都在同一个进程中，收到任意一条广播时都可以计算延迟:
+ *  - echo:   发送者收到自己消息的广播，即 发送 -> 广播回到发送者 的往返延迟;
+ *  - fanout: 任意连接收到任意一条广播，即 发送 -> 广播到达每一个接收者 的延迟;
+ * 固定速率模式下发送时间为计划发送时间而不是实际发送时间，避免客户端自身的停顿掩盖服务端的延迟(coordinated omission)。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 20:00 </p>
+ */
+public class IMLoadClientHandler extends ChannelInboundHandlerAdapter {
+    // 固定速率模式下定时任务的最小间隔，间隔内到期的消息会一次发出
+    private static final long MIN_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final long id;
+    private final int payloadSize;
+    // 每条消息的发送间隔，0表示闭环模式: 收到自己消息的广播后再发送下一条
+    private final long periodNanos;
+    private final Recorder echo;
+    private final Recorder fanout;
+    private final LongAdder sent;
+    private final LongAdder received;
+    private final Protocol.SendMessage.Builder builder;
+    private volatile ScheduledFuture<?> task;
+    private volatile boolean running;
+    // 下一条消息的计划发送时间
+    private long nextSendNanos;
+
+    public IMLoadClientHandler(long id, int payloadSize, long periodNanos,
+                               Recorder echo, Recorder fanout, LongAdder sent, LongAdder received) {
+        this.id = id;
+        this.payloadSize = Math.max(payloadSize, Long.BYTES);
+        this.periodNanos = periodNanos;
+        this.echo = echo;
+        this.fanout = fanout;
+        this.sent = sent;
+        this.received = received;
+        this.builder = Protocol.SendMessage.newBuilder()
+                .setId(id).setName("load-" + id).setGender(Protocol.Gender.BOY);
+    }
+
+    /**
+     * 开始发送，可以在任意线程中调用
+     */
+    public void start(Channel channel) {
+        channel.eventLoop().execute(() -> {
+            running = true;
+            if (periodNanos == 0) {
+                send(channel, System.nanoTime());
+                channel.flush();
+                return;
+            }
+            // 随机的初始偏移，避免所有连接同时发送
+            nextSendNanos = System.nanoTime() + ThreadLocalRandom.current().nextLong(periodNanos);
+            long tick = Math.max(periodNanos, MIN_TICK_NANOS);
+            task = channel.eventLoop().scheduleAtFixedRate(() -> tick(channel), tick, tick, TimeUnit.NANOSECONDS);
+        });
+    }
+
+    /**
+     * 停止发送，可以在任意线程中调用
+     */
+    public void stop() {
+        running = false;
+        ScheduledFuture<?> task = this.task;
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+
+    private void tick(Channel channel) {
+        long now = System.nanoTime();
+        boolean wrote = false;
+        while (nextSendNanos <= now && channel.isActive()) {
+            send(channel, nextSendNanos);
+            nextSendNanos += periodNanos;
+            wrote = true;
+        }
+        if (wrote) {
+            channel.flush();
+        }
+    }
+
+    private void send(Channel channel, long sendNanos) {
+        byte[] payload = new byte[payloadSize];
+        for (int i = 0; i < Long.BYTES; i++) {
+            payload[i] = (byte) (sendNanos >>> (56 - i * 8));
+        }
+        Protocol.SendMessage message = builder
+                .setSendTime(System.currentTimeMillis())
+                .setPayload(UnsafeByteOperations.unsafeWrap(payload))
+                .build();
+        sent.increment();
+        channel.write(message, channel.voidPromise());
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (!(msg instanceof Protocol.ReplyMessage reply)) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        long now = System.nanoTime();
+        received.increment();
+        Protocol.SendMessage sender = reply.getSender();
+        ByteString payload = sender.getPayload();
+        if (payload.size() < Long.BYTES) {
+            return;
+        }
+        long sendNanos = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            sendNanos = (sendNanos << 8) | (payload.byteAt(i) & 0xFF);
+        }
+        long latency = Math.max(now - sendNanos, 0);
+        fanout.recordValue(latency);
+        if (sender.getId() == id) {
+            echo.recordValue(latency);
+            if (periodNanos == 0 && running) {
+                send(ctx.channel(), System.nanoTime());
+                ctx.flush();
+            }
+        }
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        cause.printStackTrace();
+        ctx.close();
+    }
+}
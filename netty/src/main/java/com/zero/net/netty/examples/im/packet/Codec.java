@@ -1,14 +1,39 @@
 package com.zero.net.netty.examples.im.packet;
 
 import com.google.protobuf.AbstractMessageLite;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import com.google.protobuf.WireFormat;
+import com.zero.net.netty.common.Heartbeat;
 import com.zero.net.netty.examples.im.pb.Protocol;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.DefaultByteBufHolder;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelOutboundHandlerAdapter;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.PromiseNotifier;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -16,6 +41,166 @@ import java.util.List;
  * <p> Created on 2025/4/4 13:09 </p>
  */
 public class Codec {
+    /**
+     * v1消息头长度: 消息体长度(8byte)
+     */
+    public static final int HEADER_LENGTH = 8;
+
+    /**
+     * v2版本标识，即v2报文的第一个字节;
+     * v1报文的第一个字节是8byte长度的最高位字节，由于消息体长度不会超过int范围，所以一定为0，两者不会冲突
+     */
+    public static final byte V2_MAGIC = 0x02;
+
+    /**
+     * v2消息头最大长度: 版本标识(1byte) + varint32长度(最多5byte)
+     */
+    public static final int V2_MAX_HEADER_LENGTH = 6;
+
+    /**
+     * 心跳报文的类型标识，即心跳报文的第一个字节，与v1、v2报文不会冲突，仅零拷贝模式支持;
+     * 报文格式: [类型(1byte)][序号(8byte)][发送时间(8byte)]，见{@link Heartbeat}
+     */
+    public static final byte PING_MAGIC = 0x10;
+    public static final byte PONG_MAGIC = 0x11;
+
+    /**
+     * 消息体最大长度，通过启动参数 {@code -Dim.maxFrameLength} 指定，默认为16MB(与vertx模块的IMFrameParser相同);
+     * 长度来自于网络，不能信任，超过时在读取到消息头时立即通知{@link TooLongFrameException}，消息体直接跳过，不会在累积缓冲区中缓存
+     */
+    public static final int MAX_FRAME_LENGTH = Integer.getInteger("im.maxFrameLength", 16 * 1024 * 1024);
+
+    /**
+     * 心跳报文长度
+     */
+    public static final int HEARTBEAT_LENGTH = 1 + Long.BYTES * 2;
+
+    /**
+     * 批量报文的类型标识，仅零拷贝模式支持，服务端只会向已经协商为v2格式的客户端发送;
+     * 报文格式: [类型(1byte)][消息体长度(varint32, 1~5byte)][ReplyBatch]，解码时逐条取出其中的ReplyMessage
+     */
+    public static final byte BATCH_MAGIC = 0x12;
+
+    /**
+     * 一个批量报文中最多包含的回复数，通过启动参数 {@code -Dim.batch.max} 指定，默认为64
+     */
+    public static final int BATCH_MAX_REPLIES = Math.max(2, Integer.getInteger("im.batch.max", 64));
+
+    // ReplyBatch.replies字段的tag
+    private static final int REPLIES_TAG = Protocol.ReplyBatch.REPLIES_FIELD_NUMBER << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+    /**
+     * 对端所使用的报文格式，由解码器在收到报文时记录，编码器据此回复相同格式的报文
+     */
+    public static final AttributeKey<Wire> PEER_WIRE = AttributeKey.valueOf("im.peer.wire");
+
+    /**
+     * 报文格式版本，通过启动参数 {@code -Dim.wire=v1|v2} 指定客户端使用的格式，默认为v2;
+     * 服务端同时接受两种格式，并以客户端使用的格式进行回复(协商)，在客户端发出第一条消息前按v1回复，兼容旧版客户端
+     */
+    public enum Wire {
+        /**
+         * 报文格式: [消息体长度(8byte)][消息体]
+         */
+        V1,
+        /**
+         * 报文格式: [版本标识(1byte)][消息体长度(varint32, 1~5byte)][消息体]
+         * 消息体小于128byte时消息头仅占2byte
+         */
+        V2;
+
+        /**
+         * 获取当前启动参数指定的报文格式
+         */
+        public static Wire current() {
+            String wire = System.getProperty("im.wire", "v2");
+            return "v1".equalsIgnoreCase(wire) ? V1 : V2;
+        }
+
+        /**
+         * 计算消息头长度
+         *
+         * @param bodyLength 消息体长度
+         */
+        public int headerLength(int bodyLength) {
+            return this == V1 ? HEADER_LENGTH : 1 + CodedOutputStream.computeUInt32SizeNoTag(bodyLength);
+        }
+
+        /**
+         * 写入消息头
+         *
+         * @param out        目标缓冲区
+         * @param bodyLength 消息体长度
+         */
+        public void writeHeader(ByteBuf out, int bodyLength) {
+            if (this == V1) {
+                out.writeLong(bodyLength);
+                return;
+            }
+            out.writeByte(V2_MAGIC);
+            writeVarint32(out, bodyLength);
+        }
+    }
+
+    /**
+     * 服务端是否启用批量报文，通过启动参数 {@code -Dim.batch=true|false} 指定，默认启用;
+     * 启用后同一个连接在flush之前积压的多条广播消息会合并为一个批量报文，见{@link #BATCH_MAGIC}
+     */
+    public static boolean batchEnabled() {
+        return Boolean.parseBoolean(System.getProperty("im.batch", "true"));
+    }
+
+    /**
+     * 编解码模式，通过启动参数 {@code -Dim.codec=copy|zero-copy} 指定，默认为零拷贝模式
+     */
+    public enum Mode {
+        /**
+         * 原有实现: 解码时先拷贝到byte[]再反序列化，编码时经由 对象 -> byte[] -> Unpooled.buffer;
+         * 每条消息在每个方向上都有两次堆内拷贝与两次内存分配
+         */
+        COPY,
+        /**
+         * 零拷贝实现: 解码时直接基于入站的池化ByteBuf反序列化，编码时直接序列化到按getSerializedSize()分配的池化缓冲区中
+         */
+        ZERO_COPY;
+
+        /**
+         * 获取当前启动参数指定的编解码模式
+         */
+        public static Mode current() {
+            String mode = System.getProperty("im.codec", "zero-copy");
+            return "copy".equalsIgnoreCase(mode) ? COPY : ZERO_COPY;
+        }
+
+        /**
+         * 创建SendMessage解码器(服务端使用)，零拷贝模式下会记录客户端使用的报文格式，用于协商回复格式，
+         * 并解码为{@link RawSendMessage}，保留消息体的原始字节用于回复
+         */
+        public ChannelHandler newSendMessageDecoder() {
+            return this == ZERO_COPY ? new RawSendMessageDecoder() : new SendMessageDecoder();
+        }
+
+        /**
+         * 创建ReplyMessage解码器(客户端使用)
+         */
+        public ChannelHandler newReplyMessageDecoder() {
+            return this == ZERO_COPY ? new ZeroCopyDecoder<>(Protocol.ReplyMessage.parser(), false) : new ReplyMessageDecoder();
+        }
+
+        /**
+         * 创建出站编码处理器，按添加顺序放入pipeline即可;
+         * 报文格式v2与批量报文仅在零拷贝模式下支持，COPY模式始终使用v1
+         *
+         * @param wire 默认的报文格式，如果已经协商出对端的报文格式，则以对端为准
+         */
+        public ChannelHandler[] newEncoders(Wire wire) {
+            if (this == ZERO_COPY) {
+                return new ChannelHandler[]{new ZeroCopyEncoder(wire, batchEnabled())};
+            }
+            // 出站逻辑会以相反的顺序进行执行，所以会先执行ProtobufEncoder再执行ProtobufPacker
+            return new ChannelHandler[]{new ProtobufPacker(), new ProtobufEncoder()};
+        }
+    }
 
     /**
      * 自定义通用编码器器，将Protobuf对象序列化为字节数组，传递到{@link ProtobufPacker}处理器中;
@@ -35,6 +220,11 @@ public class Codec {
                 // 将序列化后的数据，传递给下一个处理器，进行报文打包处理;
                 super.write(ctx,bytes,promise);
                 //ctx.write(byteBuf,promise);
+            }else if (msg instanceof EncodedMessage encoded){
+                // 已经序列化完成的广播消息，拷贝为字节数组后交给ProtobufPacker处理
+                byte[] bytes = ByteBufUtil.getBytes(encoded.content());
+                encoded.release();
+                super.write(ctx,bytes,promise);
             }else {
                 throw new RuntimeException("class type error.");
             }
@@ -130,4 +320,782 @@ public class Codec {
             out.add(message);
         }
     }
+
+    /**
+     * 已经序列化完成的消息体(不含消息头)，广播时只序列化一次，多个Channel之间通过{@link #retainedDuplicate()}共享;
+     * 由{@link ZeroCopyEncoder}按每个Channel协商出的报文格式单独写入消息头
+     */
+    public static final class EncodedMessage extends DefaultByteBufHolder {
+
+        public EncodedMessage(ByteBuf body) {
+            super(body);
+        }
+
+        /**
+         * 将消息序列化到一个按大小精确分配的池化缓冲区中
+         *
+         * @param alloc 缓冲区分配器
+         * @param msg   要序列化的消息
+         */
+        public static EncodedMessage encode(ByteBufAllocator alloc, MessageLite msg) throws IOException {
+            int length = msg.getSerializedSize();
+            ByteBuf body = alloc.ioBuffer(length);
+            try {
+                writeMessage(msg, length, body);
+            } catch (IOException e) {
+                body.release();
+                throw e;
+            }
+            return new EncodedMessage(body);
+        }
+
+        @Override
+        public EncodedMessage retain() {
+            super.retain();
+            return this;
+        }
+
+        @Override
+        public EncodedMessage retainedDuplicate() {
+            return (EncodedMessage) super.retainedDuplicate();
+        }
+
+        /**
+         * 直接写出ReplyMessage的各个字段，不构造ReplyMessage对象;
+         * 只有sender之前的少量字节写入新分配的缓冲区，sender字段直接引用已经序列化完成的SendMessage字节(如入站报文中的原始消息体)，
+         * 两者组成CompositeByteBuf作为消息体，sender既不重新序列化也不拷贝;
+         * 写出的字节与{@code ReplyMessage.newBuilder()...build()}序列化的结果相同(proto3省略默认值，字段按编号顺序写出)
+         *
+         * @param alloc     缓冲区分配器
+         * @param success   success字段
+         * @param replyTime replyTime字段
+         * @param sender    已经序列化完成的SendMessage，不改变其索引; 消息体持有其切片并增加引用计数，调用方仍需释放自己的引用
+         */
+        public static EncodedMessage encodeReply(ByteBufAllocator alloc, boolean success, long replyTime, ByteBuf sender)
+                throws IOException {
+            int senderLength = sender.readableBytes();
+            // sender之前的部分: success、replyTime与sender的tag + 长度
+            int headLength = (success ? CodedOutputStream.computeBoolSize(Protocol.ReplyMessage.SUCCESS_FIELD_NUMBER, true) : 0)
+                    + (replyTime != 0 ? CodedOutputStream.computeUInt64Size(Protocol.ReplyMessage.REPLYTIME_FIELD_NUMBER, replyTime) : 0)
+                    + CodedOutputStream.computeTagSize(Protocol.ReplyMessage.SENDER_FIELD_NUMBER)
+                    + CodedOutputStream.computeUInt32SizeNoTag(senderLength);
+            ByteBuf head = alloc.ioBuffer(headLength);
+            try {
+                int index = head.writerIndex();
+                CodedOutputStream output = head.nioBufferCount() == 1
+                        ? CodedOutputStream.newInstance(head.internalNioBuffer(index, headLength))
+                        : CodedOutputStream.newInstance(new ByteBufOutputStream(head), headLength);
+                if (success) {
+                    output.writeBool(Protocol.ReplyMessage.SUCCESS_FIELD_NUMBER, true);
+                }
+                if (replyTime != 0) {
+                    output.writeUInt64(Protocol.ReplyMessage.REPLYTIME_FIELD_NUMBER, replyTime);
+                }
+                output.writeTag(Protocol.ReplyMessage.SENDER_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                output.writeUInt32NoTag(senderLength);
+                output.flush();
+                head.writerIndex(index + headLength);
+            } catch (IOException e) {
+                head.release();
+                throw e;
+            }
+            // head与sender的所有权转移给body
+            CompositeByteBuf body = alloc.compositeBuffer(2);
+            body.addComponent(true, head);
+            body.addComponent(true, sender.retainedSlice(sender.readerIndex(), senderLength));
+            return new EncodedMessage(body);
+        }
+
+        @Override
+        public EncodedMessage replace(ByteBuf content) {
+            return new EncodedMessage(content);
+        }
+    }
+
+    /**
+     * 服务端解码出的SendMessage，持有入站报文中消息体的原始字节(入站缓冲区的retainedSlice，不拷贝);
+     * 解码时只解析用于路由的消息头字段(id、name、sendTime)，payload只记录其在消息体中的位置，不拷贝也不做UTF-8解码，
+     * 需要时通过{@link #payload()}/{@link #payloadString()}获取，或者通过{@link #message()}解析出完整的消息;
+     * 回复时通过{@link EncodedMessage#encodeReply}直接引用原始字节作为sender字段，payload原样转发不拷贝，使用完成后需要释放
+     */
+    public static final class RawSendMessage extends DefaultByteBufHolder {
+        // 消息头字段与payload的tag: (字段编号 << 3) | 类型
+        private static final int ID_TAG = Protocol.SendMessage.ID_FIELD_NUMBER << 3 | WireFormat.WIRETYPE_VARINT;
+        private static final int NAME_TAG = Protocol.SendMessage.NAME_FIELD_NUMBER << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+        private static final int SEND_TIME_TAG = Protocol.SendMessage.SENDTIME_FIELD_NUMBER << 3 | WireFormat.WIRETYPE_VARINT;
+        private static final int PAYLOAD_TAG = Protocol.SendMessage.PAYLOAD_FIELD_NUMBER << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+        private final long id;
+        private final String name;
+        private final long sendTime;
+        // payload在消息体中的偏移量与长度
+        private final int payloadOffset;
+        private final int payloadLength;
+        // 完整解析出的消息，首次调用message()时才会解析
+        private Protocol.SendMessage message;
+
+        public RawSendMessage(ByteBuf body, long id, String name, long sendTime, int payloadOffset, int payloadLength) {
+            super(body);
+            this.id = id;
+            this.name = name;
+            this.sendTime = sendTime;
+            this.payloadOffset = payloadOffset;
+            this.payloadLength = payloadLength;
+        }
+
+        /**
+         * 只解析消息头字段，payload跳过，不改变缓冲区的索引
+         *
+         * @param body 消息体，创建出的对象直接持有，不增加引用计数
+         */
+        public static RawSendMessage parse(ByteBuf body) throws IOException {
+            CodedInputStream input = newInput(body, body.readerIndex(), body.readableBytes());
+            long id = 0;
+            String name = "";
+            long sendTime = 0;
+            int payloadOffset = 0;
+            int payloadLength = 0;
+            boolean done = false;
+            while (!done) {
+                int tag = input.readTag();
+                switch (tag) {
+                    case 0 -> done = true;
+                    case ID_TAG -> id = input.readInt64();
+                    case NAME_TAG -> name = input.readStringRequireUtf8();
+                    case SEND_TIME_TAG -> sendTime = input.readUInt64();
+                    case PAYLOAD_TAG -> {
+                        // 只记录位置，重复出现时以最后一个为准(与Protobuf的合并规则相同)
+                        payloadLength = input.readRawVarint32();
+                        payloadOffset = input.getTotalBytesRead();
+                        input.skipRawBytes(payloadLength);
+                    }
+                    // gender与未知字段
+                    default -> done = !input.skipField(tag);
+                }
+            }
+            return new RawSendMessage(body, id, name, sendTime, payloadOffset, payloadLength);
+        }
+
+        public long id() {
+            return id;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public long sendTime() {
+            return sendTime;
+        }
+
+        /**
+         * payload在消息体中的切片，不拷贝，与当前对象共享引用计数
+         */
+        public ByteBuf payload() {
+            return content().slice(content().readerIndex() + payloadOffset, payloadLength);
+        }
+
+        /**
+         * 将payload按UTF-8解码，每次调用都会重新解码，只应在需要时调用(如被采样的日志)
+         */
+        public String payloadString() {
+            return content().toString(content().readerIndex() + payloadOffset, payloadLength, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * 完整解析出的消息，会拷贝payload，首次调用时才解析
+         */
+        public Protocol.SendMessage message() throws IOException {
+            if (message == null) {
+                ByteBuf body = content();
+                message = parseMessage(Protocol.SendMessage.parser(), body, body.readerIndex(), body.readableBytes());
+            }
+            return message;
+        }
+
+        @Override
+        public RawSendMessage retain() {
+            super.retain();
+            return this;
+        }
+
+        @Override
+        public RawSendMessage replace(ByteBuf content) {
+            return new RawSendMessage(content, id, name, sendTime, payloadOffset, payloadLength);
+        }
+
+        @Override
+        public String toString() {
+            return "RawSendMessage(id: " + id + ", name: " + name + ", payload: " + payloadLength + "B)";
+        }
+    }
+
+    /**
+     * 零拷贝编码器，直接将Protobuf对象连同消息头一起序列化到池化的出站缓冲区中，
+     * 缓冲区大小按 {@link MessageLite#getSerializedSize()} 精确分配，不会产生中间byte[]与扩容;
+     * 对于{@link EncodedMessage}只写入消息头，消息体直接复用，不再拷贝;
+     * 报文格式见{@link Wire}，优先使用{@link #PEER_WIRE}中协商出的格式;
+     * 心跳的{@link Heartbeat.Ping}/{@link Heartbeat.Pong}编码为固定长度的心跳报文;
+     * 启用批量报文时，对端为v2格式的{@link EncodedMessage}先暂存，flush时如果暂存了多条则合并为一个批量报文({@link #BATCH_MAGIC})，
+     * 批量报文由一个包含所有前缀的缓冲区与各条消息体组成CompositeByteBuf，消息体同样不拷贝;
+     * 暂存的消息达到{@link #BATCH_MAX_REPLIES}条，或者再加入一条会使批量报文的消息体超过最大长度时，先写出已经暂存的消息，
+     * 避免对端因{@link TooLongFrameException}丢弃整个批量报文;
+     * 写入其他消息前会先写出暂存的消息，保证顺序不变
+     */
+    public static class ZeroCopyEncoder extends MessageToByteEncoder<MessageLite> {
+        // 未协商出对端格式时使用的默认格式
+        private final Wire wire;
+        // 是否启用批量报文
+        private final boolean batch;
+        // 批量报文的消息体最大长度，与对端解码器的最大长度一致
+        private final int maxFrameLength;
+        // 等待flush的消息与其promise，只在EventLoop线程中读写
+        private final List<EncodedMessage> pending = new ArrayList<>();
+        private final List<ChannelPromise> pendingPromises = new ArrayList<>();
+        // 暂存的消息组成批量报文后的消息体长度
+        private int pendingLength;
+
+        public ZeroCopyEncoder() {
+            this(Wire.V1);
+        }
+
+        public ZeroCopyEncoder(Wire wire) {
+            this(wire, false);
+        }
+
+        public ZeroCopyEncoder(Wire wire, boolean batch) {
+            this(wire, batch, MAX_FRAME_LENGTH);
+        }
+
+        /**
+         * @param maxFrameLength 批量报文的消息体最大长度
+         */
+        public ZeroCopyEncoder(Wire wire, boolean batch, int maxFrameLength) {
+            if (maxFrameLength <= 0) {
+                throw new IllegalArgumentException("maxFrameLength must be positive: " + maxFrameLength);
+            }
+            this.wire = wire;
+            this.batch = batch;
+            this.maxFrameLength = maxFrameLength;
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            if (msg instanceof EncodedMessage encoded && batch && wire(ctx) == Wire.V2) {
+                int length = replyLength(encoded.content().readableBytes());
+                if (pendingLength + (long) length > maxFrameLength) {
+                    // 加入后批量报文会超过最大长度，先写出已经暂存的消息
+                    writePending(ctx);
+                }
+                pending.add(encoded);
+                pendingPromises.add(promise);
+                pendingLength += length;
+                if (pending.size() >= BATCH_MAX_REPLIES) {
+                    writePending(ctx);
+                }
+                return;
+            }
+            writePending(ctx);
+            if (msg instanceof EncodedMessage encoded) {
+                writeEncoded(ctx, encoded, promise);
+            } else if (msg instanceof Heartbeat.Ping ping) {
+                ctx.write(encodeHeartbeat(ctx.alloc(), PING_MAGIC, ping.seq(), ping.timestamp()), promise);
+            } else if (msg instanceof Heartbeat.Pong pong) {
+                ctx.write(encodeHeartbeat(ctx.alloc(), PONG_MAGIC, pong.seq(), pong.timestamp()), promise);
+            } else {
+                super.write(ctx, msg, promise);
+            }
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) throws Exception {
+            writePending(ctx);
+            ctx.flush();
+        }
+
+        @Override
+        public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+            releasePending(new ClosedChannelException());
+            ctx.close(promise);
+        }
+
+        @Override
+        public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+            releasePending(new ClosedChannelException());
+            super.handlerRemoved(ctx);
+        }
+
+        /**
+         * 写出一条消息: 消息头与消息体分两次写入，由底层的gathering write一次性发送
+         */
+        private void writeEncoded(ChannelHandlerContext ctx, EncodedMessage encoded, ChannelPromise promise) {
+            ByteBuf body = encoded.content();
+            int length = body.readableBytes();
+            Wire wire = wire(ctx);
+            ByteBuf header = ctx.alloc().ioBuffer(wire.headerLength(length));
+            wire.writeHeader(header, length);
+            ctx.write(header, ctx.voidPromise());
+            ctx.write(body, promise);
+        }
+
+        /**
+         * 写出暂存的消息，只有一条时按普通报文写出，多条时合并为一个批量报文
+         */
+        private void writePending(ChannelHandlerContext ctx) {
+            int count = pending.size();
+            if (count == 0) {
+                return;
+            }
+            if (count == 1) {
+                writeEncoded(ctx, pending.get(0), pendingPromises.get(0));
+                pending.clear();
+                pendingPromises.clear();
+                pendingLength = 0;
+                return;
+            }
+            // 批量报文的消息体长度在暂存时已经累加，所有前缀的长度 = 消息体长度 - 各条消息体的长度
+            int bodyLength = pendingLength;
+            int prefixLength = bodyLength;
+            for (EncodedMessage encoded : pending) {
+                prefixLength -= encoded.content().readableBytes();
+            }
+            // 消息头与所有前缀位于同一个缓冲区中，按切片与各条消息体交替组成报文
+            ChannelPromise promise = combinePromises(ctx);
+            ByteBuf prefixes = null;
+            CompositeByteBuf frame = null;
+            // 所有权已经转移给frame(或者已经被释放)的消息体数
+            int transferred = 0;
+            try {
+                prefixes = ctx.alloc().ioBuffer(1 + CodedOutputStream.computeUInt32SizeNoTag(bodyLength) + prefixLength);
+                frame = ctx.alloc().compositeDirectBuffer(count * 2);
+                prefixes.writeByte(BATCH_MAGIC);
+                writeVarint32(prefixes, bodyLength);
+                int start = 0;
+                for (EncodedMessage encoded : pending) {
+                    ByteBuf body = encoded.content();
+                    prefixes.writeByte(REPLIES_TAG);
+                    writeVarint32(prefixes, body.readableBytes());
+                    frame.addComponent(true, prefixes.retainedSlice(start, prefixes.writerIndex() - start));
+                    start = prefixes.writerIndex();
+                    // 消息体的所有权转移给frame，addComponent失败时也会释放消息体
+                    transferred++;
+                    frame.addComponent(true, body);
+                }
+            } catch (Throwable e) {
+                if (frame != null) {
+                    frame.release();
+                }
+                for (int i = transferred; i < count; i++) {
+                    pending.get(i).release();
+                }
+                promise.tryFailure(e);
+                return;
+            } finally {
+                if (prefixes != null) {
+                    prefixes.release();
+                }
+                pending.clear();
+                pendingPromises.clear();
+                pendingLength = 0;
+            }
+            ctx.write(frame, promise);
+        }
+
+        /**
+         * 一条回复在批量报文中占用的长度: tag + varint32长度 + 消息体
+         */
+        private static int replyLength(int bodyLength) {
+            return CodedOutputStream.computeTagSize(Protocol.ReplyBatch.REPLIES_FIELD_NUMBER)
+                    + CodedOutputStream.computeUInt32SizeNoTag(bodyLength) + bodyLength;
+        }
+
+        /**
+         * 合并暂存消息的promise，全部为voidPromise时不需要通知
+         */
+        private ChannelPromise combinePromises(ChannelHandlerContext ctx) {
+            List<ChannelPromise> promises = new ArrayList<>(pendingPromises.size());
+            for (ChannelPromise promise : pendingPromises) {
+                if (!promise.isVoid()) {
+                    promises.add(promise);
+                }
+            }
+            if (promises.isEmpty()) {
+                return ctx.voidPromise();
+            }
+            ChannelPromise combined = ctx.newPromise();
+            combined.addListener(new PromiseNotifier<Void, ChannelFuture>(promises.toArray(new ChannelPromise[0])));
+            return combined;
+        }
+
+        private void releasePending(Throwable cause) {
+            for (int i = 0; i < pending.size(); i++) {
+                pending.get(i).release();
+                pendingPromises.get(i).tryFailure(cause);
+            }
+            pending.clear();
+            pendingPromises.clear();
+            pendingLength = 0;
+        }
+
+        @Override
+        protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, MessageLite msg, boolean preferDirect) throws Exception {
+            // getSerializedSize()的结果会被缓存在对象内部，encode时再次调用不会重复计算
+            int length = msg.getSerializedSize();
+            return ctx.alloc().ioBuffer(wire(ctx).headerLength(length) + length);
+        }
+
+        @Override
+        protected void encode(ChannelHandlerContext ctx, MessageLite msg, ByteBuf out) throws Exception {
+            int length = msg.getSerializedSize();
+            // 设置消息头
+            wire(ctx).writeHeader(out, length);
+            // 设置消息体
+            writeMessage(msg, length, out);
+        }
+
+        private Wire wire(ChannelHandlerContext ctx) {
+            Wire peer = ctx.channel().attr(PEER_WIRE).get();
+            return peer != null ? peer : wire;
+        }
+    }
+
+    /**
+     * 零拷贝解码器，直接在入站的池化ByteBuf上通过{@link CodedInputStream}反序列化，不再拷贝到byte[]中;
+     * 同时兼容v1与v2两种报文格式，根据每个报文的第一个字节进行区分，见{@link Wire};
+     * 心跳报文解码为{@link Heartbeat.Ping}/{@link Heartbeat.Pong}，不影响协商出的报文格式;
+     * 批量报文({@link #BATCH_MAGIC})逐条解码为其中的消息，对后续的处理器透明;
+     * 消息体无法反序列化时跳过该报文，不影响后续的报文; 消息头损坏(未知的类型标识、非法的长度)时无法再定位报文边界，丢弃数据并关闭连接;
+     * 消息体超过最大长度时通知{@link TooLongFrameException}并跳过该报文，见{@link #MAX_FRAME_LENGTH}
+     *
+     * @param <T> 消息类型
+     */
+    public static class ZeroCopyDecoder<T extends MessageLite> extends ByteToMessageDecoder {
+        private final Parser<T> parser;
+        // 是否将对端使用的报文格式记录到{@link #PEER_WIRE}中，由服务端开启
+        private final boolean negotiate;
+        // 消息体最大长度
+        private final int maxFrameLength;
+        // 上一次收到的报文格式，只有发生变化时才更新Channel属性
+        private Wire lastWire;
+        // 超过最大长度的消息体中还需要跳过的字节数
+        private long discarding;
+
+        public ZeroCopyDecoder(Parser<T> parser) {
+            this(parser, false);
+        }
+
+        public ZeroCopyDecoder(Parser<T> parser, boolean negotiate) {
+            this(parser, negotiate, MAX_FRAME_LENGTH);
+        }
+
+        /**
+         * @param maxFrameLength 消息体最大长度
+         */
+        public ZeroCopyDecoder(Parser<T> parser, boolean negotiate, int maxFrameLength) {
+            if (maxFrameLength <= 0) {
+                throw new IllegalArgumentException("maxFrameLength must be positive: " + maxFrameLength);
+            }
+            this.parser = parser;
+            this.negotiate = negotiate;
+            this.maxFrameLength = maxFrameLength;
+        }
+
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+            // 正在跳过超长的消息体，跳过已经到达的部分，不缓存
+            if (discarding > 0) {
+                int skip = (int) Math.min(discarding, in.readableBytes());
+                in.skipBytes(skip);
+                discarding -= skip;
+                if (discarding > 0) {
+                    return;
+                }
+            }
+            // 只查看消息头，不移动读取索引，省去mark/reset
+            int index = in.readerIndex();
+            int readable = in.readableBytes();
+            if (readable < 1) {
+                return;
+            }
+            Wire wire;
+            int headerLength;
+            long length;
+            byte first = in.getByte(index);
+            if (first == V2_MAGIC) {
+                wire = Wire.V2;
+                int value = readLength(ctx, in, index + 1);
+                if (value == -1) {
+                    // 数据不足，等待更多数据
+                    return;
+                }
+                length = value;
+                headerLength = 1 + CodedOutputStream.computeUInt32SizeNoTag(value);
+            } else if (first == 0) {
+                wire = Wire.V1;
+                if (readable < HEADER_LENGTH) {
+                    // 无法获取消息头，等待更多数据
+                    return;
+                }
+                length = in.getLong(index);
+                headerLength = HEADER_LENGTH;
+            } else if (first == PING_MAGIC || first == PONG_MAGIC) {
+                if (readable < HEARTBEAT_LENGTH) {
+                    // 数据不足，等待更多数据
+                    return;
+                }
+                long seq = in.getLong(index + 1);
+                long timestamp = in.getLong(index + 1 + Long.BYTES);
+                out.add(first == PING_MAGIC ? new Heartbeat.Ping(seq, timestamp) : new Heartbeat.Pong(seq, timestamp));
+                in.readerIndex(index + HEARTBEAT_LENGTH);
+                return;
+            } else if (first == BATCH_MAGIC) {
+                int value = readLength(ctx, in, index + 1);
+                if (value == -1) {
+                    // 数据不足，等待更多数据
+                    return;
+                }
+                if (value > maxFrameLength) {
+                    tooLong(ctx, in, 1 + CodedOutputStream.computeUInt32SizeNoTag(value), value);
+                    return;
+                }
+                if (readable < 1 + CodedOutputStream.computeUInt32SizeNoTag(value) + value) {
+                    // 数据不足，等待更多数据
+                    return;
+                }
+                int bodyIndex = index + 1 + CodedOutputStream.computeUInt32SizeNoTag(value);
+                // 与普通报文相同，先跳过整个批量报文再解析
+                in.readerIndex(bodyIndex + value);
+                decodeBatch(in, bodyIndex, value, out);
+                return;
+            } else {
+                throw corrupted(ctx, in, "unknown wire version: " + first);
+            }
+            if (length < 0 || length > Integer.MAX_VALUE - headerLength) {
+                throw corrupted(ctx, in, "invalid frame length: " + length);
+            }
+            if (length > maxFrameLength) {
+                tooLong(ctx, in, headerLength, length);
+                return;
+            }
+            if (readable < headerLength + length) {
+                // 数据不足，等待更多数据
+                return;
+            }
+            if (negotiate && wire != lastWire) {
+                lastWire = wire;
+                ctx.channel().attr(PEER_WIRE).set(wire);
+            }
+            int bodyIndex = index + headerLength;
+            // 先跳过整个报文再解析，消息体无法反序列化时也不会残留在累积缓冲区中被反复解析
+            in.readerIndex(bodyIndex + (int) length);
+            out.add(decodeBody(in, bodyIndex, (int) length));
+        }
+
+        /**
+         * 消息体超过最大长度: 跳过消息头与已经到达的消息体，剩余部分在之后的读取中跳过，并立即通知后续的处理器
+         */
+        private void tooLong(ChannelHandlerContext ctx, ByteBuf in, int headerLength, long length) {
+            in.skipBytes(headerLength);
+            int skip = (int) Math.min(length, in.readableBytes());
+            in.skipBytes(skip);
+            discarding = length - skip;
+            ctx.fireExceptionCaught(new TooLongFrameException("frame length exceeds " + maxFrameLength + ": " + length));
+        }
+
+        /**
+         * 读取varint32格式的消息体长度，格式错误时丢弃累积的数据并关闭连接
+         *
+         * @return 消息体长度，如果数据不足则返回-1
+         */
+        private static int readLength(ChannelHandlerContext ctx, ByteBuf in, int index) {
+            try {
+                return readVarint32(in, index);
+            } catch (CorruptedFrameException e) {
+                throw corrupted(ctx, in, e.getMessage());
+            }
+        }
+
+        /**
+         * 消息头损坏，之后的数据已经无法定位报文边界: 丢弃累积的数据并关闭连接
+         *
+         * @return 需要抛出的异常
+         */
+        private static CorruptedFrameException corrupted(ChannelHandlerContext ctx, ByteBuf in, String message) {
+            in.skipBytes(in.readableBytes());
+            ctx.close();
+            return new CorruptedFrameException(message);
+        }
+
+        /**
+         * 解码批量报文，逐条取出其中的回复，每条回复按普通报文的消息体解码，不改变缓冲区的索引;
+         * 整个批量报文全部解析成功后才会放入out，其中任意一条回复无法解析时丢弃整个批量报文，已经解析出的回复会被释放
+         */
+        private void decodeBatch(ByteBuf in, int index, int length, List<Object> out) throws IOException {
+            List<Object> replies = new ArrayList<>();
+            try {
+                CodedInputStream input = newInput(in, index, length);
+                boolean done = false;
+                while (!done) {
+                    int tag = input.readTag();
+                    if (tag == REPLIES_TAG) {
+                        int replyLength = input.readRawVarint32();
+                        int replyIndex = index + input.getTotalBytesRead();
+                        // 先检查长度，避免越界
+                        input.skipRawBytes(replyLength);
+                        replies.add(decodeBody(in, replyIndex, replyLength));
+                    } else {
+                        done = tag == 0 || !input.skipField(tag);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                for (Object reply : replies) {
+                    ReferenceCountUtil.release(reply);
+                }
+                throw e;
+            }
+            out.addAll(replies);
+        }
+
+        /**
+         * 解码消息体，不改变缓冲区的索引
+         *
+         * @param in     入站缓冲区
+         * @param index  消息体起始位置
+         * @param length 消息体长度
+         */
+        protected Object decodeBody(ByteBuf in, int index, int length) throws IOException {
+            return parseMessage(parser, in, index, length);
+        }
+    }
+
+    /**
+     * 服务端的零拷贝SendMessage解码器，解码为{@link RawSendMessage}，
+     * 只解析消息头字段，并保留消息体在入站缓冲区中的切片(只增加引用计数)
+     */
+    public static class RawSendMessageDecoder extends ZeroCopyDecoder<Protocol.SendMessage> {
+
+        public RawSendMessageDecoder() {
+            this(MAX_FRAME_LENGTH);
+        }
+
+        /**
+         * @param maxFrameLength 消息体最大长度
+         */
+        public RawSendMessageDecoder(int maxFrameLength) {
+            super(Protocol.SendMessage.parser(), true, maxFrameLength);
+        }
+
+        @Override
+        protected Object decodeBody(ByteBuf in, int index, int length) throws IOException {
+            ByteBuf body = in.retainedSlice(index, length);
+            try {
+                return RawSendMessage.parse(body);
+            } catch (IOException e) {
+                body.release();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 编码心跳报文
+     *
+     * @param magic     心跳报文的类型标识，{@link #PING_MAGIC}或{@link #PONG_MAGIC}
+     * @param seq       序号
+     * @param timestamp 发送时间
+     */
+    public static ByteBuf encodeHeartbeat(ByteBufAllocator alloc, byte magic, long seq, long timestamp) {
+        return alloc.ioBuffer(HEARTBEAT_LENGTH)
+                .writeByte(magic)
+                .writeLong(seq)
+                .writeLong(timestamp);
+    }
+
+    /**
+     * 在缓冲区的指定区间上直接反序列化消息，不改变缓冲区的索引
+     *
+     * @param parser 消息解析器
+     * @param buf    缓冲区
+     * @param index  消息体起始位置
+     * @param length 消息体长度
+     */
+    public static <T> T parseMessage(Parser<T> parser, ByteBuf buf, int index, int length) throws IOException {
+        return parser.parseFrom(newInput(buf, index, length));
+    }
+
+    /**
+     * 在缓冲区的指定区间上创建{@link CodedInputStream}，不拷贝，不改变缓冲区的索引
+     */
+    private static CodedInputStream newInput(ByteBuf buf, int index, int length) {
+        CodedInputStream input;
+        if (buf.hasArray()) {
+            // 堆内缓冲区，直接使用底层数组
+            input = CodedInputStream.newInstance(buf.array(), buf.arrayOffset() + index, length);
+        } else if (buf.nioBufferCount() == 1) {
+            // 直接内存缓冲区，使用其NIO视图
+            input = CodedInputStream.newInstance(buf.internalNioBuffer(index, length));
+        } else {
+            // 复合缓冲区，以流的方式读取
+            input = CodedInputStream.newInstance(new ByteBufInputStream(buf.slice(index, length)));
+        }
+        return input;
+    }
+
+    /**
+     * 将消息直接序列化到缓冲区的可写区域，并推进写索引
+     *
+     * @param msg    要序列化的消息
+     * @param length 消息序列化后的长度
+     * @param out    目标缓冲区
+     */
+    public static void writeMessage(MessageLite msg, int length, ByteBuf out) throws IOException {
+        out.ensureWritable(length);
+        int index = out.writerIndex();
+        if (out.nioBufferCount() == 1) {
+            ByteBuffer nioBuffer = out.internalNioBuffer(index, length);
+            CodedOutputStream output = CodedOutputStream.newInstance(nioBuffer);
+            msg.writeTo(output);
+            output.flush();
+            output.checkNoSpaceLeft();
+            out.writerIndex(index + length);
+        } else {
+            msg.writeTo(new ByteBufOutputStream(out));
+        }
+    }
+
+    /**
+     * 以varint32格式写入一个非负整数
+     */
+    public static void writeVarint32(ByteBuf out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * 从指定位置读取一个varint32格式的非负整数，不改变缓冲区的索引
+     *
+     * @return 读取到的值，如果数据不足则返回-1
+     * @throws CorruptedFrameException 超过5byte或者为负数
+     */
+    public static int readVarint32(ByteBuf in, int index) {
+        int result = 0;
+        int end = in.writerIndex();
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (index >= end) {
+                return -1;
+            }
+            byte b = in.getByte(index++);
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (result < 0) {
+                    throw new CorruptedFrameException("negative varint32 length: " + result);
+                }
+                return result;
+            }
+        }
+        throw new CorruptedFrameException("varint32 length exceeds 5 bytes");
+    }
 }
@@ -1,12 +1,18 @@
 package com.zero.net.netty.examples.im.server;
 
+import com.zero.net.netty.common.FlushCoalescingHandler;
+import com.zero.net.netty.common.Heartbeat;
+import com.zero.net.netty.common.ServerMetrics;
+import com.zero.net.netty.common.Transport;
 import com.zero.net.netty.examples.im.packet.Codec;
 import io.netty.bootstrap.ServerBootstrap;
-import io.netty.channel.ChannelFuture;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.socket.SocketChannel;
+
+import java.util.List;
 
 /**
  * Netty IM Server
@@ -15,36 +21,38 @@ import io.netty.channel.socket.nio.NioSocketChannel;
  * <p> Created on 2025/4/4 12:52 </p>
  */
 public class IMServer {
+    /**
+     * 服务端口
+     */
+    public static final int PORT = 19002;
+
     public static void main(String[] args) {
-        NioEventLoopGroup boss = new NioEventLoopGroup(1);
-        NioEventLoopGroup worker = new NioEventLoopGroup();
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : PORT;
+        // 传输层实现，Linux上优先使用epoll/io_uring，不可用时回退到NIO
+        Transport transport = Transport.current();
+        EventLoopGroup boss = transport.newEventLoopGroup(Transport.acceptors());
+        EventLoopGroup worker = transport.newEventLoopGroup(0);
+        // 编解码模式，默认为零拷贝模式
+        Codec.Mode mode = Codec.Mode.current();
+        // 所有连接共享的会话注册表
+        SessionRegistry registry = new SessionRegistry();
+        // 心跳服务，通过 -Dheartbeat.interval 启用，仅零拷贝模式支持
+        Heartbeat heartbeat = mode == Codec.Mode.ZERO_COPY ? Heartbeat.current() : null;
+        // 指标统计，通过 -Dmetrics.port 启用
+        ServerMetrics metrics = ServerMetrics.current("im");
         try {
-            ServerBootstrap bootstrap = new ServerBootstrap()
-                    .group(boss, worker)
-                    .channel(NioServerSocketChannel.class)
-                    .childHandler(new ChannelInitializer<NioSocketChannel>() {
-                        @Override
-                        protected void initChannel(NioSocketChannel ch) throws Exception {
-                            ch.pipeline()
-                                    // 设置解码处理器(入站)，用于解码将读取到的数据解码为SendMessage对象
-                                    .addLast(new Codec.SendMessageDecoder())
-                                    // 设置事件处理器(入站)
-                                    .addLast(new IMServerHandler())
-                                    // 入站事件会按照处理器添加顺序执行
-                                    // 先执行SendMessageDecoder解码，再执行ClientHandler处理器;
-
-                                    // 设置编码处理器(出站)，用于将字节数组打包为自定义协议
-                                    .addLast(new Codec.ProtobufPacker())
-                                    // 设置编码处理器(出站)，用于将对象序列化为字节数组
-                                    .addLast(new Codec.ProtobufEncoder());
-                            // 出站逻辑会以相反的顺序进行执行
-                            // 所以需要先执行ProtobufEncoder再执行ProtobufPacker
-                        }
-                    });
-            // 异步启动服务
-            ChannelFuture serverFuture = bootstrap.bind(19002).sync();
+            ServerBootstrap bootstrap = transport.newServerBootstrap(boss, worker)
+                    .childHandler(childInitializer(mode, registry, heartbeat, metrics));
+            if (heartbeat != null) {
+                heartbeat.scheduleReport(worker);
+            }
+            // 启动服务，支持SO_REUSEPORT时会绑定多个acceptor
+            List<Channel> serverChannels = transport.bind(bootstrap, port);
+            System.out.printf("IM Server Start Successful, transport: %s, acceptors: %d...%n", transport, serverChannels.size());
             // 阻塞等待服务关闭
-            serverFuture.channel().closeFuture().sync();
+            for (Channel serverChannel : serverChannels) {
+                serverChannel.closeFuture().sync();
+            }
         }catch (Exception e){
             e.printStackTrace();
         }finally {
@@ -52,4 +60,86 @@ public class IMServer {
             worker.shutdownGracefully();
         }
     }
+
+    /**
+     * 创建客户端连接的Channel初始化器
+     *
+     * @param mode     编解码模式
+     * @param registry 所有连接共享的会话注册表
+     */
+    public static ChannelInitializer<SocketChannel> childInitializer(Codec.Mode mode, SessionRegistry registry) {
+        return childInitializer(mode, registry, null, null);
+    }
+
+    /**
+     * 创建客户端连接的Channel初始化器
+     *
+     * @param mode      编解码模式
+     * @param registry  所有连接共享的会话注册表
+     * @param heartbeat 心跳服务，为null时不发送心跳，COPY模式的编解码器不支持心跳报文
+     * @param metrics   指标统计，为null时不统计
+     */
+    public static ChannelInitializer<SocketChannel> childInitializer(Codec.Mode mode, SessionRegistry registry,
+                                                                     Heartbeat heartbeat, ServerMetrics metrics) {
+        return childInitializer(mode, registry, heartbeat, metrics, SlowConsumerHandler.Policy.current());
+    }
+
+    /**
+     * 创建客户端连接的Channel初始化器
+     *
+     * @param mode      编解码模式
+     * @param registry  所有连接共享的会话注册表
+     * @param heartbeat 心跳服务，为null时不发送心跳，COPY模式的编解码器不支持心跳报文
+     * @param metrics   指标统计，为null时不统计
+     * @param policy    出站缓冲区超过高水位(慢消费者)时的默认处理策略
+     */
+    public static ChannelInitializer<SocketChannel> childInitializer(Codec.Mode mode, SessionRegistry registry,
+                                                                     Heartbeat heartbeat, ServerMetrics metrics,
+                                                                     SlowConsumerHandler.Policy policy) {
+        WriteBufferWaterMark waterMark = SlowConsumerHandler.waterMark();
+        if (heartbeat != null && mode != Codec.Mode.ZERO_COPY) {
+            throw new IllegalArgumentException("heartbeat requires the zero-copy codec");
+        }
+        return new ChannelInitializer<SocketChannel>() {
+            @Override
+            protected void initChannel(SocketChannel ch) throws Exception {
+                // 出站缓冲区的高低水位，超过高水位后isWritable()变为false，由慢消费者处理器按策略处理后续的广播
+                ch.config().setWriteBufferWaterMark(waterMark);
+                if (metrics != null) {
+                    // 设置流量统计处理器，位于flush合并处理器之前，统计实际执行的flush与编码后的字节数
+                    ch.pipeline().addLast(metrics.newTrafficHandler());
+                }
+                ch.pipeline()
+                        // 设置flush合并处理器，将一次读取过程中的多次flush合并为一次，需要位于pipeline头部
+                        .addLast(new FlushCoalescingHandler())
+                        // 设置解码处理器(入站)，用于解码将读取到的数据解码为SendMessage对象
+                        .addLast(mode.newSendMessageDecoder());
+                if (metrics != null) {
+                    // 设置消息统计处理器，统计解码出的消息数与解码错误数
+                    ch.pipeline().addLast(metrics.newMessageHandler());
+                }
+                if (heartbeat != null) {
+                    ch.pipeline()
+                            // 心跳处理器通过ctx写出Ping，编码器需要位于其之前，入站的Pong在此处理，不会到达IMServerHandler
+                            .addLast(mode.newEncoders(Codec.Wire.V1))
+                            .addLast(heartbeat.newHandler())
+                            .addLast(new IMServerHandler(registry))
+                            // 需要位于pipeline的最后，拦截广播写出的消息，心跳处理器通过ctx写出的Ping不受影响
+                            .addLast(new SlowConsumerHandler(policy, metrics));
+                    return;
+                }
+                ch.pipeline()
+                        // 设置事件处理器(入站)
+                        .addLast(new IMServerHandler(registry))
+                        // 入站事件会按照处理器添加顺序执行
+                        // 先执行SendMessageDecoder解码，再执行ClientHandler处理器;
+
+                        // 设置编码处理器(出站)，用于将对象序列化并打包为自定义协议
+                        // 默认以v1格式回复，兼容旧版客户端；客户端使用v2发送后，改为以v2格式回复
+                        .addLast(mode.newEncoders(Codec.Wire.V1))
+                        // 设置慢消费者处理器(出站)，需要位于pipeline的最后，在编码之前拦截广播的消息
+                        .addLast(new SlowConsumerHandler(policy, metrics));
+            }
+        };
+    }
 }
@@ -1,26 +1,25 @@
 package com.zero.net.netty.examples.im.server;
 
+import com.zero.net.netty.common.EventLog;
+import com.zero.net.netty.examples.im.packet.Codec;
 import com.zero.net.netty.examples.im.pb.Protocol;
-import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
-import io.netty.channel.group.DefaultChannelGroup;
-import io.netty.util.concurrent.GlobalEventExecutor;
-
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 事件处理器，处理来自于客户端连接的各种事件
+ * 日志通过{@link EventLog}异步输出，消息日志支持采样与限流，不会在EventLoop中同步写出
  *
  * @author Zero.
  * <p> Created on 2025/4/4 13:12 </p>
  */
 public class IMServerHandler extends ChannelInboundHandlerAdapter {
-    // channel容器
-    private DefaultChannelGroup channelGroup = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
-    private ConcurrentHashMap<String, Channel> container = new ConcurrentHashMap<>(16);
+    // 服务端全局共享的会话注册表
+    private final SessionRegistry registry;
+
+    public IMServerHandler(SessionRegistry registry) {
+        this.registry = registry;
+    }
 
     /**
      * 连接建立完成事件
@@ -28,10 +27,8 @@ public class IMServerHandler extends ChannelInboundHandlerAdapter {
      */
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
-        container.put(ctx.channel().remoteAddress().toString(),ctx.channel());
-        System.out.println(ctx.channel().remoteAddress().toString() + "已连接...");
-        System.out.println("当前连接数: " + container.size());
-        container.forEach((k,v)-> System.out.println(k));
+        registry.register(ctx.channel());
+        EventLog.log("%s已连接... 当前连接数: %d", ctx.channel().remoteAddress(), registry.size());
         super.channelActive(ctx);
     }
 
@@ -42,9 +39,8 @@ public class IMServerHandler extends ChannelInboundHandlerAdapter {
      */
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
-        System.out.println(ctx.channel().remoteAddress().toString() + "关闭连接...");
-        container.remove(ctx.channel().remoteAddress().toString());
-        System.out.println("当前连接数: " + container.size());
+        registry.unregister(ctx.channel());
+        EventLog.log("%s关闭连接... 当前连接数: %d", ctx.channel().remoteAddress(), registry.size());
         super.channelInactive(ctx);
     }
 
@@ -56,19 +52,32 @@ public class IMServerHandler extends ChannelInboundHandlerAdapter {
      */
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-        if (msg instanceof Protocol.SendMessage message){
-            String name = message.getName();
-            String time = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(message.getSendTime()));
-            String payload = message.getPayload().toString("utf-8");
-            System.out.printf("[%s] %s: %s \n",time,name,payload);
+        if (msg instanceof Codec.RawSendMessage raw) {
+            try {
+                // 解码时只解析了消息头字段，payload只有被采样时才进行UTF-8解码
+                if (EventLog.sample()) {
+                    EventLog.log("[%s] %s: %s", EventLog.time(raw.sendTime()), raw.name(), raw.payloadString());
+                }
+                // 零拷贝模式: 不构造ReplyMessage，直接写出其字段，sender引用入站报文中的原始字节(payload原样转发，不拷贝)
+                registry.broadcast(Codec.EncodedMessage.encodeReply(ctx.alloc(), true, System.currentTimeMillis(),
+                        raw.content()));
+            } finally {
+                raw.release();
+            }
+        } else if (msg instanceof Protocol.SendMessage message){
+            // 只有被采样的消息才解码消息体，发送时间在写出线程中格式化
+            if (EventLog.sample()) {
+                EventLog.log("[%s] %s: %s", EventLog.time(message.getSendTime()), message.getName(),
+                        message.getPayload().toStringUtf8());
+            }
 
             // 广播消息
             Protocol.ReplyMessage replyMessage = Protocol.ReplyMessage.newBuilder()
                     .setSuccess(true)
                     .setReplyTime(System.currentTimeMillis())
                     .setSender(message).build();
-            container.forEach((k,v)-> v.writeAndFlush(replyMessage));
-//            channelGroup.writeAndFlush(replyMessage);
+            // 只序列化一次，按EventLoop分组写入后统一flush
+            registry.broadcast(ctx.alloc(), replyMessage);
         }
     }
 }
@@ -0,0 +1,179 @@
+package com.zero.net.netty.examples.im.server;
+
+import com.google.protobuf.MessageLite;
+import com.zero.net.netty.examples.im.packet.Codec;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import io.netty.util.AttributeKey;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 服务端全局的会话注册表，所有的{@link IMServerHandler}共享同一个实例;
+ * <p>
+ * 按照Channel所属的{@link EventLoop}进行分片，每个分片只会被其所属的EventLoop线程读写，所以分片内部无需加锁;
+ * 广播时消息只序列化一次，每个分片提交一个任务到其EventLoop中，先向分片内所有Channel写入共享的消息体，再逐个flush，
+ * 避免了从其他线程对每个Channel调用writeAndFlush而产生的大量跨线程任务。
+ * 启用批量报文时({@link Codec#batchEnabled()})，flush推迟到当前EventLoop执行周期内的广播都写入之后统一执行，
+ * 同一个周期内发给同一个Channel的多条消息由编码器合并为一个批量报文。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 13:20 </p>
+ */
+public class SessionRegistry {
+    // Channel在所属分片中的下标，用于O(1)移除
+    private static final AttributeKey<Integer> SLOT = AttributeKey.valueOf("im.session.slot");
+
+    // 分片，key为EventLoop
+    private final ConcurrentHashMap<EventLoop, Shard> shards = new ConcurrentHashMap<>();
+    // 当前连接数
+    private final AtomicInteger size = new AtomicInteger();
+    // 是否推迟flush，合并同一个执行周期内的广播
+    private final boolean deferFlush;
+
+    public SessionRegistry() {
+        this(Codec.batchEnabled());
+    }
+
+    /**
+     * @param deferFlush 是否将flush推迟到当前EventLoop执行周期内的广播都写入之后
+     */
+    public SessionRegistry(boolean deferFlush) {
+        this.deferFlush = deferFlush;
+    }
+
+    /**
+     * 注册会话，必须在Channel所属的EventLoop线程中调用，如channelActive()
+     */
+    public void register(Channel channel) {
+        assert channel.eventLoop().inEventLoop();
+        Shard shard = shards.computeIfAbsent(channel.eventLoop(), eventLoop -> new Shard(eventLoop, deferFlush));
+        channel.attr(SLOT).set(shard.channels.size());
+        shard.channels.add(channel);
+        size.incrementAndGet();
+    }
+
+    /**
+     * 移除会话，必须在Channel所属的EventLoop线程中调用，如channelInactive()
+     */
+    public void unregister(Channel channel) {
+        assert channel.eventLoop().inEventLoop();
+        Integer slot = channel.attr(SLOT).getAndSet(null);
+        Shard shard = shards.get(channel.eventLoop());
+        if (slot == null || shard == null) {
+            return;
+        }
+        // 将最后一个元素移动到被移除的位置
+        List<Channel> channels = shard.channels;
+        Channel last = channels.remove(channels.size() - 1);
+        if (last != channel) {
+            channels.set(slot, last);
+            last.attr(SLOT).set(slot);
+        }
+        size.decrementAndGet();
+    }
+
+    /**
+     * 当前连接数
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * 向所有会话广播消息
+     *
+     * @param alloc 缓冲区分配器
+     * @param msg   要广播的消息
+     */
+    public void broadcast(ByteBufAllocator alloc, MessageLite msg) throws IOException {
+        // 只序列化一次
+        broadcast(Codec.EncodedMessage.encode(alloc, msg));
+    }
+
+    /**
+     * 向所有会话广播已经序列化完成的消息，广播完成后释放
+     *
+     * @param encoded 要广播的消息体
+     */
+    public void broadcast(Codec.EncodedMessage encoded) {
+        try {
+            for (Shard shard : shards.values()) {
+                shard.broadcast(encoded);
+            }
+        } finally {
+            encoded.release();
+        }
+    }
+
+    /**
+     * 分片，保存同一个EventLoop上的所有Channel
+     */
+    private static final class Shard {
+        private final EventLoop eventLoop;
+        private final boolean deferFlush;
+        // 只在eventLoop线程中读写
+        private final List<Channel> channels = new ArrayList<>();
+        // 是否已经提交了flush任务，只在eventLoop线程中读写
+        private boolean flushScheduled;
+
+        Shard(EventLoop eventLoop, boolean deferFlush) {
+            this.eventLoop = eventLoop;
+            this.deferFlush = deferFlush;
+        }
+
+        void broadcast(Codec.EncodedMessage encoded) {
+            if (eventLoop.inEventLoop()) {
+                writeAndFlushAll(encoded);
+                return;
+            }
+            // 为异步任务持有一份引用，由任务执行完成后释放
+            Codec.EncodedMessage retained = encoded.retain();
+            try {
+                eventLoop.execute(() -> {
+                    try {
+                        writeAndFlushAll(retained);
+                    } finally {
+                        retained.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // EventLoop已经关闭，任务不会被执行
+                retained.release();
+            }
+        }
+
+        private void writeAndFlushAll(Codec.EncodedMessage encoded) {
+            // 先全部写入，再逐个flush
+            for (Channel channel : channels) {
+                if (channel.isActive()) {
+                    channel.write(encoded.retainedDuplicate(), channel.voidPromise());
+                }
+            }
+            if (!deferFlush) {
+                flushAll();
+            } else if (!flushScheduled) {
+                // 在已经提交的任务(如其他线程发起的广播)之后执行，期间写入的消息一起flush
+                try {
+                    eventLoop.execute(this::flushAll);
+                    flushScheduled = true;
+                } catch (RejectedExecutionException e) {
+                    // EventLoop已经关闭
+                }
+            }
+        }
+
+        private void flushAll() {
+            flushScheduled = false;
+            for (Channel channel : channels) {
+                channel.flush();
+            }
+        }
+    }
+}
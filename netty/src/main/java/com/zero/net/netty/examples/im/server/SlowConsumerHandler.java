@@ -0,0 +1,207 @@
+package com.zero.net.netty.examples.im.server;
+
+import com.zero.net.netty.common.ServerMetrics;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 慢消费者处理器，防止读取缓慢的客户端使服务端的出站缓冲区无限增长:
+ * 出站缓冲区超过高水位({@link WriteBufferWaterMark}，见{@link #waterMark()})后{@link Channel#isWritable()}变为false，
+ * 此时不再把消息写入出站缓冲区，而是按照连接的{@link Policy}处理，出站缓冲区降到低水位以下后再按顺序写出积压的消息;
+ * <p>
+ * 需要位于pipeline的最后(编码器之后)，拦截的是从Channel尾部写出的业务消息(广播)，通过ctx写出的心跳等控制报文不受影响。
+ * 每个连接的策略默认由 {@code -Dim.slowConsumer=disconnect|drop-oldest|drop-newest|coalesce|none} 指定，
+ * 可以通过{@link #policy(Channel, Policy)}为单个连接单独设置。被丢弃与被延迟写出的消息数同时计入全局统计与{@link ServerMetrics}。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 13:00 </p>
+ */
+public class SlowConsumerHandler extends ChannelDuplexHandler {
+    private static final AttributeKey<Policy> POLICY = AttributeKey.valueOf("im.slowConsumer.policy");
+    // 积压消息数的上限，只对drop-oldest策略有效
+    private static final int MAX_QUEUED = Integer.getInteger("im.slowConsumer.maxQueued", 1024);
+
+    // 全局统计: 被丢弃的消息数、被延迟写出(积压后再写出)的消息数，以及因读取缓慢被关闭的连接数
+    private static final LongAdder DROPPED = new LongAdder();
+    private static final LongAdder DELAYED = new LongAdder();
+    private static final LongAdder DISCONNECTED = new LongAdder();
+
+    /**
+     * 出站缓冲区不可写时的处理策略
+     */
+    public enum Policy {
+        /**
+         * 直接关闭连接，由客户端重连后重新拉取，不会静默丢失消息
+         */
+        DISCONNECT,
+        /**
+         * 积压新的消息，积压数超过上限时丢弃最旧的消息
+         */
+        DROP_OLDEST,
+        /**
+         * 丢弃新的消息，保留已经在出站缓冲区中的消息
+         */
+        DROP_NEWEST,
+        /**
+         * 只积压最新的一条消息，新消息替换尚未写出的旧消息，适用于只关心最新状态的场景
+         */
+        COALESCE,
+        /**
+         * 不做处理，原有实现: 出站缓冲区无限增长
+         */
+        NONE;
+
+        /**
+         * 根据 {@code -Dim.slowConsumer} 选择策略，默认为disconnect
+         */
+        public static Policy current() {
+            return valueOf(System.getProperty("im.slowConsumer", "disconnect").toUpperCase().replace('-', '_'));
+        }
+    }
+
+    /**
+     * 根据 {@code -Dim.writeBuffer.low} 与 {@code -Dim.writeBuffer.high} 创建水位线，默认与Netty相同，为32KB与64KB
+     */
+    public static WriteBufferWaterMark waterMark() {
+        return new WriteBufferWaterMark(Integer.getInteger("im.writeBuffer.low", 32 * 1024),
+                Integer.getInteger("im.writeBuffer.high", 64 * 1024));
+    }
+
+    /**
+     * 为单个连接设置策略，在连接所属的EventLoop中调用时立即生效
+     */
+    public static void policy(Channel channel, Policy policy) {
+        channel.attr(POLICY).set(policy);
+    }
+
+    /**
+     * 累计被丢弃的消息数
+     */
+    public static long dropped() {
+        return DROPPED.sum();
+    }
+
+    /**
+     * 累计被延迟写出的消息数
+     */
+    public static long delayed() {
+        return DELAYED.sum();
+    }
+
+    /**
+     * 累计因读取缓慢被关闭的连接数
+     */
+    public static long disconnected() {
+        return DISCONNECTED.sum();
+    }
+
+    // 默认策略
+    private final Policy defaultPolicy;
+    // 指标统计，可以为null
+    private final ServerMetrics metrics;
+    // 出站缓冲区不可写期间积压的消息，只在EventLoop线程中读写
+    private final ArrayDeque<Object> queue = new ArrayDeque<>();
+
+    /**
+     * @param defaultPolicy 默认策略
+     * @param metrics       指标统计，为null时只计入全局统计
+     */
+    public SlowConsumerHandler(Policy defaultPolicy, ServerMetrics metrics) {
+        this.defaultPolicy = defaultPolicy;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        // 有积压时也需要排队，保证消息的顺序
+        if (ctx.channel().isWritable() && queue.isEmpty()) {
+            ctx.write(msg, promise);
+            return;
+        }
+        Policy policy = ctx.channel().attr(POLICY).get();
+        switch (policy != null ? policy : defaultPolicy) {
+            case NONE -> ctx.write(msg, promise);
+            case DISCONNECT -> {
+                drop(ctx, msg, promise);
+                if (ctx.channel().isActive()) {
+                    DISCONNECTED.increment();
+                    ctx.close();
+                }
+            }
+            case DROP_NEWEST -> drop(ctx, msg, promise);
+            case DROP_OLDEST -> {
+                if (queue.size() >= MAX_QUEUED) {
+                    drop(ctx, queue.poll(), null);
+                }
+                enqueue(ctx, msg, promise);
+            }
+            case COALESCE -> {
+                if (!queue.isEmpty()) {
+                    drop(ctx, queue.poll(), null);
+                }
+                enqueue(ctx, msg, promise);
+            }
+        }
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (ctx.channel().isWritable() && !queue.isEmpty()) {
+            // 出站缓冲区已经降到低水位以下，按顺序写出积压的消息，直到再次不可写
+            while (!queue.isEmpty() && ctx.channel().isWritable()) {
+                ctx.write(queue.poll(), ctx.voidPromise());
+            }
+            ctx.flush();
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        releaseQueued(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        releaseQueued(ctx);
+        ctx.fireChannelInactive();
+    }
+
+    private void enqueue(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        DELAYED.increment();
+        if (metrics != null) {
+            metrics.messageDelayed(ctx.channel());
+        }
+        queue.add(msg);
+        // 积压的消息写出时使用voidPromise，原有的promise视为已经完成
+        if (!promise.isVoid()) {
+            promise.trySuccess();
+        }
+    }
+
+    private void releaseQueued(ChannelHandlerContext ctx) {
+        Object msg;
+        while ((msg = queue.poll()) != null) {
+            drop(ctx, msg, null);
+        }
+    }
+
+    private void drop(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        DROPPED.increment();
+        if (metrics != null) {
+            metrics.messageDropped(ctx.channel());
+        }
+        ReferenceCountUtil.release(msg);
+        if (promise != null && !promise.isVoid()) {
+            promise.tryFailure(new IllegalStateException("message dropped: slow consumer"));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.zero.net.netty.examples.tcp;
 
+import com.zero.net.netty.common.Heartbeat;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -26,7 +27,10 @@ public class Client {
                 .handler(new ChannelInitializer<NioSocketChannel>() {
                     @Override
                     protected void initChannel(NioSocketChannel ch) throws Exception {
-                        ch.pipeline().addLast(new MyHandler());
+                        ch.pipeline()
+                                // 心跳编解码器与应答处理器，收到服务端的Ping后回复Pong
+                                .addLast(new HeartbeatCodec(), Heartbeat.responder())
+                                .addLast(new MyHandler());
                     }
                 });
         // 连接Netty服务端
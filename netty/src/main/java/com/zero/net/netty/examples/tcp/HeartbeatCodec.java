@@ -0,0 +1,102 @@
+package com.zero.net.netty.examples.tcp;
+
+import com.zero.net.netty.common.Heartbeat;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.ByteProcessor;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * tcp示例的心跳编解码器，将{@link Heartbeat.Ping}/{@link Heartbeat.Pong}与文本行相互转换:
+ * {@code PING <序号> <发送时间>\n} 与 {@code PONG <序号> <发送时间>\n}，可以直接通过telnet/nc观察与应答;
+ * <p>
+ * tcp示例是没有报文边界的字节流，只有以心跳行开头的一次读取才会被识别为心跳，同一次读取中心跳行之后的数据继续向后传递;
+ * 心跳行很短，并且对端总是单独写出，通常都在一次读取中完整到达，被拆分的心跳会被当作普通数据，对应的Ping视为丢失。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 10:00 </p>
+ */
+@ChannelHandler.Sharable
+public class HeartbeatCodec extends ChannelDuplexHandler {
+    private static final int PREFIX_LENGTH = 5;
+    // 心跳行的最大长度: 前缀 + 两个long + 空格 + 换行
+    private static final int MAX_LINE_LENGTH = PREFIX_LENGTH + 20 + 1 + 20 + 1;
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (!(msg instanceof ByteBuf buf)) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        boolean ping = startsWith(buf, "PING ");
+        if (!ping && !startsWith(buf, "PONG ")) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        int start = buf.readerIndex();
+        int end = buf.forEachByte(start, Math.min(buf.readableBytes(), MAX_LINE_LENGTH), ByteProcessor.FIND_LF);
+        long[] fields = end < 0 ? null : parse(buf.toString(start + PREFIX_LENGTH, end - start - PREFIX_LENGTH,
+                StandardCharsets.US_ASCII));
+        if (fields == null) {
+            // 不完整或者格式不正确，当作普通数据
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        ctx.fireChannelRead(ping ? new Heartbeat.Ping(fields[0], fields[1]) : new Heartbeat.Pong(fields[0], fields[1]));
+        buf.readerIndex(end + 1);
+        if (buf.isReadable()) {
+            // 同一次读取中心跳行之后的数据
+            ctx.fireChannelRead(buf);
+        } else {
+            buf.release();
+        }
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof Heartbeat.Ping ping) {
+            ctx.write(encode(ctx, "PING ", ping.seq(), ping.timestamp()), promise);
+        } else if (msg instanceof Heartbeat.Pong pong) {
+            ctx.write(encode(ctx, "PONG ", pong.seq(), pong.timestamp()), promise);
+        } else {
+            ctx.write(msg, promise);
+        }
+    }
+
+    private static ByteBuf encode(ChannelHandlerContext ctx, String prefix, long seq, long timestamp) {
+        return ByteBufUtil.writeAscii(ctx.alloc(), prefix + seq + ' ' + timestamp + '\n');
+    }
+
+    private static boolean startsWith(ByteBuf buf, String prefix) {
+        if (buf.readableBytes() < prefix.length()) {
+            return false;
+        }
+        int index = buf.readerIndex();
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buf.getByte(index + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 解析 "序号 发送时间"，格式不正确时返回null
+     */
+    private static long[] parse(String line) {
+        int space = line.indexOf(' ');
+        if (space < 0) {
+            return null;
+        }
+        try {
+            return new long[]{Long.parseLong(line.substring(0, space)), Long.parseLong(line.substring(space + 1).trim())};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
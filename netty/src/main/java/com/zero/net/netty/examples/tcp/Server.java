@@ -1,17 +1,23 @@
 package com.zero.net.netty.examples.tcp;
 
+import com.zero.net.netty.common.EchoMode;
+import com.zero.net.netty.common.EventLog;
+import com.zero.net.netty.common.FlushCoalescingHandler;
+import com.zero.net.netty.common.Heartbeat;
+import com.zero.net.netty.common.IdleDetector;
+import com.zero.net.netty.common.ServerMetrics;
+import com.zero.net.netty.common.Transport;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.timeout.IdleStateEvent;
 import io.netty.handler.timeout.IdleStateHandler;
 
 import java.nio.channels.ServerSocketChannel;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -21,51 +27,84 @@ import java.util.concurrent.TimeUnit;
  *  - NioEventLoopGroup:     事件循环组
  *  - NioSocketChannel:      Netty 对 {@link SocketChannel} 的封装
  *  - NioServerSocketChannel Netty 对 {@link ServerSocketChannel} 的封装
+ * 传输层实现由{@link Transport}选择，Linux上会使用对应的Epoll/IoUring组件
+ * 回写消息的方式由{@link EchoMode}选择，zero-copy模式下直接将入站的ByteBuf原样写回
+ * 空闲检测的方式通过启动参数 {@code -Didle.mode=wheel|handler} 指定，默认为wheel，超时时间通过 {@code -Didle.timeout}(秒)指定，默认为30:
+ *  - wheel:   所有连接共享每个EventLoop上的一个时间轮，见{@link IdleDetector};
+ *  - handler: 每个连接一个{@link IdleStateHandler}(原有实现);
+ * 心跳通过启动参数 {@code -Dheartbeat.interval}(秒)启用，服务端定期发送Ping，连续丢失多个Pong的连接会被关闭，见{@link Heartbeat}
+ * 与{@link HeartbeatCodec}; 心跳报文不经过空闲检测处理器，不会刷新连接的活跃时间。
+ * 指标统计通过启动参数 {@code -Dmetrics.port} 启用，见{@link ServerMetrics}，tcp示例没有解码器，每次读取到的数据即为一条消息。
  *
  * @author Zero.
  * <p> Created on 2025/4/4 12:45 </p>
  */
 public class Server {
+    // 空闲超时时间(秒)
+    private static final int IDLE_TIMEOUT = Integer.getInteger("idle.timeout", 30);
+    // 所有连接共享的空闲检测服务，为null时使用IdleStateHandler
+    private static final IdleDetector IDLE_DETECTOR = "handler".equalsIgnoreCase(System.getProperty("idle.mode", "wheel"))
+            ? null : new IdleDetector(IDLE_TIMEOUT, TimeUnit.SECONDS);
+    // 所有连接共享的心跳服务，为null时不发送心跳
+    private static final Heartbeat HEARTBEAT = Heartbeat.current();
+    private static final HeartbeatCodec HEARTBEAT_CODEC = new HeartbeatCodec();
+    // 指标统计，为null时不统计
+    private static final ServerMetrics METRICS = ServerMetrics.current("tcp");
+
     public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7979;
+        // 传输层实现，Linux上优先使用epoll/io_uring，不可用时回退到NIO
+        Transport transport = Transport.current();
         // 创建boss线程组,负责连接事件的处理
-        EventLoopGroup boss = new NioEventLoopGroup();
+        EventLoopGroup boss = transport.newEventLoopGroup(Transport.acceptors());
         // 创建worker线程组，负责IO事件
-        EventLoopGroup worker = new NioEventLoopGroup();
-
-        // 创建Netty Server服务
-        ServerBootstrap app = new ServerBootstrap();
-        // 设置线程组
-        app.group(boss, worker);
+        EventLoopGroup worker = transport.newEventLoopGroup(0);
 
-        // 设置使用的Channel类型，会将连接都封装为该类型
-        // 该案例是TCP服务端，所以使用NioServerSocketChannel
-        app.channel(NioServerSocketChannel.class);
+        // 创建Netty Server服务，并设置线程组
+        // 同时设置使用的Channel类型，会将连接都封装为该类型
+        // 该案例是TCP服务端，所以使用对应传输层实现的ServerSocketChannel，如NioServerSocketChannel
+        ServerBootstrap app = transport.newServerBootstrap(boss, worker);
 
         // 设置Channel的处理器
-        app.childHandler(new MyChannelInit());
+        app.childHandler(childInitializer(EchoMode.current()));
+        if (HEARTBEAT != null) {
+            HEARTBEAT.scheduleReport(worker);
+        }
 
-        // 绑定端口
-        ChannelFuture channelFuture = app.bind(7979).sync();
+        // 绑定端口，支持SO_REUSEPORT时会绑定多个acceptor
+        List<Channel> serverChannels = transport.bind(app, port);
+        System.out.printf("Netty Server Start Successful, transport: %s, acceptors: %d...%n", transport, serverChannels.size());
 
-        // 设置启动是否成功监听器
-        channelFuture.addListener((ChannelFutureListener) cf -> {
-            if (cf.isSuccess()){
-                System.out.println("Netty Server Start Successful...");
-            }
-        });
         // 启动服务 阻塞...
-        channelFuture.channel().closeFuture().sync();
+        for (Channel serverChannel : serverChannels) {
+            serverChannel.closeFuture().sync();
+        }
 
         // 释放资源
         boss.shutdownGracefully();
         worker.shutdownGracefully();
     }
 
+    /**
+     * 创建子Channel的初始化器，供基准测试在进程内启动相同的服务端，或者通过EmbeddedChannel测试
+     *
+     * @param mode 回写消息的方式
+     */
+    public static ChannelInitializer<Channel> childInitializer(EchoMode mode) {
+        return new MyChannelInit(mode);
+    }
+
     /**
      * Channel初始化接口实现，用于Channel初始化时的回调接口
      * 通常用于Channel初始化时为Channel设置Pipeline处理链。
      */
-    static class MyChannelInit extends ChannelInitializer<SocketChannel> {
+    static class MyChannelInit extends ChannelInitializer<Channel> {
+        private final EchoMode mode;
+
+        MyChannelInit(EchoMode mode) {
+            this.mode = mode;
+        }
+
         /**
          * 当有新的客户端连接被接受时，会为每个新连接创建一个对应的NioSocketChannel。
          * 在这个NioSocketChannel被创建后，会调用ChannelInitializer的initChannel()方法,以便对这个新连接进行初始化设置。
@@ -73,22 +112,38 @@ public class Server {
          * @param ch    建立连接的channel
          */
         @Override
-        protected void initChannel(SocketChannel ch) throws Exception {
+        protected void initChannel(Channel ch) throws Exception {
             // 为创建完成的Channel设置处理器链
             // 处理链会按照顺序依次执行处理
             ChannelPipeline pipeline = ch.pipeline();
 
             //TODO 添加其他处理器，如编码解码器...
 
-            // 添加Channel的入站事件处理器(核心)
-            ch.pipeline().addLast(new MyChannelInHanlder());
             // 添加Channel的出站事件处理器(核心)
-            ch.pipeline().addLast(new MyChannelOutHandler());
+            // 该处理器同时负责flush合并，需要位于pipeline头部，才能感知到读取过程
+            ch.pipeline().addFirst(new MyChannelOutHandler());
+            if (HEARTBEAT != null) {
+                // 添加心跳编解码器与心跳处理器，需要位于入站事件处理器之前，Pong在此处理，不会被回写
+                ch.pipeline().addLast(HEARTBEAT_CODEC, HEARTBEAT.newHandler());
+            }
+            if (METRICS != null) {
+                // 添加消息统计处理器
+                ch.pipeline().addLast(METRICS.newMessageHandler());
+            }
             ch.pipeline()
                     // 添加Channel空闲状态事件，如果连接空闲时长超过指定时长(30s)会触发一个IdleStateEvent事件
-                    .addLast(new IdleStateHandler(0,0,30, TimeUnit.SECONDS))
-                    // 添加空闲超时处理器
+                    // 默认使用共享的时间轮，不再为每个连接调度一个定时任务
+                    // 需要位于入站事件处理器之前: 入站事件处理器不会再向后传递读取到的数据，位于其后时感知不到读取
+                    .addLast(IDLE_DETECTOR != null ? IDLE_DETECTOR.newHandler()
+                            : new IdleStateHandler(0, 0, IDLE_TIMEOUT, TimeUnit.SECONDS))
+                    // 添加Channel的入站事件处理器(核心)
+                    .addLast(new MyChannelInHanlder(mode))
+                    // 添加空闲超时处理器，空闲事件会经过入站事件处理器传递到这里
                     .addLast(new MyChannelIdleHandler());
+            if (METRICS != null) {
+                // 添加流量统计处理器，位于flush合并处理器之前，统计实际执行的flush
+                ch.pipeline().addFirst(METRICS.newTrafficHandler());
+            }
         }
     }
 
@@ -96,6 +151,14 @@ public class Server {
      * 自定义Channel入站事件的处理器实现类
      */
     static class MyChannelInHanlder extends ChannelInboundHandlerAdapter {
+        // 常量响应，不会被释放，每次写出时使用duplicate()共享底层内存
+        private static final ByteBuf BYE = Unpooled.unreleasableBuffer(
+                Unpooled.copiedBuffer("出口不逊，滚蛋吧!", StandardCharsets.UTF_8));
+        private final EchoMode mode;
+
+        MyChannelInHanlder(EchoMode mode) {
+            this.mode = mode;
+        }
 
         /**
          * 当Channel连接建立时被调用
@@ -103,7 +166,7 @@ public class Server {
          */
         @Override
         public void channelActive(ChannelHandlerContext ctx) throws Exception {
-            System.out.printf("[%s]建立连接完成... \n",ctx.channel().remoteAddress().toString());
+            EventLog.log("[%s]建立连接完成...", ctx.channel().remoteAddress());
 
             // 调用下一个ChannelInboundHandlerAdapter处理器的channelActive()方法
             super.channelActive(ctx);
@@ -115,7 +178,7 @@ public class Server {
          */
         @Override
         public void channelInactive(ChannelHandlerContext ctx) throws Exception {
-            System.out.printf("[%s] 关闭连接... \n",ctx.channel().remoteAddress().toString());
+            EventLog.log("[%s] 关闭连接...", ctx.channel().remoteAddress());
             super.channelInactive(ctx);
         }
 
@@ -126,27 +189,47 @@ public class Server {
          */
         @Override
         public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-            // 读取数据
             ByteBuf buf = (ByteBuf) msg;
+            if (mode == EchoMode.ZERO_COPY) {
+                zeroCopyEcho(ctx, buf);
+                return;
+            }
+            // 读取数据
             byte[] bytes = new byte[buf.readableBytes()];
             buf.readBytes(bytes);
             var message = new String(bytes);
-            System.out.println(message.trim());
+            if (EventLog.sample()) {
+                EventLog.log("%s", message.trim());
+            }
             ctx.channel().writeAndFlush(Unpooled.copiedBuffer(message.getBytes()));
 
             // 模拟主动关闭channel
             if ("cnm".equals(message.trim())){
-                // 写回数据
+                // 写回数据，入站的ByteBuf随write转移给出站链路释放
                 buf.clear();
                 buf.writeBytes("出口不逊，滚蛋吧!".getBytes());
-                ctx.channel().writeAndFlush(buf);
+                // 写出完成后再关闭channel，flush可能被合并到读取完成时才执行
+                ctx.channel().writeAndFlush(buf).addListener(ChannelFutureListener.CLOSE);
+                return;
+            }
+            // 数据已经读取完毕，释放入站的ByteBuf
+            buf.release();
+        }
 
-                // 关闭channel
-                ctx.channel().close();
+        /**
+         * 零拷贝回写: 不经过byte[]/String，入站的ByteBuf原样写回，所有权转移给出站链路，写出完成后由出站链路释放
+         */
+        private void zeroCopyEcho(ChannelHandlerContext ctx, ByteBuf buf) {
+            // 必须在写出之前判断，写出后buf可能已经被释放
+            boolean bye = EchoMode.contentEqualsTrimmed(buf, "cnm");
+            Channel channel = ctx.channel();
+            channel.write(buf, channel.voidPromise());
+            if (bye) {
+                // 模拟主动关闭channel
+                channel.writeAndFlush(BYE.duplicate()).addListener(ChannelFutureListener.CLOSE);
                 return;
             }
-            // 传递到下一个处理器的channelRead方法
-            super.channelRead(ctx, msg);
+            channel.flush();
         }
 
         /**
@@ -162,8 +245,9 @@ public class Server {
 
     /**
      * 自定义Channel出站事件的处理器实现类
+     * 基于{@link FlushCoalescingHandler}实现，会将一次读取过程中产生的多次flush合并为一次
      */
-    static class MyChannelOutHandler extends ChannelOutboundHandlerAdapter{
+    static class MyChannelOutHandler extends FlushCoalescingHandler {
 
         /**
          * 调用channel的close()方法时被调用,用于释放资源或执行其他必要的关闭操作。
@@ -173,7 +257,7 @@ public class Server {
          */
         @Override
         public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
-            System.out.printf("[%s] 强制关闭该连接... \n",ctx.channel().remoteAddress().toString());
+            EventLog.log("[%s] 强制关闭该连接...", ctx.channel().remoteAddress());
             super.close(ctx, promise);
         }
 
@@ -191,6 +275,7 @@ public class Server {
 
         /**
          * 当执行channel的flush()方法后调用，将所有待发送的数据刷新到远程节点，并且在完成后释放相应的资源。
+         * 读取过程中的flush会被合并到channelReadComplete时统一执行，见{@link FlushCoalescingHandler}
          *
          * @param ctx   上下文
          */
@@ -202,11 +287,10 @@ public class Server {
 
     /**
      * 自定义Channel针对于IdleStateEvent事件的处理器
+     * IdleStateHandler与IdleDetector触发的都是IdleStateEvent，该处理器无需区分;
+     * 探测对端是否存活由{@link Heartbeat}负责，空闲超时只用于关闭长时间没有业务数据的连接
      */
     static class MyChannelIdleHandler extends ChannelInboundHandlerAdapter{
-        // 常量心跳包,不会被释放
-        private final ByteBuf HEART_PACK = Unpooled.unreleasableBuffer(Unpooled.copiedBuffer("heartbeat", Charset.defaultCharset()));
-
         /**
          * 当channel状态事件发生时被调用
          *
@@ -219,10 +303,6 @@ public class Server {
             if (evt instanceof IdleStateEvent){
                 // 关闭channel
                 ctx.channel().close();
-//                System.out.println("idel");
-//                ctx.writeAndFlush(HEART_PACK.duplicate())
-//                        // 如果发生异常，则关闭当前连接
-//                        .addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
             }else {
                 super.userEventTriggered(ctx, evt);
             }
@@ -1,66 +1,79 @@
 package com.zero.net.netty.examples.websocket;
 
+import com.zero.net.netty.common.FlushCoalescingHandler;
+import com.zero.net.netty.common.ServerMetrics;
+import com.zero.net.netty.common.Transport;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.websocketx.WebSocketFrameAggregator;
+import io.netty.handler.codec.http.websocketx.WebSocketServerProtocolConfig;
 import io.netty.handler.codec.http.websocketx.WebSocketServerProtocolHandler;
-import io.netty.handler.codec.http.websocketx.extensions.compression.WebSocketServerCompressionHandler;
 
 /**
  * 基于Netty实现WebSocket服务
  *
- * WebSocket服务端
+ * WebSocket服务端，消息的处理方式由{@link Mode}选择，通过启动参数 {@code -Dws.mode=aggregate|streaming} 指定:
+ *  - {@code -Dws.maxFrameSize}:   单个帧(分片)的最大长度，默认为64KB;
+ *  - {@code -Dws.maxMessageSize}: 单条消息(所有分片)的最大长度，默认为16MB;
+ *  - {@code -Dws.compression.*}:  permessage-deflate压缩参数，见{@link WebSocketCompression};
+ *  - {@code -Dmetrics.port}:      启用指标统计，见{@link ServerMetrics}，消息数为WebSocket帧数(聚合模式下为聚合后的消息数);
  *
  * @author Zero.
  * @date 2023/8/16 12:52 PM
  */
 public class Server {
+    // 单个帧(分片)的最大长度
+    static final int MAX_FRAME_SIZE = Integer.getInteger("ws.maxFrameSize", 65536);
+    // 单条消息(所有分片)的最大长度
+    static final int MAX_MESSAGE_SIZE = Integer.getInteger("ws.maxMessageSize", 16 * 1024 * 1024);
+    // 压缩配置
+    static final WebSocketCompression COMPRESSION = WebSocketCompression.current();
+    // 指标统计，为null时不统计
+    static final ServerMetrics METRICS = ServerMetrics.current("websocket");
+
+    /**
+     * 消息的处理方式
+     */
+    public enum Mode {
+        /**
+         * 聚合模式(原有实现): 握手请求经过HttpObjectAggregator聚合为FullHttpRequest，
+         * 分片的消息经过WebSocketFrameAggregator聚合为完整的文本帧后再交给{@link ServerHandler}，
+         * 每个连接最多会在内存中持有一条完整的消息(maxMessageSize)，支持{@link TopicHub}的发布订阅命令
+         */
+        AGGREGATE,
+        /**
+         * 流式模式: 不聚合HTTP请求与WebSocket消息，{@link StreamingServerHandler}逐帧处理文本帧、二进制帧与后续的分片，
+         * 处理完的分片立即释放，每个连接同时持有的数据不超过一个帧(maxFrameSize)，消息的总长度受maxMessageSize限制
+         */
+        STREAMING;
+
+        /**
+         * 根据 {@code -Dws.mode} 选择处理方式，默认为aggregate
+         */
+        public static Mode current() {
+            return valueOf(System.getProperty("ws.mode", "aggregate").toUpperCase());
+        }
+    }
+
     public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 19001;
+        Mode mode = Mode.current();
+        // 传输层实现，Linux上优先使用epoll/io_uring，不可用时回退到NIO
+        Transport transport = Transport.current();
         // 创建事件循环组
-        NioEventLoopGroup boss = new NioEventLoopGroup(1);
-        NioEventLoopGroup worker = new NioEventLoopGroup(1);
+        EventLoopGroup boss = transport.newEventLoopGroup(1);
+        EventLoopGroup worker = transport.newEventLoopGroup(1);
         try {
             // 创建服务端引导类
-            ServerBootstrap server = new ServerBootstrap();
-            server.group(boss,worker)
-                    .channel(NioServerSocketChannel.class)
-                    .childOption(ChannelOption.SO_KEEPALIVE,true)
-                    .childHandler(new ChannelInitializer<SocketChannel>() {
-                        @Override
-                        protected void initChannel(SocketChannel ch) throws Exception {
-                            ChannelPipeline pipeline = ch.pipeline();
-                            // WebSocket基于HTTP协议，所以需要设置HTTP协议解码编码处理器
-                            // HttpServerCodec是HttpRequestDecoder和HttpResponseEncoder处理器的结合，作用如下
-                            // 将字节流解码为HttpRequest对象
-                            // 将HttpResponse对象编码为字节流
-                            pipeline.addLast(new HttpServerCodec());
-
-                            // 客户端发送的 HTTP 请求可能包含多个部分，例如请求行、请求头和请求体等。
-                            // 在 Netty 中，这些部分会被解析成不同类型的对象，例如 HttpRequest 和 HttpContent。
-                            // HttpObjectAggregator 会将这些部分聚合成一个完整的 FullHttpRequest 对象;
-                            pipeline.addLast(new HttpObjectAggregator(65536));
-
-                            // 数据压缩处理器，提高性能和效率。
-                            pipeline.addLast(new WebSocketServerCompressionHandler());
-
-                            // WebSocket预处理器
-                            // 1. 负责http协议握手校验、一旦校验成功，升级为WebSocket通道;
-                            // 2. 控制帧处理，解析后的二进制帧数据，传递到下一个处理器中;
-                            // 3. 设置websocket协议path
-                            pipeline.addLast(new WebSocketServerProtocolHandler("/ws",null,true));
-
-                            // 设置自定义事件处理器
-                            pipeline.addLast(new ServerHandler());
-                        }
-                    });
+            ServerBootstrap server = transport.newServerBootstrap(boss,worker);
+            server.childOption(ChannelOption.SO_KEEPALIVE,true)
+                    .childHandler(childInitializer(mode));
             // 阻塞启动服务端
-            ChannelFuture serverChannelFuture = server.bind(19001).addListener((ChannelFutureListener) cf -> {
+            ChannelFuture serverChannelFuture = server.bind(port).addListener((ChannelFutureListener) cf -> {
                 if (cf.isSuccess()){
-                    System.out.println("websocket server running successful...");
+                    System.out.printf("websocket server running successful, mode: %s...%n", mode);
                 }
             }).sync();
             // 阻塞等待服务通道关闭
@@ -72,4 +85,76 @@ public class Server {
             worker.shutdownGracefully();
         }
     }
+
+    /**
+     * 创建子Channel的初始化器，供基准测试在进程内启动相同的服务端
+     *
+     * @param mode 消息的处理方式
+     */
+    public static ChannelInitializer<Channel> childInitializer(Mode mode) {
+        return childInitializer(mode, new TopicHub());
+    }
+
+    /**
+     * 创建子Channel的初始化器
+     *
+     * @param mode 消息的处理方式
+     * @param hub  所有连接共享的发布订阅中心，只在聚合模式下使用
+     */
+    public static ChannelInitializer<Channel> childInitializer(Mode mode, TopicHub hub) {
+        return new ChannelInitializer<>() {
+            @Override
+            protected void initChannel(Channel ch) throws Exception {
+                ChannelPipeline pipeline = ch.pipeline();
+                // flush合并处理器，将一次读取过程中的多次flush合并为一次，需要位于pipeline头部
+                pipeline.addLast(new FlushCoalescingHandler());
+                // WebSocket基于HTTP协议，所以需要设置HTTP协议解码编码处理器
+                // HttpServerCodec是HttpRequestDecoder和HttpResponseEncoder处理器的结合，作用如下
+                // 将字节流解码为HttpRequest对象
+                // 将HttpResponse对象编码为字节流
+                pipeline.addLast(new HttpServerCodec());
+
+                if (mode == Mode.AGGREGATE) {
+                    // 客户端发送的 HTTP 请求可能包含多个部分，例如请求行、请求头和请求体等。
+                    // 在 Netty 中，这些部分会被解析成不同类型的对象，例如 HttpRequest 和 HttpContent。
+                    // HttpObjectAggregator 会将这些部分聚合成一个完整的 FullHttpRequest 对象;
+                    pipeline.addLast(new HttpObjectAggregator(65536));
+                }
+                // 流式模式下不聚合HTTP请求，握手时WebSocketServerHandshaker会临时添加聚合器读取握手请求，握手完成后移除
+
+                // 数据压缩处理器(permessage-deflate)，压缩阈值、级别等参数见WebSocketCompression
+                // 流式模式下限制每个帧解压后的大小，避免压缩帧绕过帧长度的限制
+                ChannelHandler compression = COMPRESSION.newHandler(mode == Mode.STREAMING ? MAX_FRAME_SIZE : 0);
+                if (compression != null) {
+                    pipeline.addLast(compression);
+                }
+
+                // WebSocket预处理器
+                // 1. 负责http协议握手校验、一旦校验成功，升级为WebSocket通道;
+                // 2. 控制帧处理，解析后的二进制帧数据，传递到下一个处理器中;
+                // 3. 设置websocket协议path，单个帧的长度超过maxFrameSize时会关闭连接
+                pipeline.addLast(new WebSocketServerProtocolHandler(WebSocketServerProtocolConfig.newBuilder()
+                        .websocketPath("/ws")
+                        .allowExtensions(true)
+                        .maxFramePayloadLength(MAX_FRAME_SIZE)
+                        .build()));
+
+                // 设置自定义事件处理器
+                if (mode == Mode.AGGREGATE) {
+                    // 将分片的消息聚合为一个完整的帧
+                    pipeline.addLast(new WebSocketFrameAggregator(MAX_MESSAGE_SIZE));
+                }
+                if (METRICS != null) {
+                    // 消息统计处理器，位于帧解码(与聚合)之后，流量统计处理器位于pipeline的最前面
+                    pipeline.addLast(METRICS.newMessageHandler());
+                    pipeline.addFirst(METRICS.newTrafficHandler());
+                }
+                if (mode == Mode.AGGREGATE) {
+                    pipeline.addLast(new ServerHandler(hub));
+                } else {
+                    pipeline.addLast(new StreamingServerHandler(MAX_MESSAGE_SIZE));
+                }
+            }
+        };
+    }
 }
@@ -1,39 +1,107 @@
 package com.zero.net.netty.examples.websocket;
 
+import com.zero.net.netty.common.EchoMode;
+import com.zero.net.netty.common.EventLog;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.WebSocketServerProtocolHandler;
+import io.netty.util.CharsetUtil;
 
 /**
  * WebSocket服务端事件处理
+ * 回写消息的方式由{@link EchoMode}选择，zero-copy模式下不再解码消息文本，响应直接共享常量缓冲区的内存
+ * 指定{@link TopicHub}时支持发布订阅命令，其余消息的处理方式不变:
+ *  - {@code /sub 主题}:        订阅主题;
+ *  - {@code /unsub 主题}:      取消订阅;
+ *  - {@code /pub 主题 消息}:   向主题的所有订阅者发布消息，订阅者收到 {@code [主题] 消息};
  *
  * @author Zero.
  * @date 2023/8/16 1:20 PM
  */
 public class ServerHandler extends SimpleChannelInboundHandler<TextWebSocketFrame> {
+    private static final String USAGE = "用法: /sub 主题 | /unsub 主题 | /pub 主题 消息";
+    // 常量响应，位于直接内存且不会被释放，每次写出时使用duplicate()共享底层内存
+    private static final ByteBuf REPLY = Unpooled.unreleasableBuffer(
+            Unpooled.directBuffer().writeBytes("服务端已收到信息...".getBytes(CharsetUtil.UTF_8)));
+    private final EchoMode mode;
+    // 发布订阅中心，为null时不处理发布订阅命令
+    private final TopicHub hub;
+
+    public ServerHandler() {
+        this(EchoMode.current());
+    }
+
+    public ServerHandler(EchoMode mode) {
+        this(mode, null);
+    }
+
+    public ServerHandler(TopicHub hub) {
+        this(EchoMode.current(), hub);
+    }
+
+    public ServerHandler(EchoMode mode, TopicHub hub) {
+        this.mode = mode;
+        this.hub = hub;
+    }
 
     /**
      * 读取事件处理
      */
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, TextWebSocketFrame msg) throws Exception {
+        // 命令以'/'开头，先检查第一个字节，普通消息无需解码
+        if (hub != null && msg.content().isReadable() && msg.content().getByte(msg.content().readerIndex()) == '/') {
+            command(ctx, msg.text());
+            return;
+        }
+        if (mode == EchoMode.ZERO_COPY) {
+            // 响应消息，不拷贝响应内容
+            ctx.channel().writeAndFlush(new TextWebSocketFrame(REPLY.duplicate()), ctx.channel().voidPromise());
+            return;
+        }
         // 解析消息
         String message = msg.text();
-        System.out.println(message);
+        if (EventLog.sample()) {
+            EventLog.log("%s", message);
+        }
         // 响应消息
         TextWebSocketFrame frame = new TextWebSocketFrame(Unpooled.copiedBuffer("服务端已收到信息...".getBytes()));
         ctx.channel().writeAndFlush(frame);
     }
 
+    /**
+     * 处理发布订阅命令，无法识别的命令会响应用法
+     */
+    private void command(ChannelHandlerContext ctx, String command) {
+        String[] parts = command.split(" ", 3);
+        String topic = parts.length > 1 ? parts[1].trim() : "";
+        String reply;
+        if (topic.isEmpty()) {
+            reply = USAGE;
+        } else if ("/sub".equals(parts[0])) {
+            reply = hub.subscribe(ctx.channel(), topic) ? "已订阅: " + topic : "重复订阅: " + topic;
+        } else if ("/unsub".equals(parts[0])) {
+            reply = hub.unsubscribe(ctx.channel(), topic) ? "已取消订阅: " + topic : "未订阅: " + topic;
+        } else if ("/pub".equals(parts[0]) && parts.length == 3) {
+            // 发布者不会收到响应，订阅了该主题时会收到消息本身
+            hub.publish(ctx.alloc(), topic, "[" + topic + "] " + parts[2]);
+            return;
+        } else {
+            reply = USAGE;
+        }
+        ctx.channel().writeAndFlush(new TextWebSocketFrame(reply), ctx.channel().voidPromise());
+    }
+
     /**
      * 建立WebSocket连接事件
      */
     @Override
     public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
-        System.out.println("建立连接...");
+        EventLog.log("建立连接...");
         super.handlerAdded(ctx);
     }
 
@@ -42,7 +110,10 @@ public class ServerHandler extends SimpleChannelInboundHandler<TextWebSocketFram
      */
     @Override
     public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
-        System.out.println("断开连接...");
+        EventLog.log("断开连接...");
+        if (hub != null) {
+            hub.unsubscribeAll(ctx.channel());
+        }
         super.handlerRemoved(ctx);
     }
 
@@ -53,7 +124,7 @@ public class ServerHandler extends SimpleChannelInboundHandler<TextWebSocketFram
     @Override
     public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
         if (evt instanceof WebSocketServerProtocolHandler.HandshakeComplete){
-            System.out.println("握手成功...");
+            EventLog.log("握手成功...");
             // 握手成功事件
             WebSocketServerProtocolHandler.HandshakeComplete event = (WebSocketServerProtocolHandler.HandshakeComplete) evt;
             // 握手请求uri
@@ -0,0 +1,95 @@
+package com.zero.net.netty.examples.websocket;
+
+import com.zero.net.netty.common.EventLog;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.websocketx.*;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * WebSocket服务端流式事件处理，见{@link Server.Mode#STREAMING}
+ * 逐帧处理文本帧、二进制帧以及后续的分片({@link ContinuationWebSocketFrame})，不拼接消息内容:
+ * 每个分片只用于累加长度与CRC32校验和，处理完成后立即释放(由SimpleChannelInboundHandler负责)，
+ * 收到最后一个分片时响应消息的类型、长度与校验和;
+ * 每个连接的预算:
+ *  - 同时持有的数据不超过一个帧，由WebSocket解码器的maxFramePayloadLength限制;
+ *  - 单条消息的总长度不超过maxMessageSize，超过时以1009(消息过大)关闭连接;
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 21:00 </p>
+ */
+public class StreamingServerHandler extends SimpleChannelInboundHandler<WebSocketFrame> {
+    private final long maxMessageSize;
+    private final CRC32 crc = new CRC32();
+    // 当前消息是否为二进制消息
+    private boolean binary;
+    // 当前消息已经收到的长度
+    private long messageSize;
+    // 超出预算正在关闭连接，丢弃之后收到的所有帧
+    private boolean closing;
+
+    public StreamingServerHandler(long maxMessageSize) {
+        this.maxMessageSize = maxMessageSize;
+    }
+
+    /**
+     * 读取事件处理，控制帧(ping/pong/close)已经由WebSocketServerProtocolHandler处理，
+     * 分片的顺序(分片只能跟随在未结束的文本帧/二进制帧之后)已经由WebSocket解码器校验
+     */
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, WebSocketFrame frame) throws Exception {
+        if (closing) {
+            return;
+        }
+        if (frame instanceof TextWebSocketFrame || frame instanceof BinaryWebSocketFrame) {
+            // 一条新消息的第一个帧
+            binary = frame instanceof BinaryWebSocketFrame;
+            messageSize = 0;
+            crc.reset();
+        } else if (!(frame instanceof ContinuationWebSocketFrame)) {
+            return;
+        }
+        ByteBuf content = frame.content();
+        messageSize += content.readableBytes();
+        if (messageSize > maxMessageSize) {
+            closing = true;
+            ctx.writeAndFlush(new CloseWebSocketFrame(WebSocketCloseStatus.MESSAGE_TOO_BIG))
+                    .addListener(ChannelFutureListener.CLOSE);
+            return;
+        }
+        // 直接在缓冲区上计算校验和，不拷贝到堆内存
+        for (ByteBuffer buffer : content.nioBuffers()) {
+            crc.update(buffer);
+        }
+        if (frame.isFinalFragment()) {
+            String reply = String.format("服务端已收到信息... type=%s, bytes=%d, crc32=%08x",
+                    binary ? "binary" : "text", messageSize, crc.getValue());
+            if (EventLog.sample()) {
+                EventLog.log("%s", reply);
+            }
+            ctx.channel().writeAndFlush(new TextWebSocketFrame(reply), ctx.channel().voidPromise());
+        }
+    }
+
+    /**
+     * 建立WebSocket连接事件
+     */
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        EventLog.log("建立连接...");
+        super.handlerAdded(ctx);
+    }
+
+    /**
+     * 断开WebSocket连接事件
+     */
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        EventLog.log("断开连接...");
+        super.handlerRemoved(ctx);
+    }
+}
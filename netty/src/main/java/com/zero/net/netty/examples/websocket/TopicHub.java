@@ -0,0 +1,226 @@
+package com.zero.net.netty.examples.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import io.netty.util.AttributeKey;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebSocket服务端全局的发布订阅中心，所有的{@link ServerHandler}共享同一个实例;
+ * <p>
+ * 主题索引保存在ConcurrentHashMap中，每个主题的订阅者与{@link com.zero.net.netty.examples.im.server.SessionRegistry}一样
+ * 按照Channel所属的{@link EventLoop}进行分片，每个分片只会被其所属的EventLoop线程读写，所以分片内部无需加锁;
+ * 发布时消息只编码一次: 直接编码为完整的WebSocket文本帧(帧头 + 内容)，每个订阅者写入共享内存的retainedDuplicate，
+ * 不再经过每个连接的WebSocket编码器;不经过压缩的帧在协商了permessage-deflate的连接上同样合法。
+ * 每个分片提交一个任务到其EventLoop中，先全部写入，再逐个flush。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/17 21:30 </p>
+ */
+public class TopicHub {
+    // Channel已经订阅的主题，以及在各个主题分片中的下标，只在Channel所属的EventLoop线程中读写
+    private static final AttributeKey<Map<String, Integer>> SUBSCRIPTIONS = AttributeKey.valueOf("ws.hub.subscriptions");
+
+    // 主题索引，没有订阅者的主题会被移除
+    private final ConcurrentHashMap<String, Topic> topics = new ConcurrentHashMap<>();
+
+    /**
+     * 订阅主题，必须在Channel所属的EventLoop线程中调用
+     *
+     * @return 是否为新的订阅
+     */
+    public boolean subscribe(Channel channel, String name) {
+        assert channel.eventLoop().inEventLoop();
+        Map<String, Integer> subscriptions = subscriptions(channel);
+        if (subscriptions.containsKey(name)) {
+            return false;
+        }
+        // 订阅者计数与主题的创建在同一个原子操作中完成，避免与最后一个订阅者退订时移除主题产生竞争
+        Topic topic = topics.compute(name, (key, value) -> {
+            Topic t = value == null ? new Topic() : value;
+            t.size.incrementAndGet();
+            return t;
+        });
+        Shard shard = topic.shards.computeIfAbsent(channel.eventLoop(), Shard::new);
+        subscriptions.put(name, shard.channels.size());
+        shard.channels.add(channel);
+        return true;
+    }
+
+    /**
+     * 取消订阅，必须在Channel所属的EventLoop线程中调用
+     *
+     * @return 是否订阅过该主题
+     */
+    public boolean unsubscribe(Channel channel, String name) {
+        assert channel.eventLoop().inEventLoop();
+        Map<String, Integer> subscriptions = channel.attr(SUBSCRIPTIONS).get();
+        Integer slot = subscriptions == null ? null : subscriptions.remove(name);
+        Topic topic = topics.get(name);
+        if (slot == null || topic == null) {
+            return false;
+        }
+        Shard shard = topic.shards.get(channel.eventLoop());
+        // 将最后一个元素移动到被移除的位置
+        List<Channel> channels = shard.channels;
+        Channel last = channels.remove(channels.size() - 1);
+        if (last != channel) {
+            channels.set(slot, last);
+            last.attr(SUBSCRIPTIONS).get().put(name, slot);
+        }
+        topics.computeIfPresent(name, (key, value) -> value.size.decrementAndGet() == 0 ? null : value);
+        return true;
+    }
+
+    /**
+     * 取消Channel的所有订阅，必须在Channel所属的EventLoop线程中调用，如连接关闭时
+     */
+    public void unsubscribeAll(Channel channel) {
+        Map<String, Integer> subscriptions = channel.attr(SUBSCRIPTIONS).get();
+        if (subscriptions == null) {
+            return;
+        }
+        for (String name : new ArrayList<>(subscriptions.keySet())) {
+            unsubscribe(channel, name);
+        }
+    }
+
+    /**
+     * 当前的主题数
+     */
+    public int topics() {
+        return topics.size();
+    }
+
+    /**
+     * 主题的订阅者数
+     */
+    public int subscribers(String name) {
+        Topic topic = topics.get(name);
+        return topic == null ? 0 : topic.size.get();
+    }
+
+    /**
+     * 向主题的所有订阅者发布消息，可以在任意线程中调用
+     *
+     * @param alloc 缓冲区分配器
+     * @param name  主题
+     * @param text  消息内容
+     * @return 订阅者数
+     */
+    public int publish(ByteBufAllocator alloc, String name, CharSequence text) {
+        Topic topic = topics.get(name);
+        if (topic == null) {
+            return 0;
+        }
+        // 只编码一次
+        ByteBuf frame = encodeTextFrame(alloc, text);
+        try {
+            for (Shard shard : topic.shards.values()) {
+                shard.publish(frame);
+            }
+        } finally {
+            frame.release();
+        }
+        return topic.size.get();
+    }
+
+    /**
+     * 将文本编码为完整的、不带掩码的WebSocket文本帧(服务端发送的帧不需要掩码)
+     *
+     * @param alloc 缓冲区分配器
+     * @param text  消息内容
+     */
+    public static ByteBuf encodeTextFrame(ByteBufAllocator alloc, CharSequence text) {
+        int length = ByteBufUtil.utf8Bytes(text);
+        ByteBuf buf = alloc.directBuffer(10 + length);
+        // FIN + 文本帧
+        buf.writeByte(0x81);
+        if (length < 126) {
+            buf.writeByte(length);
+        } else if (length <= 0xFFFF) {
+            buf.writeByte(126);
+            buf.writeShort(length);
+        } else {
+            buf.writeByte(127);
+            buf.writeLong(length);
+        }
+        ByteBufUtil.reserveAndWriteUtf8(buf, text, length);
+        return buf;
+    }
+
+    private static Map<String, Integer> subscriptions(Channel channel) {
+        Map<String, Integer> subscriptions = channel.attr(SUBSCRIPTIONS).get();
+        if (subscriptions == null) {
+            subscriptions = new HashMap<>();
+            channel.attr(SUBSCRIPTIONS).set(subscriptions);
+        }
+        return subscriptions;
+    }
+
+    /**
+     * 主题
+     */
+    private static final class Topic {
+        // 订阅者数
+        private final AtomicInteger size = new AtomicInteger();
+        // 分片，key为EventLoop
+        private final ConcurrentHashMap<EventLoop, Shard> shards = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * 分片，保存同一个EventLoop上订阅了同一主题的所有Channel
+     */
+    private static final class Shard {
+        private final EventLoop eventLoop;
+        // 只在eventLoop线程中读写
+        private final List<Channel> channels = new ArrayList<>();
+
+        Shard(EventLoop eventLoop) {
+            this.eventLoop = eventLoop;
+        }
+
+        void publish(ByteBuf frame) {
+            if (eventLoop.inEventLoop()) {
+                writeAndFlushAll(frame);
+                return;
+            }
+            // 为异步任务持有一份引用，由任务执行完成后释放
+            ByteBuf retained = frame.retainedDuplicate();
+            try {
+                eventLoop.execute(() -> {
+                    try {
+                        writeAndFlushAll(retained);
+                    } finally {
+                        retained.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // EventLoop已经关闭，任务不会被执行
+                retained.release();
+            }
+        }
+
+        private void writeAndFlushAll(ByteBuf frame) {
+            // 先全部写入，再逐个flush
+            for (Channel channel : channels) {
+                if (channel.isActive()) {
+                    channel.write(frame.retainedDuplicate(), channel.voidPromise());
+                }
+            }
+            for (Channel channel : channels) {
+                channel.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.zero.net.netty.examples.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionData;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionFilter;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionFilterProvider;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtension;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtensionHandler;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtensionHandshaker;
+import io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateServerExtensionHandshaker;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WebSocket服务端的permessage-deflate压缩配置，替代默认参数的WebSocketServerCompressionHandler，
+ * 通过启动参数指定，默认值与原有实现相同:
+ *  - {@code -Dws.compression=true|false}:          是否启用压缩，默认为true;
+ *  - {@code -Dws.compression.threshold}:           小于该长度(byte)的帧不压缩，默认为0，即全部压缩;
+ *  - {@code -Dws.compression.level}:               压缩级别(1 ~ 9)，级别越高压缩率越高、CPU开销越大，默认为6;
+ *  - {@code -Dws.compression.contextTakeover}:     是否在消息之间保留压缩上下文(滑动窗口)，默认为true;
+ *    保留时重复内容较多的连续消息压缩率更高，但每个连接需要常驻一份deflate状态(约数百KB);关闭时服务端在握手响应中声明
+ *    server_no_context_takeover，同时要求客户端使用client_no_context_takeover;
+ *  - {@code -Dws.compression.skipCompressed}:      是否跳过内容已经是压缩格式(gzip/zlib/zstd/zip/png/jpeg/gif)的二进制帧，默认为false;
+ * 跳过的帧不设置RSV1位，以未压缩的帧发送，在协商了permessage-deflate的连接上同样合法。
+ *
+ * @param enabled         是否启用压缩
+ * @param threshold       最小压缩长度
+ * @param level           压缩级别
+ * @param contextTakeover 是否保留压缩上下文
+ * @param skipCompressed  是否跳过已经压缩的二进制帧
+ * @author Zero.
+ * <p> Created on 2026/10/17 22:00 </p>
+ */
+public record WebSocketCompression(boolean enabled, int threshold, int level,
+                                   boolean contextTakeover, boolean skipCompressed) {
+    // deflate滑动窗口的最大值(2^15)
+    private static final int MAX_WINDOW_BITS = 15;
+    private static final String SERVER_NO_CONTEXT = "server_no_context_takeover";
+
+    /**
+     * 根据启动参数创建压缩配置
+     */
+    public static WebSocketCompression current() {
+        return new WebSocketCompression(
+                Boolean.parseBoolean(System.getProperty("ws.compression", "true")),
+                Integer.getInteger("ws.compression.threshold", 0),
+                Integer.getInteger("ws.compression.level", 6),
+                Boolean.parseBoolean(System.getProperty("ws.compression.contextTakeover", "true")),
+                Boolean.getBoolean("ws.compression.skipCompressed"));
+    }
+
+    /**
+     * 创建扩展协商处理器，未启用压缩时返回null
+     *
+     * @param maxAllocation 每个帧解压后的最大长度，0表示不限制
+     */
+    public ChannelHandler newHandler(int maxAllocation) {
+        return enabled ? new WebSocketServerExtensionHandler(newHandshaker(maxAllocation)) : null;
+    }
+
+    /**
+     * 创建permessage-deflate的扩展握手器
+     *
+     * @param maxAllocation 每个帧解压后的最大长度，0表示不限制
+     */
+    public WebSocketServerExtensionHandshaker newHandshaker(int maxAllocation) {
+        WebSocketServerExtensionHandshaker handshaker = new PerMessageDeflateServerExtensionHandshaker(
+                level, ZlibCodecFactory.isSupportingWindowSizeAndMemLevel(), MAX_WINDOW_BITS,
+                !contextTakeover, !contextTakeover, new FilterProvider(), maxAllocation);
+        return contextTakeover ? handshaker : new NoContextTakeoverHandshaker(handshaker);
+    }
+
+    /**
+     * 判断内容是否已经是常见的压缩格式，只检查文件头(魔数)
+     */
+    static boolean isCompressed(ByteBuf content) {
+        int i = content.readerIndex();
+        if (content.readableBytes() < 4) {
+            return false;
+        }
+        int b0 = content.getUnsignedByte(i);
+        int b1 = content.getUnsignedByte(i + 1);
+        int head = content.getInt(i);
+        return (b0 == 0x1F && b1 == 0x8B)                   // gzip
+                || (b0 == 0x78 && (b0 << 8 | b1) % 31 == 0)   // zlib
+                || head == 0x28B52FFD                         // zstd
+                || head == 0x504B0304                         // zip
+                || head == 0x89504E47                         // png
+                || (b0 == 0xFF && b1 == 0xD8)                 // jpeg
+                || head == 0x47494638;                        // gif
+    }
+
+    /**
+     * 编码时的过滤器: 只对消息的第一个帧(文本帧/二进制帧)做出判断，
+     * 第一个帧被跳过时，后续的分片也不会被压缩
+     */
+    private final class FilterProvider implements WebSocketExtensionFilterProvider {
+        @Override
+        public WebSocketExtensionFilter encoderFilter() {
+            return frame -> (frame instanceof TextWebSocketFrame || frame instanceof BinaryWebSocketFrame)
+                    && mustSkip(frame);
+        }
+
+        @Override
+        public WebSocketExtensionFilter decoderFilter() {
+            return WebSocketExtensionFilter.NEVER_SKIP;
+        }
+
+        private boolean mustSkip(WebSocketFrame frame) {
+            ByteBuf content = frame.content();
+            return content.readableBytes() < threshold
+                    || (skipCompressed && frame instanceof BinaryWebSocketFrame && isCompressed(content));
+        }
+    }
+
+    /**
+     * 关闭压缩上下文: 按照客户端请求了server_no_context_takeover的方式协商，
+     * 服务端在握手响应中声明server_no_context_takeover(RFC 7692允许服务端主动声明)，每条消息使用独立的压缩上下文
+     */
+    private static final class NoContextTakeoverHandshaker implements WebSocketServerExtensionHandshaker {
+        private final WebSocketServerExtensionHandshaker delegate;
+
+        NoContextTakeoverHandshaker(WebSocketServerExtensionHandshaker delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public WebSocketServerExtension handshakeExtension(WebSocketExtensionData extensionData) {
+            Map<String, String> parameters = new HashMap<>(extensionData.parameters());
+            parameters.put(SERVER_NO_CONTEXT, null);
+            return delegate.handshakeExtension(new WebSocketExtensionData(extensionData.name(), parameters));
+        }
+    }
+}
@@ -1,14 +1,16 @@
 package com.zero.net.netty.packets.demo2;
 
-import io.netty.bootstrap.ServerBootstrap;
+import com.zero.net.netty.common.EchoMode;
+import com.zero.net.netty.common.FlushCoalescingHandler;
+import com.zero.net.netty.common.Transport;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
 import io.netty.channel.SimpleChannelInboundHandler;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.DelimiterBasedFrameDecoder;
 import io.netty.handler.codec.string.StringDecoder;
 import io.netty.util.CharsetUtil;
@@ -24,40 +26,65 @@ import io.netty.util.CharsetUtil;
  */
 public class Server {
     public static void main(String[] args) throws InterruptedException {
-        NioEventLoopGroup boss = new NioEventLoopGroup();
-        NioEventLoopGroup worker = new NioEventLoopGroup();
+        // 传输层实现，Linux上优先使用epoll/io_uring，不可用时回退到NIO
+        Transport transport = Transport.current();
+        EventLoopGroup boss = transport.newEventLoopGroup(1);
+        EventLoopGroup worker = transport.newEventLoopGroup(0);
         // 创建Server Channel
-        ChannelFuture channelFuture = new ServerBootstrap()
-                .group(boss, worker)
-                .channel(NioServerSocketChannel.class)
-                .childHandler(new ChannelInitializer<NioSocketChannel>() {
-                    @Override
-                    protected void initChannel(NioSocketChannel ch) throws Exception {
-                        ch.pipeline()
-                                // 添加解码器，如使用%作为结尾标识符
-                                .addLast(new DelimiterBasedFrameDecoder(1024, Unpooled.wrappedBuffer(new byte[]{'%'})))
-                                // 将解析完的ByteBuf转换为String类型
-                                .addLast(new StringDecoder(CharsetUtil.UTF_8))
-                                // 添加事件处理器，这里直接使用SimpleChannelInboundHandler处理器，将数据包类型设置为String即可
-                                // 因为经过了StringDecoder的处理，所以这里可以直接使用String类型作为参数
-                                .addLast(new SimpleChannelInboundHandler<String>() {
-                                    @Override
-                                    protected void channelRead0(ChannelHandlerContext ctx, String msg) throws Exception {
-                                        var message = "client send data: [" + msg + "]";
-                                        System.out.println(message);
-
-                                        // 将消息追加一个%，转为大写写回客户端
-                                        String recvMsg = msg.concat("%").toUpperCase();
-                                        // 将消息写回客户端
-                                        ctx.channel().writeAndFlush(Unpooled.copiedBuffer(recvMsg.getBytes()));
-                                    }
-                                });
-                    }
-                }).bind(9696).sync();
+        ChannelFuture channelFuture = transport.newServerBootstrap(boss, worker)
+                .childHandler(childInitializer(EchoMode.current())).bind(9696).sync();
         System.out.println("server running...");
         // 阻塞等待Channel关闭
         channelFuture.channel().closeFuture().sync();
         boss.shutdownGracefully();
         worker.shutdownGracefully();
     }
+
+    /**
+     * 创建子Channel的初始化器
+     *
+     * @param mode 回写消息的方式，zero-copy模式下不经过String，直接在入站的ByteBuf上原地转为大写后写回
+     */
+    public static ChannelInitializer<Channel> childInitializer(EchoMode mode) {
+        return new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(Channel ch) throws Exception {
+                if (mode == EchoMode.ZERO_COPY) {
+                    ch.pipeline()
+                            .addLast(new FlushCoalescingHandler())
+                            // 保留结尾的%，回写时无需再追加
+                            .addLast(new DelimiterBasedFrameDecoder(1024, false, Unpooled.wrappedBuffer(new byte[]{'%'})))
+                            // 关闭自动释放，解析出的ByteBuf随write转移给出站链路释放
+                            .addLast(new SimpleChannelInboundHandler<ByteBuf>(false) {
+                                @Override
+                                protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg) {
+                                    ctx.writeAndFlush(EchoMode.toUpperCaseAscii(msg), ctx.voidPromise());
+                                }
+                            });
+                    return;
+                }
+                ch.pipeline()
+                        // 添加flush合并处理器，将一次读取过程中的多次flush合并为一次，需要位于pipeline头部
+                        .addLast(new FlushCoalescingHandler())
+                        // 添加解码器，如使用%作为结尾标识符
+                        .addLast(new DelimiterBasedFrameDecoder(1024, Unpooled.wrappedBuffer(new byte[]{'%'})))
+                        // 将解析完的ByteBuf转换为String类型
+                        .addLast(new StringDecoder(CharsetUtil.UTF_8))
+                        // 添加事件处理器，这里直接使用SimpleChannelInboundHandler处理器，将数据包类型设置为String即可
+                        // 因为经过了StringDecoder的处理，所以这里可以直接使用String类型作为参数
+                        .addLast(new SimpleChannelInboundHandler<String>() {
+                            @Override
+                            protected void channelRead0(ChannelHandlerContext ctx, String msg) throws Exception {
+                                var message = "client send data: [" + msg + "]";
+                                System.out.println(message);
+
+                                // 将消息追加一个%，转为大写写回客户端
+                                String recvMsg = msg.concat("%").toUpperCase();
+                                // 将消息写回客户端
+                                ctx.channel().writeAndFlush(Unpooled.copiedBuffer(recvMsg.getBytes()));
+                            }
+                        });
+            }
+        };
+    }
 }
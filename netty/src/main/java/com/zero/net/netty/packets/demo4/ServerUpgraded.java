@@ -1,17 +1,13 @@
 package com.zero.net.netty.packets.demo4;
 
+import com.zero.net.netty.common.EventLog;
+import com.zero.net.netty.common.Transport;
 import com.zero.net.netty.packets.demo5.pb.Protocol;
-import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.protobuf.ProtobufDecoder;
 import io.netty.handler.codec.protobuf.ProtobufVarint32FrameDecoder;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-
 /**
  * Netty粘包与拆包解决方案三
  * 使用Netty基于Protobuf数据序列化格式来进行通信
@@ -23,16 +19,16 @@ import java.util.Date;
  */
 public class ServerUpgraded {
     public static void main(String[] args) {
-        NioEventLoopGroup boss = new NioEventLoopGroup(1);
-        NioEventLoopGroup worker = new NioEventLoopGroup();
+        // 传输层实现，Linux上优先使用epoll/io_uring，不可用时回退到NIO
+        Transport transport = Transport.current();
+        EventLoopGroup boss = transport.newEventLoopGroup(1);
+        EventLoopGroup worker = transport.newEventLoopGroup(0);
         try {
-            ChannelFuture future = new ServerBootstrap()
-                    .group(boss, worker)
-                    .channel(NioServerSocketChannel.class)
+            ChannelFuture future = transport.newServerBootstrap(boss, worker)
                     .childOption(ChannelOption.SO_KEEPALIVE, true)
-                    .childHandler(new ChannelInitializer<NioSocketChannel>() {
+                    .childHandler(new ChannelInitializer<SocketChannel>() {
                         @Override
-                        protected void initChannel(NioSocketChannel ch) throws Exception {
+                        protected void initChannel(SocketChannel ch) throws Exception {
                             ch.pipeline()
                                     // 使用Netty内置的Protobuf解码器
                                     // 优先读取前4个byte字节(int整数)，以读取到的int为后续要读取的长度来进行数据读取;
@@ -45,11 +41,11 @@ public class ServerUpgraded {
                                         public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
                                             // 这里直接强转为PayloadRequest即可
                                             var payload = (Protocol.PayloadRequest)msg;
-                                            long id = payload.getId();
-                                            String name = payload.getName();
-                                            boolean active = payload.getIsActive();
-                                            String date = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(payload.getSendTime()));
-                                            System.out.println("[" + id + name + active + date + "]");
+                                            // 异步输出，发送时间在写出线程中格式化
+                                            if (EventLog.sample()) {
+                                                EventLog.log("[%d%s%s%s]", payload.getId(), payload.getName(),
+                                                        payload.getIsActive(), EventLog.time(payload.getSendTime()));
+                                            }
                                         }
                                     });
                         }
@@ -1,22 +1,67 @@
 package com.zero.net.netty.packets.demo5;
 
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.zero.net.netty.packets.demo5.pb.Protocol;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.TooLongFrameException;
 
 import java.util.List;
 
 /**
- * 协议结构: 消息头部(9byte) + 数据体
- * 消息头部结构: 协议标识(1byte) + 数据体长度(8byte)
+ * 协议结构: 消息头部(8byte) + 数据体
+ * 消息头部结构: 数据体长度(8byte)，与{@link CustomEncoder}一致
  *
  * 自定义解码器
+ * <p>
+ * 长度来自于网络，不能信任: 数据体长度超过 maxFrameLength (默认1MB，{@code -Ddemo5.maxFrameLength}指定)时，
+ * 在读取到消息头时立即通知{@link TooLongFrameException}(fail-fast)，之后到达的数据体直接跳过，不会在累积缓冲区中缓存;
+ * 数据体无法反序列化时通知{@link CorruptedFrameException}并跳过该数据包，不会中断本次读取中其余数据包的解码;
+ * 长度为负数说明消息头已经损坏，之后的数据无法再定位数据包的边界: 通知{@link CorruptedFrameException}，丢弃之后的所有数据并关闭连接。
+ * 异常通过{@link ChannelHandlerContext#fireExceptionCaught}通知后续的处理器。
+ * 读取到消息头后会记录数据体长度，数据不足时不再重置读取索引，下一次直接等待数据体，不需要重复读取消息头(mark/reset);
+ * 数据体直接基于累积缓冲区反序列化，不再拷贝到byte[]中。
  *
  * @author Zero.
  * @date 2023/8/15 9:18 PM
  */
 public class CustomDecoder extends ByteToMessageDecoder {
+    /**
+     * 消息头长度
+     */
+    public static final int HEADER_LENGTH = 8;
+
+    /**
+     * 默认的数据体最大长度
+     */
+    public static final int DEFAULT_MAX_FRAME_LENGTH = Integer.getInteger("demo5.maxFrameLength", 1024 * 1024);
+
+    // 数据体最大长度
+    private final int maxFrameLength;
+    // 已经读取到消息头、正在等待的数据体长度，-1表示下一次需要读取消息头
+    private int frameLength = -1;
+    // 超过最大长度的数据体中还需要跳过的字节数
+    private long discarding;
+    // 消息头已经损坏，丢弃之后的所有数据
+    private boolean corrupted;
+
+    public CustomDecoder() {
+        this(DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    /**
+     * @param maxFrameLength 数据体最大长度
+     */
+    public CustomDecoder(int maxFrameLength) {
+        if (maxFrameLength <= 0) {
+            throw new IllegalArgumentException("maxFrameLength must be positive: " + maxFrameLength);
+        }
+        this.maxFrameLength = maxFrameLength;
+    }
 
     /**
      * 读取ByteBuf数据，反序列化为对象实体
@@ -27,29 +72,67 @@ public class CustomDecoder extends ByteToMessageDecoder {
      */
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
-        // 协议的数据头部占9个byte，如果可读取的数据小于9个byte，则表示数据有问题
-        if (in.readableBytes() < 9){
+        // 消息头已经损坏，连接关闭之前到达的数据全部丢弃
+        if (corrupted) {
+            in.skipBytes(in.readableBytes());
             return;
         }
-        // 读取消息头，获取数据体的长度
-        long length = in.readLong();
-        // 如果此时可读取的数据小于数据体长度，说明还没有获取到完整的数据，需要等待再次读取TCP发送过来的数据
-        if (in.readableBytes() < length){
-            // 由于我们已经读取了消息头部，所以需要将读取索引重置回上一次执行markReaderIndex()方式时的位置，表示下一次依然要读取消息头部
-            in.resetReaderIndex();
+        // 正在跳过超长的数据体，跳过已经到达的部分，不缓存
+        if (discarding > 0) {
+            int skip = (int) Math.min(discarding, in.readableBytes());
+            in.skipBytes(skip);
+            discarding -= skip;
+            if (discarding > 0) {
+                return;
+            }
+        }
+        if (frameLength < 0) {
+            // 消息头不完整，等待再次读取TCP发送过来的数据
+            if (in.readableBytes() < HEADER_LENGTH) {
+                return;
+            }
+            // 读取消息头，获取数据体的长度
+            long length = in.readLong();
+            if (length < 0) {
+                // 没有可以跳过的数据体边界，丢弃累积的数据并关闭连接
+                corrupted = true;
+                in.skipBytes(in.readableBytes());
+                ctx.fireExceptionCaught(new CorruptedFrameException("negative frame length: " + length));
+                ctx.close();
+                return;
+            }
+            if (length > maxFrameLength) {
+                // 跳过已经到达的部分，剩余部分在之后的读取中跳过，并立即通知后续的处理器
+                int skip = (int) Math.min(length, in.readableBytes());
+                in.skipBytes(skip);
+                discarding = length - skip;
+                ctx.fireExceptionCaught(new TooLongFrameException("frame length exceeds " + maxFrameLength + ": " + length));
+                return;
+            }
+            frameLength = (int) length;
+        }
+        // 数据体不完整，记录的长度保留到下一次，不需要重置读取索引
+        if (in.readableBytes() < frameLength) {
             return;
         }
-        // 读取数据体部分
-        // 创建缓冲区
-        byte[] buf = new byte[(int) length];
-        // 读取数据体到缓冲区
-        in.readBytes(buf);
-
-        // 读取完成，更新读取索引位置，方便下一次读取或者重置回当前位置
-        in.markReaderIndex();
-
-        // 反序列为实体
-        Protocol.PayloadRequest payloadRequest = Protocol.PayloadRequest.parseFrom(buf);
-        out.add(payloadRequest);
+        int length = frameLength;
+        frameLength = -1;
+        int index = in.readerIndex();
+        // 先移动读取索引，反序列化失败时也会跳过这个数据包，不影响后续的数据包
+        in.skipBytes(length);
+        // 直接基于缓冲区反序列化
+        CodedInputStream input;
+        if (in.hasArray()) {
+            input = CodedInputStream.newInstance(in.array(), in.arrayOffset() + index, length);
+        } else if (in.nioBufferCount() == 1) {
+            input = CodedInputStream.newInstance(in.internalNioBuffer(index, length));
+        } else {
+            input = CodedInputStream.newInstance(new ByteBufInputStream(in.slice(index, length)));
+        }
+        try {
+            out.add(Protocol.PayloadRequest.parseFrom(input));
+        } catch (InvalidProtocolBufferException e) {
+            ctx.fireExceptionCaught(new CorruptedFrameException(e));
+        }
     }
 }
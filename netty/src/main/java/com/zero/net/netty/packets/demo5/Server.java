@@ -1,13 +1,12 @@
 package com.zero.net.netty.packets.demo5;
 
-import io.netty.bootstrap.ServerBootstrap;
+import com.zero.net.netty.common.Transport;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
 
 /**
  * Netty粘包与拆包解决方案三
@@ -20,16 +19,16 @@ import io.netty.channel.socket.nio.NioSocketChannel;
  */
 public class Server {
     public static void main(String[] args) {
-        NioEventLoopGroup boss = new NioEventLoopGroup(1);
-        NioEventLoopGroup worker = new NioEventLoopGroup();
+        // 传输层实现，Linux上优先使用epoll/io_uring，不可用时回退到NIO
+        Transport transport = Transport.current();
+        EventLoopGroup boss = transport.newEventLoopGroup(1);
+        EventLoopGroup worker = transport.newEventLoopGroup(0);
         try {
-            ChannelFuture future = new ServerBootstrap()
-                    .group(boss, worker)
-                    .channel(NioServerSocketChannel.class)
+            ChannelFuture future = transport.newServerBootstrap(boss, worker)
                     .childOption(ChannelOption.SO_KEEPALIVE, true)
-                    .childHandler(new ChannelInitializer<NioSocketChannel>() {
+                    .childHandler(new ChannelInitializer<SocketChannel>() {
                         @Override
-                        protected void initChannel(NioSocketChannel ch) throws Exception {
+                        protected void initChannel(SocketChannel ch) throws Exception {
                             ch.pipeline()
                                     // 设置自定义解码处理器
                                     // 将接收到的数据，根据自定义协议格式，解码为Protocol.PayloadRequest实体
@@ -3,18 +3,32 @@ package com.zero.net.system.bio;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
  * BIO（Blocking IO）同步阻塞IO，即Java原生类库提供的IO。
  * 基于 BIO 实现服务端与客户端心跳机制
+ * <p>
+ * 每个连接的{@link Session}都会独占一个线程阻塞读取，线程的执行方式见{@link Mode}，
+ * 可以通过 {@code -Dbio.mode=thread|virtual|pool} 选择，默认为thread;
+ * pool模式下线程池大小通过 {@code -Dbio.poolSize=N} 指定，默认为CPU核数 * 2。
  *
  * @author Zero.
  * <p> Created on 2025/4/4 12:34 </p>
  */
 public class Server {
     private final int port;
-    public Server(int port){
+    // 会话执行器
+    private final Executor executor;
+
+    public Server(int port) {
+        this(port, Mode.current().newExecutor());
+    }
+
+    public Server(int port, Executor executor) {
         this.port = port;
+        this.executor = executor;
     }
 
     /**
@@ -22,17 +36,62 @@ public class Server {
      */
     public void run() throws IOException {
         // 创建一个BIO网络服务
-        ServerSocket serverSocket = new ServerSocket(this.port);
+        ServerSocket serverSocket = new ServerSocket(this.port, 1024);
         System.out.println("服务器启动...");
         // 循环处理连接
         while (true){
             // 阻塞等待连接...
             Socket socket = serverSocket.accept();
-            // 开启一个线程，处理连接
-            new Session(socket).start();
+            // 交给执行器处理连接
+            executor.execute(new Session(socket));
         }
     }
+
+    /**
+     * 会话的执行方式
+     */
+    public enum Mode {
+        /**
+         * 每个连接创建一个平台线程，即最初的实现;平台线程与内核线程一一对应，连接数达到数千时内存与调度开销就会成为瓶颈
+         */
+        THREAD {
+            @Override
+            public Executor newExecutor() {
+                return task -> new Thread(task).start();
+            }
+        },
+        /**
+         * 每个连接创建一个虚拟线程，阻塞读取时虚拟线程会从载体线程上卸载，少量平台线程即可承载大量连接
+         */
+        VIRTUAL {
+            @Override
+            public Executor newExecutor() {
+                return Executors.newVirtualThreadPerTaskExecutor();
+            }
+        },
+        /**
+         * 固定大小的平台线程池，同时处理的连接数不会超过线程数，超出的连接在队列中等待前面的连接断开
+         */
+        POOL {
+            @Override
+            public Executor newExecutor() {
+                return Executors.newFixedThreadPool(Integer.getInteger("bio.poolSize",
+                        Runtime.getRuntime().availableProcessors() * 2));
+            }
+        };
+
+        public abstract Executor newExecutor();
+
+        /**
+         * 根据 {@code -Dbio.mode} 选择执行方式
+         */
+        public static Mode current() {
+            return valueOf(System.getProperty("bio.mode", "thread").toUpperCase());
+        }
+    }
+
     public static void main(String[] args) throws IOException {
-        new Server(8090).run();
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8090;
+        new Server(port).run();
     }
 }
@@ -2,15 +2,17 @@ package com.zero.net.system.bio;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.Socket;
 
 /**
  * 客户端连接会话，即对{@link java.net.Socket}连接的封装.
+ * 会话本身不再是线程，而是交给{@link Server.Mode}对应的执行器运行，读取到的数据会原样回显给客户端(心跳应答).
  *
  * @author Zero.
  * <p> Created on 2025/4/4 12:34 </p>
  */
-public class Session extends Thread{
+public class Session implements Runnable {
     private final Socket conn;
     public Session(Socket socket) {
         this.conn = socket;
@@ -21,8 +23,9 @@ public class Session extends Thread{
         InputStream in = null;
         byte[] buf = new byte[1024];
         try {
-            // 获取连接的输入流
+            // 获取连接的输入输出流
             in = this.conn.getInputStream();
+            OutputStream out = this.conn.getOutputStream();
             while (true) {
                 // 阻塞读取客户端数据
                 // 将客户端数据读取到缓冲区
@@ -33,6 +36,8 @@ public class Session extends Thread{
                     this.conn.close();
                     return;
                 }
+                // 回显给客户端
+                out.write(buf, 0, len);
                 // 去除\n符
                 String line = new String(buf, 0, len - 1);
                 // 输出数据
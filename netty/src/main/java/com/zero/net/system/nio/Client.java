@@ -17,8 +17,7 @@ import java.util.Scanner;
  * <p> Created on 2025/4/4 12:38 </p>
  */
 public class Client {
-    // 创建两个缓冲区，分别用于发送消息和接收消息
-    private final ByteBuffer sendBuf = ByteBuffer.allocate(1024);
+    // 接收消息的缓冲区
     private final ByteBuffer recvBuf = ByteBuffer.allocate(1024);
 
 
@@ -44,6 +43,7 @@ public class Client {
                     Iterator<SelectionKey> iter = selector.selectedKeys().iterator();
                     while (iter.hasNext()){
                         SelectionKey nexted = iter.next();
+                        iter.remove();
                         // 读事件处理
                         if (nexted.isReadable()){
                             // 获取channel
@@ -53,7 +53,8 @@ public class Client {
                             // 切换读模式
                             recvBuf.flip();
                             String message = StandardCharsets.UTF_8.decode(recvBuf).toString();
-                            System.out.println(message);
+                            recvBuf.clear();
+                            System.out.print(message);
                         }
                     }
                 } catch (IOException e) {
@@ -65,13 +66,12 @@ public class Client {
         while (true){
             // 向服务端写数据
             String line = in.nextLine();
-            // 将数据写入缓冲区
-            sendBuf.put(line.getBytes(StandardCharsets.UTF_8));
-            // 切换为读模式
-            sendBuf.flip();
-            // 将消息写入通道
-            clientChannel.write(sendBuf);
-            sendBuf.clear();
+            // 服务端以换行符拆分消息，消息末尾需要追加换行符
+            ByteBuffer sendBuf = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+            // 将消息写入通道，非阻塞模式下可能写不完，需要循环写入
+            while (sendBuf.hasRemaining()) {
+                clientChannel.write(sendBuf);
+            }
         }
     }
 
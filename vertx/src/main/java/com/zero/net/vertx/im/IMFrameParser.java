@@ -0,0 +1,149 @@
+package com.zero.net.vertx.im;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * IM报文解析器，作为{@code NetSocket}的数据处理器，将TCP字节流拆分为完整的报文，格式与netty模块中的{@code Codec}相同:
+ *  - v1: 第一个字节为0，[消息体长度(8byte)][消息体];
+ *  - v2: 第一个字节为0x02，[版本标识(1byte)][消息体长度(varint32)][消息体];
+ *  - 心跳: 第一个字节为0x10(Ping)或0x11(Pong)，[类型(1byte)][序号(8byte)][发送时间(8byte)];
+ * 未处理完的数据保留到下一次读取，只拷贝剩余的不完整部分; 消息体长度超过 {@code -Dim.maxFrameLength}(默认16MB)
+ * 或者无法识别报文类型时通知错误，之后不再解析。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 15:00 </p>
+ */
+public class IMFrameParser implements Handler<Buffer> {
+    public static final byte PING_MAGIC = 0x10;
+    public static final byte PONG_MAGIC = 0x11;
+    /**
+     * 心跳报文长度
+     */
+    public static final int HEARTBEAT_LENGTH = 1 + Long.BYTES * 2;
+    /**
+     * 消息体最大长度
+     */
+    public static final int MAX_FRAME_LENGTH = Integer.getInteger("im.maxFrameLength", 16 * 1024 * 1024);
+
+    /**
+     * 报文的回调，在NetSocket所属的Context中执行
+     */
+    public interface Listener {
+        /**
+         * 收到一个完整的消息
+         *
+         * @param wire 客户端使用的报文格式
+         * @param body 消息体，只在回调期间有效
+         */
+        void onMessage(Wire wire, Buffer body);
+
+        /**
+         * 收到一个心跳报文
+         *
+         * @param frame 完整的心跳报文
+         */
+        void onHeartbeat(Buffer frame);
+
+        /**
+         * 报文格式错误，之后的数据不再解析
+         */
+        void onError(String reason);
+    }
+
+    private final Listener listener;
+    // 未处理完的数据
+    private Buffer pending;
+    private boolean failed;
+
+    public IMFrameParser(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void handle(Buffer data) {
+        if (failed) {
+            return;
+        }
+        Buffer buf = pending == null ? data : pending.appendBuffer(data);
+        int position = 0;
+        int consumed;
+        while (position < buf.length() && (consumed = parse(buf, position)) > 0) {
+            position += consumed;
+        }
+        if (failed || position == buf.length()) {
+            pending = null;
+        } else if (position == 0) {
+            // 没有解析出任何报文，之前也没有交给监听器的切片，直接保留，之后的数据追加在其后(按倍数扩容)，不再整体拷贝
+            pending = buf;
+        } else {
+            // 只拷贝剩余的不完整部分，之后的数据追加在其后
+            pending = buf.getBuffer(position, buf.length());
+        }
+    }
+
+    /**
+     * 解析一个报文
+     *
+     * @return 报文的长度，数据不足或者出错时返回0
+     */
+    private int parse(Buffer buf, int position) {
+        int readable = buf.length() - position;
+        byte type = buf.getByte(position);
+        switch (type) {
+            case 0 -> {
+                if (readable < Long.BYTES) {
+                    return 0;
+                }
+                long length = buf.getLong(position);
+                if (length > MAX_FRAME_LENGTH) {
+                    return fail("frame length exceeds " + MAX_FRAME_LENGTH + ": " + length);
+                }
+                return body(buf, position, Long.BYTES, (int) length, Wire.V1);
+            }
+            case Wire.V2_MAGIC -> {
+                // 读取varint32长度
+                int length = 0;
+                for (int i = 0; i < 5; i++) {
+                    if (readable < 2 + i) {
+                        return 0;
+                    }
+                    byte b = buf.getByte(position + 1 + i);
+                    length |= (b & 0x7F) << (7 * i);
+                    if (b >= 0) {
+                        if (length < 0 || length > MAX_FRAME_LENGTH) {
+                            return fail("frame length exceeds " + MAX_FRAME_LENGTH + ": " + Integer.toUnsignedLong(length));
+                        }
+                        return body(buf, position, 2 + i, length, Wire.V2);
+                    }
+                }
+                return fail("malformed varint32 length");
+            }
+            case PING_MAGIC, PONG_MAGIC -> {
+                if (readable < HEARTBEAT_LENGTH) {
+                    return 0;
+                }
+                listener.onHeartbeat(buf.slice(position, position + HEARTBEAT_LENGTH));
+                return HEARTBEAT_LENGTH;
+            }
+            default -> {
+                return fail("unknown frame type: " + type);
+            }
+        }
+    }
+
+    private int body(Buffer buf, int position, int headerLength, int length, Wire wire) {
+        if (buf.length() - position < headerLength + length) {
+            return 0;
+        }
+        int start = position + headerLength;
+        listener.onMessage(wire, buf.slice(start, start + length));
+        return headerLength + length;
+    }
+
+    private int fail(String reason) {
+        failed = true;
+        listener.onError(reason);
+        return 0;
+    }
+}
@@ -0,0 +1,132 @@
+package com.zero.net.vertx.im;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.zero.net.netty.examples.im.pb.Protocol;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.net.NetServerOptions;
+import io.vertx.core.net.NetSocket;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * IM服务的Verticle，部署多个实例时共享同一个端口，由Vert.x在实例之间轮流分配新连接;
+ * 每个实例只管理分配给自己的连接，收到消息后将ReplyMessage序列化一次，通过EventBus发布给所有实例，
+ * 每个实例在自己的EventLoop中写给自己的连接，消息头按连接协商出的报文格式生成，每种格式只生成一次。
+ * 连接的写队列已满(读取缓慢)时丢弃该连接的广播并计数，避免写队列无限增长。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 15:00 </p>
+ */
+public class IMVerticle extends AbstractVerticle {
+    /**
+     * 广播地址，只在当前进程内投递
+     */
+    public static final String BROADCAST_ADDRESS = "im.broadcast";
+
+    // 全局统计: 因写队列已满而丢弃的广播数
+    private static final LongAdder DROPPED = new LongAdder();
+
+    private final int port;
+    // 当前实例的连接，只在当前实例的Context中读写
+    private final Set<Session> sessions = new HashSet<>();
+
+    public IMVerticle(int port) {
+        this.port = port;
+    }
+
+    /**
+     * 累计因写队列已满而丢弃的广播数
+     */
+    public static long dropped() {
+        return DROPPED.sum();
+    }
+
+    @Override
+    public void start(Promise<Void> startPromise) {
+        MessageConsumer<Buffer> consumer = vertx.eventBus().localConsumer(BROADCAST_ADDRESS, msg -> broadcast(msg.body()));
+        Future<?> listen = vertx.createNetServer(new NetServerOptions().setTcpNoDelay(true))
+                .connectHandler(this::connected)
+                .listen(port);
+        Future.all(consumer.completion(), listen).<Void>mapEmpty().onComplete(startPromise);
+    }
+
+    private void connected(NetSocket socket) {
+        Session session = new Session(socket);
+        sessions.add(session);
+        socket.handler(new IMFrameParser(session));
+        socket.closeHandler(v -> sessions.remove(session));
+        socket.exceptionHandler(e -> socket.close());
+    }
+
+    /**
+     * 将已经序列化的ReplyMessage写给当前实例的所有连接
+     */
+    private void broadcast(Buffer body) {
+        Buffer v1 = null;
+        Buffer v2 = null;
+        for (Session session : sessions) {
+            NetSocket socket = session.socket;
+            if (socket.writeQueueFull()) {
+                DROPPED.increment();
+                continue;
+            }
+            // 同一个Buffer可以写入多个连接，写入时不会修改其内容与索引
+            if (session.wire == Wire.V1) {
+                socket.write(v1 != null ? v1 : (v1 = Wire.V1.frame(body)));
+            } else {
+                socket.write(v2 != null ? v2 : (v2 = Wire.V2.frame(body)));
+            }
+        }
+    }
+
+    /**
+     * 单个连接的状态
+     */
+    private final class Session implements IMFrameParser.Listener {
+        private final NetSocket socket;
+        // 回复使用的报文格式，客户端发出第一条消息前按v1回复，兼容旧版客户端
+        private Wire wire = Wire.V1;
+
+        Session(NetSocket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void onMessage(Wire wire, Buffer body) {
+            this.wire = wire;
+            Protocol.SendMessage message;
+            try {
+                message = Protocol.SendMessage.parseFrom(body.getBytes());
+            } catch (InvalidProtocolBufferException e) {
+                onError(e.getMessage());
+                return;
+            }
+            Protocol.ReplyMessage reply = Protocol.ReplyMessage.newBuilder()
+                    .setSuccess(true)
+                    .setReplyTime(System.currentTimeMillis())
+                    .setSender(message).build();
+            // 只序列化一次，发布给所有实例
+            vertx.eventBus().publish(BROADCAST_ADDRESS, Buffer.buffer(reply.toByteArray()));
+        }
+
+        @Override
+        public void onHeartbeat(Buffer frame) {
+            // 回显对端的Ping，对端的Pong忽略(服务端不主动发送心跳)
+            if (frame.getByte(0) == IMFrameParser.PING_MAGIC) {
+                socket.write(frame.copy().setByte(0, IMFrameParser.PONG_MAGIC));
+            }
+        }
+
+        @Override
+        public void onError(String reason) {
+            System.err.printf("%s: %s, closing%n", socket.remoteAddress(), reason);
+            socket.close();
+        }
+    }
+}
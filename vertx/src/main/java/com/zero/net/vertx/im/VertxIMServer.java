@@ -0,0 +1,37 @@
+package com.zero.net.vertx.im;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+
+/**
+ * Vert.x IM Server，与netty模块中的IMServer报文兼容，可以直接使用IMClient与IMLoadClient连接;
+ * 部署多个{@link IMVerticle}实例(通过 {@code -Dvertx.instances} 指定，默认为CPU核数)，共享同一个端口，
+ * 实例之间通过EventBus广播消息。
+ * <p>
+ * 运行方式: java -cp ... com.zero.net.vertx.im.VertxIMServer [端口]
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 15:00 </p>
+ */
+public class VertxIMServer {
+    /**
+     * 服务端口
+     */
+    public static final int PORT = 19003;
+
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : PORT;
+        int instances = Integer.getInteger("vertx.instances", Runtime.getRuntime().availableProcessors());
+        // 每个实例绑定一个EventLoop，EventLoop数不少于实例数
+        Vertx vertx = Vertx.vertx(new VertxOptions()
+                .setEventLoopPoolSize(Math.max(instances, VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE)));
+        vertx.deployVerticle(() -> new IMVerticle(port), new DeploymentOptions().setInstances(instances))
+                .onSuccess(id -> System.out.printf("Vert.x IM Server Start Successful, port: %d, instances: %d...%n",
+                        port, instances))
+                .onFailure(e -> {
+                    e.printStackTrace();
+                    vertx.close();
+                });
+    }
+}
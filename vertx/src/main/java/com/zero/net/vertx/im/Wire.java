@@ -0,0 +1,46 @@
+package com.zero.net.vertx.im;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * IM报文格式，与netty模块中{@code Codec.Wire}相同:
+ * 服务端同时接受两种格式，并以客户端使用的格式进行回复，在客户端发出第一条消息前按v1回复
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 15:00 </p>
+ */
+public enum Wire {
+    /**
+     * 报文格式: [消息体长度(8byte)][消息体]
+     */
+    V1,
+    /**
+     * 报文格式: [版本标识(1byte)][消息体长度(varint32, 1~5byte)][消息体]
+     */
+    V2;
+
+    /**
+     * v2版本标识，v1报文的第一个字节一定为0，两者不会冲突
+     */
+    public static final byte V2_MAGIC = 0x02;
+
+    /**
+     * 为消息体加上消息头，生成一个完整的报文
+     *
+     * @param body 已经序列化的消息体
+     */
+    public Buffer frame(Buffer body) {
+        int length = body.length();
+        if (this == V1) {
+            return Buffer.buffer(Long.BYTES + length).appendLong(length).appendBuffer(body);
+        }
+        Buffer frame = Buffer.buffer(6 + length).appendByte(V2_MAGIC);
+        // varint32: 每个字节的低7位为数据，最高位表示后面是否还有字节
+        int value = length;
+        while ((value & ~0x7F) != 0) {
+            frame.appendByte((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        return frame.appendByte((byte) value).appendBuffer(body);
+    }
+}
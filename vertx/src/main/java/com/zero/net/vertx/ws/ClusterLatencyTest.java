@@ -0,0 +1,170 @@
+package com.zero.net.vertx.ws;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.WebSocket;
+import io.vertx.core.http.WebSocketClient;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ClusteredGateway}的跨节点投递测试: 在本机以子进程的方式启动三个节点(三个JVM，组成一个集群)，
+ * 在第二、三个节点上各建立若干个订阅者连接并订阅同一个主题，在第一个节点上建立发布者连接，以固定速率发布消息;
+ * 消息中携带发送时间，订阅者收到后计算 发布 -> 其他节点上的订阅者收到 的延迟(所有连接都位于测试进程中，使用同一个时钟)。
+ * 结束后输出发布速率、投递速率与延迟分位数，并校验每个订阅者都收到了全部消息。
+ * <p>
+ * 运行方式: java -cp vertx/target/classes:... com.zero.net.vertx.ws.ClusterLatencyTest [每个节点的订阅者数] [每秒发布数] [秒数]
+ * 校验失败时以非0状态码退出
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 16:00 </p>
+ */
+public class ClusterLatencyTest {
+    private static final int[] PORTS = {19114, 19115, 19116};
+    private static final String TOPIC = "bench";
+    private static final String PROBE = "probe";
+
+    public static void main(String[] args) throws Exception {
+        int subscribersPerNode = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int rate = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        List<Process> nodes = new ArrayList<>();
+        Vertx vertx = Vertx.vertx();
+        try {
+            for (int port : PORTS) {
+                nodes.add(startNode(port));
+            }
+            WebSocketClient client = vertx.createWebSocketClient();
+            Recorder latency = new Recorder(3);
+            AtomicLong received = new AtomicLong();
+            AtomicLong probes = new AtomicLong();
+
+            // 订阅者位于第二、三个节点，收到订阅响应后才开始发布
+            List<Future<WebSocket>> subscribed = new ArrayList<>();
+            for (int node = 1; node < PORTS.length; node++) {
+                for (int i = 0; i < subscribersPerNode; i++) {
+                    subscribed.add(subscribe(client, PORTS[node], latency, received, probes));
+                }
+            }
+            Future.all(subscribed).toCompletionStage().toCompletableFuture().get(30, TimeUnit.SECONDS);
+            int subscribers = subscribed.size();
+            System.out.printf("nodes: %d, subscribers: %d (on nodes 2 and 3), publisher: node 1, rate: %d/s%n",
+                    PORTS.length, subscribers, rate);
+
+            WebSocket publisher = client.connect(PORTS[0], "127.0.0.1", GatewayVerticle.PATH)
+                    .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+            // 订阅信息在集群中传播需要时间，持续发布探测消息，直到所有订阅者都能收到
+            boolean ready = false;
+            for (int i = 0; i < 100 && !ready; i++) {
+                probes.set(0);
+                publisher.writeTextMessage("/pub " + TOPIC + " " + PROBE);
+                TimeUnit.MILLISECONDS.sleep(100);
+                ready = probes.get() == subscribers;
+            }
+            if (!ready) {
+                throw new IllegalStateException("subscriptions did not propagate across the cluster");
+            }
+
+            // 每毫秒发布一批，总速率为rate
+            long total = (long) rate * seconds;
+            AtomicLong published = new AtomicLong();
+            Promise<Void> done = Promise.promise();
+            long start = System.nanoTime();
+            vertx.setPeriodic(1, id -> {
+                long due = Math.min(total, (System.nanoTime() - start) * rate / TimeUnit.SECONDS.toNanos(1));
+                while (published.get() < due) {
+                    published.incrementAndGet();
+                    publisher.writeTextMessage("/pub " + TOPIC + " " + System.nanoTime());
+                }
+                if (published.get() >= total) {
+                    vertx.cancelTimer(id);
+                    done.complete();
+                }
+            });
+            done.future().toCompletionStage().toCompletableFuture().get(seconds + 30L, TimeUnit.SECONDS);
+            double elapsed = (System.nanoTime() - start) / 1e9;
+
+            // 等待最后发布的消息投递完成
+            long expected = total * subscribers;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (received.get() < expected && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            Histogram histogram = latency.getIntervalHistogram();
+            System.out.printf("published: %d (%.0f/s), delivered: %d / %d (%.0f/s)%n", total, total / elapsed,
+                    received.get(), expected, received.get() / elapsed);
+            System.out.printf("cross-node latency(us): p50=%.1f p99=%.1f p999=%.1f max=%.1f%n",
+                    histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(99) / 1e3,
+                    histogram.getValueAtPercentile(99.9) / 1e3, histogram.getMaxValue() / 1e3);
+            boolean ok = received.get() == expected;
+            System.out.println(ok ? "OK" : "MISMATCH");
+            if (!ok) {
+                System.exit(1);
+            }
+        } finally {
+            vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+            for (Process node : nodes) {
+                node.destroy();
+            }
+            for (Process node : nodes) {
+                node.waitFor();
+            }
+        }
+    }
+
+    /**
+     * 建立订阅者连接，订阅成功后完成
+     */
+    private static Future<WebSocket> subscribe(WebSocketClient client, int port, Recorder latency, AtomicLong received,
+                                               AtomicLong probes) {
+        return client.connect(port, "127.0.0.1", GatewayVerticle.PATH).compose(ws -> {
+            Promise<WebSocket> promise = Promise.promise();
+            String prefix = "[" + TOPIC + "] ";
+            ws.textMessageHandler(text -> {
+                if (text.equals(prefix + PROBE)) {
+                    probes.incrementAndGet();
+                } else if (text.startsWith(prefix)) {
+                    latency.recordValue(Math.max(0, System.nanoTime() - Long.parseLong(text.substring(prefix.length()))));
+                    received.incrementAndGet();
+                } else if (text.startsWith("已订阅")) {
+                    promise.tryComplete(ws);
+                } else {
+                    promise.tryFail(text);
+                }
+            });
+            ws.writeTextMessage("/sub " + TOPIC);
+            return promise.future();
+        });
+    }
+
+    /**
+     * 以子进程的方式启动一个节点，并等待端口可以连接(部署完成时已经加入集群)
+     */
+    private static Process startNode(int port) throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process process = new ProcessBuilder(java, "-Dvertx.instances=2",
+                "-cp", System.getProperty("java.class.path"), ClusteredGateway.class.getName(), String.valueOf(port))
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        // 加入集群需要一定的时间，最多等待60秒
+        for (int i = 0; i < 600; i++) {
+            try (Socket ignored = new Socket("127.0.0.1", port)) {
+                return process;
+            } catch (IOException e) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+        }
+        process.destroy();
+        throw new IllegalStateException("node on port " + port + " did not start");
+    }
+}
@@ -0,0 +1,78 @@
+package com.zero.net.vertx.ws;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.config.NetworkConfig;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.spi.cluster.hazelcast.ConfigUtil;
+import io.vertx.spi.cluster.hazelcast.HazelcastClusterManager;
+
+/**
+ * 集群化的WebSocket网关，同一台主机上的多个JVM通过集群化的EventBus共享主题的发布订阅，见{@link GatewayVerticle};
+ * 集群管理使用嵌入在每个JVM进程中的Hazelcast，只监听127.0.0.1，通过TCP-IP方式发现本机的其他节点(不使用组播)，
+ * EventBus同样只监听127.0.0.1，不需要任何外部组件。
+ * <p>
+ * 启动参数:
+ *  - 第一个参数为WebSocket端口，默认为19001(与netty模块的websocket示例及client.html相同)，同一台主机上的节点使用不同的端口;
+ *  - {@code -Dvertx.instances}: 每个节点部署的{@link GatewayVerticle}实例数，默认为CPU核数;
+ *  - {@code -Dvertx.cluster}: 集群名称，默认为 networks-ws，名称相同的节点组成一个集群;
+ * 运行方式: java -cp ... com.zero.net.vertx.ws.ClusteredGateway [端口]
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 16:00 </p>
+ */
+public class ClusteredGateway {
+    /**
+     * 默认的WebSocket端口
+     */
+    public static final int PORT = 19001;
+    private static final String LOOPBACK = "127.0.0.1";
+
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : PORT;
+        int instances = Integer.getInteger("vertx.instances", Runtime.getRuntime().availableProcessors());
+        start(port, instances)
+                .onSuccess(vertx -> System.out.printf("Vert.x WebSocket Gateway Start Successful, port: %d, instances: %d, node: %s...%n",
+                        port, instances, vertx.isClustered() ? "clustered" : "local"))
+                .onFailure(e -> {
+                    e.printStackTrace();
+                    System.exit(1);
+                });
+    }
+
+    /**
+     * 加入本机的集群，并部署网关
+     *
+     * @param port      WebSocket端口
+     * @param instances 实例数
+     */
+    public static Future<Vertx> start(int port, int instances) {
+        VertxOptions options = new VertxOptions()
+                .setClusterManager(clusterManager())
+                .setEventLoopPoolSize(Math.max(instances, VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE));
+        options.getEventBusOptions().setHost(LOOPBACK).setClusterPublicHost(LOOPBACK);
+        return Vertx.clusteredVertx(options).compose(vertx ->
+                vertx.deployVerticle(() -> new GatewayVerticle(port), new DeploymentOptions().setInstances(instances))
+                        .map(vertx)
+                        .onFailure(e -> vertx.close()));
+    }
+
+    /**
+     * 只在本机组成集群的Hazelcast集群管理器，在Vert.x默认配置(集群所需的Map等)的基础上修改网络配置
+     */
+    static HazelcastClusterManager clusterManager() {
+        Config config = ConfigUtil.loadConfig();
+        config.setClusterName(System.getProperty("vertx.cluster", "networks-ws"));
+        NetworkConfig network = config.getNetworkConfig();
+        // 端口从5701开始，被占用时递增，同一台主机上的节点各自使用一个端口
+        network.setPort(5701).setPortAutoIncrement(true);
+        network.getInterfaces().setEnabled(true).addInterface(LOOPBACK);
+        JoinConfig join = network.getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).addMember(LOOPBACK);
+        return new HazelcastClusterManager(config);
+    }
+}
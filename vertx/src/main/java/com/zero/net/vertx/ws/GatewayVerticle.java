@@ -0,0 +1,169 @@
+package com.zero.net.vertx.ws;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.ServerWebSocket;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WebSocket网关的Verticle，与netty模块中的websocket示例(ServerHandler + TopicHub)行为相同，兼容client.html:
+ *  - 路径为 {@code /ws}，其他路径的握手请求会被拒绝;
+ *  - 普通消息响应 {@code 服务端已收到信息...};
+ *  - {@code /sub 主题}、{@code /unsub 主题}、{@code /pub 主题 消息}: 发布订阅命令，订阅者收到 {@code [主题] 消息};
+ * 主题的订阅者可以位于集群中的任何节点: 实例中出现某个主题的第一个订阅者时，在EventBus上注册该主题地址的消费者，
+ * 最后一个订阅者退订时注销; 发布时通过EventBus发布一次，只会投递给有订阅者的实例，由实例写给自己的订阅者。
+ * 订阅的响应在消费者注册完成(集群中可见)后才会发出，收到响应后发布到该主题的消息一定能够收到。
+ *
+ * @author Zero.
+ * <p> Created on 2026/10/18 16:00 </p>
+ */
+public class GatewayVerticle extends AbstractVerticle {
+    /**
+     * 主题在EventBus上的地址前缀
+     */
+    public static final String TOPIC_ADDRESS = "ws.topic.";
+    /**
+     * WebSocket路径
+     */
+    public static final String PATH = "/ws";
+
+    private static final String USAGE = "用法: /sub 主题 | /unsub 主题 | /pub 主题 消息";
+    private static final String REPLY = "服务端已收到信息...";
+
+    // 全局统计: 投递给本节点订阅者的消息数，以及因写队列已满而丢弃的消息数
+    private static final LongAdder DELIVERED = new LongAdder();
+    private static final LongAdder DROPPED = new LongAdder();
+
+    private final int port;
+    // 当前实例中每个主题的订阅者与EventBus消费者，只在当前实例的Context中读写
+    private final Map<String, Set<ServerWebSocket>> subscribers = new HashMap<>();
+    private final Map<String, MessageConsumer<String>> consumers = new HashMap<>();
+    // 每个连接订阅的主题，用于连接关闭时退订
+    private final Map<ServerWebSocket, Set<String>> subscriptions = new HashMap<>();
+
+    public GatewayVerticle(int port) {
+        this.port = port;
+    }
+
+    /**
+     * 累计投递给本节点订阅者的消息数
+     */
+    public static long delivered() {
+        return DELIVERED.sum();
+    }
+
+    /**
+     * 累计因写队列已满而丢弃的消息数
+     */
+    public static long dropped() {
+        return DROPPED.sum();
+    }
+
+    @Override
+    public void start(Promise<Void> startPromise) {
+        vertx.createHttpServer(new HttpServerOptions().setTcpNoDelay(true))
+                .webSocketHandler(this::connected)
+                .listen(port)
+                .<Void>mapEmpty()
+                .onComplete(startPromise);
+    }
+
+    private void connected(ServerWebSocket ws) {
+        if (!PATH.equals(ws.path())) {
+            ws.reject();
+            return;
+        }
+        ws.textMessageHandler(text -> {
+            if (text.startsWith("/")) {
+                command(ws, text);
+            } else {
+                ws.writeTextMessage(REPLY);
+            }
+        });
+        ws.closeHandler(v -> {
+            Set<String> topics = subscriptions.remove(ws);
+            if (topics != null) {
+                topics.forEach(topic -> unsubscribe(ws, topic));
+            }
+        });
+        ws.exceptionHandler(e -> ws.close());
+    }
+
+    /**
+     * 处理发布订阅命令，无法识别的命令会响应用法
+     */
+    private void command(ServerWebSocket ws, String command) {
+        String[] parts = command.split(" ", 3);
+        String topic = parts.length > 1 ? parts[1].trim() : "";
+        if (topic.isEmpty()) {
+            ws.writeTextMessage(USAGE);
+        } else if ("/sub".equals(parts[0])) {
+            subscribe(ws, topic);
+        } else if ("/unsub".equals(parts[0])) {
+            Set<String> topics = subscriptions.get(ws);
+            boolean subscribed = topics != null && topics.remove(topic);
+            if (subscribed) {
+                unsubscribe(ws, topic);
+            }
+            ws.writeTextMessage(subscribed ? "已取消订阅: " + topic : "未订阅: " + topic);
+        } else if ("/pub".equals(parts[0]) && parts.length == 3) {
+            // 发布者不会收到响应，订阅了该主题时会收到消息本身
+            vertx.eventBus().publish(TOPIC_ADDRESS + topic, "[" + topic + "] " + parts[2]);
+        } else {
+            ws.writeTextMessage(USAGE);
+        }
+    }
+
+    private void subscribe(ServerWebSocket ws, String topic) {
+        if (!subscriptions.computeIfAbsent(ws, key -> new LinkedHashSet<>()).add(topic)) {
+            ws.writeTextMessage("重复订阅: " + topic);
+            return;
+        }
+        subscribers.computeIfAbsent(topic, key -> new LinkedHashSet<>()).add(ws);
+        MessageConsumer<String> consumer = consumers.computeIfAbsent(topic, key ->
+                vertx.eventBus().<String>consumer(TOPIC_ADDRESS + key, msg -> deliver(key, msg.body())));
+        // 消费者注册完成后再响应，已经注册完成时立即响应
+        consumer.completion().onComplete(ar -> {
+            if (ar.succeeded()) {
+                ws.writeTextMessage("已订阅: " + topic);
+            } else {
+                ws.writeTextMessage("订阅失败: " + topic);
+            }
+        });
+    }
+
+    private void unsubscribe(ServerWebSocket ws, String topic) {
+        Set<ServerWebSocket> sockets = subscribers.get(topic);
+        if (sockets == null || !sockets.remove(ws) || !sockets.isEmpty()) {
+            return;
+        }
+        // 最后一个订阅者退订，注销消费者，之后发布到该主题的消息不再投递到当前实例
+        subscribers.remove(topic);
+        MessageConsumer<String> consumer = consumers.remove(topic);
+        if (consumer != null) {
+            consumer.unregister();
+        }
+    }
+
+    private void deliver(String topic, String text) {
+        Set<ServerWebSocket> sockets = subscribers.get(topic);
+        if (sockets == null) {
+            return;
+        }
+        for (ServerWebSocket ws : sockets) {
+            if (ws.writeQueueFull()) {
+                DROPPED.increment();
+                continue;
+            }
+            ws.writeTextMessage(text);
+            DELIVERED.increment();
+        }
+    }
+}